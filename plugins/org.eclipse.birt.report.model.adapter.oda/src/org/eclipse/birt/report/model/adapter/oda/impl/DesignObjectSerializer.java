@@ -14,6 +14,7 @@ package org.eclipse.birt.report.model.adapter.oda.impl;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -35,6 +36,43 @@ import org.eclipse.emf.ecore.xmi.XMLResource;
 public class DesignObjectSerializer
 {
 
+	/**
+	 * The options to save the resource.
+	 */
+
+	private static final Map<String, Object> SAVE_OPTIONS;
+
+	static
+	{
+		Map<String, Object> options = new HashMap<String, Object>( );
+		options.put( XMLResource.OPTION_ENCODING, "UTF-8" ); //$NON-NLS-1$
+		SAVE_OPTIONS = Collections.unmodifiableMap( options );
+	}
+
+	/**
+	 * The resource of each thread. The resource and its resource set are
+	 * created once and are emptied after each use.
+	 */
+
+	private static final ThreadLocal<Resource> resources = new ThreadLocal<Resource>( ) {
+
+		protected Resource initialValue( )
+		{
+			// Create and setup local ResourceSet
+
+			ResourceSet rsOdaValues = new ResourceSetImpl( );
+			rsOdaValues.getResourceFactoryRegistry( )
+					.getExtensionToFactoryMap( ).put( "designValue", //$NON-NLS-1$
+							new DesignResourceFactoryImpl( ) );
+
+			// Create resources to represent the disk files to be used to store
+			// the models
+
+			return rsOdaValues.createResource( URI
+					.createFileURI( "test.designValue" ) ); //$NON-NLS-1$
+		}
+	};
+
 	/**
 	 * Constructs a string representation of this EMF object.
 	 * 
@@ -50,33 +88,25 @@ public class DesignObjectSerializer
 
 		ByteArrayOutputStream bos = new ByteArrayOutputStream( );
 
-		// Create and setup local ResourceSet
-
-		ResourceSet rsOdaValues = new ResourceSetImpl( );
-		rsOdaValues.getResourceFactoryRegistry( ).getExtensionToFactoryMap( )
-				.put( "designValue", new DesignResourceFactoryImpl( ) ); //$NON-NLS-1$
-
-		// Create resources to represent the disk files to be used to store the
-		// models
-		Resource rOdaValue = rsOdaValues.createResource( URI
-				.createFileURI( "test.designValue" ) ); //$NON-NLS-1$
+		Resource rOdaValue = resources.get( );
 
 		// Add the EMF values to the resource
-		
-		rOdaValue.getContents( ).add( EcoreUtil.copy( eObject ) );
 
-		Map options = new HashMap( );
-		options.put( XMLResource.OPTION_ENCODING, "UTF-8" ); //$NON-NLS-1$
+		rOdaValue.getContents( ).add( EcoreUtil.copy( eObject ) );
 
 		// Save the resource to disk
 		try
 		{
-			rOdaValue.save( bos, options );
+			rOdaValue.save( bos, SAVE_OPTIONS );
 		}
 		catch ( IOException e )
 		{
 			return IConstants.EMPTY_STRING;
 		}
+		finally
+		{
+			release( rOdaValue );
+		}
 
 		String retValue = IConstants.EMPTY_STRING;
 		try
@@ -102,4 +132,19 @@ public class DesignObjectSerializer
 
 		return retValue;
 	}
+
+	/**
+	 * Empties the given resource so that it can be used again. The contents
+	 * are removed before the resource is unloaded, so that they are not
+	 * turned into proxies.
+	 * 
+	 * @param resource
+	 *            the resource
+	 */
+
+	private static void release( Resource resource )
+	{
+		resource.getContents( ).clear( );
+		resource.unload( );
+	}
 }
@@ -16,6 +16,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -37,6 +38,33 @@ public class SerializerImpl implements Serializer
 
 	private static Serializer sz = null;
 
+	/**
+	 * The options to load and save the resource.
+	 */
+
+	private static final Map<String, Object> OPTIONS;
+
+	static
+	{
+		Map<String, Object> options = new HashMap<String, Object>( );
+		options.put( XMLResource.OPTION_ENCODING, "UTF-8" ); //$NON-NLS-1$
+		OPTIONS = Collections.unmodifiableMap( options );
+	}
+
+	/**
+	 * The resource of each thread. The resource and its resource set are
+	 * created once and are emptied after each use.
+	 */
+
+	private static final ThreadLocal<Resource> resources = new ThreadLocal<Resource>( ) {
+
+		protected Resource initialValue( )
+		{
+			return new ModelXMLProcessor( ).createResource( URI
+					.createFileURI( "test.designValue" ) ); //$NON-NLS-1$
+		}
+	};
+
 	/**
 	 * Cannot invoke constructor; use instance() instead
 	 */
@@ -73,16 +101,18 @@ public class SerializerImpl implements Serializer
 		documentRoot.setDesignValues( cModel );
 
 		cModel.setVersion( IConstants.DESINGER_VALUES_VERSION );
-		
-		ModelXMLProcessor xmlProcessor = new ModelXMLProcessor( );
-		Resource resource = xmlProcessor.createResource( URI
-				.createFileURI( "test.designValue" ) ); //$NON-NLS-1$
-		resource.getContents( ).add( documentRoot );
 
-		Map options = new HashMap( );
-		options.put( XMLResource.OPTION_ENCODING, "UTF-8" ); //$NON-NLS-1$
+		Resource resource = resources.get( );
+		resource.getContents( ).add( documentRoot );
 
-		resource.save( os, options );
+		try
+		{
+			resource.save( os, OPTIONS );
+		}
+		finally
+		{
+			release( resource );
+		}
 	}
 
 	/*
@@ -93,23 +123,35 @@ public class SerializerImpl implements Serializer
 	 */
 	protected DesignValues read( InputStream is ) throws IOException
 	{
-		ModelXMLProcessor xmlProcessor = new ModelXMLProcessor( );
-		Resource resource = xmlProcessor.createResource( URI
-				.createFileURI( "test.designValue" ) ); //$NON-NLS-1$ 
+		Resource resource = resources.get( );
 
 		try
 		{
-			Map options = new HashMap( );
-			options.put( XMLResource.OPTION_ENCODING, "UTF-8" ); //$NON-NLS-1$
+			resource.load( is, OPTIONS );
 
-			resource.load( is, options );
+			DocumentRoot docRoot = (DocumentRoot) resource.getContents( )
+					.get( 0 );
+			return docRoot.getDesignValues( );
 		}
-		catch ( IOException ex )
+		finally
 		{
-			throw ex;
+			release( resource );
 		}
-		DocumentRoot docRoot = (DocumentRoot) resource.getContents( ).get( 0 );
-		return docRoot.getDesignValues( );
+	}
+
+	/**
+	 * Empties the given resource so that it can be used again. The contents
+	 * are removed before the resource is unloaded, so that they are not
+	 * turned into proxies.
+	 * 
+	 * @param resource
+	 *            the resource
+	 */
+
+	private static void release( Resource resource )
+	{
+		resource.getContents( ).clear( );
+		resource.unload( );
 	}
 
 	/*
@@ -16,6 +16,7 @@ import java.util.List;
 import java.util.Stack;
 
 import org.eclipse.birt.report.model.api.activity.IActivityRecord;
+import org.eclipse.birt.report.model.util.ModelUtil;
 import org.eclipse.birt.report.model.validators.IValidatorProvider;
 import org.eclipse.birt.report.model.validators.ValidationNode;
 
@@ -514,4 +515,24 @@ public abstract class ActivityRecord
 			subTask.doTask( this, transStack );
 		}
 	}
+
+	/**
+	 * Performs tasks after the execution of the record in the runtime mode of
+	 * the activity stack. Only the layout tasks are performed, notifications
+	 * and validations are skipped.
+	 * 
+	 * @param transStack
+	 *            the transaction stack.
+	 */
+
+	protected void performRuntimeTasks( Stack<CompoundRecord> transStack )
+	{
+		List<RecordTask> tasks = ModelUtil.filterLayoutTasks( getPostTasks( ) );
+
+		for ( int i = 0; i < tasks.size( ); i++ )
+		{
+			RecordTask subTask = tasks.get( i );
+			subTask.doTask( this, transStack );
+		}
+	}
 }
\ No newline at end of file
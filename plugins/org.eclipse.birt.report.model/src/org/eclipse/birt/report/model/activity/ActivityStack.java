@@ -20,7 +20,31 @@ import org.eclipse.birt.report.model.api.activity.ActivityStackListener;
 import org.eclipse.birt.report.model.api.activity.IActivityRecord;
 import org.eclipse.birt.report.model.api.activity.TransactionOption;
 import org.eclipse.birt.report.model.api.extension.IElementCommand;
+import org.eclipse.birt.report.model.api.metadata.IPropertyType;
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
+import org.eclipse.birt.report.model.command.ContentRecord;
+import org.eclipse.birt.report.model.command.ContentReplaceRecord;
+import org.eclipse.birt.report.model.command.CssRecord;
+import org.eclipse.birt.report.model.command.ExtendsRecord;
+import org.eclipse.birt.report.model.command.MemberRecord;
+import org.eclipse.birt.report.model.command.MoveContentRecord;
+import org.eclipse.birt.report.model.command.MoveListItemRecord;
+import org.eclipse.birt.report.model.command.NameRecord;
+import org.eclipse.birt.report.model.command.NameSpaceRecord;
+import org.eclipse.birt.report.model.command.PropertyListRecord;
+import org.eclipse.birt.report.model.command.PropertyRecord;
+import org.eclipse.birt.report.model.command.PropertyReplaceRecord;
+import org.eclipse.birt.report.model.command.ThemeRecord;
+import org.eclipse.birt.report.model.command.UserPropertyRecord;
+import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.Module;
+import org.eclipse.birt.report.model.elements.Library;
+import org.eclipse.birt.report.model.elements.interfaces.IReportItemModel;
+import org.eclipse.birt.report.model.elements.olap.Cube;
+import org.eclipse.birt.report.model.elements.olap.Dimension;
+import org.eclipse.birt.report.model.elements.olap.Hierarchy;
+import org.eclipse.birt.report.model.elements.olap.Level;
+import org.eclipse.birt.report.model.metadata.PropertyDefn;
 
 /**
  * An implementation of a command stack, called an "activity stack" here. The
@@ -302,6 +326,50 @@ public class ActivityStack implements CommandStack
 
 	protected Module module = null;
 
+	/**
+	 * Whether the stack is in the runtime mode, in which records are neither
+	 * kept for undo nor notified to listeners.
+	 */
+
+	private boolean runtimeMode = false;
+
+	/**
+	 * The flag of the xpath index.
+	 */
+
+	private static final int XPATH_INDEX = 1;
+
+	/**
+	 * The flag of the module collection index.
+	 */
+
+	private static final int COLLECTION_INDEX = 2;
+
+	/**
+	 * The flag of the column binding index.
+	 */
+
+	private static final int BINDING_INDEX = 4;
+
+	/**
+	 * The flag of the level index.
+	 */
+
+	private static final int LEVEL_INDEX = 8;
+
+	/**
+	 * The flag of the indexes of the included libraries.
+	 */
+
+	private static final int LIBRARY_INDEXES = 16;
+
+	/**
+	 * The flags of all the indexes.
+	 */
+
+	private static final int ALL_INDEXES = XPATH_INDEX | COLLECTION_INDEX
+			| BINDING_INDEX | LEVEL_INDEX | LIBRARY_INDEXES;
+
 	/**
 	 * Default constructor.
 	 */
@@ -348,6 +416,9 @@ public class ActivityStack implements CommandStack
 		assert record != null;
 		assert record.getState( ) == ActivityRecord.INITIAL_STATE;
 
+		IModelMetricsListener metrics = getMetricsListener( );
+		long start = metrics == null ? 0 : System.nanoTime( );
+
 		// Execute the record and push it onto the undo stack.
 
 		record.execute( );
@@ -356,9 +427,19 @@ public class ActivityStack implements CommandStack
 		// if module is in the caching state and any record is executed, then
 		// the cache must be disabled
 		clearCachedValues( );
+		invalidateIndexes( record );
 
 		assert !( record instanceof CompoundRecord );
 
+		if ( runtimeMode )
+		{
+			executeRuntimeRecord( record );
+			if ( metrics != null )
+				reportCommand( metrics, IModelMetricsListener.COMMAND_EXECUTE,
+						record, start );
+			return;
+		}
+
 		record.performPostTasks( transStack );
 
 		// Add the record to the undo stack if it is a singleton, or
@@ -384,6 +465,46 @@ public class ActivityStack implements CommandStack
 			trans.append( record );
 		}
 
+		if ( metrics != null )
+			reportCommand( metrics, IModelMetricsListener.COMMAND_EXECUTE,
+					record, start );
+	}
+
+	/**
+	 * Returns the listener to receive the performance metrics of the module.
+	 * 
+	 * @return the metrics listener, or <code>null</code> if no metrics are
+	 *         collected
+	 */
+
+	private IModelMetricsListener getMetricsListener( )
+	{
+		return module == null ? null : module.getMetricsListener( );
+	}
+
+	/**
+	 * Reports the latency of the command to the metrics listener. The command
+	 * type is the simple class name of the record.
+	 * 
+	 * @param metrics
+	 *            the metrics listener
+	 * @param action
+	 *            the command action
+	 * @param record
+	 *            the performed record
+	 * @param start
+	 *            the start time in nanoseconds
+	 */
+
+	private static void reportCommand( IModelMetricsListener metrics,
+			int action, ActivityRecord record, long start )
+	{
+		String commandType = record.getClass( ).getSimpleName( );
+		if ( commandType.length( ) == 0 )
+			commandType = record.getClass( ).getName( );
+
+		metrics.commandPerformed( action, commandType, System.nanoTime( )
+				- start );
 	}
 
 	/**
@@ -399,6 +520,294 @@ public class ActivityStack implements CommandStack
 		}
 	}
 
+	/**
+	 * Finishes the record executed in the runtime mode. Only the layout tasks
+	 * of the record are performed. The record is kept in the current
+	 * transaction so that it can be rolled back, and is dropped otherwise.
+	 * 
+	 * @param record
+	 *            the executed record
+	 */
+
+	private void executeRuntimeRecord( ActivityRecord record )
+	{
+		record.performRuntimeTasks( transStack );
+
+		if ( transStack.isEmpty( ) )
+		{
+			record.setTransNo( ++transCount );
+			record.destroy( );
+		}
+		else
+		{
+			CompoundRecord trans = transStack.lastElement( );
+			trans.append( record );
+		}
+	}
+
+	/**
+	 * Sets whether the stack is in the runtime mode. The runtime mode is used
+	 * when the module is changed by report scripts at render time, where the
+	 * changes are never undone.
+	 * <p>
+	 * In the runtime mode, the changes are still validated, and element names
+	 * and references are still maintained. However, executed records are not
+	 * kept on the undo stack, no notification is sent to the element and
+	 * stack listeners, including the layout change events of tables, and no
+	 * semantic check is triggered. Table layouts are still updated, and the
+	 * cached values and indexes of the module are still dropped when a record
+	 * may change them, since the scripts may read the module between two
+	 * changes. Transactions can still be rolled back before they are
+	 * committed. The undo and redo stacks are flushed when the runtime mode is
+	 * turned on.
+	 * 
+	 * @param runtimeMode
+	 *            <code>true</code> to turn on the runtime mode
+	 */
+
+	public void setRuntimeMode( boolean runtimeMode )
+	{
+		assert transStack.isEmpty( );
+
+		if ( runtimeMode && !this.runtimeMode )
+			flush( );
+
+		this.runtimeMode = runtimeMode;
+	}
+
+	/**
+	 * Checks whether the stack is in the runtime mode.
+	 * 
+	 * @return <code>true</code> if the stack is in the runtime mode
+	 * @see #setRuntimeMode(boolean)
+	 */
+
+	public boolean isRuntimeMode( )
+	{
+		return runtimeMode;
+	}
+
+	/**
+	 * Drops the resolved xpaths, the cached element and structure collections,
+	 * the column binding index and the level index of the module if the
+	 * record may change them. The indexes of the libraries are only dropped
+	 * if the record changes the module itself, such as including, dropping or
+	 * reloading a library, since the libraries are read-only otherwise.
+	 * 
+	 * @param record
+	 *            the executed, undone, redone or rolled back record. If it is
+	 *            <code>null</code>, all the indexes are dropped.
+	 */
+
+	private void invalidateIndexes( ActivityRecord record )
+	{
+		if ( module == null )
+			return;
+
+		int changed = record == null ? ALL_INDEXES : getChangedIndexes( record );
+		if ( changed == 0 )
+			return;
+
+		invalidateIndexes( module, changed );
+
+		if ( ( changed & LIBRARY_INDEXES ) == 0 )
+			return;
+
+		List<Library> libraries = module.getAllLibraries( );
+		for ( int i = 0; i < libraries.size( ); i++ )
+			invalidateIndexes( libraries.get( i ), changed );
+	}
+
+	/**
+	 * Drops the given indexes of the module.
+	 * 
+	 * @param target
+	 *            the module
+	 * @param changed
+	 *            the indexes to drop
+	 */
+
+	private static void invalidateIndexes( Module target, int changed )
+	{
+		if ( ( changed & XPATH_INDEX ) != 0 )
+			target.getXPathIndex( ).invalidate( );
+		if ( ( changed & COLLECTION_INDEX ) != 0 )
+			target.getCollectionIndex( ).invalidate( );
+		if ( ( changed & BINDING_INDEX ) != 0 )
+			target.getColumnBindingIndex( ).invalidate( );
+		if ( ( changed & LEVEL_INDEX ) != 0 )
+			target.getLevelIndex( ).invalidate( );
+	}
+
+	/**
+	 * Returns the indexes that the record may change. For a compound record,
+	 * these are the indexes that any of its records may change.
+	 * 
+	 * @param record
+	 *            the record
+	 * @return the indexes that the record may change
+	 */
+
+	private static int getChangedIndexes( ActivityRecord record )
+	{
+		if ( record instanceof CompoundRecord )
+		{
+			int changed = 0;
+			List<ActivityRecord> records = ( (CompoundRecord) record )
+					.getRecords( );
+			for ( int i = 0; i < records.size( ) && changed != ALL_INDEXES; i++ )
+				changed |= getChangedIndexes( records.get( i ) );
+			return changed;
+		}
+
+		if ( !( record instanceof AbstractElementRecord ) )
+			return ALL_INDEXES;
+
+		DesignElement target = ( (AbstractElementRecord) record ).getTarget( );
+		if ( target == null || target instanceof Module )
+			return ALL_INDEXES;
+
+		int changed = 0;
+		if ( affectsXPaths( record ) )
+			changed |= XPATH_INDEX;
+		if ( affectsCollections( record ) )
+			changed |= COLLECTION_INDEX;
+		if ( affectsBindings( record ) )
+			changed |= BINDING_INDEX;
+		if ( affectsLevels( record ) )
+			changed |= LEVEL_INDEX;
+		return changed;
+	}
+
+	/**
+	 * Checks whether the record may change the result of an xpath. These are
+	 * the changes that may change the collections, the extends changes which
+	 * replace the virtual elements, the user property changes, and the
+	 * changes on the lists, structures and element values that an xpath may
+	 * step into.
+	 * 
+	 * @param record
+	 *            the record
+	 * @return <code>true</code> if the record may change the xpaths
+	 */
+
+	private static boolean affectsXPaths( ActivityRecord record )
+	{
+		if ( affectsCollections( record ) || record instanceof ExtendsRecord
+				|| record instanceof UserPropertyRecord
+				|| record instanceof PropertyListRecord
+				|| record instanceof MoveListItemRecord
+				|| record instanceof PropertyReplaceRecord )
+			return true;
+
+		if ( record instanceof PropertyRecord )
+			return isCompositeType( ( (PropertyRecord) record ).getPropDefn( ) );
+		if ( record instanceof MemberRecord )
+			return isCompositeType( ( (MemberRecord) record ).getMemberDefn( ) );
+		return false;
+	}
+
+	/**
+	 * Checks whether the value of the property is a list, a structure or an
+	 * element.
+	 * 
+	 * @param propDefn
+	 *            the property definition
+	 * @return <code>true</code> if the value is a list, a structure or an
+	 *         element
+	 */
+
+	private static boolean isCompositeType( PropertyDefn propDefn )
+	{
+		switch ( propDefn.getTypeCode( ) )
+		{
+			case IPropertyType.STRUCT_TYPE :
+			case IPropertyType.LIST_TYPE :
+			case IPropertyType.ELEMENT_TYPE :
+			case IPropertyType.CONTENT_ELEMENT_TYPE :
+				return true;
+			default :
+				return false;
+		}
+	}
+
+	/**
+	 * Checks whether the record may change the column bindings of any report
+	 * item, or the bindings available to it. Only the simple property changes
+	 * on properties other than the bound columns, the data set, the cube and
+	 * the data binding reference keep the bindings. Any other record, such as
+	 * the content, extends and structure list changes, may change them.
+	 * 
+	 * @param record
+	 *            the record
+	 * @return <code>true</code> if the record may change the column bindings
+	 */
+
+	private static boolean affectsBindings( ActivityRecord record )
+	{
+		if ( !( record instanceof PropertyRecord ) )
+			return true;
+
+		String propName = ( (PropertyRecord) record ).getPropDefn( ).getName( );
+		return IReportItemModel.BOUND_DATA_COLUMNS_PROP.equals( propName )
+				|| IReportItemModel.DATA_SET_PROP.equals( propName )
+				|| IReportItemModel.CUBE_PROP.equals( propName )
+				|| IReportItemModel.DATA_BINDING_REF_PROP.equals( propName );
+	}
+
+	/**
+	 * Checks whether the record may change the level resolved by a qualified
+	 * name. These are the changes that may change the collections, and any
+	 * change on a cube, dimension, hierarchy or level, such as the change of
+	 * the shared dimension a cube dimension refers to.
+	 * 
+	 * @param record
+	 *            the record
+	 * @return <code>true</code> if the record may change the levels
+	 */
+
+	private static boolean affectsLevels( ActivityRecord record )
+	{
+		if ( affectsCollections( record ) )
+			return true;
+
+		DesignElement target = ( (AbstractElementRecord) record ).getTarget( );
+		return target instanceof Cube || target instanceof Dimension
+				|| target instanceof Hierarchy || target instanceof Level;
+	}
+
+	/**
+	 * Checks whether the record may change the collections cached in the
+	 * module collection index. These are the content and name changes, and
+	 * any change on the module itself such as the library, theme, css and
+	 * embedded image changes.
+	 * 
+	 * @param record
+	 *            the record
+	 * @return <code>true</code> if the record may change the collections
+	 */
+
+	private static boolean affectsCollections( ActivityRecord record )
+	{
+		if ( record instanceof ContentRecord
+				|| record instanceof ContentReplaceRecord
+				|| record instanceof MoveContentRecord
+				|| record instanceof NameRecord
+				|| record instanceof NameSpaceRecord
+				|| record instanceof ThemeRecord
+				|| record instanceof CssRecord )
+			return true;
+
+		if ( record instanceof AbstractElementRecord )
+		{
+			DesignElement target = ( (AbstractElementRecord) record )
+					.getTarget( );
+			return target == null || target instanceof Module;
+		}
+
+		return true;
+	}
+
 	/**
 	 * Undoes the most recently executed (or redone) record. The record is
 	 * popped from the undo stack to and pushed onto the redo stack. This method
@@ -419,6 +828,9 @@ public class ActivityStack implements CommandStack
 
 		// Redo the record.
 
+		IModelMetricsListener metrics = getMetricsListener( );
+		long start = metrics == null ? 0 : System.nanoTime( );
+
 		ActivityRecord record = undoStack.pop( );
 		assert record.getState( ) == ActivityRecord.DONE_STATE
 				|| record.getState( ) == ActivityRecord.REDONE_STATE;
@@ -427,6 +839,7 @@ public class ActivityStack implements CommandStack
 
 		// clear cached values
 		clearCachedValues( );
+		invalidateIndexes( record );
 
 		// Push the record onto the redo stack.
 
@@ -438,6 +851,10 @@ public class ActivityStack implements CommandStack
 
 		sendNotifcations( new ActivityStackEvent( this,
 				ActivityStackEvent.UNDONE ) );
+
+		if ( metrics != null )
+			reportCommand( metrics, IModelMetricsListener.COMMAND_UNDO, record,
+					start );
 	}
 
 	/**
@@ -454,6 +871,9 @@ public class ActivityStack implements CommandStack
 
 		// Redo the record.
 
+		IModelMetricsListener metrics = getMetricsListener( );
+		long start = metrics == null ? 0 : System.nanoTime( );
+
 		ActivityRecord record = redoStack.pop( );
 		assert record.getState( ) == ActivityRecord.UNDONE_STATE;
 		record.redo( );
@@ -461,6 +881,7 @@ public class ActivityStack implements CommandStack
 
 		// clear cached values
 		clearCachedValues( );
+		invalidateIndexes( record );
 
 		// Push the record back onto the undo stack. No need to check
 		// stack size here, it can't get any larger than it was when
@@ -474,6 +895,10 @@ public class ActivityStack implements CommandStack
 
 		sendNotifcations( new ActivityStackEvent( this,
 				ActivityStackEvent.REDONE ) );
+
+		if ( metrics != null )
+			reportCommand( metrics, IModelMetricsListener.COMMAND_REDO, record,
+					start );
 	}
 
 	/**
@@ -734,6 +1159,12 @@ public class ActivityStack implements CommandStack
 		}
 		transaction.setState( ActivityRecord.DONE_STATE );
 
+		if ( runtimeMode )
+		{
+			executeRuntimeRecord( transaction );
+			return;
+		}
+
 		// Handle the special case of a transaction with one item.
 
 		ActivityRecord record = transaction;
@@ -778,10 +1209,19 @@ public class ActivityStack implements CommandStack
 		assert transStack.size( ) > 0;
 		CompoundRecord trans = transStack.pop( );
 
+		if ( runtimeMode )
+		{
+			trans.rollbackRuntime( );
+			invalidateIndexes( trans );
+			trans.destroy( );
+			return;
+		}
+
 		// silent task do not perform tasks here since values on elements
 		// are not changed.
 
 		trans.rollback( );
+		invalidateIndexes( trans );
 		trans.destroy( );
 
 		adapter.handleRollback( trans );
@@ -380,6 +380,35 @@ public class CompoundRecord extends ActivityRecord
 
 	}
 
+	/**
+	 * Rolls back the composite record in the runtime mode of the activity
+	 * stack. Only the layout tasks of the records are performed, no
+	 * notification is sent.
+	 */
+
+	void rollbackRuntime( )
+	{
+		Stack<CompoundRecord> stack = new Stack<CompoundRecord>( );
+		stack.push( this );
+
+		for ( int i = recordList.size( ) - 1; i >= 0; i-- )
+		{
+			ActivityRecord record = recordList.get( i );
+			if ( record.isPersistent( ) )
+				continue;
+
+			if ( record instanceof CompoundRecord )
+			{
+				( (CompoundRecord) record ).rollbackRuntime( );
+			}
+			else
+			{
+				record.rollback( );
+				record.performRuntimeTasks( stack );
+			}
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -448,6 +477,20 @@ public class CompoundRecord extends ActivityRecord
 			( validationTasks.get( 0 ) ).doTask( this, transStack );
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.birt.report.model.activity.ActivityRecord#performRuntimeTasks
+	 * (java.util.Stack)
+	 */
+
+	protected void performRuntimeTasks( Stack<CompoundRecord> transStack )
+	{
+		// the layout tasks of the records are performed when they are
+		// executed.
+	}
+
 	/**
 	 * Gets the filtered notification tasks from all the post record task list.
 	 * 
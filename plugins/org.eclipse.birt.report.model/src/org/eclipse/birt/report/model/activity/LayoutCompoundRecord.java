@@ -82,6 +82,26 @@ public class LayoutCompoundRecord extends FilterEventsCompoundRecord
 		super.performPostTasks( transStack );
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.birt.report.model.activity.CompoundRecord#performRuntimeTasks
+	 * (java.util.Stack)
+	 */
+
+	protected void performRuntimeTasks( Stack<CompoundRecord> transStack )
+	{
+		if ( !isOutermostFilterTrans )
+			return;
+
+		// do the layout tasks held by the records
+
+		List<RecordTask> layoutTasks = ModelUtil
+				.filterLayoutTasks( getPostTasks( ) );
+		doTasks( transStack, layoutTasks );
+	}
+
 	/**
 	 * Undoes the composite record. This implementation undoes each of the
 	 * sub-records in the reverse of the order that they were originally
@@ -160,4 +180,15 @@ public class LayoutCompoundRecord extends FilterEventsCompoundRecord
 			record.rollback( );
 		}
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.birt.report.model.activity.CompoundRecord#rollbackRuntime()
+	 */
+
+	void rollbackRuntime( )
+	{
+		rollback( );
+	}
 }
@@ -9,10 +9,13 @@
 
 package org.eclipse.birt.report.model.activity;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.Stack;
 
 import org.eclipse.birt.report.model.api.elements.table.BasicLayoutStrategies;
 import org.eclipse.birt.report.model.api.elements.table.LayoutChangedEvent;
+import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.elements.ReportItem;
 import org.eclipse.birt.report.model.elements.TableItem;
@@ -32,6 +35,12 @@ public class LayoutRecordTask extends RecordTask
 
 	private Module module;
 
+	/**
+	 * The cell or row elements of which properties are changed.
+	 */
+
+	private final Set<DesignElement> changedElements = new LinkedHashSet<DesignElement>( );
+
 	/**
 	 * The constructor with the given Cell, TableRow, TableGroup or TableItem.
 	 * 
@@ -48,6 +57,42 @@ public class LayoutRecordTask extends RecordTask
 		this.module = module;
 	}
 
+	/**
+	 * The constructor with the given table/grid and the cell or row element of
+	 * which properties are changed.
+	 * 
+	 * @param module
+	 *            the module
+	 * @param compoundElement
+	 *            the table/grid expected to be updated
+	 * @param changedElement
+	 *            the cell or row element of which properties are changed
+	 */
+
+	public LayoutRecordTask( Module module, ReportItem compoundElement,
+			DesignElement changedElement )
+	{
+		this( module, compoundElement );
+		if ( changedElement != null )
+			changedElements.add( changedElement );
+	}
+
+	/**
+	 * Merges the changed elements of the given task on the same table/grid.
+	 * When the records of a transaction are performed, their layout tasks on
+	 * the same table/grid are merged into one, so that the layout is updated
+	 * once with all the cells and rows changed in the transaction.
+	 * 
+	 * @param task
+	 *            the layout task on the same table/grid
+	 */
+
+	public void merge( LayoutRecordTask task )
+	{
+		assert task.getTarget( ) == getTarget( );
+		changedElements.addAll( task.changedElements );
+	}
+
 	/**
 	 * Returns <code>true</code> if need to hold the event at this time. We need
 	 * to hold the event if it is sent inside a transaction that declared to
@@ -89,12 +134,22 @@ public class LayoutRecordTask extends RecordTask
 		if ( compoundElement instanceof TableItem )
 		{
 			TableItem table = (TableItem) compoundElement;
-			table.refreshRenderModel( module );
+
+			// rows and cells added, dropped or moved are found by comparing
+			// the layout with the slots. For a transaction, such as inserting
+			// or pasting a row or column band, the changed cells of all its
+			// records are merged into this task.
+
+			table.updateRenderModel( module, changedElements );
 			BasicLayoutStrategies.appliesStrategies( table
 					.getLayoutModel( module ), false );
 		}
 
-		// sends out the notification event.
+		// sends out the notification event. No listener is notified in the
+		// runtime mode of the stack.
+
+		if ( module != null && module.getActivityStack( ).isRuntimeMode( ) )
+			return;
 
 		LayoutChangedEvent event = new LayoutChangedEvent( compoundElement );
 		compoundElement.broadcast( event );
@@ -14,6 +14,7 @@ package org.eclipse.birt.report.model.api;
 import java.util.HashMap;
 
 import org.eclipse.birt.core.framework.PlatformConfig;
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
 
 /**
  * Wraps around configuration settings for design engine. Allows engine to
@@ -83,4 +84,32 @@ public class DesignConfig extends PlatformConfig implements IDesignConfig
 		setProperty( RESOURCE_LOCATOR, resourceLocator );
 	}
 
+	/**
+	 * @return the listener to receive the performance metrics
+	 */
+
+	public IModelMetricsListener getMetricsListener( )
+	{
+		Object listener = getProperty( METRICS_LISTENER );
+		if ( listener instanceof IModelMetricsListener )
+		{
+			return (IModelMetricsListener) listener;
+		}
+		return null;
+	}
+
+	/**
+	 * Sets the listener to receive the performance metrics of the sessions
+	 * created by the design engine. No metrics are collected if the listener
+	 * is not set.
+	 * 
+	 * @param listener
+	 *            the listener to set, can be <code>null</code>
+	 */
+
+	public void setMetricsListener( IModelMetricsListener listener )
+	{
+		setProperty( METRICS_LISTENER, listener );
+	}
+
 }
@@ -24,5 +24,11 @@ public interface IDesignConfig extends IPlatformConfig
 	 */
 	
 	static final String RESOURCE_LOCATOR = "resourceLocator"; //$NON-NLS-1$
-	
+
+	/**
+	 * config name of the listener to receive the performance metrics
+	 */
+
+	static final String METRICS_LISTENER = "metricsListener"; //$NON-NLS-1$
+
 }
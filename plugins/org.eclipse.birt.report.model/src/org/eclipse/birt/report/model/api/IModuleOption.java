@@ -78,4 +78,12 @@ public interface IModuleOption
 	 */
 
 	String TO_LATEST_VERSION = "toLatestVersion"; //$NON-NLS-1$
+
+	/**
+	 * Key to indicate that strings and expressions read from the design file
+	 * are shared with the other modules parsed with this key in the same
+	 * session. The value is a <code>Boolean</code>, default is false.
+	 */
+
+	String SHARE_PARSED_VALUES_KEY = "shareParsedValues"; //$NON-NLS-1$
 }
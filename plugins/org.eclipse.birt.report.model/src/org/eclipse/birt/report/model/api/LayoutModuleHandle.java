@@ -38,6 +38,7 @@ import org.eclipse.birt.report.model.command.ShiftLibraryCommand;
 import org.eclipse.birt.report.model.command.ThemeCommand;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.Module;
+import org.eclipse.birt.report.model.core.ModuleCollectionIndex;
 import org.eclipse.birt.report.model.core.Structure;
 import org.eclipse.birt.report.model.core.StructureContext;
 import org.eclipse.birt.report.model.css.CssStyleSheet;
@@ -505,10 +506,18 @@ abstract class LayoutModuleHandle extends ModuleHandle
 
 	public List getAllStyles( )
 	{
+		ModuleCollectionIndex index = module.getCollectionIndex( );
+		List cached = index.get( ModuleCollectionIndex.ALL_STYLES );
+		if ( cached != null )
+			return new ArrayList( cached );
+
+		long version = index.getVersion( );
 		List elementList = module.getNameHelper( ).getElements(
 				Module.STYLE_NAME_SPACE, IAccessControl.ARBITARY_LEVEL );
 
-		return generateHandleList( elementList );
+		List list = generateHandleList( elementList );
+		index.put( ModuleCollectionIndex.ALL_STYLES, version, list );
+		return list;
 	}
 
 	/*
@@ -519,6 +528,13 @@ abstract class LayoutModuleHandle extends ModuleHandle
 
 	public List getVisibleThemes( int level )
 	{
+		String key = ModuleCollectionIndex.VISIBLE_THEMES + level;
+		ModuleCollectionIndex index = module.getCollectionIndex( );
+		List cached = index.get( key );
+		if ( cached != null )
+			return new ArrayList( cached );
+
+		long version = index.getVersion( );
 		List elementList = module.getNameHelper( ).getElements(
 				Module.THEME_NAME_SPACE, level );
 		List<DesignElement> elements = new ArrayList<DesignElement>( );
@@ -529,7 +545,10 @@ abstract class LayoutModuleHandle extends ModuleHandle
 				elements.add( element );
 		}
 
-		return generateHandleList( sortVisibleElements( elements, level ) );
+		List list = generateHandleList( sortVisibleElements( elements,
+				level ) );
+		index.put( key, version, list );
+		return list;
 	}
 
 	/*
@@ -49,6 +49,7 @@ import org.eclipse.birt.report.model.api.olap.CubeHandle;
 import org.eclipse.birt.report.model.api.olap.DimensionHandle;
 import org.eclipse.birt.report.model.api.olap.LevelHandle;
 import org.eclipse.birt.report.model.api.util.PropertyValueValidationUtil;
+import org.eclipse.birt.report.model.api.util.RetainedSizeEstimate;
 import org.eclipse.birt.report.model.api.util.StringUtil;
 import org.eclipse.birt.report.model.api.util.URIUtil;
 import org.eclipse.birt.report.model.api.util.UnicodeUtil;
@@ -58,6 +59,7 @@ import org.eclipse.birt.report.model.command.ComplexPropertyCommand;
 import org.eclipse.birt.report.model.core.ContainerContext;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.Module;
+import org.eclipse.birt.report.model.core.ModuleCollectionIndex;
 import org.eclipse.birt.report.model.core.StructureContext;
 import org.eclipse.birt.report.model.core.StyleElement;
 import org.eclipse.birt.report.model.elements.CascadingParameterGroup;
@@ -75,6 +77,7 @@ import org.eclipse.birt.report.model.metadata.MetaDataDictionary;
 import org.eclipse.birt.report.model.util.LineNumberInfo;
 import org.eclipse.birt.report.model.util.ModelUtil;
 import org.eclipse.birt.report.model.util.URIUtilImpl;
+import org.eclipse.birt.report.model.util.UnusedBoundColumnsMgr;
 
 import com.ibm.icu.util.ULocale;
 
@@ -840,6 +843,34 @@ public abstract class ModuleHandleImpl extends DesignElementHandle
 		return module.getActivityStack( );
 	}
 
+	/**
+	 * Sets whether the module is changed in the runtime mode, such as by
+	 * report scripts at render time. In the runtime mode, the changes are
+	 * validated and names and references are maintained as usual, but they
+	 * can not be undone and are not notified to listeners. The undo and redo
+	 * history is cleared when the runtime mode is turned on.
+	 * 
+	 * @param runtimeMode
+	 *            <code>true</code> to turn on the runtime mode
+	 */
+
+	public void setRuntimeMode( boolean runtimeMode )
+	{
+		module.getActivityStack( ).setRuntimeMode( runtimeMode );
+	}
+
+	/**
+	 * Checks whether the module is changed in the runtime mode.
+	 * 
+	 * @return <code>true</code> if the module is in the runtime mode
+	 * @see #setRuntimeMode(boolean)
+	 */
+
+	public boolean isRuntimeMode( )
+	{
+		return module.getActivityStack( ).isRuntimeMode( );
+	}
+
 	/**
 	 * Returns a slot handle to work with the top-level components within the
 	 * report.
@@ -1271,7 +1302,15 @@ public abstract class ModuleHandleImpl extends DesignElementHandle
 
 	public final List getAllImages( )
 	{
-		return getStructureList( IMAGES_PROP );
+		ModuleCollectionIndex index = module.getCollectionIndex( );
+		List cached = index.get( ModuleCollectionIndex.ALL_IMAGES );
+		if ( cached != null )
+			return new ArrayList( cached );
+
+		long version = index.getVersion( );
+		List list = getStructureList( IMAGES_PROP );
+		index.put( ModuleCollectionIndex.ALL_IMAGES, version, list );
+		return list;
 	}
 
 	/**
@@ -1652,9 +1691,17 @@ public abstract class ModuleHandleImpl extends DesignElementHandle
 
 	public final List getAllDataSources( )
 	{
+		ModuleCollectionIndex index = module.getCollectionIndex( );
+		List cached = index.get( ModuleCollectionIndex.ALL_DATA_SOURCES );
+		if ( cached != null )
+			return new ArrayList( cached );
+
+		long version = index.getVersion( );
 		List elementList = module.getNameHelper( ).getElements(
 				Module.DATA_SOURCE_NAME_SPACE, IAccessControl.ARBITARY_LEVEL );
-		return generateHandleList( elementList );
+		List list = generateHandleList( elementList );
+		index.put( ModuleCollectionIndex.ALL_DATA_SOURCES, version, list );
+		return list;
 	}
 
 	/**
@@ -1665,10 +1712,18 @@ public abstract class ModuleHandleImpl extends DesignElementHandle
 
 	public final List getVisibleDataSources( )
 	{
+		ModuleCollectionIndex index = module.getCollectionIndex( );
+		List cached = index.get( ModuleCollectionIndex.VISIBLE_DATA_SOURCES );
+		if ( cached != null )
+			return new ArrayList( cached );
+
+		long version = index.getVersion( );
 		List elementList = module.getNameHelper( ).getElements(
 				Module.DATA_SOURCE_NAME_SPACE, IAccessControl.NATIVE_LEVEL );
-		return generateHandleList( sortVisibleElements( elementList,
+		List list = generateHandleList( sortVisibleElements( elementList,
 				IAccessControl.NATIVE_LEVEL ) );
+		index.put( ModuleCollectionIndex.VISIBLE_DATA_SOURCES, version, list );
+		return list;
 	}
 
 	/**
@@ -1681,9 +1736,17 @@ public abstract class ModuleHandleImpl extends DesignElementHandle
 
 	public final List getAllDataSets( )
 	{
+		ModuleCollectionIndex index = module.getCollectionIndex( );
+		List cached = index.get( ModuleCollectionIndex.ALL_DATA_SETS );
+		if ( cached != null )
+			return new ArrayList( cached );
+
+		long version = index.getVersion( );
 		List elementList = module.getNameHelper( ).getElements(
 				Module.DATA_SET_NAME_SPACE, IAccessControl.ARBITARY_LEVEL );
-		return generateHandleList( elementList );
+		List list = generateHandleList( elementList );
+		index.put( ModuleCollectionIndex.ALL_DATA_SETS, version, list );
+		return list;
 	}
 
 	/**
@@ -1694,10 +1757,18 @@ public abstract class ModuleHandleImpl extends DesignElementHandle
 
 	public final List getVisibleDataSets( )
 	{
+		ModuleCollectionIndex index = module.getCollectionIndex( );
+		List cached = index.get( ModuleCollectionIndex.VISIBLE_DATA_SETS );
+		if ( cached != null )
+			return new ArrayList( cached );
+
+		long version = index.getVersion( );
 		List elementList = module.getNameHelper( ).getElements(
 				Module.DATA_SET_NAME_SPACE, IAccessControl.NATIVE_LEVEL );
-		return generateHandleList( sortVisibleElements( elementList,
+		List list = generateHandleList( sortVisibleElements( elementList,
 				IAccessControl.NATIVE_LEVEL ) );
+		index.put( ModuleCollectionIndex.VISIBLE_DATA_SETS, version, list );
+		return list;
 	}
 
 	/**
@@ -1710,10 +1781,18 @@ public abstract class ModuleHandleImpl extends DesignElementHandle
 
 	public final List getAllCubes( )
 	{
+		ModuleCollectionIndex index = module.getCollectionIndex( );
+		List cached = index.get( ModuleCollectionIndex.ALL_CUBES );
+		if ( cached != null )
+			return new ArrayList( cached );
+
+		long version = index.getVersion( );
 		List elementList = module.getNameHelper( ).getElements(
 				Module.CUBE_NAME_SPACE, IAccessControl.ARBITARY_LEVEL );
 		List cubeList = getCubeList( elementList );
-		return generateHandleList( cubeList );
+		List list = generateHandleList( cubeList );
+		index.put( ModuleCollectionIndex.ALL_CUBES, version, list );
+		return list;
 	}
 
 	/**
@@ -1746,11 +1825,19 @@ public abstract class ModuleHandleImpl extends DesignElementHandle
 
 	public final List getVisibleCubes( )
 	{
+		ModuleCollectionIndex index = module.getCollectionIndex( );
+		List cached = index.get( ModuleCollectionIndex.VISIBLE_CUBES );
+		if ( cached != null )
+			return new ArrayList( cached );
+
+		long version = index.getVersion( );
 		List elementList = module.getNameHelper( ).getElements(
 				Module.CUBE_NAME_SPACE, IAccessControl.NATIVE_LEVEL );
 		List cubeList = getCubeList( elementList );
-		return generateHandleList( sortVisibleElements( cubeList,
+		List list = generateHandleList( sortVisibleElements( cubeList,
 				IAccessControl.NATIVE_LEVEL ) );
+		index.put( ModuleCollectionIndex.VISIBLE_CUBES, version, list );
+		return list;
 	}
 
 	/**
@@ -1802,7 +1889,31 @@ public abstract class ModuleHandleImpl extends DesignElementHandle
 
 	public final List getAllLibraries( )
 	{
-		return getLibraries( IAccessControl.ARBITARY_LEVEL );
+		ModuleCollectionIndex index = module.getCollectionIndex( );
+		List cached = index.get( ModuleCollectionIndex.ALL_LIBRARIES );
+		if ( cached != null )
+			return new ArrayList( cached );
+
+		long version = index.getVersion( );
+		List list = getLibraries( IAccessControl.ARBITARY_LEVEL );
+		index.put( ModuleCollectionIndex.ALL_LIBRARIES, version, list );
+		return list;
+	}
+
+	/**
+	 * Estimates the heap size retained by this module. The estimate covers the
+	 * elements, property values, structures, embedded images, cached message
+	 * files, extended item models and command stack records of the module and
+	 * the libraries it includes. It is computed by walking the model, in time
+	 * linear in the number of elements.
+	 * 
+	 * @return the estimate broken down by category
+	 * @see RetainedSizeEstimate
+	 */
+
+	public final RetainedSizeEstimate estimateRetainedSize( )
+	{
+		return module.estimateRetainedSize( );
 	}
 
 	/**
@@ -3181,4 +3292,20 @@ public abstract class ModuleHandleImpl extends DesignElementHandle
 		if ( options == null || options.useSemanticCheck( ) )
 			checkReport( );
 	}
+
+	/**
+	 * Removes unused bound columns from all the report items and scalar
+	 * parameters in this module. A bound column is unused if neither the
+	 * element nor its nested elements refer to it. All the bound columns are
+	 * removed in one command.
+	 * 
+	 * @throws SemanticException
+	 *             if any bound column property is locked.
+	 * @see ReportItemHandle#removedUnusedColumnBindings()
+	 */
+
+	public void removedUnusedColumnBindings( ) throws SemanticException
+	{
+		UnusedBoundColumnsMgr.removedAllUnusedBoundColumns( (ModuleHandle) this );
+	}
 }
\ No newline at end of file
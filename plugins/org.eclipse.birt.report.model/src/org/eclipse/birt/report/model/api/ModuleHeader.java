@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The header of a design or library file read by
+ * {@link ModuleUtil#probeModule(String, java.io.InputStream)}. It holds the
+ * version of the file and the resources it depends on, as they are written in
+ * the file. No element of the module is created to get them.
+ */
+
+public final class ModuleHeader
+{
+
+	/**
+	 * Whether the file is a library.
+	 */
+
+	private final boolean isLibrary;
+
+	/**
+	 * The design file version.
+	 */
+
+	private String version = null;
+
+	/**
+	 * The file names of the included libraries.
+	 */
+
+	private final List<String> libraryFileNames = new ArrayList<String>( );
+
+	/**
+	 * The name spaces of the included libraries.
+	 */
+
+	private final List<String> libraryNamespaces = new ArrayList<String>( );
+
+	/**
+	 * The file names of the included style sheets.
+	 */
+
+	private final List<String> cssFileNames = new ArrayList<String>( );
+
+	/**
+	 * The base names of the included resource bundles.
+	 */
+
+	private final List<String> includedResources = new ArrayList<String>( );
+
+	/**
+	 * Constructs the header.
+	 * 
+	 * @param isLibrary
+	 *            whether the file is a library
+	 */
+
+	ModuleHeader( boolean isLibrary )
+	{
+		this.isLibrary = isLibrary;
+	}
+
+	/**
+	 * Checks whether the file is a library.
+	 * 
+	 * @return <code>true</code> if the file is a library,
+	 *         <code>false</code> if it is a report design
+	 */
+
+	public boolean isLibrary( )
+	{
+		return isLibrary;
+	}
+
+	/**
+	 * Returns the design file version.
+	 * 
+	 * @return the version, or <code>null</code> if not set
+	 */
+
+	public String getVersion( )
+	{
+		return version;
+	}
+
+	/**
+	 * Returns the file names of the included libraries.
+	 * 
+	 * @return the list of file names, in the same order as
+	 *         {@link #getLibraryNamespaces()}
+	 */
+
+	public List<String> getLibraryFileNames( )
+	{
+		return Collections.unmodifiableList( libraryFileNames );
+	}
+
+	/**
+	 * Returns the name spaces of the included libraries.
+	 * 
+	 * @return the list of name spaces, in the same order as
+	 *         {@link #getLibraryFileNames()}
+	 */
+
+	public List<String> getLibraryNamespaces( )
+	{
+		return Collections.unmodifiableList( libraryNamespaces );
+	}
+
+	/**
+	 * Returns the file names of the style sheets included by the design and
+	 * by the themes of the module.
+	 * 
+	 * @return the list of file names
+	 */
+
+	public List<String> getCssFileNames( )
+	{
+		return Collections.unmodifiableList( cssFileNames );
+	}
+
+	/**
+	 * Returns the base names of the included resource bundles.
+	 * 
+	 * @return the list of base names
+	 */
+
+	public List<String> getIncludedResources( )
+	{
+		return Collections.unmodifiableList( includedResources );
+	}
+
+	/**
+	 * Sets the design file version.
+	 * 
+	 * @param version
+	 *            the version
+	 */
+
+	void setVersion( String version )
+	{
+		this.version = version;
+	}
+
+	/**
+	 * Adds an included library.
+	 * 
+	 * @param fileName
+	 *            the file name of the library
+	 * @param namespace
+	 *            the name space of the library
+	 */
+
+	void addLibrary( String fileName, String namespace )
+	{
+		libraryFileNames.add( fileName );
+		libraryNamespaces.add( namespace );
+	}
+
+	/**
+	 * Adds an included style sheet.
+	 * 
+	 * @param fileName
+	 *            the file name of the style sheet
+	 */
+
+	void addCss( String fileName )
+	{
+		cssFileNames.add( fileName );
+	}
+
+	/**
+	 * Adds an included resource bundle.
+	 * 
+	 * @param baseName
+	 *            the base name of the resource bundle
+	 */
+
+	void addIncludedResource( String baseName )
+	{
+		includedResources.add( baseName );
+	}
+}
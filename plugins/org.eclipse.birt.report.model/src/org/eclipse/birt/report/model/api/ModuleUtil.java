@@ -25,16 +25,21 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
 import org.eclipse.birt.report.model.api.core.IAccessControl;
+import org.eclipse.birt.report.model.api.core.IModuleModel;
 import org.eclipse.birt.report.model.api.elements.DesignChoiceConstants;
 import org.eclipse.birt.report.model.api.elements.ReportDesignConstants;
 import org.eclipse.birt.report.model.api.elements.structures.Action;
+import org.eclipse.birt.report.model.api.elements.structures.IncludedCssStyleSheet;
+import org.eclipse.birt.report.model.api.elements.structures.IncludedLibrary;
 import org.eclipse.birt.report.model.api.metadata.IElementDefn;
 import org.eclipse.birt.report.model.api.metadata.IPropertyType;
 import org.eclipse.birt.report.model.api.metadata.MetaDataConstants;
@@ -53,6 +58,7 @@ import org.eclipse.birt.report.model.elements.Library;
 import org.eclipse.birt.report.model.elements.ReportDesign;
 import org.eclipse.birt.report.model.elements.interfaces.IDesignElementModel;
 import org.eclipse.birt.report.model.elements.interfaces.IImageItemModel;
+import org.eclipse.birt.report.model.elements.interfaces.IReportDesignModel;
 import org.eclipse.birt.report.model.i18n.ThreadResources;
 import org.eclipse.birt.report.model.metadata.ElementDefn;
 import org.eclipse.birt.report.model.metadata.ElementPropertyDefn;
@@ -535,6 +541,49 @@ public class ModuleUtil
 		return rtnModule instanceof Library ? LIBRARY : REPORT_DESIGN;
 	}
 
+	/**
+	 * Reads the header of the design or library in the input stream. Only the
+	 * version and the included libraries, style sheets and resource bundles
+	 * are read, and the parse stops before the first slot that can not
+	 * contain them. No element of the module is created.
+	 * <p>
+	 * The included style sheets are those of the design and of the themes of
+	 * the module.
+	 * 
+	 * @param fileName
+	 *            the file name of the module
+	 * @param is
+	 *            the input stream of the module
+	 * @return the module header, or <code>null</code> if the input stream is
+	 *         neither a report design nor a library
+	 * @throws DesignFileException
+	 *             if the header of the module is not valid XML
+	 */
+
+	public static ModuleHeader probeModule( String fileName, InputStream is )
+			throws DesignFileException
+	{
+		HeaderParserHandler handler = new HeaderParserHandler( );
+
+		InputStream inputStreamToParse = is;
+		if ( !inputStreamToParse.markSupported( ) )
+			inputStreamToParse = new BufferedInputStream( is );
+
+		try
+		{
+			parse( handler, inputStreamToParse, fileName );
+		}
+		catch ( DesignFileException e )
+		{
+			// the parse is stopped on purpose once the header is read.
+
+			if ( !handler.finished )
+				throw e;
+		}
+
+		return handler.header;
+	}
+
 	/**
 	 * Parser handler used to parse only the version attribute of the module.
 	 * The existing report and library state is reused.
@@ -597,6 +646,361 @@ public class ModuleUtil
 		}
 	}
 
+	/**
+	 * Parser handler used to read only the header of the module: the version
+	 * attribute, the included libraries, style sheets and resource bundles.
+	 * The parse is stopped by an exception after the themes, or at the first
+	 * slot that follows them.
+	 */
+
+	private static class HeaderParserHandler extends XMLParserHandler
+	{
+
+		/**
+		 * The header read so far.
+		 */
+
+		private ModuleHeader header = null;
+
+		/**
+		 * Whether the parse is stopped after the header is read.
+		 */
+
+		private boolean finished = false;
+
+		/**
+		 * Default constructor.
+		 */
+
+		public HeaderParserHandler( )
+		{
+			super( new ModuleParserErrorHandler( ) );
+		}
+
+		public AbstractParseState createStartState( )
+		{
+			return new StartState( );
+		}
+
+		/**
+		 * Checks whether the given top-level tag follows the header of the
+		 * module. Both in designs and libraries, the themes may include style
+		 * sheets and are written after the data sets and the styles, so only
+		 * the slots written after the themes end the header.
+		 * 
+		 * @param tagName
+		 *            the top-level tag
+		 * @return <code>true</code> if the tag follows the header
+		 */
+
+		private boolean isAfterHeader( String tagName )
+		{
+			return DesignSchemaConstants.COMPONENTS_TAG
+					.equalsIgnoreCase( tagName )
+					|| DesignSchemaConstants.PAGE_SETUP_TAG
+							.equalsIgnoreCase( tagName )
+					|| DesignSchemaConstants.BODY_TAG
+							.equalsIgnoreCase( tagName )
+					|| DesignSchemaConstants.SCRATCH_PAD_TAG
+							.equalsIgnoreCase( tagName );
+		}
+
+		/**
+		 * Stops the parse once the header is read.
+		 * 
+		 * @throws XMLParserException
+		 *             always, to stop the parse
+		 */
+
+		private void stop( ) throws XMLParserException
+		{
+			finished = true;
+			throw new XMLParserException(
+					XMLParserException.DESIGN_EXCEPTION_UNKNOWN_TAG );
+		}
+
+		/**
+		 * Recognizes the top-level tags: Report or Library
+		 */
+
+		class StartState extends InnerParseState
+		{
+
+			public AbstractParseState startElement( String tagName )
+			{
+				if ( DesignSchemaConstants.REPORT_TAG
+						.equalsIgnoreCase( tagName ) )
+				{
+					header = new ModuleHeader( false );
+					return new ModuleState( );
+				}
+				if ( DesignSchemaConstants.LIBRARY_TAG
+						.equalsIgnoreCase( tagName ) )
+				{
+					header = new ModuleHeader( true );
+					return new ModuleState( );
+				}
+				return super.startElement( tagName );
+			}
+		}
+
+		/**
+		 * Parses the version attribute and the properties of the module.
+		 */
+
+		class ModuleState extends InnerParseState
+		{
+
+			public void parseAttrs( Attributes attrs )
+					throws XMLParserException
+			{
+				header.setVersion( attrs
+						.getValue( DesignSchemaConstants.VERSION_ATTRIB ) );
+			}
+
+			public AbstractParseState startElement( String tagName )
+			{
+				if ( DesignSchemaConstants.PROPERTY_TAG
+						.equalsIgnoreCase( tagName )
+						|| DesignSchemaConstants.LIST_PROPERTY_TAG
+								.equalsIgnoreCase( tagName )
+						|| DesignSchemaConstants.SIMPLE_PROPERTY_LIST_TAG
+								.equalsIgnoreCase( tagName ) )
+					return new PropertyState( );
+
+				if ( DesignSchemaConstants.THEMES_TAG
+						.equalsIgnoreCase( tagName ) )
+					return new ThemesState( );
+
+				if ( isAfterHeader( tagName ) )
+					return new StopState( );
+
+				return new InnerAnyTagState( );
+			}
+		}
+
+		/**
+		 * Parses the themes of the module. The themes are the last part of
+		 * the header, so the parse is stopped after them.
+		 */
+
+		class ThemesState extends InnerParseState
+		{
+
+			public void end( ) throws SAXException
+			{
+				stop( );
+			}
+
+			public AbstractParseState startElement( String tagName )
+			{
+				if ( DesignSchemaConstants.THEME_TAG.equalsIgnoreCase( tagName )
+						|| DesignSchemaConstants.REPORT_ITEM_THEME_TAG
+								.equalsIgnoreCase( tagName ) )
+					return new ThemeState( );
+				return new InnerAnyTagState( );
+			}
+		}
+
+		/**
+		 * Parses the included style sheets of a theme.
+		 */
+
+		class ThemeState extends InnerParseState
+		{
+
+			public AbstractParseState startElement( String tagName )
+			{
+				if ( DesignSchemaConstants.LIST_PROPERTY_TAG
+						.equalsIgnoreCase( tagName ) )
+					return new PropertyState( );
+				return new InnerAnyTagState( );
+			}
+		}
+
+		/**
+		 * Parses a property. Only the included libraries, style sheets and
+		 * resource bundles are read.
+		 */
+
+		class PropertyState extends InnerParseState
+		{
+
+			/**
+			 * The property name.
+			 */
+
+			private String name = null;
+
+			public void parseAttrs( Attributes attrs )
+					throws XMLParserException
+			{
+				name = attrs.getValue( DesignSchemaConstants.NAME_ATTRIB );
+			}
+
+			public AbstractParseState startElement( String tagName )
+			{
+				if ( DesignSchemaConstants.STRUCTURE_TAG
+						.equalsIgnoreCase( tagName )
+						&& ( IModuleModel.LIBRARIES_PROP.equals( name ) || IReportDesignModel.CSSES_PROP
+								.equals( name ) ) )
+					return new StructureState( name );
+
+				if ( DesignSchemaConstants.VALUE_TAG.equalsIgnoreCase( tagName )
+						&& IModuleModel.INCLUDE_RESOURCE_PROP.equals( name ) )
+					return new ValueState( );
+
+				return new InnerAnyTagState( );
+			}
+
+			public void end( ) throws SAXException
+			{
+				// the resource bundle of old designs is a single property.
+
+				if ( DesignSchemaConstants.PROPERTY_TAG
+						.equalsIgnoreCase( elementName )
+						&& IModuleModel.INCLUDE_RESOURCE_PROP.equals( name ) )
+					addIncludedResource( text.toString( ) );
+			}
+		}
+
+		/**
+		 * Parses a value of the included resource bundles.
+		 */
+
+		class ValueState extends InnerParseState
+		{
+
+			public void end( ) throws SAXException
+			{
+				addIncludedResource( text.toString( ) );
+			}
+		}
+
+		/**
+		 * Parses an included library or style sheet.
+		 */
+
+		class StructureState extends InnerParseState
+		{
+
+			/**
+			 * The name of the list property.
+			 */
+
+			private final String propName;
+
+			/**
+			 * The member values by the member names.
+			 */
+
+			private final Map<String, String> members = new HashMap<String, String>( );
+
+			/**
+			 * Constructs the state.
+			 * 
+			 * @param propName
+			 *            the name of the list property
+			 */
+
+			StructureState( String propName )
+			{
+				this.propName = propName;
+			}
+
+			public AbstractParseState startElement( String tagName )
+			{
+				if ( DesignSchemaConstants.PROPERTY_TAG
+						.equalsIgnoreCase( tagName ) )
+					return new MemberState( members );
+				return new InnerAnyTagState( );
+			}
+
+			public void end( ) throws SAXException
+			{
+				if ( IModuleModel.LIBRARIES_PROP.equals( propName ) )
+					header.addLibrary( members
+							.get( IncludedLibrary.FILE_NAME_MEMBER ), members
+							.get( IncludedLibrary.NAMESPACE_MEMEBR ) );
+				else
+					header.addCss( members
+							.get( IncludedCssStyleSheet.FILE_NAME_MEMBER ) );
+			}
+		}
+
+		/**
+		 * Parses a member of an included library or style sheet.
+		 */
+
+		class MemberState extends InnerParseState
+		{
+
+			/**
+			 * The member values of the structure.
+			 */
+
+			private final Map<String, String> members;
+
+			/**
+			 * The member name.
+			 */
+
+			private String name = null;
+
+			/**
+			 * Constructs the state.
+			 * 
+			 * @param members
+			 *            the member values of the structure
+			 */
+
+			MemberState( Map<String, String> members )
+			{
+				this.members = members;
+			}
+
+			public void parseAttrs( Attributes attrs )
+					throws XMLParserException
+			{
+				name = attrs.getValue( DesignSchemaConstants.NAME_ATTRIB );
+			}
+
+			public void end( ) throws SAXException
+			{
+				if ( name != null )
+					members.put( name, StringUtil.trimString( text.toString( ) ) );
+			}
+		}
+
+		/**
+		 * Stops the parse at the first tag after the header.
+		 */
+
+		class StopState extends InnerParseState
+		{
+
+			public void parseAttrs( Attributes attrs )
+					throws XMLParserException
+			{
+				stop( );
+			}
+		}
+
+		/**
+		 * Adds an included resource bundle.
+		 * 
+		 * @param value
+		 *            the base name of the resource bundle
+		 */
+
+		private void addIncludedResource( String value )
+		{
+			String baseName = StringUtil.trimString( value );
+			if ( baseName != null )
+				header.addIncludedResource( baseName );
+		}
+	}
+
 	/**
 	 * Checks whether the input stream holds a version number before some
 	 * specific features is supported. This method is used to remind user that
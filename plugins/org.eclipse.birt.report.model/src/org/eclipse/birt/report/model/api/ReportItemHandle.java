@@ -23,6 +23,7 @@ import org.eclipse.birt.report.model.api.elements.structures.TOC;
 import org.eclipse.birt.report.model.api.olap.CubeHandle;
 import org.eclipse.birt.report.model.api.util.StringUtil;
 import org.eclipse.birt.report.model.command.ThemeCommand;
+import org.eclipse.birt.report.model.core.ColumnBindingIndex;
 import org.eclipse.birt.report.model.core.ContainerContext;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.IReferencableElement;
@@ -634,13 +635,59 @@ public abstract class ReportItemHandle extends ReportElementHandle
 	/**
 	 * Returns all the bindings which are available for this element. If the
 	 * report item has no local data set, the bindings come from its container.
+	 * The iterator is over a copy, so removing an item from it does not change
+	 * the bindings.
 	 * 
 	 * @return each item is a <code>ComputedColumnHandle</code> instance.
 	 */
 
 	public Iterator getAvailableBindings( )
 	{
+		return new ArrayList( getAvailableBindingList( ) ).iterator( );
+	}
+
+	/**
+	 * Returns all the bindings which are available for this element. The list
+	 * is kept in the column binding index of the module until the bindings,
+	 * the data set or the containment of any report item is changed.
+	 * 
+	 * @return each item is a <code>ComputedColumnHandle</code> instance.
+	 */
+
+	private List getAvailableBindingList( )
+	{
+		ColumnBindingIndex index = null;
+		long version = 0;
+
+		// the bindings resolved by another module are not kept, since the
+		// handles may return different values
+
+		Module root = getElement( ).getRoot( );
+		if ( root != null && root == module )
+		{
+			index = root.getColumnBindingIndex( );
+			version = index.getVersion( );
+			List cached = index.getScope( getElement( ) );
+			if ( cached != null )
+				return cached;
+		}
+
+		List bindings = collectAvailableBindings( );
+		if ( index == null )
+			return bindings;
+
+		return index.putScope( getElement( ), version, bindings );
+	}
+
+	/**
+	 * Collects the local bindings of this element, followed by the bindings
+	 * available for the container if the element has no local data set.
+	 * 
+	 * @return each item is a <code>ComputedColumnHandle</code> instance.
+	 */
 
+	private List collectAvailableBindings( )
+	{
 		List bindings = new ArrayList( );
 		PropertyHandle propHandle = getPropertyHandle( BOUND_DATA_COLUMNS_PROP );
 		if ( propHandle != null )
@@ -657,13 +704,13 @@ public abstract class ReportItemHandle extends ReportElementHandle
 		// getColumnBindings() API.
 
 		if ( getProperty( IReportItemModel.DATA_SET_PROP ) != null )
-			return bindings.iterator( );
+			return bindings;
 
 		// if the container is module, just return
 
 		DesignElementHandle container = getContainer( );
 		if ( container instanceof ModuleHandle )
-			return bindings.iterator( );
+			return bindings;
 
 		// finds the corresponding container
 
@@ -671,18 +718,14 @@ public abstract class ReportItemHandle extends ReportElementHandle
 			container = container.getContainer( );
 
 		if ( container == null )
-			return bindings.iterator( );
+			return bindings;
 
-		// recursively gets column bindings from the container.
+		// gets column bindings from the container, which are indexed in turn.
 
-		Iterator iter1 = ( (ReportItemHandle) container )
-				.getAvailableBindings( );
-		while ( iter1.hasNext( ) )
-		{
-			bindings.add( iter1.next( ) );
-		}
+		bindings.addAll( ( (ReportItemHandle) container )
+				.getAvailableBindingList( ) );
 
-		return bindings.iterator( );
+		return bindings;
 	}
 
 	/**
@@ -715,14 +758,24 @@ public abstract class ReportItemHandle extends ReportElementHandle
 			return (ComputedColumnHandle) getPropertyHandle(
 					BOUND_DATA_COLUMNS_PROP ).addItem( addColumn );
 
-		ComputedColumn column = BoundDataColumnUtil.getColumn( columns,
+		// only the bindings with the same expression can match
+
+		List<Integer> positions = getIndexedBindings( columns ).positionsOf(
+				addColumn.getExpression( ) );
+		List<ComputedColumn> candidates = new ArrayList<ComputedColumn>(
+				positions.size( ) );
+		for ( int i = 0; i < positions.size( ); i++ )
+			candidates.add( (ComputedColumn) columns.get( positions.get( i )
+					.intValue( ) ) );
+
+		ComputedColumn column = BoundDataColumnUtil.getColumn( candidates,
 				addColumn );
 
 		if ( column != null && !inForce )
 		{
 			return (ComputedColumnHandle) column.handle(
-					getPropertyHandle( BOUND_DATA_COLUMNS_PROP ), columns
-							.indexOf( column ) );
+					getPropertyHandle( BOUND_DATA_COLUMNS_PROP ), positions
+							.get( candidates.indexOf( column ) ).intValue( ) );
 		}
 		return (ComputedColumnHandle) getPropertyHandle(
 				BOUND_DATA_COLUMNS_PROP ).addItem( addColumn );
@@ -742,14 +795,40 @@ public abstract class ReportItemHandle extends ReportElementHandle
 		List columns = (List) getProperty( BOUND_DATA_COLUMNS_PROP );
 		if ( columns == null )
 			return null;
-		for ( int i = 0; i < columns.size( ); i++ )
-		{
-			ComputedColumn column = (ComputedColumn) columns.get( i );
-			if ( name.equals( column.getName( ) ) )
-				return (ComputedColumnHandle) column.handle(
-						getPropertyHandle( BOUND_DATA_COLUMNS_PROP ), i );
-		}
-		return null;
+
+		int i = getIndexedBindings( columns ).indexOf( name );
+		if ( i == -1 )
+			return null;
+
+		ComputedColumn column = (ComputedColumn) columns.get( i );
+		return (ComputedColumnHandle) column.handle(
+				getPropertyHandle( BOUND_DATA_COLUMNS_PROP ), i );
+	}
+
+	/**
+	 * Returns the bindings of this element indexed by name and expression.
+	 * The index is kept in the column binding index of the module as long as
+	 * the bound column list is not changed.
+	 * 
+	 * @param columns
+	 *            the value of the bound columns property
+	 * @return the indexed bindings
+	 */
+
+	private ColumnBindingIndex.Bindings getIndexedBindings( List columns )
+	{
+		Module root = getElement( ).getRoot( );
+		if ( root == null )
+			return new ColumnBindingIndex.Bindings( columns );
+
+		ColumnBindingIndex index = root.getColumnBindingIndex( );
+		long version = index.getVersion( );
+		ColumnBindingIndex.Bindings bindings = index.getBindings(
+				getElement( ), columns );
+		if ( bindings != null )
+			return bindings;
+
+		return index.putBindings( getElement( ), version, columns );
 	}
 
 	/**
@@ -23,9 +23,12 @@ import org.eclipse.birt.report.model.api.command.LibraryChangeEvent;
 import org.eclipse.birt.report.model.api.command.ResourceChangeEvent;
 import org.eclipse.birt.report.model.api.core.IResourceChangeListener;
 import org.eclipse.birt.report.model.api.metadata.PropertyValueException;
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
+import org.eclipse.birt.report.model.api.util.RetainedSizeEstimate;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.DesignSession;
 import org.eclipse.birt.report.model.core.Module;
+import org.eclipse.birt.report.model.css.StyleSheetCache;
 import org.eclipse.birt.report.model.elements.Style;
 
 import com.ibm.icu.util.ULocale;
@@ -773,6 +776,45 @@ class SessionHandleImpl
 		return session.getResourceLocator( );
 	}
 
+	/**
+	 * Sets the listener to receive the performance metrics of the modules in
+	 * this session.
+	 * 
+	 * @param listener
+	 *            the metrics listener, or <code>null</code> to collect no
+	 *            metrics
+	 */
+
+	public void setMetricsListener( IModelMetricsListener listener )
+	{
+		session.setMetricsListener( listener );
+	}
+
+	/**
+	 * Returns the listener to receive the performance metrics.
+	 * 
+	 * @return the metrics listener, or <code>null</code> if not set
+	 */
+
+	public IModelMetricsListener getMetricsListener( )
+	{
+		return session.getMetricsListener( );
+	}
+
+	/**
+	 * Estimates the heap size retained by all the open designs and libraries
+	 * of the session. The message files shared by the modules are counted
+	 * once.
+	 * 
+	 * @return the estimate broken down by category
+	 * @see ModuleHandle#estimateRetainedSize()
+	 */
+
+	public RetainedSizeEstimate estimateRetainedSize( )
+	{
+		return session.estimateRetainedSize( );
+	}
+
 	/**
 	 * Returns the locale of the current session.
 	 * 
@@ -802,7 +844,8 @@ class SessionHandleImpl
 	 * opened mudules, all interfered modules will be informed of the changes.
 	 * 
 	 * <p>
-	 * Current, only changes of library is supported.
+	 * Current, only changes of library is supported. The cached message file
+	 * and style sheet at the changed path are dropped for any kind of change.
 	 * 
 	 * @param ev
 	 *            the resource change event to fire
@@ -810,6 +853,10 @@ class SessionHandleImpl
 
 	public void fireResourceChange( ResourceChangeEvent ev )
 	{
+		session.clearCachedBundle( ev.getChangedResourcePath( ) );
+		StyleSheetCache.getInstance( ).invalidate(
+				ev.getChangedResourcePath( ) );
+
 		if ( ev.getEventType( ) == NotificationEvent.LIBRARY_CHANGE_EVENT )
 			session.fireLibChange( (LibraryChangeEvent) ev );
 	}
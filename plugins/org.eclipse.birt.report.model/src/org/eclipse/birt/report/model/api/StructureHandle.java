@@ -184,11 +184,36 @@ public class StructureHandle extends ValueHandle
 
 	public Object getProperty( String memberName )
 	{
-		MemberHandle handle = getMember( memberName );
-		if ( handle == null )
+		StructPropertyDefn memberDefn = (StructPropertyDefn) getDefn( )
+				.getMember( memberName );
+		if ( memberDefn == null )
 			return null;
 
-		return handle.getValue( );
+		return getMemberValue( memberDefn );
+	}
+
+	/**
+	 * Returns the value of the given member as <code>MemberHandle</code> does,
+	 * without creating the member handle.
+	 * 
+	 * @param memberDefn
+	 *            definition of the member
+	 * @return the value of the member
+	 */
+
+	private Object getMemberValue( StructPropertyDefn memberDefn )
+	{
+		if ( !StructureContextUtil.isValidStructureHandle( this ) )
+		{
+			throw new RuntimeException(
+					"The structure is floating, and its handle is invalid!" ); //$NON-NLS-1$
+		}
+
+		Module module = getModule( );
+		StructureContext memberContext = StructureContextUtil
+				.getMemberContext( this, memberDefn );
+		return ModelUtil.wrapPropertyValue( module, memberDefn, memberContext
+				.getValue( module ) );
 	}
 
 	/**
@@ -257,11 +282,13 @@ public class StructureHandle extends ValueHandle
 
 	protected int getIntProperty( String memberName )
 	{
-		MemberHandle handle = getMember( memberName );
-		if ( handle == null )
+		StructPropertyDefn memberDefn = (StructPropertyDefn) getDefn( )
+				.getMember( memberName );
+		if ( memberDefn == null )
 			return 0;
 
-		return handle.getIntValue( );
+		return memberDefn.getIntValue( getModule( ),
+				getMemberValue( memberDefn ) );
 	}
 
 	/**
@@ -340,7 +340,7 @@ public class CustomColor extends ReferencableStructure
 
 	public void setName( String name )
 	{
-		this.name = name;
+		setProperty( NAME_MEMBER, name );
 	}
 
 	/**
@@ -193,6 +193,8 @@ class DropStrategy
 		int colSpan = cell.getColSpan( layoutTable.getModule( ) );
 		List layoutSlots = getSpanSlots( groupLevel, colId, colSpan, drop );
 
+		layoutTable.dropApplied = true;
+
 		updateUsedLayoutCell( layoutRow, colId, cell, layoutSlots );
 		updateSpannedLayoutCell( layoutSlots, cell, colId, original.getCellId( ) );
 	}
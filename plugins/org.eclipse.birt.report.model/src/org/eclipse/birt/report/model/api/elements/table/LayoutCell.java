@@ -330,6 +330,20 @@ public class LayoutCell
 		return cellId;
 	}
 
+	/**
+	 * Moves the unique index of the cell by the given offset. This is used
+	 * when the cells before this one are laid out again.
+	 * 
+	 * @param offset
+	 *            the offset to add to the unique index
+	 */
+
+	protected void shiftCellId( int offset )
+	{
+		assert this != EMPTY_CELL;
+		cellId += offset;
+	}
+
 	/**
 	 * Checks whether there is any element in the cell element.
 	 * 
@@ -11,7 +11,11 @@
 
 package org.eclipse.birt.report.model.api.elements.table;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.birt.report.model.core.ContainerSlot;
 import org.eclipse.birt.report.model.core.DesignElement;
@@ -43,8 +47,8 @@ public final class LayoutHelper
 	 *            the report module
 	 */
 
-	private static void applyLayoutOnRow( LayoutSlot mappingSlot, TableRow row,
-			Module module )
+	protected static void applyLayoutOnRow( LayoutSlot mappingSlot,
+			TableRow row, Module module )
 	{
 		List<DesignElement> cells = row.getContentsSlot( );
 		if ( cells.size( ) == 0 )
@@ -195,6 +199,85 @@ public final class LayoutHelper
 		return mappingTable;
 	}
 
+	/**
+	 * Updates the layout of the given table after rows or cells in it are
+	 * changed. In each slot, rows that are laid out with the same row and cell
+	 * elements are kept, and only the changed rows and rows spanned by them are
+	 * laid out again. The result is the same as
+	 * {@link #applyLayout(Module, TableItem)}.
+	 * <p>
+	 * The layout cannot be updated if groups of the table are changed or drop
+	 * properties of cells have taken effects on it.
+	 * 
+	 * @param module
+	 *            the report module
+	 * @param table
+	 *            the table element
+	 * @param mappingTable
+	 *            the layout table to update
+	 * @param changedElements
+	 *            the cell or row elements of which properties are changed
+	 * @return <code>true</code> if the layout is updated. <code>false</code>
+	 *         if the layout must be applied again.
+	 */
+
+	public static boolean updateLayout( Module module, TableItem table,
+			LayoutTable mappingTable,
+			Collection<DesignElement> changedElements )
+	{
+		if ( mappingTable.table != table || mappingTable.getModule( ) != module )
+			return false;
+
+		if ( mappingTable.dropApplied || !mappingTable.isSameGroups( ) )
+			return false;
+
+		Set<TableRow> changedRows = new HashSet<TableRow>( );
+		for ( DesignElement changedElement : changedElements )
+		{
+			if ( changedElement instanceof TableRow )
+				changedRows.add( (TableRow) changedElement );
+			else if ( changedElement instanceof Cell
+					&& changedElement.getContainer( ) instanceof TableRow )
+				changedRows.add( (TableRow) changedElement.getContainer( ) );
+		}
+
+		List<ContainerSlot> slots = new ArrayList<ContainerSlot>( );
+		slots.add( table.getSlot( IListingElementModel.HEADER_SLOT ) );
+
+		ContainerSlot groups = table.getSlot( IListingElementModel.GROUP_SLOT );
+		int groupCount = groups.getCount( );
+		for ( int groupIndex = 0; groupIndex < groupCount; groupIndex++ )
+			slots.add( groups.getContent( groupIndex ).getSlot(
+					IGroupElementModel.HEADER_SLOT ) );
+
+		slots.add( table.getSlot( IListingElementModel.DETAIL_SLOT ) );
+
+		for ( int groupIndex = groupCount - 1; groupIndex >= 0; groupIndex-- )
+			slots.add( groups.getContent( groupIndex ).getSlot(
+					IGroupElementModel.FOOTER_SLOT ) );
+
+		slots.add( table.getSlot( IListingElementModel.FOOTER_SLOT ) );
+
+		List layoutSlots = mappingTable.getLayoutSlots( );
+		assert layoutSlots.size( ) == slots.size( );
+
+		int columnBuffer = 0;
+		int cellId = 1;
+		for ( int i = 0; i < slots.size( ); i++ )
+		{
+			LayoutSlot mappingSlot = (LayoutSlot) layoutSlots.get( i );
+			cellId = mappingSlot.updateLayout( slots.get( i ), changedRows,
+					columnBuffer, cellId, module );
+			columnBuffer = Math.max( columnBuffer, mappingSlot
+					.getColumnCount( ) );
+		}
+
+		mappingTable.nextCellId = cellId;
+		mappingTable.sortOverlappedCells( layoutSlots );
+
+		return true;
+	}
+
 	/**
 	 * Resolve the layout of Table Detail slot.
 	 * 
@@ -18,7 +18,9 @@ import java.util.Set;
 import org.eclipse.birt.report.model.api.CellHandle;
 import org.eclipse.birt.report.model.api.RowHandle;
 import org.eclipse.birt.report.model.api.SlotHandle;
+import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.elements.Cell;
+import org.eclipse.birt.report.model.elements.TableRow;
 
 /**
  * Represents a row in table layout.
@@ -45,6 +47,25 @@ public class LayoutRow
 
 	private LayoutSlot container = null;
 
+	/**
+	 * The row element laid out in this row. <code>null</code> if the row only
+	 * holds cells spanned from the previous rows.
+	 */
+
+	private TableRow content = null;
+
+	/**
+	 * The cell elements of the row element when it is laid out.
+	 */
+
+	private Object[] contentCells = null;
+
+	/**
+	 * The column count required by the cell elements of the row element.
+	 */
+
+	private int requiredColumnCount = 0;
+
 	/**
 	 * Constructs a <code>LayoutRow</code> with the give index.
 	 * 
@@ -316,6 +337,161 @@ public class LayoutRow
 		return retValue.iterator( );
 	}
 
+	/**
+	 * Records the row element laid out in this row.
+	 * 
+	 * @param row
+	 *            the row element
+	 */
+
+	protected void setContent( TableRow row )
+	{
+		content = row;
+		contentCells = row.getContentsSlot( ).toArray( );
+		requiredColumnCount = 0;
+	}
+
+	/**
+	 * Checks whether this row is laid out with the given row element and the
+	 * same cell elements in it.
+	 * 
+	 * @param row
+	 *            the row element
+	 * @return <code>true</code> if the row element and its cell elements are
+	 *         not changed since the row is laid out. Otherwise
+	 *         <code>false</code>.
+	 */
+
+	protected boolean isLaidOutWith( TableRow row )
+	{
+		if ( content != row )
+			return false;
+
+		List<DesignElement> cellElements = row.getContentsSlot( );
+		if ( cellElements.size( ) != contentCells.length )
+			return false;
+
+		for ( int i = 0; i < contentCells.length; i++ )
+		{
+			if ( cellElements.get( i ) != contentCells[i] )
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the number of cell elements of the row element when it is laid
+	 * out. Each of them takes one unique cell id.
+	 * 
+	 * @return the number of cell elements
+	 */
+
+	protected int getContentCellCount( )
+	{
+		return contentCells == null ? 0 : contentCells.length;
+	}
+
+	/**
+	 * Updates the column count required by the cell elements of the row
+	 * element.
+	 * 
+	 * @param columnCount
+	 *            the column count required by a cell element
+	 */
+
+	protected void updateRequiredColumnCount( int columnCount )
+	{
+		if ( columnCount > requiredColumnCount )
+			requiredColumnCount = columnCount;
+	}
+
+	/**
+	 * Returns the column count required by the cell elements of the row
+	 * element.
+	 * 
+	 * @return the required column count
+	 */
+
+	protected int getRequiredColumnCount( )
+	{
+		return requiredColumnCount;
+	}
+
+	/**
+	 * Checks whether the row has any cell spanned from the previous rows.
+	 * 
+	 * @return <code>true</code> if any cell is spanned from the previous rows.
+	 *         Otherwise <code>false</code>.
+	 */
+
+	protected boolean hasSpannedCells( )
+	{
+		for ( int i = 0; i < cells.size( ); i++ )
+		{
+			LayoutCell cell = (LayoutCell) cells.get( i );
+			if ( cell.isUsed( ) && cell.getRowSpanOffset( ) > 0 )
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Sets the 0-based row index.
+	 * 
+	 * @param rowId
+	 *            the row index
+	 */
+
+	protected void setRowId( int rowId )
+	{
+		this.rowId = rowId;
+	}
+
+	/**
+	 * Moves the unique ids of cells in the row by the given offset.
+	 * 
+	 * @param offset
+	 *            the offset to add to the unique ids
+	 */
+
+	protected void shiftCellIds( int offset )
+	{
+		if ( offset == 0 )
+			return;
+
+		for ( int i = 0; i < cells.size( ); i++ )
+		{
+			LayoutCell cell = (LayoutCell) cells.get( i );
+			if ( cell.isUsed( ) )
+				cell.shiftCellId( offset );
+		}
+	}
+
+	/**
+	 * Pads or truncates the row to the given column count. Only empty cells
+	 * are removed.
+	 * 
+	 * @param columnCount
+	 *            the new column count
+	 */
+
+	protected void setColumnCount( int columnCount )
+	{
+		int count = cells.size( );
+		if ( count > columnCount )
+		{
+			assert !getLayoutCell( columnCount ).isUsed( );
+			cells.subList( columnCount, count ).clear( );
+		}
+		else
+		{
+			for ( ; count < columnCount; count++ )
+				cells.add( LayoutCell.EMPTY_CELL );
+		}
+	}
+
 	/**
 	 * Returns the row position in the its container.
 	 * 
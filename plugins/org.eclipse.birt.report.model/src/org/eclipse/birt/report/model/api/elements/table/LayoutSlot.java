@@ -18,6 +18,9 @@ import java.util.Set;
 import org.eclipse.birt.report.model.api.CellHandle;
 import org.eclipse.birt.report.model.api.SlotHandle;
 import org.eclipse.birt.report.model.api.TableGroupHandle;
+import org.eclipse.birt.report.model.core.ContainerSlot;
+import org.eclipse.birt.report.model.core.DesignElement;
+import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.elements.Cell;
 import org.eclipse.birt.report.model.elements.TableRow;
 
@@ -70,6 +73,12 @@ public class LayoutSlot
 
 	protected LayoutTable tableContainer;
 
+	/**
+	 * The unique id of the first cell laid out in the slot.
+	 */
+
+	private int firstCellId;
+
 	/**
 	 * Constructs a <code>Slot</code> with the given column number.
 	 * 
@@ -103,6 +112,7 @@ public class LayoutSlot
 		rows = new ArrayList( );
 		this.colCount = colBufferSize;
 		tableContainer = table;
+		firstCellId = table.nextCellId;
 	}
 
 	/**
@@ -154,6 +164,8 @@ public class LayoutSlot
 		if ( nextColId > colCount )
 			colCount = nextColId;
 
+		( (LayoutRow) rows.get( rowId ) ).updateRequiredColumnCount( nextColId );
+
 		return id;
 	}
 
@@ -353,6 +365,210 @@ public class LayoutSlot
 
 		if ( rowCount != 0 )
 			currentRowId++;
+
+		getCurrentLayoutRow( ).setContent( row );
+	}
+
+	/**
+	 * Updates the layout of the slot after rows or cells in it are changed.
+	 * Leading and trailing rows that are laid out with the same row and cell
+	 * elements are kept, and only rows between them are laid out again. The
+	 * result is the same as the slot is laid out from scratch.
+	 * 
+	 * @param slot
+	 *            the slot of the row elements
+	 * @param changedRows
+	 *            the row elements whose cells are changed
+	 * @param columnBuffer
+	 *            the column count of the previous slots in the table
+	 * @param cellId
+	 *            the unique id of the first cell in the slot
+	 * @param module
+	 *            the report module
+	 * @return the unique id of the first cell after the slot
+	 */
+
+	protected int updateLayout( ContainerSlot slot, Set<TableRow> changedRows,
+			int columnBuffer, int cellId, Module module )
+	{
+		int oldRowCount = getRowCount( );
+		int newRowCount = slot.getCount( );
+		int minRowCount = Math.min( oldRowCount, newRowCount );
+
+		int headCount = 0;
+		while ( headCount < minRowCount
+				&& isLaidOutWith( headCount, slot.getContent( headCount ),
+						changedRows ) )
+			headCount++;
+
+		int tailCount = 0;
+		while ( tailCount < minRowCount - headCount
+				&& isLaidOutWith( oldRowCount - tailCount - 1, slot
+						.getContent( newRowCount - tailCount - 1 ), changedRows ) )
+			tailCount++;
+
+		int oldFirstCellId = firstCellId;
+		firstCellId = cellId;
+
+		if ( headCount == oldRowCount && headCount == newRowCount )
+		{
+			shiftCellIds( 0, rows.size( ), cellId - oldFirstCellId );
+			resizeColumns( columnBuffer );
+			return cellId + countContentCells( rows, 0, oldRowCount );
+		}
+
+		// overlapped cells are found by the layout of the whole slot.
+
+		if ( tableContainer.removeOverlappedCells( this ) )
+		{
+			headCount = 0;
+			tailCount = 0;
+		}
+
+		// the kept leading rows must not span to the changed rows.
+
+		while ( headCount > 0 && headCount < rows.size( )
+				&& getLayoutRow( headCount ).hasSpannedCells( ) )
+			headCount--;
+
+		int headCellCount = countContentCells( rows, 0, headCount );
+		shiftCellIds( 0, headCount, cellId - oldFirstCellId );
+
+		List oldRows = new ArrayList( rows.subList( headCount, rows.size( ) ) );
+		rows.subList( headCount, rows.size( ) ).clear( );
+		currentRowId = headCount > 0 ? headCount - 1 : 0;
+
+		colCount = columnBuffer;
+		for ( int i = 0; i < headCount; i++ )
+			colCount = Math.max( colCount, getLayoutRow( i )
+					.getRequiredColumnCount( ) );
+		for ( int i = 0; i < headCount; i++ )
+			getLayoutRow( i ).setColumnCount( colCount );
+
+		tableContainer.nextCellId = cellId + headCellCount;
+		int oldNextCellId = oldFirstCellId + headCellCount;
+
+		int tailStart = newRowCount - tailCount;
+		for ( int rowIndex = headCount; rowIndex < newRowCount; rowIndex++ )
+		{
+			// reuses the trailing rows once no cell spans into them.
+
+			if ( rowIndex >= tailStart && rows.size( ) == rowIndex )
+			{
+				int oldIndex = rowIndex - headCount + oldRowCount - newRowCount;
+				LayoutRow oldRow = (LayoutRow) oldRows.get( oldIndex );
+				if ( !oldRow.hasSpannedCells( ) )
+				{
+					int offset = tableContainer.nextCellId - oldNextCellId
+							- countContentCells( oldRows, 0, oldIndex );
+					for ( int i = oldIndex; i < oldRows.size( ); i++ )
+					{
+						LayoutRow layoutRow = (LayoutRow) oldRows.get( i );
+						layoutRow.setRowId( rows.size( ) );
+						layoutRow.shiftCellIds( offset );
+						rows.add( layoutRow );
+					}
+
+					tableContainer.nextCellId += countContentCells( oldRows,
+							oldIndex, oldRows.size( ) );
+					break;
+				}
+			}
+
+			TableRow row = (TableRow) slot.getContent( rowIndex );
+			newLayoutRow( row );
+			LayoutHelper.applyLayoutOnRow( this, row, module );
+		}
+
+		currentRowId = newRowCount > 0 ? newRowCount - 1 : 0;
+		resizeColumns( columnBuffer );
+
+		return tableContainer.nextCellId;
+	}
+
+	/**
+	 * Checks whether the row with the given index is laid out with the given
+	 * row element and its cells.
+	 * 
+	 * @param rowId
+	 *            the 0-based row index
+	 * @param row
+	 *            the row element
+	 * @param changedRows
+	 *            the row elements whose cells are changed
+	 * @return <code>true</code> if the layout of the row can be kept.
+	 *         Otherwise <code>false</code>.
+	 */
+
+	private boolean isLaidOutWith( int rowId, DesignElement row,
+			Set<TableRow> changedRows )
+	{
+		if ( changedRows.contains( row ) )
+			return false;
+
+		return getLayoutRow( rowId ).isLaidOutWith( (TableRow) row );
+	}
+
+	/**
+	 * Moves the unique ids of cells in the given rows by the given offset.
+	 * 
+	 * @param fromRowId
+	 *            the 0-based index of the first row, inclusive
+	 * @param toRowId
+	 *            the 0-based index of the last row, exclusive
+	 * @param offset
+	 *            the offset to add to the unique ids
+	 */
+
+	private void shiftCellIds( int fromRowId, int toRowId, int offset )
+	{
+		if ( offset == 0 )
+			return;
+
+		for ( int i = fromRowId; i < toRowId; i++ )
+			getLayoutRow( i ).shiftCellIds( offset );
+	}
+
+	/**
+	 * Recomputes the column count of the slot with the columns required by
+	 * rows and the given column count of the previous slots, and makes all
+	 * rows have the same column count.
+	 * 
+	 * @param columnBuffer
+	 *            the column count of the previous slots in the table
+	 */
+
+	private void resizeColumns( int columnBuffer )
+	{
+		colCount = columnBuffer;
+		for ( int i = 0; i < getRowCount( ); i++ )
+			colCount = Math.max( colCount, getLayoutRow( i )
+					.getRequiredColumnCount( ) );
+
+		for ( int i = 0; i < rows.size( ); i++ )
+			getLayoutRow( i ).setColumnCount( colCount );
+	}
+
+	/**
+	 * Counts the cell elements laid out in the given rows.
+	 * 
+	 * @param layoutRows
+	 *            the list containing <code>LayoutRow</code>s
+	 * @param fromRowId
+	 *            the 0-based index of the first row, inclusive
+	 * @param toRowId
+	 *            the 0-based index of the last row, exclusive
+	 * @return the number of the cell elements
+	 */
+
+	private static int countContentCells( List layoutRows, int fromRowId,
+			int toRowId )
+	{
+		int count = 0;
+		for ( int i = fromRowId; i < toRowId; i++ )
+			count += ( (LayoutRow) layoutRows.get( i ) ).getContentCellCount( );
+
+		return count;
 	}
 
 	/**
@@ -10,6 +10,9 @@
 package org.eclipse.birt.report.model.api.elements.table;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.birt.report.model.api.CellHandle;
@@ -64,6 +67,19 @@ public class LayoutTable
 
 	private List overlappedCells = new ArrayList( );
 
+	/**
+	 * The group elements of the table when the layout is applied.
+	 */
+
+	private Object[] groups;
+
+	/**
+	 * Indicates whether the drop properties of cells have taken effects on the
+	 * layout.
+	 */
+
+	protected boolean dropApplied = false;
+
 	/**
 	 * Constructs a table with the given numbers of rows and columns.
 	 * 
@@ -79,6 +95,7 @@ public class LayoutTable
 
 		this.table = table;
 		this.module = module;
+		this.groups = table.getGroups( ).toArray( );
 
 		tableSlots = new LayoutSlot[IListingElementModel.FOOTER_SLOT + 1];
 		for ( int i = 0; i < tableSlots.length; i++ )
@@ -623,6 +640,105 @@ public class LayoutTable
 		return !overlappedCells.isEmpty( );
 	}
 
+	/**
+	 * Removes overlapped areas found in the given slot.
+	 * 
+	 * @param slot
+	 *            the layout slot
+	 * @return <code>true</code> if any overlapped area is removed. Otherwise
+	 *         <code>false</code>.
+	 */
+
+	protected boolean removeOverlappedCells( LayoutSlot slot )
+	{
+		boolean removed = false;
+		for ( Iterator iter = overlappedCells.iterator( ); iter.hasNext( ); )
+		{
+			OverlappedArea area = (OverlappedArea) iter.next( );
+			if ( area.getSlot( ) == slot )
+			{
+				iter.remove( );
+				removed = true;
+			}
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Sorts overlapped areas by the order of slots where they are found. The
+	 * order of areas in the same slot is kept.
+	 * 
+	 * @param slots
+	 *            the list containing <code>LayoutSlot</code>s in the order
+	 *            that they are laid out
+	 */
+
+	protected void sortOverlappedCells( final List slots )
+	{
+		if ( overlappedCells.size( ) < 2 )
+			return;
+
+		Collections.sort( overlappedCells, new Comparator( ) {
+
+			public int compare( Object o1, Object o2 )
+			{
+				return slots.indexOf( ( (OverlappedArea) o1 ).getSlot( ) )
+						- slots.indexOf( ( (OverlappedArea) o2 ).getSlot( ) );
+			}
+		} );
+	}
+
+	/**
+	 * Checks whether the table still has the same groups as when the layout
+	 * is applied.
+	 * 
+	 * @return <code>true</code> if groups are the same. Otherwise
+	 *         <code>false</code>.
+	 */
+
+	protected boolean isSameGroups( )
+	{
+		List currentGroups = table.getGroups( );
+		if ( currentGroups.size( ) != groups.length )
+			return false;
+
+		for ( int i = 0; i < groups.length; i++ )
+		{
+			if ( currentGroups.get( i ) != groups[i] )
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns layout slots in the order that they are laid out: Table Header,
+	 * Group Headers from the outer to the inner-most, Detail, Group Footers
+	 * from the inner-most to the outer and Table Footer.
+	 * 
+	 * @return the list containing <code>LayoutSlot</code>s
+	 */
+
+	protected List getLayoutSlots( )
+	{
+		List retValue = new ArrayList( );
+		retValue.add( getHeader( ) );
+
+		LayoutGroupBand band = getGroupHeaders( );
+		for ( int i = 0; i < band.getGroupCount( ); i++ )
+			retValue.add( band.getLayoutSlot( i ) );
+
+		retValue.add( getDetail( ) );
+
+		band = getGroupFooters( );
+		for ( int i = 0; i < band.getGroupCount( ); i++ )
+			retValue.add( band.getLayoutSlot( i ) );
+
+		retValue.add( getFooter( ) );
+		return retValue;
+	}
+
 	/**
 	 * Represents an overlapped area of the cell element in the table.
 	 * 
@@ -127,7 +127,7 @@ public class DesignEngineImpl implements IDesignEngine
 
 		if ( isInitialized.booleanValue( )
 				&& MetaDataDictionary.getInstance( ).isIntializedExtension( ) )
-			return new SessionHandle( locale );
+			return newSession( locale );
 
 		// Initialize the meta-data if this is the first request to get
 		// a new handle.
@@ -137,7 +137,7 @@ public class DesignEngineImpl implements IDesignEngine
 			if ( isInitialized.booleanValue( )
 					&& MetaDataDictionary.getInstance( )
 							.isIntializedExtension( ) )
-				return new SessionHandle( locale );
+				return newSession( locale );
 
 			if ( !isInitialized.booleanValue( ) )
 				MetaDataDictionary.reset( );
@@ -159,7 +159,7 @@ public class DesignEngineImpl implements IDesignEngine
 			isInitialized = Boolean.TRUE;
 		}
 
-		SessionHandle session = new SessionHandle( locale );
+		SessionHandle session = newSession( locale );
 		if ( designConfig != null )
 		{
 			IResourceLocator locator = designConfig.getResourceLocator( );
@@ -171,6 +171,22 @@ public class DesignEngineImpl implements IDesignEngine
 		return session;
 	}
 
+	/**
+	 * Creates a session handle with the metrics listener of the configuration.
+	 * 
+	 * @param locale
+	 *            the user's locale
+	 * @return the session handle
+	 */
+
+	private SessionHandle newSession( ULocale locale )
+	{
+		SessionHandle session = new SessionHandle( locale );
+		if ( designConfig != null )
+			session.setMetricsListener( designConfig.getMetricsListener( ) );
+		return session;
+	}
+
 	/**
 	 * Gets the meta-data of the design engine.
 	 * 
@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.api.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.eclipse.birt.report.model.api.DesignFileException;
+import org.eclipse.birt.report.model.api.ErrorDetail;
+import org.eclipse.birt.report.model.api.IDesignEngine;
+import org.eclipse.birt.report.model.api.ModuleHandle;
+import org.eclipse.birt.report.model.api.SessionHandle;
+import org.xml.sax.SAXException;
+
+import com.ibm.icu.util.ULocale;
+
+/**
+ * Validates a batch of designs and libraries in parallel. Each file is opened
+ * with semantic checks and closed again, and its errors and warnings are sent
+ * to the listener as soon as the file is validated.
+ * <p>
+ * The metadata dictionary of the engine is loaded once before any worker
+ * starts. Each worker thread reuses one design session for all the files it
+ * validates, so that the caches of the session are shared among the files,
+ * while no module is ever accessed by two threads.
+ * 
+ * <pre>
+ * BatchModuleValidator validator = new BatchModuleValidator( engine, null );
+ * validator.validate( fileNames, executor, listener );
+ * </pre>
+ */
+
+public class BatchModuleValidator
+{
+
+	/**
+	 * The design engine to create sessions.
+	 */
+
+	private final IDesignEngine engine;
+
+	/**
+	 * The locale of the sessions.
+	 */
+
+	private final ULocale locale;
+
+	/**
+	 * The resource folder of the sessions.
+	 */
+
+	private String resourceFolder = null;
+
+	/**
+	 * Constructs the validator.
+	 * 
+	 * @param engine
+	 *            the design engine
+	 * @param locale
+	 *            the locale of the sessions. If <code>null</code>, uses the
+	 *            system locale.
+	 */
+
+	public BatchModuleValidator( IDesignEngine engine, ULocale locale )
+	{
+		if ( engine == null )
+			throw new IllegalArgumentException(
+					"The design engine can not be null." ); //$NON-NLS-1$
+
+		this.engine = engine;
+		this.locale = locale;
+
+		// loads the shared metadata before workers start.
+
+		engine.getMetaData( );
+	}
+
+	/**
+	 * Sets the resource folder used to find libraries and resources of the
+	 * validated files.
+	 * 
+	 * @param resourceFolder
+	 *            the resource folder
+	 */
+
+	public void setResourceFolder( String resourceFolder )
+	{
+		this.resourceFolder = resourceFolder;
+	}
+
+	/**
+	 * Validates the given files in parallel on a fixed thread pool with one
+	 * thread per available processor. Returns when all the files are
+	 * validated.
+	 * 
+	 * @param fileNames
+	 *            the file names of the designs and libraries
+	 * @param listener
+	 *            the listener to receive the results
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted while waiting
+	 */
+
+	public void validate( Collection<String> fileNames,
+			IBatchValidationListener listener ) throws InterruptedException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool( Runtime
+				.getRuntime( ).availableProcessors( ) );
+		try
+		{
+			validate( fileNames, executor, listener );
+		}
+		finally
+		{
+			executor.shutdown( );
+		}
+	}
+
+	/**
+	 * Validates the given files on the given executor. Returns when all the
+	 * files are validated.
+	 * 
+	 * @param fileNames
+	 *            the file names of the designs and libraries
+	 * @param executor
+	 *            the executor to run the validation
+	 * @param listener
+	 *            the listener to receive the results
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted while waiting
+	 */
+
+	public void validate( Collection<String> fileNames, Executor executor,
+			final IBatchValidationListener listener )
+			throws InterruptedException
+	{
+		if ( executor == null || listener == null )
+			throw new IllegalArgumentException(
+					"The executor and listener can not be null." ); //$NON-NLS-1$
+
+		if ( fileNames == null || fileNames.isEmpty( ) )
+			return;
+
+		final Map<Thread, SessionHandle> sessions = new ConcurrentHashMap<Thread, SessionHandle>( );
+		final CountDownLatch done = new CountDownLatch( fileNames.size( ) );
+
+		for ( final String fileName : fileNames )
+		{
+			Runnable task = new Runnable( ) {
+
+				public void run( )
+				{
+					try
+					{
+						validate( getSession( sessions ), fileName, listener );
+					}
+					finally
+					{
+						done.countDown( );
+					}
+				}
+			};
+
+			try
+			{
+				executor.execute( task );
+			}
+			catch ( RejectedExecutionException e )
+			{
+				done.countDown( );
+				throw e;
+			}
+		}
+
+		done.await( );
+	}
+
+	/**
+	 * Returns the session of the current worker thread.
+	 * 
+	 * @param sessions
+	 *            the sessions of the worker threads
+	 * @return the session
+	 */
+
+	private SessionHandle getSession( Map<Thread, SessionHandle> sessions )
+	{
+		Thread thread = Thread.currentThread( );
+		SessionHandle session = sessions.get( thread );
+		if ( session == null )
+		{
+			session = engine.newSessionHandle( locale );
+			if ( resourceFolder != null )
+				session.setResourceFolder( resourceFolder );
+			sessions.put( thread, session );
+		}
+
+		// the thread may be shared with other sessions.
+
+		session.activate( );
+		return session;
+	}
+
+	/**
+	 * Validates one file and notifies the listener. An unexpected runtime
+	 * exception is reported as an error of the file, so that the listener is
+	 * always notified.
+	 * 
+	 * @param session
+	 *            the session to open the file
+	 * @param fileName
+	 *            the file name
+	 * @param listener
+	 *            the listener to receive the result
+	 */
+
+	private static void validate( SessionHandle session, String fileName,
+			IBatchValidationListener listener )
+	{
+		List<ErrorDetail> errors;
+		List<ErrorDetail> warnings;
+
+		ModuleHandle module = null;
+		try
+		{
+			module = session.openModule( fileName );
+			errors = toErrorDetails( module.getErrorList( ) );
+			warnings = toErrorDetails( module.getWarningList( ) );
+		}
+		catch ( DesignFileException e )
+		{
+			errors = e.getErrorList( );
+			warnings = Collections.emptyList( );
+		}
+		catch ( RuntimeException e )
+		{
+			errors = Collections.singletonList( new ErrorDetail(
+					new SAXException( e ) ) );
+			warnings = Collections.emptyList( );
+		}
+		finally
+		{
+			if ( module != null )
+				close( module );
+		}
+
+		listener.moduleValidated( fileName, errors, warnings );
+	}
+
+	/**
+	 * Closes the module. A runtime exception is ignored since the result of
+	 * the validation has been collected.
+	 * 
+	 * @param module
+	 *            the module to close
+	 */
+
+	private static void close( ModuleHandle module )
+	{
+		try
+		{
+			module.close( );
+		}
+		catch ( RuntimeException e )
+		{
+			// ignore it.
+		}
+	}
+
+	/**
+	 * Copies the errors or warnings of a module to a typed list.
+	 * 
+	 * @param list
+	 *            the list of <code>ErrorDetail</code>
+	 * @return the list of the error details
+	 */
+
+	private static List<ErrorDetail> toErrorDetails( List<?> list )
+	{
+		List<ErrorDetail> retList = new ArrayList<ErrorDetail>( list.size( ) );
+		for ( int i = 0; i < list.size( ); i++ )
+			retList.add( (ErrorDetail) list.get( i ) );
+		return retList;
+	}
+}
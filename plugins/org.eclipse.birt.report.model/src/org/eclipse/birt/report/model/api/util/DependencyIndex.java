@@ -0,0 +1,1078 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.api.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.eclipse.birt.report.model.api.DesignFileException;
+import org.eclipse.birt.report.model.api.core.IModuleModel;
+import org.eclipse.birt.report.model.api.elements.structures.IncludedCssStyleSheet;
+import org.eclipse.birt.report.model.api.elements.structures.IncludedLibrary;
+import org.eclipse.birt.report.model.elements.interfaces.IReportDesignModel;
+import org.eclipse.birt.report.model.elements.interfaces.IReportItemModel;
+import org.eclipse.birt.report.model.elements.interfaces.ISimpleDataSetModel;
+import org.eclipse.birt.report.model.elements.interfaces.IStyledElementModel;
+import org.eclipse.birt.report.model.parser.DesignSchemaConstants;
+import org.eclipse.birt.report.model.parser.ModuleParserErrorHandler;
+import org.eclipse.birt.report.model.util.AbstractParseState;
+import org.eclipse.birt.report.model.util.ModelUtil;
+import org.eclipse.birt.report.model.util.URIUtilImpl;
+import org.eclipse.birt.report.model.util.XMLParserException;
+import org.eclipse.birt.report.model.util.XMLParserHandler;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Index of the dependencies among the designs and libraries of a repository.
+ * Each indexed file is read by a light-weight SAX pass that creates no design
+ * element, and its dependencies are recorded:
+ * <ul>
+ * <li>the included libraries,
+ * <li>the library elements it extends or refers to as the style, data set,
+ * data source, cube or theme,
+ * <li>the included style sheets,
+ * <li>the included resource bundles.
+ * </ul>
+ * <p>
+ * The index keeps the reverse mapping from each dependency to the files that
+ * depend on it, so that impact queries do not scan the files. Files are
+ * updated incrementally by their time stamps, and the index can be saved to
+ * and loaded from a compact binary file.
+ * <p>
+ * File names of libraries and style sheets are resolved in the same order as
+ * the default resource locator: an absolute file name or URL is used as it is,
+ * then the file is looked up in the resource folder given to the index, and
+ * at last the name is resolved against the location of the including file.
+ * Resource bundles are kept by their base names. The index is thread-safe.
+ */
+
+public final class DependencyIndex
+{
+
+	/**
+	 * The dependency on an included library.
+	 */
+
+	public static final int LIBRARY = 0;
+
+	/**
+	 * The dependency on an element of an included library.
+	 */
+
+	public static final int LIBRARY_ELEMENT = 1;
+
+	/**
+	 * The dependency on an included style sheet.
+	 */
+
+	public static final int STYLE_SHEET = 2;
+
+	/**
+	 * The dependency on an included resource bundle.
+	 */
+
+	public static final int RESOURCE = 3;
+
+	/**
+	 * The magic number of the index file.
+	 */
+
+	private static final int MAGIC = 0x42444958;
+
+	/**
+	 * The version of the index file format.
+	 */
+
+	private static final int FORMAT_VERSION = 2;
+
+	/**
+	 * The separator between the library location and the element name.
+	 */
+
+	private static final char ELEMENT_SEPARATOR = '#';
+
+	/**
+	 * Properties that refer to elements by the qualified name.
+	 */
+
+	private static final Set<String> REFERENCE_PROPS = new HashSet<String>( );
+
+	static
+	{
+		REFERENCE_PROPS.add( IStyledElementModel.STYLE_PROP );
+		REFERENCE_PROPS.add( IReportItemModel.DATA_SET_PROP );
+		REFERENCE_PROPS.add( IReportItemModel.CUBE_PROP );
+		REFERENCE_PROPS.add( ISimpleDataSetModel.DATA_SOURCE_PROP );
+		REFERENCE_PROPS.add( IModuleModel.THEME_PROP );
+	}
+
+	/**
+	 * The indexed files by their locations.
+	 */
+
+	private final Map<String, FileEntry> files = new HashMap<String, FileEntry>( );
+
+	/**
+	 * The locations of the dependent files by the dependency keys.
+	 */
+
+	private final Map<String, Set<String>> dependents = new HashMap<String, Set<String>>( );
+
+	/**
+	 * The resource folder where included files are looked up first, or
+	 * <code>null</code> if the files are resolved against the including file
+	 * only.
+	 */
+
+	private final String resourceFolder;
+
+	/**
+	 * Constructs an index that resolves the included files against the
+	 * including file.
+	 */
+
+	public DependencyIndex( )
+	{
+		this( null );
+	}
+
+	/**
+	 * Constructs an index that looks up the included files in the given
+	 * resource folder first. The folder should be the one the designs are
+	 * opened with, which is the resource folder of the session, or of the
+	 * module options if the session has none.
+	 *
+	 * @param resourceFolder
+	 *            the resource folder as a file path or URL, or
+	 *            <code>null</code>
+	 */
+
+	public DependencyIndex( String resourceFolder )
+	{
+		this.resourceFolder = StringUtil.isBlank( resourceFolder )
+				? null
+				: resourceFolder;
+	}
+
+	/**
+	 * Returns the resource folder where included files are looked up first.
+	 *
+	 * @return the resource folder, or <code>null</code> if not set
+	 */
+
+	public String getResourceFolder( )
+	{
+		return resourceFolder;
+	}
+
+	/**
+	 * Updates the index for the given file if it has been changed since it
+	 * was indexed. The last modified time of the file is used as the stamp.
+	 * The file is read and parsed without holding the lock of the index, so
+	 * the index can be queried meanwhile.
+	 *
+	 * @param file
+	 *            the design or library file
+	 * @return <code>true</code> if the file is indexed again,
+	 *         <code>false</code> if it is not changed or has been indexed
+	 *         with a newer stamp by another thread
+	 * @throws IOException
+	 *             if the file can not be read
+	 * @throws DesignFileException
+	 *             if the file is not valid XML
+	 */
+
+	public boolean update( File file ) throws IOException, DesignFileException
+	{
+		String location = getLocation( file.getAbsolutePath( ) );
+
+		long stamp = file.lastModified( );
+		if ( !isChanged( location, stamp ) )
+			return false;
+
+		InputStream is = new BufferedInputStream( new FileInputStream( file ) );
+		try
+		{
+			return update( location, stamp, is );
+		}
+		finally
+		{
+			is.close( );
+		}
+	}
+
+	/**
+	 * Indexes the design or library in the input stream. The previous
+	 * dependencies of the file are replaced, unless the file has been indexed
+	 * with a newer stamp while the stream was parsed. The stream is parsed
+	 * without holding the lock of the index.
+	 *
+	 * @param fileName
+	 *            the file name or URL of the design or library
+	 * @param stamp
+	 *            the stamp of the content, such as the last modified time
+	 * @param is
+	 *            the input stream of the design or library
+	 * @return <code>true</code> if the dependencies are replaced,
+	 *         <code>false</code> if the file is indexed with a newer stamp
+	 * @throws DesignFileException
+	 *             if the content is not valid XML
+	 */
+
+	public boolean update( String fileName, long stamp, InputStream is )
+			throws DesignFileException
+	{
+		String location = getLocation( fileName );
+
+		DependencyParserHandler handler = new DependencyParserHandler( );
+		parse( handler, is, fileName );
+
+		List<String> keys = handler.getDependencyKeys( location,
+				resourceFolder );
+
+		synchronized ( this )
+		{
+			// a slower parse of older content must not replace a newer entry.
+
+			FileEntry oldEntry = files.get( location );
+			if ( oldEntry != null && oldEntry.stamp > stamp )
+				return false;
+
+			removeEntry( location );
+
+			FileEntry entry = new FileEntry( stamp, keys );
+			files.put( location, entry );
+			for ( int i = 0; i < keys.size( ); i++ )
+				addDependent( keys.get( i ), location );
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the given file from the index.
+	 *
+	 * @param fileName
+	 *            the file name or URL of the design or library
+	 */
+
+	public synchronized void remove( String fileName )
+	{
+		removeEntry( getLocation( fileName ) );
+	}
+
+	/**
+	 * Checks whether the given file needs to be indexed again.
+	 *
+	 * @param fileName
+	 *            the file name or URL of the design or library
+	 * @param stamp
+	 *            the current stamp of the content
+	 * @return <code>true</code> if the file is not indexed or indexed with a
+	 *         different stamp
+	 */
+
+	public synchronized boolean isChanged( String fileName, long stamp )
+	{
+		FileEntry entry = files.get( getLocation( fileName ) );
+		return entry == null || entry.stamp != stamp;
+	}
+
+	/**
+	 * Returns the locations of the indexed files.
+	 *
+	 * @return the set of locations
+	 */
+
+	public synchronized Set<String> getFiles( )
+	{
+		return new HashSet<String>( files.keySet( ) );
+	}
+
+	/**
+	 * Returns the files that directly depend on the given library, style
+	 * sheet or resource bundle.
+	 *
+	 * @param kind
+	 *            the kind of the dependency, one of <code>LIBRARY</code>,
+	 *            <code>STYLE_SHEET</code> and <code>RESOURCE</code>
+	 * @param fileName
+	 *            the file name or URL of the library or style sheet, or the
+	 *            base name of the resource bundle
+	 * @return the set of locations of the dependent files
+	 */
+
+	public synchronized Set<String> getDependents( int kind, String fileName )
+	{
+		String target = kind == RESOURCE ? fileName : getLocation( fileName );
+		return copy( dependents.get( getKey( kind, target ) ) );
+	}
+
+	/**
+	 * Returns the files that extend or refer to the given library element.
+	 *
+	 * @param libraryFileName
+	 *            the file name or URL of the library
+	 * @param elementName
+	 *            the name of the element in the library
+	 * @return the set of locations of the dependent files
+	 */
+
+	public synchronized Set<String> getElementDependents(
+			String libraryFileName, String elementName )
+	{
+		String target = getLocation( libraryFileName ) + ELEMENT_SEPARATOR
+				+ elementName;
+		return copy( dependents.get( getKey( LIBRARY_ELEMENT, target ) ) );
+	}
+
+	/**
+	 * Returns all the files affected by a change of the given file: the files
+	 * that depend on it directly, and through the libraries that include it.
+	 *
+	 * @param fileName
+	 *            the file name or URL of the changed library or style sheet,
+	 *            or the base name of the changed resource bundle
+	 * @return the set of locations of the affected files
+	 */
+
+	public synchronized Set<String> getImpactedFiles( String fileName )
+	{
+		Set<String> retValue = new HashSet<String>( );
+
+		LinkedList<String> queue = new LinkedList<String>( );
+		addAll( queue, retValue, dependents.get( getKey( RESOURCE, fileName ) ) );
+
+		String location = getLocation( fileName );
+		addAll( queue, retValue, dependents.get( getKey( STYLE_SHEET,
+				location ) ) );
+		addAll( queue, retValue, dependents.get( getKey( LIBRARY, location ) ) );
+
+		while ( !queue.isEmpty( ) )
+		{
+			String dependent = queue.removeFirst( );
+			addAll( queue, retValue, dependents.get( getKey( LIBRARY,
+					dependent ) ) );
+		}
+
+		return retValue;
+	}
+
+	/**
+	 * Removes all the files from the index.
+	 */
+
+	public synchronized void clear( )
+	{
+		files.clear( );
+		dependents.clear( );
+	}
+
+	/**
+	 * Saves the index to the given output stream. Strings shared by the files
+	 * are written once, as length-prefixed UTF-8 bytes.
+	 *
+	 * @param os
+	 *            the output stream
+	 * @throws IOException
+	 *             if the index can not be written
+	 */
+
+	public synchronized void save( OutputStream os ) throws IOException
+	{
+		Map<String, Integer> indexes = new HashMap<String, Integer>( );
+		List<String> strings = new ArrayList<String>( );
+
+		Iterator<Map.Entry<String, FileEntry>> iter = files.entrySet( )
+				.iterator( );
+		while ( iter.hasNext( ) )
+		{
+			Map.Entry<String, FileEntry> entry = iter.next( );
+			addString( entry.getKey( ), indexes, strings );
+			List<String> keys = entry.getValue( ).keys;
+			for ( int i = 0; i < keys.size( ); i++ )
+				addString( keys.get( i ), indexes, strings );
+		}
+
+		DataOutputStream out = new DataOutputStream( os );
+		out.writeInt( MAGIC );
+		out.writeInt( FORMAT_VERSION );
+
+		out.writeInt( strings.size( ) );
+		for ( int i = 0; i < strings.size( ); i++ )
+		{
+			byte[] bytes = strings.get( i ).getBytes(
+					UnicodeUtil.SIGNATURE_UTF_8 );
+			out.writeInt( bytes.length );
+			out.write( bytes );
+		}
+
+		out.writeInt( files.size( ) );
+		iter = files.entrySet( ).iterator( );
+		while ( iter.hasNext( ) )
+		{
+			Map.Entry<String, FileEntry> entry = iter.next( );
+			out.writeInt( indexes.get( entry.getKey( ) ).intValue( ) );
+			out.writeLong( entry.getValue( ).stamp );
+
+			List<String> keys = entry.getValue( ).keys;
+			out.writeInt( keys.size( ) );
+			for ( int i = 0; i < keys.size( ); i++ )
+				out.writeInt( indexes.get( keys.get( i ) ).intValue( ) );
+		}
+
+		out.flush( );
+	}
+
+	/**
+	 * Loads an index saved by {@link #save(OutputStream)}. Files updated
+	 * later are resolved against the including file only.
+	 *
+	 * @param is
+	 *            the input stream
+	 * @return the loaded index
+	 * @throws IOException
+	 *             if the index can not be read or is not valid
+	 */
+
+	public static DependencyIndex load( InputStream is ) throws IOException
+	{
+		return load( is, null );
+	}
+
+	/**
+	 * Loads an index saved by {@link #save(OutputStream)}. Files updated
+	 * later look up the included files in the given resource folder first.
+	 *
+	 * @param is
+	 *            the input stream
+	 * @param resourceFolder
+	 *            the resource folder as a file path or URL, or
+	 *            <code>null</code>
+	 * @return the loaded index
+	 * @throws IOException
+	 *             if the index can not be read or is not valid
+	 */
+
+	public static DependencyIndex load( InputStream is, String resourceFolder )
+			throws IOException
+	{
+		DataInputStream in = new DataInputStream( is );
+		if ( in.readInt( ) != MAGIC || in.readInt( ) != FORMAT_VERSION )
+			throw new IOException( "Invalid dependency index." ); //$NON-NLS-1$
+
+		String[] strings = new String[in.readInt( )];
+		for ( int i = 0; i < strings.length; i++ )
+		{
+			int length = in.readInt( );
+			if ( length < 0 )
+				throw new IOException( "Invalid dependency index." ); //$NON-NLS-1$
+
+			byte[] bytes = new byte[length];
+			in.readFully( bytes );
+			strings[i] = new String( bytes, UnicodeUtil.SIGNATURE_UTF_8 )
+					.intern( );
+		}
+
+		DependencyIndex index = new DependencyIndex( resourceFolder );
+		int fileCount = in.readInt( );
+		for ( int i = 0; i < fileCount; i++ )
+		{
+			String location = strings[in.readInt( )];
+			long stamp = in.readLong( );
+
+			int keyCount = in.readInt( );
+			List<String> keys = new ArrayList<String>( keyCount );
+			for ( int j = 0; j < keyCount; j++ )
+			{
+				String key = strings[in.readInt( )];
+				keys.add( key );
+				index.addDependent( key, location );
+			}
+
+			index.files.put( location, new FileEntry( stamp, keys ) );
+		}
+
+		return index;
+	}
+
+	/**
+	 * Removes the file and its dependencies from the index.
+	 *
+	 * @param location
+	 *            the location of the file
+	 */
+
+	private void removeEntry( String location )
+	{
+		FileEntry entry = files.remove( location );
+		if ( entry == null )
+			return;
+
+		for ( int i = 0; i < entry.keys.size( ); i++ )
+		{
+			String key = entry.keys.get( i );
+			Set<String> locations = dependents.get( key );
+			if ( locations == null )
+				continue;
+
+			locations.remove( location );
+			if ( locations.isEmpty( ) )
+				dependents.remove( key );
+		}
+	}
+
+	/**
+	 * Records that the file depends on the given dependency.
+	 *
+	 * @param key
+	 *            the dependency key
+	 * @param location
+	 *            the location of the dependent file
+	 */
+
+	private void addDependent( String key, String location )
+	{
+		Set<String> locations = dependents.get( key );
+		if ( locations == null )
+		{
+			locations = new HashSet<String>( );
+			dependents.put( key, locations );
+		}
+		locations.add( location );
+	}
+
+	/**
+	 * Returns the key of the dependency.
+	 *
+	 * @param kind
+	 *            the kind of the dependency
+	 * @param target
+	 *            the location or name of the dependency
+	 * @return the dependency key
+	 */
+
+	private static String getKey( int kind, String target )
+	{
+		return kind + ":" + target; //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the location used to identify the given file.
+	 *
+	 * @param fileName
+	 *            the file name or URL
+	 * @return the external form of the file URL, or the file name if it can
+	 *         not be converted
+	 */
+
+	private static String getLocation( String fileName )
+	{
+		URL url = ModelUtil.getURLPresentation( fileName );
+		return url == null ? fileName : url.toExternalForm( );
+	}
+
+	/**
+	 * Resolves the file name included by a module in the order of the default
+	 * resource locator: the absolute file name or URL, the file in the
+	 * resource folder, and the file relative to the including module.
+	 *
+	 * @param resourceFolder
+	 *            the resource folder, or <code>null</code>
+	 * @param base
+	 *            the location of the including module
+	 * @param fileName
+	 *            the included file name
+	 * @return the location of the included file
+	 */
+
+	private static String resolve( String resourceFolder, String base,
+			String fileName )
+	{
+		if ( new File( fileName ).isAbsolute( ) )
+			return getLocation( fileName );
+
+		try
+		{
+			return new URL( fileName ).toExternalForm( );
+		}
+		catch ( MalformedURLException e )
+		{
+			// not a URL, look up the resource folder
+		}
+
+		if ( resourceFolder != null )
+		{
+			String location = findInResourceFolder( resourceFolder, fileName );
+			if ( location != null )
+				return location;
+		}
+
+		try
+		{
+			return new URL( new URL( base ), fileName ).toExternalForm( );
+		}
+		catch ( MalformedURLException e )
+		{
+			return getLocation( fileName );
+		}
+	}
+
+	/**
+	 * Looks up the file in the resource folder.
+	 *
+	 * @param resourceFolder
+	 *            the resource folder as a file path or URL
+	 * @param fileName
+	 *            the relative file name
+	 * @return the location of the file, or <code>null</code> if the file
+	 *         does not exist in the resource folder
+	 */
+
+	private static String findInResourceFolder( String resourceFolder,
+			String fileName )
+	{
+		File file = new File( resourceFolder, URIUtilImpl
+				.toUniversalFileFormat( fileName ) );
+		if ( file.isFile( ) )
+			return getLocation( file.getAbsolutePath( ) );
+
+		URL url = null;
+		try
+		{
+			url = new URL( new URL( resourceFolder ), URIUtil
+					.convertFileNameToURLString( fileName ) );
+		}
+		catch ( MalformedURLException e )
+		{
+			return null;
+		}
+
+		if ( URIUtilImpl.FILE_SCHEMA.equalsIgnoreCase( url.getProtocol( ) ) )
+		{
+			String path = URIUtilImpl.getLocalPath( url.toExternalForm( ) );
+			return path != null && new File( path ).isFile( ) ? getLocation( path )
+					: null;
+		}
+
+		InputStream is = null;
+		try
+		{
+			is = url.openStream( );
+			return url.toExternalForm( );
+		}
+		catch ( IOException e )
+		{
+			return null;
+		}
+		finally
+		{
+			if ( is != null )
+			{
+				try
+				{
+					is.close( );
+				}
+				catch ( IOException e )
+				{
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a copy of the given set of locations.
+	 *
+	 * @param locations
+	 *            the set of locations, can be <code>null</code>
+	 * @return a new set
+	 */
+
+	private static Set<String> copy( Set<String> locations )
+	{
+		if ( locations == null )
+			return Collections.emptySet( );
+		return new HashSet<String>( locations );
+	}
+
+	/**
+	 * Adds the locations that are not found yet to the result and the queue.
+	 *
+	 * @param queue
+	 *            the queue of libraries to follow
+	 * @param result
+	 *            the found locations
+	 * @param locations
+	 *            the locations to add, can be <code>null</code>
+	 */
+
+	private static void addAll( LinkedList<String> queue, Set<String> result,
+			Set<String> locations )
+	{
+		if ( locations == null )
+			return;
+
+		Iterator<String> iter = locations.iterator( );
+		while ( iter.hasNext( ) )
+		{
+			String location = iter.next( );
+			if ( result.add( location ) )
+				queue.add( location );
+		}
+	}
+
+	/**
+	 * Adds the string to the string table if it is not added.
+	 *
+	 * @param value
+	 *            the string
+	 * @param indexes
+	 *            the indexes of the added strings
+	 * @param strings
+	 *            the string table
+	 */
+
+	private static void addString( String value, Map<String, Integer> indexes,
+			List<String> strings )
+	{
+		if ( indexes.containsKey( value ) )
+			return;
+
+		indexes.put( value, Integer.valueOf( strings.size( ) ) );
+		strings.add( value );
+	}
+
+	/**
+	 * Parses the input stream with the given handler.
+	 *
+	 * @param handler
+	 *            the parser handler
+	 * @param is
+	 *            the input stream
+	 * @param fileName
+	 *            the file name
+	 * @throws DesignFileException
+	 *             if the content is not valid XML
+	 */
+
+	private static void parse( XMLParserHandler handler, InputStream is,
+			String fileName ) throws DesignFileException
+	{
+		InputStream streamToParse = is;
+		if ( !streamToParse.markSupported( ) )
+			streamToParse = new BufferedInputStream( is );
+
+		try
+		{
+			ModelUtil.checkUTFSignature( streamToParse, fileName );
+			InputSource inputSource = new InputSource( streamToParse );
+			inputSource.setEncoding( UnicodeUtil.SIGNATURE_UTF_8 );
+			SAXParserFactory.newInstance( ).newSAXParser( ).parse(
+					inputSource, handler );
+		}
+		catch ( SAXException e )
+		{
+			if ( e.getException( ) instanceof DesignFileException )
+				throw (DesignFileException) e.getException( );
+
+			throw new DesignFileException( fileName, handler
+					.getErrorHandler( ).getErrors( ), e );
+		}
+		catch ( ParserConfigurationException e )
+		{
+			throw new DesignFileException( fileName, handler
+					.getErrorHandler( ).getErrors( ), e );
+		}
+		catch ( IOException e )
+		{
+			throw new DesignFileException( fileName, handler
+					.getErrorHandler( ).getErrors( ), e );
+		}
+	}
+
+	/**
+	 * The stamp and dependencies of an indexed file.
+	 */
+
+	private static class FileEntry
+	{
+
+		/**
+		 * The stamp of the indexed content.
+		 */
+
+		final long stamp;
+
+		/**
+		 * The dependency keys.
+		 */
+
+		final List<String> keys;
+
+		/**
+		 * Constructs the entry.
+		 *
+		 * @param stamp
+		 *            the stamp of the indexed content
+		 * @param keys
+		 *            the dependency keys
+		 */
+
+		FileEntry( long stamp, List<String> keys )
+		{
+			this.stamp = stamp;
+			this.keys = keys;
+		}
+	}
+
+	/**
+	 * Parser handler that collects the dependencies of a module without
+	 * creating any design element.
+	 */
+
+	private static class DependencyParserHandler extends XMLParserHandler
+	{
+
+		/**
+		 * The library file names by the name spaces.
+		 */
+
+		private final Map<String, String> libraries = new HashMap<String, String>( );
+
+		/**
+		 * The file names of the included style sheets.
+		 */
+
+		private final List<String> styleSheets = new ArrayList<String>( );
+
+		/**
+		 * The base names of the included resource bundles.
+		 */
+
+		private final List<String> resources = new ArrayList<String>( );
+
+		/**
+		 * The qualified names of the referred elements.
+		 */
+
+		private final Set<String> elementRefs = new HashSet<String>( );
+
+		/**
+		 * Default constructor.
+		 */
+
+		public DependencyParserHandler( )
+		{
+			super( new ModuleParserErrorHandler( ) );
+		}
+
+		public AbstractParseState createStartState( )
+		{
+			return new NodeState( null );
+		}
+
+		/**
+		 * Returns the dependency keys of the module.
+		 *
+		 * @param location
+		 *            the location of the module
+		 * @param resourceFolder
+		 *            the resource folder, or <code>null</code>
+		 * @return the list of dependency keys
+		 */
+
+		List<String> getDependencyKeys( String location, String resourceFolder )
+		{
+			Set<String> keys = new HashSet<String>( );
+
+			Map<String, String> locations = new HashMap<String, String>( );
+			Iterator<Map.Entry<String, String>> iter = libraries.entrySet( )
+					.iterator( );
+			while ( iter.hasNext( ) )
+			{
+				Map.Entry<String, String> entry = iter.next( );
+				String libLocation = resolve( resourceFolder, location, entry
+						.getValue( ) );
+				locations.put( entry.getKey( ), libLocation );
+				keys.add( getKey( LIBRARY, libLocation ) );
+			}
+
+			Iterator<String> refs = elementRefs.iterator( );
+			while ( refs.hasNext( ) )
+			{
+				String ref = refs.next( );
+				String libLocation = locations.get( StringUtil
+						.extractNamespace( ref ) );
+				if ( libLocation != null )
+					keys.add( getKey( LIBRARY_ELEMENT, libLocation
+							+ ELEMENT_SEPARATOR + StringUtil.extractName( ref ) ) );
+			}
+
+			for ( int i = 0; i < styleSheets.size( ); i++ )
+				keys.add( getKey( STYLE_SHEET, resolve( resourceFolder,
+						location, styleSheets.get( i ) ) ) );
+
+			for ( int i = 0; i < resources.size( ); i++ )
+				keys.add( getKey( RESOURCE, resources.get( i ) ) );
+
+			return new ArrayList<String>( keys );
+		}
+
+		/**
+		 * Parses any tag of the module and collects the dependencies from
+		 * the attributes, properties and structures.
+		 */
+
+		class NodeState extends InnerParseState
+		{
+
+			/**
+			 * The state of the parent tag, or <code>null</code> for the
+			 * document.
+			 */
+
+			private final NodeState parent;
+
+			/**
+			 * The value of the name attribute.
+			 */
+
+			private String name = null;
+
+			/**
+			 * The member values of a structure.
+			 */
+
+			private Map<String, String> members = null;
+
+			/**
+			 * Constructs the state.
+			 *
+			 * @param parent
+			 *            the state of the parent tag
+			 */
+
+			NodeState( NodeState parent )
+			{
+				this.parent = parent;
+			}
+
+			public void parseAttrs( Attributes attrs )
+					throws XMLParserException
+			{
+				name = attrs.getValue( DesignSchemaConstants.NAME_ATTRIB );
+
+				String extendsName = attrs
+						.getValue( DesignSchemaConstants.EXTENDS_ATTRIB );
+				if ( extendsName != null )
+					elementRefs.add( extendsName );
+			}
+
+			public AbstractParseState startElement( String tagName )
+			{
+				return new NodeState( this );
+			}
+
+			public void end( ) throws SAXException
+			{
+				if ( parent == null )
+					return;
+
+				String value = StringUtil.trimString( text.toString( ) );
+
+				if ( isTag( DesignSchemaConstants.PROPERTY_TAG ) )
+				{
+					if ( parent.isTag( DesignSchemaConstants.STRUCTURE_TAG ) )
+					{
+						if ( parent.members == null )
+							parent.members = new HashMap<String, String>( );
+						parent.members.put( name, value );
+					}
+					else if ( value != null )
+					{
+						if ( REFERENCE_PROPS.contains( name ) )
+							elementRefs.add( value );
+						else if ( IModuleModel.INCLUDE_RESOURCE_PROP
+								.equals( name ) )
+							resources.add( value );
+					}
+				}
+				else if ( isTag( DesignSchemaConstants.VALUE_TAG ) )
+				{
+					if ( value != null
+							&& parent
+									.isTag( DesignSchemaConstants.SIMPLE_PROPERTY_LIST_TAG )
+							&& IModuleModel.INCLUDE_RESOURCE_PROP
+									.equals( parent.name ) )
+						resources.add( value );
+				}
+				else if ( isTag( DesignSchemaConstants.STRUCTURE_TAG )
+						&& members != null
+						&& parent.isTag( DesignSchemaConstants.LIST_PROPERTY_TAG ) )
+				{
+					if ( IModuleModel.LIBRARIES_PROP.equals( parent.name ) )
+					{
+						String fileName = members
+								.get( IncludedLibrary.FILE_NAME_MEMBER );
+						String namespace = members
+								.get( IncludedLibrary.NAMESPACE_MEMEBR );
+						if ( fileName != null && namespace != null )
+							libraries.put( namespace, fileName );
+					}
+					else if ( IReportDesignModel.CSSES_PROP
+							.equals( parent.name ) )
+					{
+						String fileName = members
+								.get( IncludedCssStyleSheet.FILE_NAME_MEMBER );
+						if ( fileName != null )
+							styleSheets.add( fileName );
+					}
+				}
+			}
+
+			/**
+			 * Checks whether this state is for the given tag.
+			 *
+			 * @param tagName
+			 *            the tag name
+			 * @return <code>true</code> if the tag matches
+			 */
+
+			boolean isTag( String tagName )
+			{
+				return tagName.equalsIgnoreCase( elementName );
+			}
+		}
+	}
+}
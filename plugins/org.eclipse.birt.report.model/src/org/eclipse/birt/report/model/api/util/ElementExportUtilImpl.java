@@ -2,9 +2,11 @@
 package org.eclipse.birt.report.model.api.util;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+import org.eclipse.birt.report.model.activity.ActivityStack;
 import org.eclipse.birt.report.model.api.CommandStack;
 import org.eclipse.birt.report.model.api.DataSetHandle;
 import org.eclipse.birt.report.model.api.DataSourceHandle;
@@ -61,6 +63,36 @@ import org.eclipse.birt.report.model.util.LibraryUtil;
 public class ElementExportUtilImpl
 {
 
+	/**
+	 * Conflict policy that fails the export if the name of an element is used
+	 * in the target library.
+	 */
+
+	public static final int CONFLICT_FAIL = 0;
+
+	/**
+	 * Conflict policy that skips the element if the name of itself or any of
+	 * its contents is used in the target library or by another element to
+	 * export before it.
+	 */
+
+	public static final int CONFLICT_SKIP = 1;
+
+	/**
+	 * Conflict policy that drops the elements with the same name in the target
+	 * library.
+	 */
+
+	public static final int CONFLICT_OVERRIDE = 2;
+
+	/**
+	 * Conflict policy that gives the element a unique name if its name is used
+	 * in the target library. References among the exported elements are
+	 * updated to the new names.
+	 */
+
+	public static final int CONFLICT_RENAME = 3;
+
 	/**
 	 * Exports the given element into one library file. If the library file is
 	 * not found, new library file will be created and saved as the given file
@@ -145,28 +177,9 @@ public class ElementExportUtilImpl
 				libraryFileName );
 		assert libraryHandle != null;
 
-		ElementExporter exporter = new ElementExporter( libraryHandle );
-
-		// Check the elements to export
-		Iterator iter = elementsToExport.iterator( );
-		while ( iter.hasNext( ) )
-		{
-			DesignElementHandle elementToExport = (DesignElementHandle) iter
-					.next( );
-
-			exporter.checkElementToExport( elementToExport, true );
-		}
-
-		// Export all elements in the given list
-
-		iter = elementsToExport.iterator( );
-		while ( iter.hasNext( ) )
-		{
-			DesignElementHandle elementToExport = (DesignElementHandle) iter
-					.next( );
-
-			exportElement( elementToExport, libraryHandle, canOverride );
-		}
+		exportElements( elementsToExport, libraryHandle, canOverride
+				? CONFLICT_OVERRIDE
+				: CONFLICT_FAIL );
 
 		libraryHandle.save( );
 		libraryHandle.close( );
@@ -212,6 +225,66 @@ public class ElementExportUtilImpl
 		}
 	}
 
+	/**
+	 * Exports the given elements into one library in one transaction. Unlike
+	 * exporting the elements one by one, the name conflicts are decided for
+	 * all the elements before any of them is exported, and no event is sent
+	 * until all the elements are exported.
+	 * 
+	 * @param elementsToExport
+	 *            handles of the elements to export
+	 * @param targetLibraryHandle
+	 *            handle of target library
+	 * @param conflictPolicy
+	 *            how to handle the element whose name is used in the target
+	 *            library. One of <code>CONFLICT_FAIL</code>,
+	 *            <code>CONFLICT_SKIP</code>, <code>CONFLICT_OVERRIDE</code>
+	 *            and <code>CONFLICT_RENAME</code>.
+	 * @return handles of the exported elements in the target library. Skipped
+	 *         elements are not included.
+	 * 
+	 * @throws SemanticException
+	 *             if error encountered when element name is duplicate in the
+	 *             target library and the policy is <code>CONFLICT_FAIL</code>
+	 *             , or when adding elements to the library. No element is
+	 *             exported in this case.
+	 * @throws IllegalArgumentException
+	 *             if any element to export is not in design file.
+	 */
+
+	public static List<DesignElementHandle> exportElements(
+			List<DesignElementHandle> elementsToExport,
+			LibraryHandle targetLibraryHandle, int conflictPolicy )
+			throws SemanticException
+	{
+		if ( elementsToExport == null || elementsToExport.isEmpty( ) )
+			return Collections.emptyList( );
+
+		ElementExporter exporter = new ElementExporter( targetLibraryHandle );
+		for ( int i = 0; i < elementsToExport.size( ); i++ )
+			exporter.checkElementToExport( elementsToExport.get( i ), true );
+
+		ActivityStack stack = targetLibraryHandle.getModule( )
+				.getActivityStack( );
+		stack.startSilentTrans( CommandLabelFactory
+				.getCommandLabel( MessageConstants.EXPORT_ELEMENT_TO_LIBRARY ) );
+
+		List<DesignElementHandle> retList = null;
+		try
+		{
+			retList = exporter.exportElements( elementsToExport,
+					conflictPolicy );
+		}
+		catch ( SemanticException e )
+		{
+			stack.rollback( );
+			throw e;
+		}
+
+		stack.commit( );
+		return retList;
+	}
+
 	/**
 	 * Exports the given style into selected theme.
 	 * 
@@ -618,7 +691,7 @@ public class ElementExportUtilImpl
 	 *         name as the exported element and its content elements, otherwise
 	 *         return <false>.
 	 */
-	private static boolean checkExportableElementByContext(
+	static boolean checkExportableElementByContext(
 			DesignElement element, ModuleHandle targetLibraryHandle,
 			boolean canOverride )
 	{
@@ -13,9 +13,11 @@ package org.eclipse.birt.report.model.api.util;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import org.eclipse.birt.report.model.api.DesignElementHandle;
@@ -37,6 +39,7 @@ import org.eclipse.birt.report.model.api.elements.structures.ConfigVariable;
 import org.eclipse.birt.report.model.api.elements.structures.CustomColor;
 import org.eclipse.birt.report.model.api.elements.structures.EmbeddedImage;
 import org.eclipse.birt.report.model.api.elements.structures.PropertyBinding;
+import org.eclipse.birt.report.model.api.metadata.IElementPropertyDefn;
 import org.eclipse.birt.report.model.api.metadata.IPropertyDefn;
 import org.eclipse.birt.report.model.api.metadata.IPropertyType;
 import org.eclipse.birt.report.model.command.GroupElementCommand;
@@ -46,6 +49,7 @@ import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.core.NameSpace;
 import org.eclipse.birt.report.model.core.ReferencableStructure;
 import org.eclipse.birt.report.model.core.Structure;
+import org.eclipse.birt.report.model.core.StyleElement;
 import org.eclipse.birt.report.model.core.namespace.AbstractNameHelper;
 import org.eclipse.birt.report.model.elements.ExtendedItem;
 import org.eclipse.birt.report.model.elements.Theme;
@@ -63,6 +67,9 @@ import org.eclipse.birt.report.model.elements.olap.Measure;
 import org.eclipse.birt.report.model.elements.olap.MeasureGroup;
 import org.eclipse.birt.report.model.i18n.ModelMessages;
 import org.eclipse.birt.report.model.metadata.ElementDefn;
+import org.eclipse.birt.report.model.metadata.ElementPropertyDefn;
+import org.eclipse.birt.report.model.metadata.ElementRefValue;
+import org.eclipse.birt.report.model.metadata.MetaDataDictionary;
 import org.eclipse.birt.report.model.metadata.PropertyDefn;
 import org.eclipse.birt.report.model.util.ContentIterator;
 import org.eclipse.birt.report.model.util.ElementFactoryUtil;
@@ -636,6 +643,20 @@ class ElementExporterImpl
 	{
 		checkOperation( );
 
+		return exportStyle( elementToExport, getDefaultTheme( ), canOverride );
+	}
+
+	/**
+	 * Returns the default theme of the target library. If the library has no
+	 * default theme, it is created in the themes slot.
+	 * 
+	 * @return the handle of the default theme
+	 * @throws SemanticException
+	 *             if the default theme cannot be added
+	 */
+
+	private ThemeHandle getDefaultTheme( ) throws SemanticException
+	{
 		SlotHandle themes = ( (LibraryHandle) targetModuleHandle ).getThemes( );
 		String defaultThemeName = ModelMessages
 				.getMessage( IThemeModel.DEFAULT_THEME_NAME );
@@ -660,7 +681,7 @@ class ElementExporterImpl
 			themeHandle = (ThemeHandle) theme.getHandle( targetModuleHandle
 					.getModule( ) );
 
-		return exportStyle( elementToExport, themeHandle, canOverride );
+		return themeHandle;
 	}
 
 	/**
@@ -692,10 +713,440 @@ class ElementExporterImpl
 
 		DesignElementHandle newElementHandle = duplicateElement(
 				elementToExport, false );
+
 		addToSlot( theme.getStyles( ), newElementHandle );
 		return newElementHandle;
 	}
 
+	/**
+	 * Exports the given elements. Name conflicts with the target library and
+	 * among the given elements are decided before any element is exported,
+	 * according to the given conflict policy.
+	 * 
+	 * @param elementsToExport
+	 *            handles of the elements to export
+	 * @param conflictPolicy
+	 *            the conflict policy, one of the <code>CONFLICT_</code>
+	 *            constants of <code>ElementExportUtil</code>
+	 * @return handles of the exported elements. Skipped elements are not
+	 *         included.
+	 * @throws SemanticException
+	 *             if error encountered when adding elements to target library
+	 *             or duplicating property values from the given elements.
+	 */
+
+	List<DesignElementHandle> exportElements(
+			List<DesignElementHandle> elementsToExport, int conflictPolicy )
+			throws SemanticException
+	{
+		List<DesignElementHandle> toExport = elementsToExport;
+		if ( conflictPolicy == ElementExportUtilImpl.CONFLICT_SKIP )
+			toExport = filterConflicts( elementsToExport );
+
+		else if ( conflictPolicy == ElementExportUtilImpl.CONFLICT_RENAME )
+			return exportRenamedElements( elementsToExport );
+
+		boolean canOverride = conflictPolicy == ElementExportUtilImpl.CONFLICT_OVERRIDE;
+
+		List<DesignElementHandle> retList = new ArrayList<DesignElementHandle>(
+				toExport.size( ) );
+		for ( int i = 0; i < toExport.size( ); i++ )
+		{
+			DesignElementHandle newElementHandle = exportElement( toExport
+					.get( i ), canOverride );
+			if ( newElementHandle != null )
+				retList.add( newElementHandle );
+		}
+
+		return retList;
+	}
+
+	/**
+	 * Exports the given elements. The copies of the elements and their
+	 * contents are renamed if their names are used in the target library.
+	 * All the copies are renamed before any of them is added, so that the
+	 * references among the given elements are updated to the new names.
+	 * 
+	 * @param elementsToExport
+	 *            handles of the elements to export
+	 * @return handles of the exported elements
+	 * @throws SemanticException
+	 *             if error encountered when adding elements to target library
+	 *             or duplicating property values from the given elements.
+	 */
+
+	private List<DesignElementHandle> exportRenamedElements(
+			List<DesignElementHandle> elementsToExport )
+			throws SemanticException
+	{
+		// the new names by the name space and the old names
+
+		Map<String, String> newNames = new HashMap<String, String>( );
+
+		List<DesignElementHandle> sources = new ArrayList<DesignElementHandle>(
+				elementsToExport.size( ) );
+		List<DesignElementHandle> copies = new ArrayList<DesignElementHandle>(
+				elementsToExport.size( ) );
+		for ( int i = 0; i < elementsToExport.size( ); i++ )
+		{
+			DesignElementHandle elementToExport = elementsToExport.get( i );
+
+			DesignElementHandle newElementHandle = null;
+			if ( elementToExport instanceof StyleHandle )
+			{
+				checkOperation( );
+				newElementHandle = duplicateElement( elementToExport, false );
+
+				// style names are unique in the theme the style is added to.
+
+				Theme theme = (Theme) getDefaultTheme( ).getElement( );
+				makeUniqueName( newElementHandle.getElement( ), theme,
+						newNames );
+			}
+			else
+			{
+				int slotID = getExportSlotID( elementToExport );
+				if ( targetModuleHandle.getDefn( ).getSlot( slotID ) == null )
+					continue;
+
+				newElementHandle = duplicateElement( elementToExport, false );
+				makeUniqueNames( newElementHandle.getElement( ), newNames );
+			}
+
+			sources.add( elementToExport );
+			copies.add( newElementHandle );
+		}
+
+		if ( !newNames.isEmpty( ) )
+		{
+			for ( int i = 0; i < copies.size( ); i++ )
+				updateReferences( copies.get( i ).getElement( ), newNames );
+		}
+
+		for ( int i = 0; i < copies.size( ); i++ )
+		{
+			DesignElementHandle elementToExport = sources.get( i );
+			DesignElementHandle newElementHandle = copies.get( i );
+			if ( elementToExport instanceof StyleHandle )
+			{
+				addToSlot( getDefaultTheme( ).getStyles( ), newElementHandle );
+				continue;
+			}
+
+			addToSlot( targetModuleHandle
+					.getSlot( getExportSlotID( elementToExport ) ),
+					newElementHandle );
+			if ( propBindingMap.keySet( ).contains( elementToExport ) )
+				propBindingMap.put( elementToExport, newElementHandle );
+		}
+
+		return copies;
+	}
+
+	/**
+	 * Returns the elements which can be exported without name conflicts. An
+	 * element is left out if the name of itself or any of its contents is used
+	 * in the target library or by an element before it in the list.
+	 * 
+	 * @param elementsToExport
+	 *            handles of the elements to export
+	 * @return handles of the elements without name conflicts
+	 */
+
+	private List<DesignElementHandle> filterConflicts(
+			List<DesignElementHandle> elementsToExport )
+	{
+		Module targetModule = targetModuleHandle.getModule( );
+		Theme theme = (Theme) targetModule.getNameHelper( ).getNameSpace(
+				Module.THEME_NAME_SPACE ).getElement(
+				ModelMessages.getMessage( IThemeModel.DEFAULT_THEME_NAME ) );
+
+		// styles are exported to the default theme, whose style names are
+		// collected once instead of searching the theme for each style.
+
+		Set<String> themeStyleNames = new HashSet<String>( );
+		if ( theme != null )
+		{
+			List<StyleElement> styles = theme.getAllStyles( );
+			for ( int i = 0; i < styles.size( ); i++ )
+				themeStyleNames.add( styles.get( i ).getFullName( )
+						.toLowerCase( ) );
+		}
+
+		// names used by the elements to export, keyed by the name space
+
+		Map<Integer, Set<String>> usedNames = new HashMap<Integer, Set<String>>( );
+
+		List<DesignElementHandle> retList = new ArrayList<DesignElementHandle>( );
+		List<DesignElement> namedElements = new ArrayList<DesignElement>( );
+		for ( int i = 0; i < elementsToExport.size( ); i++ )
+		{
+			DesignElementHandle elementToExport = elementsToExport.get( i );
+
+			namedElements.clear( );
+			DesignElement element = elementToExport.getElement( );
+			if ( element.getName( ) != null )
+				namedElements.add( element );
+
+			if ( !( element instanceof StyleElement ) )
+			{
+				ContentIterator iter = new ContentIterator( elementToExport
+						.getModule( ), element );
+				while ( iter.hasNext( ) )
+				{
+					DesignElement content = iter.next( );
+					if ( content.getName( ) != null )
+						namedElements.add( content );
+				}
+			}
+
+			boolean hasConflict = false;
+			for ( int j = 0; j < namedElements.size( ) && !hasConflict; j++ )
+			{
+				DesignElement namedElement = namedElements.get( j );
+				String name = getNameKey( namedElement );
+				Set<String> names = usedNames.get( Integer
+						.valueOf( getNameSpaceID( namedElement ) ) );
+
+				if ( names != null && names.contains( name ) )
+					hasConflict = true;
+				else if ( namedElement instanceof StyleElement )
+					hasConflict = themeStyleNames.contains( name );
+				else
+					hasConflict = !ElementExportUtilImpl
+							.checkExportableElementByContext( namedElement,
+									targetModuleHandle, false );
+			}
+
+			if ( hasConflict )
+				continue;
+
+			for ( int j = 0; j < namedElements.size( ); j++ )
+			{
+				DesignElement namedElement = namedElements.get( j );
+				Integer nameSpaceID = Integer
+						.valueOf( getNameSpaceID( namedElement ) );
+				Set<String> names = usedNames.get( nameSpaceID );
+				if ( names == null )
+				{
+					names = new HashSet<String>( );
+					usedNames.put( nameSpaceID, names );
+				}
+				names.add( getNameKey( namedElement ) );
+			}
+
+			retList.add( elementToExport );
+		}
+
+		return retList;
+	}
+
+	/**
+	 * Returns the name space id of the given element.
+	 * 
+	 * @param element
+	 *            the element
+	 * @return the name space id
+	 */
+
+	private static int getNameSpaceID( DesignElement element )
+	{
+		return ( (ElementDefn) element.getDefn( ) ).getNameSpaceID( );
+	}
+
+	/**
+	 * Returns the name of the element to compare with. Style names are case
+	 * insensitive.
+	 * 
+	 * @param element
+	 *            the element
+	 * @return the name to compare with
+	 */
+
+	private static String getNameKey( DesignElement element )
+	{
+		String name = element.getName( );
+		return element instanceof StyleElement ? name.toLowerCase( ) : name;
+	}
+
+	/**
+	 * Renames the given element and its contents whose names are used in the
+	 * target module. The element is not added to the target module yet.
+	 * 
+	 * @param element
+	 *            the element to rename
+	 * @param newNames
+	 *            the map to record the new names by the old ones
+	 */
+
+	private void makeUniqueNames( DesignElement element,
+			Map<String, String> newNames )
+	{
+		makeUniqueName( element, null, newNames );
+
+		ContentIterator iter = new ContentIterator( targetModuleHandle
+				.getModule( ), element );
+		while ( iter.hasNext( ) )
+			makeUniqueName( iter.next( ), null, newNames );
+	}
+
+	/**
+	 * Makes the name of the given element unique in the target module, or in
+	 * the given theme for styles, and records the new name if the element is
+	 * renamed.
+	 * 
+	 * @param element
+	 *            the element to rename
+	 * @param theme
+	 *            the theme the style is added to, or <code>null</code> if
+	 *            the name is unique in the target module
+	 * @param newNames
+	 *            the map to record the new names by the old ones
+	 */
+
+	private void makeUniqueName( DesignElement element, Theme theme,
+			Map<String, String> newNames )
+	{
+		String oldName = element.getName( );
+		if ( oldName == null )
+			return;
+
+		if ( theme != null )
+			theme.makeUniqueName( element );
+		else
+			targetModuleHandle.getModule( ).makeUniqueName( element );
+		if ( !oldName.equals( element.getName( ) ) )
+			newNames.put( getRenameKey( getNameSpaceID( element ), oldName,
+					element instanceof StyleElement ), element.getName( ) );
+	}
+
+	/**
+	 * Returns the key of a renamed element.
+	 * 
+	 * @param nameSpaceID
+	 *            the name space id of the element
+	 * @param name
+	 *            the old name of the element
+	 * @param isStyle
+	 *            whether the element is a style, whose name is case
+	 *            insensitive
+	 * @return the key of the renamed element
+	 */
+
+	private static String getRenameKey( int nameSpaceID, String name,
+			boolean isStyle )
+	{
+		return nameSpaceID + " " + ( isStyle ? name.toLowerCase( ) : name ); //$NON-NLS-1$
+	}
+
+	/**
+	 * Updates the element references of the given element and its contents
+	 * that refer to renamed elements by the old names. The element is not
+	 * added to the target module yet.
+	 * 
+	 * @param element
+	 *            the copy of an exported element
+	 * @param newNames
+	 *            the new names by the old ones
+	 */
+
+	private void updateReferences( DesignElement element,
+			Map<String, String> newNames )
+	{
+		Module targetModule = targetModuleHandle.getModule( );
+		updateElementReferences( targetModule, element, newNames );
+
+		ContentIterator iter = new ContentIterator( targetModule, element );
+		while ( iter.hasNext( ) )
+			updateElementReferences( targetModule, iter.next( ), newNames );
+	}
+
+	/**
+	 * Updates the element reference properties of the given element that
+	 * refer to renamed elements by the old names.
+	 * 
+	 * @param module
+	 *            the target module
+	 * @param element
+	 *            the element
+	 * @param newNames
+	 *            the new names by the old ones
+	 */
+
+	private static void updateElementReferences( Module module,
+			DesignElement element, Map<String, String> newNames )
+	{
+		List<IElementPropertyDefn> propDefns = element.getPropertyDefns( );
+		for ( int i = 0; i < propDefns.size( ); i++ )
+		{
+			ElementPropertyDefn propDefn = (ElementPropertyDefn) propDefns
+					.get( i );
+			ElementDefn targetDefn = (ElementDefn) propDefn
+					.getTargetElementType( );
+			if ( targetDefn == null )
+				continue;
+
+			Object value = element.getLocalProperty( module, propDefn );
+			if ( value instanceof ElementRefValue )
+			{
+				ElementRefValue newValue = getNewReference(
+						(ElementRefValue) value, targetDefn, newNames );
+				if ( newValue != null )
+					element.setProperty( propDefn, newValue );
+			}
+			else if ( value instanceof List )
+			{
+				List<Object> values = new ArrayList<Object>( (List<?>) value );
+				boolean changed = false;
+				for ( int j = 0; j < values.size( ); j++ )
+				{
+					if ( !( values.get( j ) instanceof ElementRefValue ) )
+						continue;
+
+					ElementRefValue newValue = getNewReference(
+							(ElementRefValue) values.get( j ), targetDefn,
+							newNames );
+					if ( newValue != null )
+					{
+						values.set( j, newValue );
+						changed = true;
+					}
+				}
+				if ( changed )
+					element.setProperty( propDefn, values );
+			}
+		}
+	}
+
+	/**
+	 * Returns the reference to the new name if the given reference refers to
+	 * a renamed element.
+	 * 
+	 * @param value
+	 *            the reference value
+	 * @param targetDefn
+	 *            the definition of the referenced elements
+	 * @param newNames
+	 *            the new names by the old ones
+	 * @return the reference to the new name, or <code>null</code> if the
+	 *         referenced element is not renamed
+	 */
+
+	private static ElementRefValue getNewReference( ElementRefValue value,
+			ElementDefn targetDefn, Map<String, String> newNames )
+	{
+		if ( value.getLibraryNamespace( ) != null || value.getName( ) == null )
+			return null;
+
+		String newName = newNames.get( getRenameKey( targetDefn
+				.getNameSpaceID( ), value.getName( ), targetDefn
+				.isKindOf( MetaDataDictionary.getInstance( ).getStyle( ) ) ) );
+		if ( newName == null )
+			return null;
+
+		return new ElementRefValue( null, newName );
+	}
+
 	/**
 	 * Change property binding's 'id' property. Let its' value related to the
 	 * new data set element.
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.api.util;
+
+import java.util.List;
+
+import org.eclipse.birt.report.model.api.ErrorDetail;
+
+/**
+ * Receives the validation results of <code>BatchModuleValidator</code>. The
+ * listener is called from the worker threads as soon as each file is
+ * validated, so it must be thread-safe.
+ * 
+ * @see BatchModuleValidator
+ */
+
+public interface IBatchValidationListener
+{
+
+	/**
+	 * Notifies that a file is validated.
+	 * 
+	 * @param fileName
+	 *            the file name of the design or library
+	 * @param errors
+	 *            the fatal or semantic errors, each of which is
+	 *            <code>ErrorDetail</code>. Empty if the file is valid.
+	 * @param warnings
+	 *            the semantic warnings, each of which is
+	 *            <code>ErrorDetail</code>
+	 */
+
+	void moduleValidated( String fileName, List<ErrorDetail> errors,
+			List<ErrorDetail> warnings );
+}
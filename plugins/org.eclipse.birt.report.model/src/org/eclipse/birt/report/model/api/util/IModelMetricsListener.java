@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.api.util;
+
+/**
+ * Receives the performance metrics of the model. The listener is registered
+ * on the session, or on the design engine with
+ * <code>DesignConfig.setMetricsListener</code>, and is shared by all the
+ * modules opened in the session. No metrics are collected if no listener is
+ * registered.
+ * <p>
+ * The listener is called synchronously, possibly from several threads, but
+ * never while the model holds the locks of its caches. It must be
+ * thread-safe, return quickly and never call back into the model. Durations
+ * are in nanoseconds.
+ *
+ * @see ModelMetricsRecorder
+ */
+
+public interface IModelMetricsListener
+{
+
+	/**
+	 * The command is executed.
+	 */
+
+	static final int COMMAND_EXECUTE = 0;
+
+	/**
+	 * The command is undone.
+	 */
+
+	static final int COMMAND_UNDO = 1;
+
+	/**
+	 * The command is redone.
+	 */
+
+	static final int COMMAND_REDO = 2;
+
+	/**
+	 * The cache of resolved xpaths of a module.
+	 */
+
+	static final String XPATH_CACHE = "xpath"; //$NON-NLS-1$
+
+	/**
+	 * The cache of element and structure collections of a module.
+	 */
+
+	static final String COLLECTION_CACHE = "collections"; //$NON-NLS-1$
+
+	/**
+	 * The cache of column bindings of report items.
+	 */
+
+	static final String COLUMN_BINDING_CACHE = "columnBindings"; //$NON-NLS-1$
+
+	/**
+	 * The cache of levels resolved by qualified names.
+	 */
+
+	static final String LEVEL_CACHE = "levels"; //$NON-NLS-1$
+
+	/**
+	 * The cache of styles of themes by name.
+	 */
+
+	static final String THEME_STYLE_CACHE = "themeStyles"; //$NON-NLS-1$
+
+	/**
+	 * The cache of parsed css style sheets.
+	 */
+
+	static final String STYLE_SHEET_CACHE = "styleSheets"; //$NON-NLS-1$
+
+	/**
+	 * Notifies that a design or library file is parsed. For a design, the
+	 * time includes parsing the libraries it includes.
+	 *
+	 * @param location
+	 *            the location of the file
+	 * @param isLibrary
+	 *            <code>true</code> if the file is a library
+	 * @param nanos
+	 *            the parse time
+	 */
+
+	void moduleParsed( String location, boolean isLibrary, long nanos );
+
+	/**
+	 * Notifies that a library is included in a module by command.
+	 *
+	 * @param location
+	 *            the file name of the library
+	 * @param nanos
+	 *            the time to load and include the library
+	 */
+
+	void libraryIncluded( String location, long nanos );
+
+	/**
+	 * Notifies that a library is reloaded.
+	 *
+	 * @param location
+	 *            the location of the library
+	 * @param nanos
+	 *            the time to reload the library
+	 */
+
+	void libraryReloaded( String location, long nanos );
+
+	/**
+	 * Notifies that an activity record is executed, undone or redone on the
+	 * command stack.
+	 *
+	 * @param action
+	 *            one of <code>COMMAND_EXECUTE</code>,
+	 *            <code>COMMAND_UNDO</code> and <code>COMMAND_REDO</code>
+	 * @param commandType
+	 *            the type of the record, which is the simple class name, such
+	 *            as <code>PropertyRecord</code>. Undone and redone
+	 *            transactions are <code>CompoundRecord</code>.
+	 * @param nanos
+	 *            the time to perform the record
+	 */
+
+	void commandPerformed( int action, String commandType, long nanos );
+
+	/**
+	 * Notifies that a semantic validator is performed on an element.
+	 *
+	 * @param validationID
+	 *            the validation ID, which is the validator name, followed by
+	 *            the property name for property validators, such as
+	 *            <code>ValueRequiredValidator.dataSet</code>
+	 * @param nanos
+	 *            the validation time
+	 */
+
+	void validationPerformed( String validationID, long nanos );
+
+	/**
+	 * Notifies that an event is delivered to the listeners of an element.
+	 *
+	 * @param eventType
+	 *            the type of the event
+	 * @param listenerCount
+	 *            the number of the listeners the event is delivered to
+	 */
+
+	void notificationSent( int eventType, int listenerCount );
+
+	/**
+	 * Notifies that a cache is looked up.
+	 *
+	 * @param cacheName
+	 *            the name of the cache, such as <code>XPATH_CACHE</code>
+	 * @param hit
+	 *            <code>true</code> if the value is found in the cache
+	 */
+
+	void cacheAccessed( String cacheName, boolean hit );
+}
@@ -0,0 +1,498 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.api.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics listener that keeps the metrics in memory. Each kind of metrics is
+ * kept in a histogram whose buckets are the powers of two, and cache lookups
+ * are kept as hit and miss counters. The histograms are named as follows:
+ * <ul>
+ * <li><code>parse.design</code> and <code>parse.library</code>: the parse time
+ * <li><code>library.include</code> and <code>library.reload</code>: the time
+ * to include and reload libraries
+ * <li><code>command.execute.</code>, <code>command.undo.</code> and
+ * <code>command.redo.</code> followed by the record type: the command latency
+ * <li><code>validation.</code> followed by the validation ID: the validation
+ * time
+ * <li><code>notification.</code> followed by the event type: the number of
+ * listeners each event is delivered to
+ * </ul>
+ * Times are in nanoseconds. The recorder is thread-safe. Values are recorded
+ * without a lock shared by all the metrics: cache counters are atomic, and
+ * each histogram is locked on its own.
+ */
+
+public class ModelMetricsRecorder implements IModelMetricsListener
+{
+
+	/**
+	 * Prefix of the parse histograms.
+	 */
+
+	public static final String PARSE = "parse."; //$NON-NLS-1$
+
+	/**
+	 * Prefix of the library histograms.
+	 */
+
+	public static final String LIBRARY = "library."; //$NON-NLS-1$
+
+	/**
+	 * Prefix of the command histograms.
+	 */
+
+	public static final String COMMAND = "command."; //$NON-NLS-1$
+
+	/**
+	 * Prefix of the validation histograms.
+	 */
+
+	public static final String VALIDATION = "validation."; //$NON-NLS-1$
+
+	/**
+	 * Prefix of the notification histograms.
+	 */
+
+	public static final String NOTIFICATION = "notification."; //$NON-NLS-1$
+
+	/**
+	 * The names of the command actions.
+	 */
+
+	private static final String[] COMMAND_ACTIONS = {"execute.", //$NON-NLS-1$
+			"undo.", "redo."}; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * The histograms by name.
+	 */
+
+	private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<String, Histogram>( );
+
+	/**
+	 * The hit and miss counters by cache name.
+	 */
+
+	private final ConcurrentMap<String, AtomicLong[]> caches = new ConcurrentHashMap<String, AtomicLong[]>( );
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.birt.report.model.api.util.IModelMetricsListener#moduleParsed
+	 * (java.lang.String, boolean, long)
+	 */
+
+	public void moduleParsed( String location, boolean isLibrary, long nanos )
+	{
+		record( PARSE + ( isLibrary ? "library" : "design" ), nanos ); //$NON-NLS-1$//$NON-NLS-2$
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.birt.report.model.api.util.IModelMetricsListener#libraryIncluded
+	 * (java.lang.String, long)
+	 */
+
+	public void libraryIncluded( String location, long nanos )
+	{
+		record( LIBRARY + "include", nanos ); //$NON-NLS-1$
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.birt.report.model.api.util.IModelMetricsListener#libraryReloaded
+	 * (java.lang.String, long)
+	 */
+
+	public void libraryReloaded( String location, long nanos )
+	{
+		record( LIBRARY + "reload", nanos ); //$NON-NLS-1$
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.birt.report.model.api.util.IModelMetricsListener#commandPerformed
+	 * (int, java.lang.String, long)
+	 */
+
+	public void commandPerformed( int action, String commandType, long nanos )
+	{
+		if ( action < 0 || action >= COMMAND_ACTIONS.length )
+			return;
+
+		record( COMMAND + COMMAND_ACTIONS[action] + commandType, nanos );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.birt.report.model.api.util.IModelMetricsListener#
+	 * validationPerformed(java.lang.String, long)
+	 */
+
+	public void validationPerformed( String validationID, long nanos )
+	{
+		record( VALIDATION + validationID, nanos );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.birt.report.model.api.util.IModelMetricsListener#notificationSent
+	 * (int, int)
+	 */
+
+	public void notificationSent( int eventType, int listenerCount )
+	{
+		record( NOTIFICATION + eventType, listenerCount );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.birt.report.model.api.util.IModelMetricsListener#cacheAccessed
+	 * (java.lang.String, boolean)
+	 */
+
+	public void cacheAccessed( String cacheName, boolean hit )
+	{
+		AtomicLong[] counters = caches.get( cacheName );
+		if ( counters == null )
+		{
+			AtomicLong[] newCounters = {new AtomicLong( ), new AtomicLong( )};
+			counters = caches.putIfAbsent( cacheName, newCounters );
+			if ( counters == null )
+				counters = newCounters;
+		}
+
+		counters[hit ? 0 : 1].incrementAndGet( );
+	}
+
+	/**
+	 * Adds a value to the histogram with the given name.
+	 *
+	 * @param name
+	 *            the histogram name
+	 * @param value
+	 *            the value, such as a duration in nanoseconds
+	 */
+
+	public void record( String name, long value )
+	{
+		Histogram histogram = histograms.get( name );
+		if ( histogram == null )
+		{
+			Histogram newHistogram = new Histogram( );
+			histogram = histograms.putIfAbsent( name, newHistogram );
+			if ( histogram == null )
+				histogram = newHistogram;
+		}
+
+		histogram.add( value );
+	}
+
+	/**
+	 * Returns the names of all the histograms.
+	 *
+	 * @return the sorted histogram names
+	 */
+
+	public List<String> getHistogramNames( )
+	{
+		List<String> names = new ArrayList<String>( histograms.keySet( ) );
+		Collections.sort( names );
+		return names;
+	}
+
+	/**
+	 * Returns a copy of the histogram with the given name.
+	 *
+	 * @param name
+	 *            the histogram name
+	 * @return the copy of the histogram, or <code>null</code> if no value is
+	 *         recorded with the name
+	 */
+
+	public Histogram getHistogram( String name )
+	{
+		Histogram histogram = histograms.get( name );
+		return histogram == null ? null : histogram.copy( );
+	}
+
+	/**
+	 * Returns the number of the hits of the given cache.
+	 *
+	 * @param cacheName
+	 *            the cache name
+	 * @return the number of the hits
+	 */
+
+	public long getHitCount( String cacheName )
+	{
+		AtomicLong[] counters = caches.get( cacheName );
+		return counters == null ? 0 : counters[0].get( );
+	}
+
+	/**
+	 * Returns the number of the misses of the given cache.
+	 *
+	 * @param cacheName
+	 *            the cache name
+	 * @return the number of the misses
+	 */
+
+	public long getMissCount( String cacheName )
+	{
+		AtomicLong[] counters = caches.get( cacheName );
+		return counters == null ? 0 : counters[1].get( );
+	}
+
+	/**
+	 * Returns the hit rate of the given cache.
+	 *
+	 * @param cacheName
+	 *            the cache name
+	 * @return the hit rate between 0 and 1, or 0 if the cache is never looked
+	 *         up
+	 */
+
+	public double getHitRate( String cacheName )
+	{
+		AtomicLong[] counters = caches.get( cacheName );
+		if ( counters == null )
+			return 0;
+
+		long hits = counters[0].get( );
+		long total = hits + counters[1].get( );
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * Drops all the recorded metrics.
+	 */
+
+	public void reset( )
+	{
+		histograms.clear( );
+		caches.clear( );
+	}
+
+	/**
+	 * Histogram of non-negative values. The value <code>v</code> is counted in
+	 * the bucket <code>i</code> if <code>2<sup>i-1</sup> &lt;= v &lt;
+	 * 2<sup>i</sup></code>, and zero is counted in the bucket 0.
+	 */
+
+	public static final class Histogram
+	{
+
+		/**
+		 * The number of the buckets.
+		 */
+
+		public static final int BUCKET_COUNT = 64;
+
+		/**
+		 * The counts of the buckets.
+		 */
+
+		private final long[] buckets = new long[BUCKET_COUNT];
+
+		/**
+		 * The number of the values.
+		 */
+
+		private long count = 0;
+
+		/**
+		 * The sum of the values.
+		 */
+
+		private long total = 0;
+
+		/**
+		 * The minimal value.
+		 */
+
+		private long min = Long.MAX_VALUE;
+
+		/**
+		 * The maximal value.
+		 */
+
+		private long max = Long.MIN_VALUE;
+
+		/**
+		 * Constructs an empty histogram.
+		 */
+
+		Histogram( )
+		{
+		}
+
+		/**
+		 * Adds a value. Negative values are counted as zero.
+		 *
+		 * @param value
+		 *            the value
+		 */
+
+		synchronized void add( long value )
+		{
+			if ( value < 0 )
+				value = 0;
+
+			buckets[64 - Long.numberOfLeadingZeros( value )]++;
+			count++;
+			total += value;
+			if ( value < min )
+				min = value;
+			if ( value > max )
+				max = value;
+		}
+
+		/**
+		 * Returns a copy of this histogram.
+		 *
+		 * @return the copy
+		 */
+
+		synchronized Histogram copy( )
+		{
+			Histogram histogram = new Histogram( );
+			System.arraycopy( buckets, 0, histogram.buckets, 0, BUCKET_COUNT );
+			histogram.count = count;
+			histogram.total = total;
+			histogram.min = min;
+			histogram.max = max;
+			return histogram;
+		}
+
+		/**
+		 * Returns the number of the values.
+		 *
+		 * @return the number of the values
+		 */
+
+		public long getCount( )
+		{
+			return count;
+		}
+
+		/**
+		 * Returns the sum of the values.
+		 *
+		 * @return the sum of the values
+		 */
+
+		public long getTotal( )
+		{
+			return total;
+		}
+
+		/**
+		 * Returns the minimal value.
+		 *
+		 * @return the minimal value, or 0 if the histogram is empty
+		 */
+
+		public long getMin( )
+		{
+			return count == 0 ? 0 : min;
+		}
+
+		/**
+		 * Returns the maximal value.
+		 *
+		 * @return the maximal value, or 0 if the histogram is empty
+		 */
+
+		public long getMax( )
+		{
+			return count == 0 ? 0 : max;
+		}
+
+		/**
+		 * Returns the mean of the values.
+		 *
+		 * @return the mean, or 0 if the histogram is empty
+		 */
+
+		public double getMean( )
+		{
+			return count == 0 ? 0 : (double) total / count;
+		}
+
+		/**
+		 * Returns the number of the values in the given bucket.
+		 *
+		 * @param bucket
+		 *            the bucket index
+		 * @return the number of the values
+		 */
+
+		public long getBucketCount( int bucket )
+		{
+			return buckets[bucket];
+		}
+
+		/**
+		 * Returns the upper bound of the given percentile. The bound is the
+		 * upper bound of the bucket the percentile falls in, and is never
+		 * greater than the maximal value.
+		 *
+		 * @param percentile
+		 *            the percentile between 0 and 100
+		 * @return the upper bound, or 0 if the histogram is empty
+		 */
+
+		public long getPercentile( double percentile )
+		{
+			if ( count == 0 )
+				return 0;
+
+			long rank = (long) Math.ceil( count * percentile / 100 );
+			if ( rank < 1 )
+				rank = 1;
+
+			long seen = 0;
+			for ( int i = 0; i < BUCKET_COUNT; i++ )
+			{
+				seen += buckets[i];
+				if ( seen >= rank )
+				{
+					long bound = i == 0 ? 0 : ( i == 63
+							? Long.MAX_VALUE
+							: ( 1L << i ) - 1 );
+					return Math.min( bound, max );
+				}
+			}
+
+			return max;
+		}
+	}
+}
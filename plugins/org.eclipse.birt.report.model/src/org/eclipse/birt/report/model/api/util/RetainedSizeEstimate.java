@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.api.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Estimated heap size retained by one module or by all the open modules of a
+ * session. The estimate is computed analytically by walking the model, so no
+ * instrumentation agent is needed. It is broken down into the following
+ * categories:
+ * <ul>
+ * <li>{@link #ELEMENTS}: the elements, their slots and listeners
+ * <li>{@link #PROPERTIES}: the property maps and the simple property values
+ * <li>{@link #STRUCTURES}: the structure lists and structures, except the
+ * data of embedded images
+ * <li>{@link #EMBEDDED_IMAGES}: the data of embedded images
+ * <li>{@link #RESOURCE_BUNDLES}: the cached message files
+ * <li>{@link #EXTENSIONS}: the property values and models of extended items
+ * <li>{@link #COMMAND_STACK}: the records on the command stack
+ * <li>{@link #INDEXES}: the element ID map and the name spaces
+ * </ul>
+ * Sizes are in bytes and assume a 64-bit JVM with compressed references. They
+ * are meant for capacity planning and admission control, not as an exact
+ * measure: values shared by several elements are counted once per reference,
+ * and the models of extended items are estimated from the size of the XML
+ * they are read from.
+ */
+
+public final class RetainedSizeEstimate
+{
+
+	/**
+	 * The category of the elements.
+	 */
+
+	public static final String ELEMENTS = "elements"; //$NON-NLS-1$
+
+	/**
+	 * The category of the property values.
+	 */
+
+	public static final String PROPERTIES = "properties"; //$NON-NLS-1$
+
+	/**
+	 * The category of the structures.
+	 */
+
+	public static final String STRUCTURES = "structures"; //$NON-NLS-1$
+
+	/**
+	 * The category of the embedded image data.
+	 */
+
+	public static final String EMBEDDED_IMAGES = "embeddedImages"; //$NON-NLS-1$
+
+	/**
+	 * The category of the cached message files.
+	 */
+
+	public static final String RESOURCE_BUNDLES = "resourceBundles"; //$NON-NLS-1$
+
+	/**
+	 * The category of the extended item values and models.
+	 */
+
+	public static final String EXTENSIONS = "extensions"; //$NON-NLS-1$
+
+	/**
+	 * The category of the command stack records.
+	 */
+
+	public static final String COMMAND_STACK = "commandStack"; //$NON-NLS-1$
+
+	/**
+	 * The category of the element ID map and the name spaces.
+	 */
+
+	public static final String INDEXES = "indexes"; //$NON-NLS-1$
+
+	/**
+	 * All the categories in the order of the sizes passed to the constructor.
+	 */
+
+	private static final List<String> CATEGORIES = Collections
+			.unmodifiableList( Arrays.asList( new String[]{ELEMENTS,
+					PROPERTIES, STRUCTURES, EMBEDDED_IMAGES, RESOURCE_BUNDLES,
+					EXTENSIONS, COMMAND_STACK, INDEXES} ) );
+
+	/**
+	 * The sizes in the order of <code>CATEGORIES</code>.
+	 */
+
+	private final long[] sizes;
+
+	/**
+	 * The number of the elements.
+	 */
+
+	private final int elementCount;
+
+	/**
+	 * The number of the modules, including the included libraries.
+	 */
+
+	private final int moduleCount;
+
+	/**
+	 * Constructs the estimate.
+	 *
+	 * @param sizes
+	 *            the sizes in the order of {@link #getCategories()}
+	 * @param elementCount
+	 *            the number of the elements
+	 * @param moduleCount
+	 *            the number of the modules, including the included libraries
+	 */
+
+	public RetainedSizeEstimate( long[] sizes, int elementCount,
+			int moduleCount )
+	{
+		if ( sizes == null || sizes.length != CATEGORIES.size( ) )
+			throw new IllegalArgumentException(
+					"The sizes do not match the categories." ); //$NON-NLS-1$
+
+		this.sizes = sizes.clone( );
+		this.elementCount = elementCount;
+		this.moduleCount = moduleCount;
+	}
+
+	/**
+	 * Returns all the categories.
+	 *
+	 * @return the read-only list of the category names
+	 */
+
+	public static List<String> getCategories( )
+	{
+		return CATEGORIES;
+	}
+
+	/**
+	 * Returns the estimated size of the given category.
+	 *
+	 * @param category
+	 *            the category, such as {@link #ELEMENTS}
+	 * @return the size in bytes, or 0 if the category is unknown
+	 */
+
+	public long getSize( String category )
+	{
+		int index = CATEGORIES.indexOf( category );
+		return index == -1 ? 0 : sizes[index];
+	}
+
+	/**
+	 * Returns the estimated size of all the categories.
+	 *
+	 * @return the size in bytes
+	 */
+
+	public long getTotalSize( )
+	{
+		long total = 0;
+		for ( int i = 0; i < sizes.length; i++ )
+			total += sizes[i];
+		return total;
+	}
+
+	/**
+	 * Returns the number of the elements, including the modules themselves.
+	 *
+	 * @return the number of the elements
+	 */
+
+	public int getElementCount( )
+	{
+		return elementCount;
+	}
+
+	/**
+	 * Returns the number of the modules, including the included libraries.
+	 *
+	 * @return the number of the modules
+	 */
+
+	public int getModuleCount( )
+	{
+		return moduleCount;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+
+	public String toString( )
+	{
+		StringBuffer sb = new StringBuffer( );
+		sb.append( getTotalSize( ) ).append( " bytes" ); //$NON-NLS-1$
+		for ( int i = 0; i < sizes.length; i++ )
+		{
+			sb.append( i == 0 ? " (" : ", " ); //$NON-NLS-1$ //$NON-NLS-2$
+			sb.append( CATEGORIES.get( i ) ).append( '=' ).append( sizes[i] );
+		}
+		sb.append( ')' );
+		return sb.toString( );
+	}
+}
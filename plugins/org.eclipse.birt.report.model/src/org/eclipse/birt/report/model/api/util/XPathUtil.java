@@ -21,6 +21,7 @@ import org.eclipse.birt.report.model.api.metadata.IPropertyType;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.Structure;
 import org.eclipse.birt.report.model.core.StructureContext;
+import org.eclipse.birt.report.model.core.XPathIndex;
 import org.eclipse.birt.report.model.elements.interfaces.IExtendedItemModel;
 import org.eclipse.birt.report.model.elements.interfaces.IOdaExtendableElementModel;
 import org.eclipse.birt.report.model.metadata.ElementDefn;
@@ -220,7 +221,20 @@ public class XPathUtil
 
 	public static Object getInstance( ModuleHandle module, String xpath )
 	{
-		return new XPathParser( module ).getObject( xpath );
+		if ( module == null || xpath == null )
+			return new XPathParser( module ).getObject( xpath );
+
+		// the resolved xpath is kept until the module is changed.
+
+		XPathIndex index = module.getModule( ).getXPathIndex( );
+		Object instance = index.get( xpath );
+		if ( instance != XPathIndex.NOT_CACHED )
+			return instance;
+
+		long version = index.getVersion( );
+		instance = new XPathParser( module ).getObject( xpath );
+		index.put( xpath, version, instance );
+		return instance;
 	}
 
 	/**
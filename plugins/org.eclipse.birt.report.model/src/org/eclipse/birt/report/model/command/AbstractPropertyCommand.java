@@ -31,6 +31,7 @@ import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.IReferencableElement;
 import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.core.ReferencableStructure;
+import org.eclipse.birt.report.model.core.ReferencableStructureList;
 import org.eclipse.birt.report.model.core.ReferenceableElement;
 import org.eclipse.birt.report.model.core.Structure;
 import org.eclipse.birt.report.model.core.StructureContext;
@@ -472,7 +473,7 @@ abstract public class AbstractPropertyCommand extends AbstractElementCommand
 							element );
 			}
 			else
-				list = new ArrayList( );
+				list = ReferencableStructureList.createList( propDefn );
 
 			// Set the list value on the element itself.
 
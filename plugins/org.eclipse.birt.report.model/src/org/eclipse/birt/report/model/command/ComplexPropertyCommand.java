@@ -24,6 +24,7 @@ import org.eclipse.birt.report.model.api.metadata.PropertyValueException;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.core.ReferencableStructure;
+import org.eclipse.birt.report.model.core.ReferencableStructureList;
 import org.eclipse.birt.report.model.core.Structure;
 import org.eclipse.birt.report.model.core.StructureContext;
 import org.eclipse.birt.report.model.css.CssStyle;
@@ -120,7 +121,7 @@ public class ComplexPropertyCommand extends AbstractPropertyCommand
 		list = context.getList( module );
 		if ( null == list )
 		{
-			list = new ArrayList( );
+			list = ReferencableStructureList.createList( context.getPropDefn( ) );
 			MemberRecord memberRecord = new MemberRecord( module, element,
 					context, list );
 			stack.execute( memberRecord );
@@ -315,7 +316,7 @@ public class ComplexPropertyCommand extends AbstractPropertyCommand
 		list = context.getList( module );
 		if ( null == list )
 		{
-			list = new ArrayList( );
+			list = ReferencableStructureList.createList( context.getPropDefn( ) );
 			MemberRecord memberRecord = new MemberRecord( module, element,
 					context, list );
 			stack.execute( memberRecord );
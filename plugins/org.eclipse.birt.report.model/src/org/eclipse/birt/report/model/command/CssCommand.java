@@ -30,6 +30,7 @@ import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.core.StructureContext;
 import org.eclipse.birt.report.model.css.CssStyleSheet;
 import org.eclipse.birt.report.model.css.CssStyleSheetAdapter;
+import org.eclipse.birt.report.model.css.StyleSheetCache;
 import org.eclipse.birt.report.model.elements.AbstractTheme;
 import org.eclipse.birt.report.model.elements.ICssStyleSheetOperation;
 import org.eclipse.birt.report.model.elements.ReportDesign;
@@ -382,6 +383,12 @@ public class CssCommand extends AbstractElementCommand
 			// if exist such css style sheet, but now css file is removed.
 			// should drop such css.
 
+			URL url = module.findResource( fileName,
+					IResourceLocator.CASCADING_STYLE_SHEET );
+			if ( url != null )
+				StyleSheetCache.getInstance( ).invalidate(
+						url.toExternalForm( ) );
+
 			try
 			{
 				newStyleSheet = module.loadCss( fileName );
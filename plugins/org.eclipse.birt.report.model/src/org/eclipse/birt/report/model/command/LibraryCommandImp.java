@@ -15,9 +15,11 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.birt.core.exception.BirtException;
 import org.eclipse.birt.report.model.activity.AbstractElementCommand;
@@ -32,15 +34,22 @@ import org.eclipse.birt.report.model.api.command.LibraryReloadedEvent;
 import org.eclipse.birt.report.model.api.core.IAccessControl;
 import org.eclipse.birt.report.model.api.core.IModuleModel;
 import org.eclipse.birt.report.model.api.elements.structures.IncludedLibrary;
+import org.eclipse.birt.report.model.api.metadata.IElementPropertyDefn;
 import org.eclipse.birt.report.model.api.metadata.PropertyValueException;
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
 import org.eclipse.birt.report.model.api.util.StringUtil;
+import org.eclipse.birt.report.model.core.ContainerContext;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.core.StructureContext;
 import org.eclipse.birt.report.model.elements.ExtendedItem;
 import org.eclipse.birt.report.model.elements.Library;
+import org.eclipse.birt.report.model.elements.OdaDataSet;
+import org.eclipse.birt.report.model.elements.OdaDataSource;
+import org.eclipse.birt.report.model.elements.ReportItem;
 import org.eclipse.birt.report.model.elements.interfaces.IDesignElementModel;
 import org.eclipse.birt.report.model.elements.interfaces.ILibraryModel;
+import org.eclipse.birt.report.model.metadata.ElementDefn;
 import org.eclipse.birt.report.model.metadata.ElementPropertyDefn;
 import org.eclipse.birt.report.model.metadata.ElementRefValue;
 import org.eclipse.birt.report.model.util.ElementStructureUtil;
@@ -56,6 +65,12 @@ import org.eclipse.birt.report.model.util.LibraryUtil;
 public class LibraryCommandImp extends AbstractElementCommand
 {
 
+	/**
+	 * The extends children whose virtual elements are kept during reloading.
+	 */
+
+	private Set<DesignElement> unchangedDescendents = Collections.emptySet( );
+
 	/**
 	 * The action to reload the library.
 	 */
@@ -101,6 +116,33 @@ public class LibraryCommandImp extends AbstractElementCommand
 
 	public void addLibrary( String libraryFileName, String namespace )
 			throws DesignFileException, SemanticException
+	{
+		IModelMetricsListener metrics = module.getMetricsListener( );
+		long start = metrics == null ? 0 : System.nanoTime( );
+
+		includeLibrary( libraryFileName, namespace );
+
+		if ( metrics != null )
+			metrics.libraryIncluded( libraryFileName, System.nanoTime( )
+					- start );
+	}
+
+	/**
+	 * Adds new library file to report design. The include is not reported to
+	 * the metrics listener, so that it can be counted as a reload instead.
+	 * 
+	 * @param libraryFileName
+	 *            library file name
+	 * @param namespace
+	 *            library name space
+	 * @throws DesignFileException
+	 *             if the library file is not found or has fatal errors.
+	 * @throws SemanticException
+	 *             if failed to add <code>IncludeLibrary</code> structure
+	 */
+
+	private void includeLibrary( String libraryFileName, String namespace )
+			throws DesignFileException, SemanticException
 	{
 		if ( StringUtil.isBlank( namespace ) )
 			namespace = StringUtil.extractFileName( libraryFileName );
@@ -331,6 +373,14 @@ public class LibraryCommandImp extends AbstractElementCommand
 	/**
 	 * Reloads the library with the given file path. After reloading, activity
 	 * stack is cleared.
+	 * <p>
+	 * The library is dropped and included again as a whole: the overridden
+	 * values of the extends children are saved and restored, and all the
+	 * references to the library are resolved again. The old and the new
+	 * library are not compared to apply only the inserted, dropped or changed
+	 * elements. The only difference from a first include is that the extends
+	 * children whose parent keeps the same structure keep their virtual
+	 * elements instead of creating them again.
 	 * 
 	 * @param toReloadLibrary
 	 *            the URL file path of the library file. The instance must be
@@ -350,6 +400,9 @@ public class LibraryCommandImp extends AbstractElementCommand
 			IncludedLibrary includedLib, Map<String, Library> reloadLibs )
 			throws DesignFileException, SemanticException
 	{
+		IModelMetricsListener metrics = module.getMetricsListener( );
+		long start = metrics == null ? 0 : System.nanoTime( );
+
 		String location = toReloadLibrary.getLocation( );
 		if ( location == null )
 			location = toReloadLibrary.getFileName( );
@@ -392,11 +445,20 @@ public class LibraryCommandImp extends AbstractElementCommand
 			// required. This can solve unresolving issues like DataSet, Style
 			// references, as well as removing names from name space.
 
+			// the elements whose structure is not changed in the new library
+			// keep their virtual elements, only the extends is resolved again.
+
+			Library newLibrary = preloadLibrary( library, tmpIncludedLib
+					.getFileName( ), reloadLibs );
+			if ( newLibrary != null )
+				unchangedDescendents = getUnchangedDescendents( library,
+						newLibrary );
+
 			overriddenValues = dealAllElementDecendents( library, RELOAD_ACTION );
 			doDropLibrary( library );
 
-			doReloadLibrary( library, tmpIncludedLib.getFileName( ),
-					overriddenValues, reloadLibs, removePosn );
+			doReloadLibrary( library, newLibrary, tmpIncludedLib
+					.getFileName( ), overriddenValues, reloadLibs, removePosn );
 		}
 		catch ( SemanticException e )
 		{
@@ -408,6 +470,10 @@ public class LibraryCommandImp extends AbstractElementCommand
 			activityStack.rollback( );
 			throw e;
 		}
+		finally
+		{
+			unchangedDescendents = Collections.emptySet( );
+		}
 
 		// send the library reloaded event first, and then commit transaction
 
@@ -416,6 +482,8 @@ public class LibraryCommandImp extends AbstractElementCommand
 
 		doPostReloadAction( library );
 
+		if ( metrics != null )
+			metrics.libraryReloaded( location, System.nanoTime( ) - start );
 	}
 
 	/**
@@ -481,15 +549,22 @@ public class LibraryCommandImp extends AbstractElementCommand
 	public void reloadLibrary( String libraryFileName, String namespace )
 			throws DesignFileException, SemanticException
 	{
+		IModelMetricsListener metrics = module.getMetricsListener( );
+		long start = metrics == null ? 0 : System.nanoTime( );
+
 		if ( StringUtil.isBlank( namespace ) )
 			namespace = StringUtil.extractFileName( libraryFileName );
 
-		addLibrary( libraryFileName, namespace );
+		includeLibrary( libraryFileName, namespace );
 
 		// do post reload actions
 
 		Library lib = module.getLibraryWithNamespace( namespace );
 		doPostReloadAction( lib );
+
+		if ( metrics != null )
+			metrics.libraryReloaded( libraryFileName, System.nanoTime( )
+					- start );
 	}
 
 	/**
@@ -603,6 +678,11 @@ public class LibraryCommandImp extends AbstractElementCommand
 	 * 
 	 * @param toReload
 	 *            the library to reload
+	 * @param newLibrary
+	 *            the new library instance if it has been loaded, otherwise
+	 *            <code>null</code>
+	 * @param includedLibPath
+	 *            the file path of the library
 	 * @param overriddenValues
 	 *            the overridden values
 	 * @param reloadLibs
@@ -614,18 +694,22 @@ public class LibraryCommandImp extends AbstractElementCommand
 	 * @throws DesignFileException
 	 */
 
-	private void doReloadLibrary( Library toReload, String includedLibPath,
+	private void doReloadLibrary( Library toReload, Library newLibrary,
+			String includedLibPath,
 			Map<Long, Map<Long, List<Object>>> overriddenValues,
 			Map<String, Library> reloadLibs, int removePosn )
 			throws SemanticException, DesignFileException
 	{
 		String namespace = toReload.getNamespace( );
-		URL fileURL = module.findResource( includedLibPath,
-				IResourceLocator.LIBRARY );
+		Library library = newLibrary;
+		URL fileURL = null;
+		if ( library == null )
+			fileURL = module.findResource( includedLibPath,
+					IResourceLocator.LIBRARY );
 
 		// if the file cannot be found,add the included library structure only.
 
-		if ( fileURL == null )
+		if ( library == null && fileURL == null )
 		{
 			if ( module.findIncludedLibrary( namespace ) == null )
 				addLibraryStructure( includedLibPath, namespace, removePosn );
@@ -651,26 +735,16 @@ public class LibraryCommandImp extends AbstractElementCommand
 			return;
 		}
 
-		Library library = null;
-		Library reloadLibrary = reloadLibs.get( toReload.getNamespace( ) ); 
-		
-		if ( reloadLibrary == null )
-		{
-			library = module.loadLibrary( includedLibPath, namespace,
-					reloadLibs, fileURL );
-			LibraryUtil.insertReloadLibs( reloadLibs, library );
-		}
-		else
-		{
-			library = reloadLibrary.contextClone( module );
-		}
+		if ( library == null )
+			library = loadLibrary( namespace, includedLibPath, fileURL,
+					reloadLibs );
 
 		library.setReadOnly( );
 
 		ActivityStack activityStack = getActivityStack( );
 
 		LibraryRecord record = new LibraryRecord( module, library,
-				overriddenValues, removePosn );
+				overriddenValues, removePosn, unchangedDescendents );
 
 		assert record != null;
 		activityStack.startTrans( record.getLabel( ) );
@@ -684,6 +758,275 @@ public class LibraryCommandImp extends AbstractElementCommand
 		activityStack.commit( );
 	}
 
+	/**
+	 * Loads the new instance of the library to reload.
+	 * 
+	 * @param namespace
+	 *            the library namespace
+	 * @param includedLibPath
+	 *            the file path of the library
+	 * @param fileURL
+	 *            the URL of the library file
+	 * @param reloadLibs
+	 *            the map contains reload libraries, the name space is key and
+	 *            the library instance is the value
+	 * @return the new library instance
+	 * @throws DesignFileException
+	 *             if the library file is invalid
+	 */
+
+	private Library loadLibrary( String namespace, String includedLibPath,
+			URL fileURL, Map<String, Library> reloadLibs )
+			throws DesignFileException
+	{
+		Library reloadLibrary = reloadLibs.get( namespace );
+		if ( reloadLibrary != null )
+			return reloadLibrary.contextClone( module );
+
+		Library library = module.loadLibrary( includedLibPath, namespace,
+				reloadLibs, fileURL );
+		LibraryUtil.insertReloadLibs( reloadLibs, library );
+		return library;
+	}
+
+	/**
+	 * Loads the new instance of the library before the old one is dropped, so
+	 * that extends children can be compared with the new extends parents.
+	 * <p>
+	 * The library is not loaded if no element in the module extends a
+	 * container in it, if the file cannot be found, or if other libraries have
+	 * been reloaded in the same batch. In the last case, the included
+	 * libraries of the new instance may be resolved to the old ones that are
+	 * still in the module.
+	 * 
+	 * @param library
+	 *            the library to reload
+	 * @param includedLibPath
+	 *            the file path of the library
+	 * @param reloadLibs
+	 *            the map contains reload libraries, the name space is key and
+	 *            the library instance is the value
+	 * @return the new library instance, or <code>null</code> if not loaded
+	 * @throws DesignFileException
+	 *             if the library file is invalid
+	 */
+
+	private Library preloadLibrary( Library library, String includedLibPath,
+			Map<String, Library> reloadLibs ) throws DesignFileException
+	{
+		String namespace = library.getNamespace( );
+		if ( !reloadLibs.isEmpty( ) && reloadLibs.get( namespace ) == null )
+			return null;
+
+		if ( !hasReusableDescendents( library ) )
+			return null;
+
+		URL fileURL = module.findResource( includedLibPath,
+				IResourceLocator.LIBRARY );
+		if ( fileURL == null )
+			return null;
+
+		return loadLibrary( namespace, includedLibPath, fileURL, reloadLibs );
+	}
+
+	/**
+	 * Checks whether any element in the module extends a container in the
+	 * given library whose virtual elements may be kept during reloading.
+	 * 
+	 * @param library
+	 *            the library to reload
+	 * @return <code>true</code> if there is such an element, otherwise
+	 *         <code>false</code>
+	 */
+
+	private boolean hasReusableDescendents( Library library )
+	{
+		LevelContentIterator contentIter = new LevelContentIterator( library,
+				library, 1 );
+		while ( contentIter.hasNext( ) )
+		{
+			DesignElement parent = contentIter.next( );
+			if ( !parent.hasDerived( ) || !isReusableContainer( parent ) )
+				continue;
+
+			List<DesignElement> derived = parent.getDerived( );
+			for ( int i = 0; i < derived.size( ); i++ )
+			{
+				if ( derived.get( i ).getRoot( ) == module )
+					return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the extends children in the module whose structure is the same
+	 * as the extends parent in both the old and the new library. The virtual
+	 * elements of these children need not to be removed and created again,
+	 * since the ids, names and containment of the new virtual elements would
+	 * be the same.
+	 * <p>
+	 * Only the virtual elements are reused. The references to the styles,
+	 * themes and other elements of the library are still unresolved and
+	 * resolved again for the whole module.
+	 * 
+	 * @param library
+	 *            the library to reload
+	 * @param newLibrary
+	 *            the new instance of the library
+	 * @return the set of the extends children
+	 */
+
+	private Set<DesignElement> getUnchangedDescendents( Library library,
+			Library newLibrary )
+	{
+		Set<DesignElement> retSet = new HashSet<DesignElement>( );
+
+		LevelContentIterator contentIter = new LevelContentIterator( library,
+				library, 1 );
+		while ( contentIter.hasNext( ) )
+		{
+			DesignElement parent = contentIter.next( );
+			if ( !parent.hasDerived( ) || !isReusableContainer( parent )
+					|| parent.getName( ) == null )
+				continue;
+
+			DesignElement newParent = newLibrary.findElement( parent
+					.getName( ) );
+			if ( newParent == null || newParent.getID( ) != parent.getID( )
+					|| !isSameStructure( parent, newParent, false ) )
+				continue;
+
+			List<DesignElement> derived = parent.getDerived( );
+			for ( int i = 0; i < derived.size( ); i++ )
+			{
+				DesignElement child = derived.get( i );
+				if ( child.getRoot( ) != module )
+					continue;
+
+				ElementRefValue value = (ElementRefValue) child
+						.getLocalProperty( module,
+								IDesignElementModel.EXTENDS_PROP );
+				if ( value == null
+						|| !library.getNamespace( ).equalsIgnoreCase(
+								value.getLibraryNamespace( ) ) )
+					continue;
+
+				if ( isSameStructure( parent, child, true ) )
+					retSet.add( child );
+			}
+		}
+
+		return retSet;
+	}
+
+	/**
+	 * Checks whether virtual elements of the extends children of the given
+	 * element may be kept during reloading. Extended items and their
+	 * extension models are always created again.
+	 * 
+	 * @param element
+	 *            the extends parent
+	 * @return <code>true</code> if the virtual elements may be kept
+	 */
+
+	private static boolean isReusableContainer( DesignElement element )
+	{
+		return element instanceof ReportItem
+				&& !( element instanceof ExtendedItem )
+				&& element.getDefn( ).isContainer( );
+	}
+
+	/**
+	 * Compares the contents of the two elements recursively.
+	 * 
+	 * @param source
+	 *            the element in the old library
+	 * @param target
+	 *            the element in the new library, or the extends child
+	 * @param isVirtual
+	 *            <code>true</code> if the target is the extends child, in
+	 *            which case the base ids of the target contents are compared
+	 *            with the ids of the source contents
+	 * @return <code>true</code> if the two elements have the same structure
+	 */
+
+	private static boolean isSameStructure( DesignElement source,
+			DesignElement target, boolean isVirtual )
+	{
+		ElementDefn defn = (ElementDefn) source.getDefn( );
+		if ( defn != target.getDefn( ) )
+			return false;
+
+		if ( !defn.isContainer( ) )
+			return true;
+
+		for ( int i = 0; i < defn.getSlotCount( ); i++ )
+		{
+			if ( !isSameContents( new ContainerContext( source, i ),
+					new ContainerContext( target, i ), isVirtual ) )
+				return false;
+		}
+
+		List<IElementPropertyDefn> properties = defn.getContents( );
+		for ( int i = 0; i < properties.size( ); i++ )
+		{
+			String propName = properties.get( i ).getName( );
+			if ( !isSameContents( new ContainerContext( source, propName ),
+					new ContainerContext( target, propName ), isVirtual ) )
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Compares the contents in the two containers recursively.
+	 * 
+	 * @param sourceInfor
+	 *            the container in the old library
+	 * @param targetInfor
+	 *            the container in the new library, or in the extends child
+	 * @param isVirtual
+	 *            <code>true</code> if the target is in the extends child
+	 * @return <code>true</code> if the two containers have the same contents
+	 */
+
+	private static boolean isSameContents( ContainerContext sourceInfor,
+			ContainerContext targetInfor, boolean isVirtual )
+	{
+		int count = sourceInfor.getContentCount( null );
+		if ( count != targetInfor.getContentCount( null ) )
+			return false;
+
+		for ( int i = 0; i < count; i++ )
+		{
+			DesignElement source = sourceInfor.getContent( null, i );
+			DesignElement target = targetInfor.getContent( null, i );
+
+			if ( source instanceof ExtendedItem
+					|| source instanceof OdaDataSet
+					|| source instanceof OdaDataSource )
+				return false;
+
+			if ( isVirtual )
+			{
+				if ( target.getBaseId( ) != source.getID( ) )
+					return false;
+			}
+			else if ( target.getID( ) != source.getID( )
+					|| !StringUtil.isEqual( source.getName( ), target
+							.getName( ) ) )
+				return false;
+
+			if ( !isSameStructure( source, target, isVirtual ) )
+				return false;
+		}
+
+		return true;
+	}
+
 	/**
 	 * Adds an include library structure in the module.
 	 * 
@@ -754,9 +1097,11 @@ public class LibraryCommandImp extends AbstractElementCommand
 						.clearOwnModel( );
 		}
 
-		// not layout structure involved.
+		// not layout structure involved, or the structure is not changed in
+		// the new library.
 
-		if ( !child.getDefn( ).isContainer( ) )
+		if ( !child.getDefn( ).isContainer( )
+				|| unchangedDescendents.contains( child ) )
 		{
 			// unresolves the extends child
 
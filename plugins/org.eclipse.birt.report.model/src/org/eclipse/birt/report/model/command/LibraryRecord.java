@@ -11,8 +11,10 @@
 
 package org.eclipse.birt.report.model.command;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.birt.report.model.api.activity.NotificationEvent;
 import org.eclipse.birt.report.model.api.command.LibraryEvent;
@@ -22,6 +24,7 @@ import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.elements.Library;
 import org.eclipse.birt.report.model.elements.ReportDesign;
+import org.eclipse.birt.report.model.elements.TableItem;
 import org.eclipse.birt.report.model.elements.interfaces.IDesignElementModel;
 import org.eclipse.birt.report.model.elements.interfaces.ILibraryModel;
 import org.eclipse.birt.report.model.elements.interfaces.IReportDesignModel;
@@ -54,6 +57,13 @@ class LibraryRecord extends AbstractLibraryRecord
 	 */
 	protected Map<Long, Map<Long, List<Object>>> overriddenValues = null;
 
+	/**
+	 * The extends children whose virtual elements are kept when the library
+	 * is reloaded. Only their extends references are resolved again.
+	 */
+
+	protected Set<DesignElement> unchangedDescendents = Collections.emptySet( );
+
 	/**
 	 * Constructs the library record.
 	 * 
@@ -116,6 +126,31 @@ class LibraryRecord extends AbstractLibraryRecord
 		assert overriddenValues != null;
 	}
 
+	/**
+	 * Constructs the library record. Only for reloading library.
+	 * 
+	 * @param module
+	 *            the module
+	 * @param library
+	 *            the library to add
+	 * @param values
+	 *            the cached overridden values when removing a library
+	 * @param posn
+	 *            the position to insert the library
+	 * @param unchangedDescendents
+	 *            the extends children whose virtual elements are kept
+	 */
+
+	LibraryRecord( Module module, Library library,
+			Map<Long, Map<Long, List<Object>>> values, int posn,
+			Set<DesignElement> unchangedDescendents )
+	{
+		this( module, library, values, posn );
+
+		this.unchangedDescendents = unchangedDescendents;
+		assert unchangedDescendents != null;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -243,6 +278,17 @@ class LibraryRecord extends AbstractLibraryRecord
 					extendRef.getLibraryNamespace( ) ) )
 				continue;
 
+			// the virtual elements are kept, and their names and ids are still
+			// in the module. Only resolve the extends again.
+
+			if ( unchangedDescendents.contains( tmpElement ) )
+			{
+				if ( tmpElement.getExtendsElement( ) != null
+						&& tmpElement instanceof TableItem )
+					( (TableItem) tmpElement ).refreshRenderModel( module );
+				continue;
+			}
+
 			// refresh the structure and add children to name space and id-map
 			ElementStructureUtil
 					.refreshStructureFromParent( module, tmpElement );
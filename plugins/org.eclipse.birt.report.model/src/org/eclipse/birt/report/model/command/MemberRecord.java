@@ -173,6 +173,17 @@ public class MemberRecord extends SimpleRecord
 		return element;
 	}
 
+	/**
+	 * Returns the definition of the member to change.
+	 * 
+	 * @return the member definition
+	 */
+
+	public PropertyDefn getMemberDefn( )
+	{
+		return memberRef.getPropDefn( );
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
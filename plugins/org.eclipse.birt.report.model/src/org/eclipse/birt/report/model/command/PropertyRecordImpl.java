@@ -437,7 +437,7 @@ class PropertyRecordImpl extends SimpleRecord
 			return retValue;
 
 		retValue.add( new LayoutRecordTask( compoundElement.getRoot( ),
-				compoundElement ) );
+				compoundElement, element ) );
 		return retValue;
 	}
 }
\ No newline at end of file
@@ -12,10 +12,13 @@
 package org.eclipse.birt.report.model.command;
 
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.birt.report.model.activity.SimpleRecord;
 import org.eclipse.birt.report.model.api.activity.NotificationEvent;
+import org.eclipse.birt.report.model.api.command.StyleEvent;
 import org.eclipse.birt.report.model.api.command.ThemeEvent;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.StyleElement;
@@ -122,7 +125,10 @@ public class ThemeRecord extends SimpleRecord
 	}
 
 	/**
-	 * Unresolves references of styles of a theme.
+	 * Unresolves references of styles of a theme. The references of all the
+	 * styles are unresolved first, and then each client element receives one
+	 * style event, so that listeners see the element after the whole theme is
+	 * switched.
 	 * 
 	 * @param theme
 	 *            the theme
@@ -140,11 +146,21 @@ public class ThemeRecord extends SimpleRecord
 
 		AbstractTheme t = (AbstractTheme) theme.getElement( );
 		List<StyleElement> styles = t.getAllStyles( );
+		Set<DesignElement> styleClients = new LinkedHashSet<DesignElement>( );
 		Iterator<StyleElement> iter = styles.iterator( );
 		while ( iter.hasNext( ) )
 		{
 			StyleElement style = iter.next( );
-			style.updateClientReferences( );
+			style.unresolveClientReferences( styleClients );
+		}
+
+		// send out a event to let UI repaint the element.
+
+		Iterator<DesignElement> clientIter = styleClients.iterator( );
+		while ( clientIter.hasNext( ) )
+		{
+			DesignElement client = clientIter.next( );
+			client.broadcast( new StyleEvent( client ) );
 		}
 	}
 }
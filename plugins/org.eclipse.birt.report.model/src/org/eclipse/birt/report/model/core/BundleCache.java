@@ -0,0 +1,487 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.core;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PropertyResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.birt.report.model.util.ModelUtil;
+import org.eclipse.birt.report.model.util.URIUtilImpl;
+
+/**
+ * Session level cache of the parsed message files. The bundles are keyed by
+ * the resolved URL of the message file. Since the locale is part of the
+ * message file name, one entry is kept for each message file and locale, and
+ * is shared by all the modules in the session.
+ * <p>
+ * Lookups do not lock. When the number of bundles exceeds the capacity, the
+ * least recently used ones are evicted. A bundle read from a local file is
+ * reloaded once the file is modified. To keep lookups free of file system
+ * calls, the modification time is checked at most once per check interval for
+ * each bundle. Any bundle can be dropped at once with
+ * {@link #invalidate(String)} when a resource change is fired.
+ */
+
+final class BundleCache
+{
+
+	/**
+	 * The default number of bundles to keep.
+	 */
+
+	static final int DEFAULT_CAPACITY = 256;
+
+	/**
+	 * The default interval in milliseconds between two checks of the
+	 * modification time of a message file.
+	 */
+
+	static final long DEFAULT_CHECK_INTERVAL = 2000;
+
+	/**
+	 * The cached bundles keyed by the external form of the URL.
+	 */
+
+	private final Map<String, Bundle> bundles = new ConcurrentHashMap<String, Bundle>( );
+
+	/**
+	 * The logical clock to record the bundle access order.
+	 */
+
+	private final AtomicLong clock = new AtomicLong( );
+
+	/**
+	 * The maximal number of bundles to keep.
+	 */
+
+	private final int capacity;
+
+	/**
+	 * The minimal interval in milliseconds between two checks of the
+	 * modification time of a message file.
+	 */
+
+	private final long checkInterval;
+
+	/**
+	 * Orders the eviction candidates from the least recently used one.
+	 */
+
+	private static final Comparator<Candidate> LRU_ORDER = new Comparator<Candidate>( ) {
+
+		public int compare( Candidate candidate1, Candidate candidate2 )
+		{
+			if ( candidate1.lastAccess == candidate2.lastAccess )
+				return 0;
+			return candidate1.lastAccess < candidate2.lastAccess ? -1 : 1;
+		}
+	};
+
+	/**
+	 * Constructs the cache with the default capacity and check interval.
+	 */
+
+	BundleCache( )
+	{
+		this( DEFAULT_CAPACITY, DEFAULT_CHECK_INTERVAL );
+	}
+
+	/**
+	 * Constructs the cache with the given capacity and check interval.
+	 *
+	 * @param capacity
+	 *            the maximal number of bundles to keep
+	 * @param checkInterval
+	 *            the minimal interval in milliseconds between two checks of
+	 *            the modification time of a message file. 0 checks it on each
+	 *            lookup.
+	 */
+
+	BundleCache( int capacity, long checkInterval )
+	{
+		assert capacity > 0;
+		assert checkInterval >= 0;
+		this.capacity = capacity;
+		this.checkInterval = checkInterval;
+	}
+
+	/**
+	 * Returns the bundle of the message file at the given URL. The file is
+	 * loaded if it is not cached, or if it has been modified and the check
+	 * interval has elapsed since the last check.
+	 *
+	 * @param bundleURL
+	 *            the URL of the message file
+	 * @return the bundle. If the file cannot be read, the bundle has no
+	 *         message.
+	 */
+
+	Bundle getBundle( URL bundleURL )
+	{
+		assert bundleURL != null;
+
+		String key = bundleURL.toExternalForm( );
+		Bundle bundle = bundles.get( key );
+		if ( bundle == null || bundle.isModified( checkInterval ) )
+		{
+			bundle = new Bundle( bundleURL );
+			bundles.put( key, bundle );
+
+			if ( bundles.size( ) > capacity )
+				evict( );
+		}
+
+		bundle.lastAccess = clock.incrementAndGet( );
+		return bundle;
+	}
+
+	/**
+	 * Drops the bundles of the message file at the given path. The path is
+	 * compared in case-insensitive way.
+	 *
+	 * @param path
+	 *            the file path or URL of the changed resource
+	 */
+
+	void invalidate( String path )
+	{
+		URL url = ModelUtil.getURLPresentation( path );
+		if ( url == null )
+			return;
+
+		String location = url.toExternalForm( );
+		Iterator<String> iter = bundles.keySet( ).iterator( );
+		while ( iter.hasNext( ) )
+		{
+			if ( location.equalsIgnoreCase( iter.next( ) ) )
+				iter.remove( );
+		}
+	}
+
+	/**
+	 * Drops all the cached bundles.
+	 */
+
+	void clear( )
+	{
+		bundles.clear( );
+	}
+
+	/**
+	 * Returns the number of the cached bundles.
+	 *
+	 * @return the number of the cached bundles
+	 */
+
+	int size( )
+	{
+		return bundles.size( );
+	}
+
+	/**
+	 * Returns the estimated heap size of all the cached bundles.
+	 *
+	 * @return the size in bytes
+	 */
+
+	long estimateSize( )
+	{
+		long size = RetainedSizeEstimator.sizeOfHashMap( bundles.size( ) );
+		Iterator<Map.Entry<String, Bundle>> iter = bundles.entrySet( )
+				.iterator( );
+		while ( iter.hasNext( ) )
+		{
+			Map.Entry<String, Bundle> entry = iter.next( );
+			size += RetainedSizeEstimator.sizeOfString( entry.getKey( ) )
+					+ entry.getValue( ).estimateSize( );
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the estimated heap size of the cached bundle of the message file
+	 * at the given URL. The file is not loaded if it is not cached.
+	 *
+	 * @param bundleURL
+	 *            the URL of the message file
+	 * @return the size in bytes, or 0 if the bundle is not cached
+	 */
+
+	long estimateSize( URL bundleURL )
+	{
+		String key = bundleURL.toExternalForm( );
+		Bundle bundle = bundles.get( key );
+		if ( bundle == null )
+			return 0;
+
+		return RetainedSizeEstimator.sizeOfString( key )
+				+ bundle.estimateSize( );
+	}
+
+	/**
+	 * Evicts the least recently used bundles until three quarters of the
+	 * capacity are used, so that the eviction does not happen on each load.
+	 */
+
+	private synchronized void evict( )
+	{
+		if ( bundles.size( ) <= capacity )
+			return;
+
+		// the access times are copied since they may be changed by other
+		// threads during sorting.
+
+		List<Candidate> candidates = new ArrayList<Candidate>( bundles.size( ) );
+		Iterator<Map.Entry<String, Bundle>> iter = bundles.entrySet( )
+				.iterator( );
+		while ( iter.hasNext( ) )
+		{
+			Map.Entry<String, Bundle> entry = iter.next( );
+			candidates.add( new Candidate( entry.getKey( ), entry.getValue( )
+					.lastAccess ) );
+		}
+		Collections.sort( candidates, LRU_ORDER );
+
+		int toRemove = candidates.size( ) - capacity * 3 / 4;
+		for ( int i = 0; i < toRemove; i++ )
+			bundles.remove( candidates.get( i ).key );
+	}
+
+	/**
+	 * The bundle to be evicted with its access time at the eviction.
+	 */
+
+	private static class Candidate
+	{
+
+		/**
+		 * The key of the bundle.
+		 */
+
+		final String key;
+
+		/**
+		 * The access time of the bundle.
+		 */
+
+		final long lastAccess;
+
+		/**
+		 * Constructs the candidate.
+		 *
+		 * @param key
+		 *            the key of the bundle
+		 * @param lastAccess
+		 *            the access time of the bundle
+		 */
+
+		Candidate( String key, long lastAccess )
+		{
+			this.key = key;
+			this.lastAccess = lastAccess;
+		}
+	}
+
+	/**
+	 * The parsed message file. The bundle is immutable except the access
+	 * time, and can be shared among threads.
+	 */
+
+	static final class Bundle
+	{
+
+		/**
+		 * The resource bundle, or <code>null</code> if the file cannot be
+		 * read.
+		 */
+
+		private final PropertyResourceBundle bundle;
+
+		/**
+		 * The message keys in the bundle.
+		 */
+
+		private final Set<String> keys;
+
+		/**
+		 * The local file of the bundle, or <code>null</code> if the bundle is
+		 * not read from a local file.
+		 */
+
+		private final File file;
+
+		/**
+		 * The modification time of the local file when it is read.
+		 */
+
+		private final long lastModified;
+
+		/**
+		 * The time in milliseconds that the modification time of the local
+		 * file is last checked.
+		 */
+
+		private volatile long lastChecked;
+
+		/**
+		 * The logical time that the bundle is last used.
+		 */
+
+		private volatile long lastAccess;
+
+		/**
+		 * The estimated heap size, or -1 if it is not computed yet.
+		 */
+
+		private volatile long estimatedSize = -1;
+
+		/**
+		 * Reads the bundle from the given URL.
+		 *
+		 * @param bundleURL
+		 *            the URL of the message file
+		 */
+
+		Bundle( URL bundleURL )
+		{
+			file = getLocalFile( bundleURL );
+			lastModified = file == null ? 0 : file.lastModified( );
+			lastChecked = System.currentTimeMillis( );
+
+			bundle = CachedBundles.populateBundle( bundleURL );
+			if ( bundle == null )
+			{
+				keys = Collections.emptySet( );
+				return;
+			}
+
+			Set<String> tmpKeys = new LinkedHashSet<String>( );
+			Enumeration<String> enumeration = bundle.getKeys( );
+			while ( enumeration.hasMoreElements( ) )
+				tmpKeys.add( enumeration.nextElement( ) );
+			keys = Collections.unmodifiableSet( tmpKeys );
+		}
+
+		/**
+		 * Returns the message with the given key.
+		 *
+		 * @param resourceKey
+		 *            the resource key
+		 * @return the message, or <code>null</code> if not found
+		 */
+
+		String getMessage( String resourceKey )
+		{
+			if ( bundle == null )
+				return null;
+
+			return (String) bundle.handleGetObject( resourceKey );
+		}
+
+		/**
+		 * Returns the message keys in the bundle.
+		 *
+		 * @return the unmodifiable set of the message keys
+		 */
+
+		Set<String> getMessageKeys( )
+		{
+			return keys;
+		}
+
+		/**
+		 * Returns the estimated heap size of the bundle. Since the bundle is
+		 * immutable, the size is computed once.
+		 *
+		 * @return the size in bytes
+		 */
+
+		long estimateSize( )
+		{
+			long size = estimatedSize;
+			if ( size >= 0 )
+				return size;
+
+			// the bundle keeps the messages in a map, and the keys are kept
+			// once more in the linked set
+
+			size = RetainedSizeEstimator.sizeOfHashMap( keys.size( ) )
+					+ RetainedSizeEstimator.sizeOfLinkedHashSet( keys.size( ) );
+			Iterator<String> iter = keys.iterator( );
+			while ( iter.hasNext( ) )
+			{
+				String key = iter.next( );
+				size += RetainedSizeEstimator.sizeOfString( key )
+						+ RetainedSizeEstimator
+								.sizeOfString( getMessage( key ) );
+			}
+
+			estimatedSize = size;
+			return size;
+		}
+
+		/**
+		 * Checks whether the local file has been modified since it was read.
+		 * The file is not checked if the last check is within the given
+		 * interval.
+		 *
+		 * @param checkInterval
+		 *            the minimal interval in milliseconds between two checks
+		 * @return <code>true</code> if the file is checked and modified
+		 */
+
+		boolean isModified( long checkInterval )
+		{
+			if ( file == null )
+				return false;
+
+			long now = System.currentTimeMillis( );
+			if ( now >= lastChecked && now - lastChecked < checkInterval )
+				return false;
+
+			lastChecked = now;
+			return file.lastModified( ) != lastModified;
+		}
+
+		/**
+		 * Returns the local file of the URL.
+		 *
+		 * @param bundleURL
+		 *            the URL
+		 * @return the local file, or <code>null</code> if the URL does not
+		 *         refer to a local file
+		 */
+
+		private static File getLocalFile( URL bundleURL )
+		{
+			if ( !URIUtilImpl.FILE_SCHEMA.equalsIgnoreCase( bundleURL
+					.getProtocol( ) ) )
+				return null;
+
+			String path = URIUtilImpl.getLocalPath( bundleURL
+					.toExternalForm( ) );
+			return path == null ? null : new File( path );
+		}
+	}
+}
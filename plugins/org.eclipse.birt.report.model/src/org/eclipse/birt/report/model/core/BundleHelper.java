@@ -89,25 +89,14 @@ public class BundleHelper extends ResourceHelper
 	{
 		CachedBundles moduleBundle = module.getResourceBundle( );
 
-		// create a dummy resource bundle to keep codes same
-
-		if ( moduleBundle == null )
-			moduleBundle = new CachedBundles( );
-
 		Set<String> keys = new LinkedHashSet<String>( );
 		List<String> bundleNames = getMessageFilenames( locale );
 		for ( int i = 0; i < bundleNames.size( ); i++ )
 		{
-			String tmpName = bundleNames.get( i );
-			if ( !moduleBundle.isCached( tmpName ) )
-			{
-				// load and search again
-
-				moduleBundle.addCachedBundle( tmpName, findBundle( tmpName ) );
-			}
-
-			keys.addAll( moduleBundle.getMessageKeys( tmpName ) );
-
+			BundleCache.Bundle bundle = getBundle( moduleBundle, bundleNames
+					.get( i ) );
+			if ( bundle != null )
+				keys.addAll( bundle.getMessageKeys( ) );
 		}
 		return keys;
 	}
@@ -133,23 +122,15 @@ public class BundleHelper extends ResourceHelper
 	{
 		CachedBundles moduleBundle = module.getResourceBundle( );
 
-		// create a dummy resource bundle to keep codes same
-
-		if ( moduleBundle == null )
-			moduleBundle = new CachedBundles( );
-
 		List<String> bundleNames = getMessageFilenames( locale );
 		for ( int i = 0; i < bundleNames.size( ); i++ )
 		{
-			String tmpName = bundleNames.get( i );
-			if ( !moduleBundle.isCached( tmpName ) )
-			{
-				// load and search again
-
-				moduleBundle.addCachedBundle( tmpName, findBundle( tmpName ) );
-			}
+			BundleCache.Bundle bundle = getBundle( moduleBundle, bundleNames
+					.get( i ) );
+			if ( bundle == null )
+				continue;
 
-			String translation = moduleBundle.getMessage( tmpName, resourceKey );
+			String translation = bundle.getMessage( resourceKey );
 			if ( translation != null )
 				return translation;
 		}
@@ -157,6 +138,43 @@ public class BundleHelper extends ResourceHelper
 		return null;
 	}
 
+	/**
+	 * Returns the parsed message file with the given name. The URL of the file
+	 * is cached in the module if the module caches bundles, and the parsed
+	 * file is shared in the session.
+	 * 
+	 * @param moduleBundle
+	 *            the module cache of the message file URLs. Can be
+	 *            <code>null</code>.
+	 * @param fileName
+	 *            the message file name
+	 * @return the parsed message file, or <code>null</code> if the file
+	 *         doesn't exist
+	 */
+
+	private BundleCache.Bundle getBundle( CachedBundles moduleBundle,
+			String fileName )
+	{
+		URL bundleURL;
+		if ( moduleBundle != null )
+		{
+			if ( !moduleBundle.isCached( fileName ) )
+				moduleBundle.addCachedBundle( fileName, findBundle( fileName ) );
+			bundleURL = moduleBundle.getBundleURL( fileName );
+		}
+		else
+			bundleURL = findBundle( fileName );
+
+		if ( bundleURL == null )
+			return null;
+
+		DesignSessionImpl session = module.getSession( );
+		if ( session == null )
+			return new BundleCache.Bundle( bundleURL );
+
+		return session.getBundleCache( ).getBundle( bundleURL );
+	}
+
 	private URL findBundle( String fileName )
 	{
 		assert fileName != null;
@@ -16,17 +16,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.PropertyResourceBundle;
-import java.util.Set;
 
 import org.eclipse.birt.report.model.util.ModelUtil;
 
 /**
- *
+ * Caches the resolved URLs of the message files for one module. The message
+ * files themselves are parsed and cached in the session, see
+ * {@link BundleCache}.
  */
 
 public class CachedBundles
@@ -34,7 +33,8 @@ public class CachedBundles
 
 	/**
 	 * The key is the message file name: baseName + locale information. The
-	 * value is the LocaleResourceBundle.
+	 * value is the resolved URL of the message file, or <code>null</code> if
+	 * the file doesn't exist.
 	 * <p>
 	 * The key can be:
 	 * <ul>
@@ -45,7 +45,7 @@ public class CachedBundles
 	 * </ul>
 	 */
 
-	private Map<String, LocaleResourceBundle> bundles;
+	private Map<String, URL> bundleURLs;
 
 	/**
 	 * Default constructor.
@@ -57,49 +57,20 @@ public class CachedBundles
 	}
 
 	/**
-	 * Finds cached messages for the given fileName.
+	 * Returns the cached URL for the given message file name.
 	 * 
 	 * @param fileName
 	 *            the message file name
-	 * @param resourceKey
-	 *            Resource key of the user defined message.
-	 * 
-	 * @return the corresponding locale-dependent messages.
-	 */
-
-	String getMessage( String fileName, String resourceKey )
-	{
-		if ( bundles == null )
-			return null;
-
-		LocaleResourceBundle tmpBundle = bundles.get( fileName );
-		if ( tmpBundle == null )
-			return null;
-
-		return tmpBundle.getMessage( resourceKey );
-
-	}
-
-	/**
-	 * Return a list of cached message keys. The list returned contains no
-	 * duplicate keys.
-	 * 
-	 * @param fileName
-	 *            the given message file name
-	 * @return a list of cached message keys.
-	 * 
+	 * @return the URL of the message file, or <code>null</code> if the file
+	 *         doesn't exist or is not cached.
 	 */
 
-	Set<String> getMessageKeys( String fileName )
+	URL getBundleURL( String fileName )
 	{
-		if ( bundles == null )
-			return null;
-		LocaleResourceBundle tmpBundle = bundles.get( fileName );
-		if ( tmpBundle == null )
+		if ( bundleURLs == null )
 			return null;
 
-		return tmpBundle.getMessageKeys( );
-
+		return bundleURLs.get( fileName );
 	}
 
 	/**
@@ -113,14 +84,14 @@ public class CachedBundles
 
 	boolean isCached( String fileName )
 	{
-		if ( bundles == null )
+		if ( bundleURLs == null )
 			return false;
 
-		return bundles.containsKey( fileName );
+		return bundleURLs.containsKey( fileName );
 	}
 
 	/**
-	 * Saves the given message file URL in JDK resource bundle format.
+	 * Saves the URL of the given message file.
 	 * 
 	 * @param fileName
 	 *            the message file name
@@ -135,15 +106,25 @@ public class CachedBundles
 
 		// the initial capacity is 8.
 
-		if ( bundles == null )
-			bundles = new HashMap<String, LocaleResourceBundle>(
-					ModelUtil.MAP_CAPACITY_LOW );
-		if ( bundleURL == null )
-			bundles.put( fileName, new LocaleResourceBundle( null ) );
+		if ( bundleURLs == null )
+			bundleURLs = new HashMap<String, URL>( ModelUtil.MAP_CAPACITY_LOW );
+
+		bundleURLs.put( fileName, bundleURL );
+	}
+
+	/**
+	 * Returns the cached URLs of the message files.
+	 * 
+	 * @return the map from the message file name to the URL, the URL is
+	 *         <code>null</code> if the file doesn't exist
+	 */
+
+	Map<String, URL> getBundleURLs( )
+	{
+		if ( bundleURLs == null )
+			return Collections.emptyMap( );
 
-		else
-			bundles.put( fileName, new LocaleResourceBundle(
-					populateBundle( bundleURL ) ) );
+		return bundleURLs;
 	}
 
 	/**
@@ -195,48 +176,4 @@ public class CachedBundles
 
 		return null;
 	}
-
-	/**
-	 * The internal resource bundle. Each bundle maps to a special message file
-	 * with the given locale.
-	 * 
-	 */
-
-	private static class LocaleResourceBundle
-	{
-
-		private PropertyResourceBundle bundle;
-
-		LocaleResourceBundle( PropertyResourceBundle bundle )
-		{
-			this.bundle = bundle;
-		}
-
-		private String getMessage( String resourceKey )
-		{
-			if ( bundle == null )
-				return null;
-
-			String translation = (String) bundle.handleGetObject( resourceKey );
-			if ( translation != null )
-				return translation;
-
-			return null;
-		}
-
-		private Set<String> getMessageKeys( )
-		{
-			if ( bundle == null )
-				return Collections.emptySet( );
-
-			Set<String> keys = new LinkedHashSet<String>( );
-			Enumeration<String> enumeration = bundle.getKeys( );
-			while ( enumeration.hasMoreElements( ) )
-			{
-				keys.add( enumeration.nextElement( ) );
-			}
-
-			return keys;
-		}
-	}
 }
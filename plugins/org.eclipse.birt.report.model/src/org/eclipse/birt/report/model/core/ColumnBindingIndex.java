@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.birt.report.model.api.elements.structures.ComputedColumn;
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
+
+/**
+ * Versioned index of the column bindings of the report items in a module. For
+ * each report item, the index keeps the bindings by name and by expression,
+ * and the chain of the bindings available to the item, which are the local
+ * bindings followed by the bindings of the containers up to the first item
+ * with a data set.
+ * <p>
+ * The index is dropped when the bindings, the data set or the containment of
+ * any report item may be changed, at which time the version is increased. The
+ * index is thread-safe. A value computed against an older version is never
+ * stored.
+ */
+
+public final class ColumnBindingIndex
+{
+
+	/**
+	 * The maximal number of report items to keep. The index is cleared when it
+	 * is full.
+	 */
+
+	private static final int MAX_SIZE = 4096;
+
+	/**
+	 * The current version of the index.
+	 */
+
+	private long version = 0;
+
+	/**
+	 * The bindings by name and expression. The key is the report item.
+	 */
+
+	private final Map<DesignElement, Bindings> bindings = new IdentityHashMap<DesignElement, Bindings>( );
+
+	/**
+	 * The available bindings. The key is the report item.
+	 */
+
+	private final Map<DesignElement, List<?>> scopes = new IdentityHashMap<DesignElement, List<?>>( );
+
+	/**
+	 * The module that owns the index.
+	 */
+
+	private final ModuleImpl module;
+
+	/**
+	 * Constructs the index of the given module.
+	 *
+	 * @param module
+	 *            the module that owns the index
+	 */
+
+	public ColumnBindingIndex( ModuleImpl module )
+	{
+		this.module = module;
+	}
+
+	/**
+	 * Returns the current version. The version should be read before
+	 * computing a value, and be passed to the <code>put</code> methods.
+	 *
+	 * @return the current version
+	 */
+
+	public synchronized long getVersion( )
+	{
+		return version;
+	}
+
+	/**
+	 * Returns the indexed bindings of the given report item.
+	 *
+	 * @param element
+	 *            the report item
+	 * @param columns
+	 *            the current value of the bound columns property
+	 * @return the indexed bindings, or <code>null</code> if the bindings are
+	 *         not indexed or are indexed for another list
+	 */
+
+	public Bindings getBindings( DesignElement element,
+			List<ComputedColumn> columns )
+	{
+		Bindings value;
+		synchronized ( this )
+		{
+			value = bindings.get( element );
+		}
+
+		// the listener is notified outside the monitor
+
+		boolean hit = value != null && value.columns == columns;
+		module.cacheAccessed( IModelMetricsListener.COLUMN_BINDING_CACHE, hit );
+		return hit ? value : null;
+	}
+
+	/**
+	 * Indexes the bindings of the given report item. If the module has been
+	 * changed since the given version was read, the bindings are not stored.
+	 *
+	 * @param element
+	 *            the report item
+	 * @param computedVersion
+	 *            the version read before the bindings were read
+	 * @param columns
+	 *            the value of the bound columns property
+	 * @return the indexed bindings
+	 */
+
+	public synchronized Bindings putBindings( DesignElement element,
+			long computedVersion, List<ComputedColumn> columns )
+	{
+		Bindings value = new Bindings( columns );
+		if ( computedVersion != version )
+			return value;
+
+		if ( bindings.size( ) >= MAX_SIZE )
+			bindings.clear( );
+
+		bindings.put( element, value );
+		return value;
+	}
+
+	/**
+	 * Returns the bindings available to the given report item.
+	 *
+	 * @param element
+	 *            the report item
+	 * @return the read-only list of the available bindings, or
+	 *         <code>null</code> if it is not computed since the last change
+	 */
+
+	public List<?> getScope( DesignElement element )
+	{
+		List<?> scope;
+		synchronized ( this )
+		{
+			scope = scopes.get( element );
+		}
+		module.cacheAccessed( IModelMetricsListener.COLUMN_BINDING_CACHE,
+				scope != null );
+		return scope;
+	}
+
+	/**
+	 * Stores the bindings available to the given report item. If the module
+	 * has been changed since the given version was read, the bindings are not
+	 * stored.
+	 *
+	 * @param element
+	 *            the report item
+	 * @param computedVersion
+	 *            the version read before the bindings were collected
+	 * @param scope
+	 *            the available bindings
+	 * @return the read-only list of the available bindings
+	 */
+
+	public synchronized <T> List<T> putScope( DesignElement element,
+			long computedVersion, List<T> scope )
+	{
+		List<T> value = Collections.unmodifiableList( scope );
+		if ( computedVersion != version )
+			return value;
+
+		if ( scopes.size( ) >= MAX_SIZE )
+			scopes.clear( );
+
+		scopes.put( element, value );
+		return value;
+	}
+
+	/**
+	 * Increases the version and drops all the indexed values.
+	 */
+
+	public synchronized void invalidate( )
+	{
+		version++;
+		if ( !bindings.isEmpty( ) )
+			bindings.clear( );
+		if ( !scopes.isEmpty( ) )
+			scopes.clear( );
+	}
+
+	/**
+	 * The bindings of one report item by name and by expression.
+	 */
+
+	public static final class Bindings
+	{
+
+		/**
+		 * The list of the bound columns the index is built from.
+		 */
+
+		private final List<ComputedColumn> columns;
+
+		/**
+		 * The position of the first binding with the given name.
+		 */
+
+		private final Map<String, Integer> names;
+
+		/**
+		 * The positions of the bindings with the given expression, in the
+		 * order of the list.
+		 */
+
+		private final Map<String, List<Integer>> expressions;
+
+		/**
+		 * Builds the index of the given bound columns.
+		 *
+		 * @param columns
+		 *            the bound columns
+		 */
+
+		public Bindings( List<ComputedColumn> columns )
+		{
+			this.columns = columns;
+
+			int size = columns == null ? 0 : columns.size( );
+			names = new HashMap<String, Integer>( size * 2 );
+			expressions = new HashMap<String, List<Integer>>( size * 2 );
+
+			for ( int i = 0; i < size; i++ )
+			{
+				ComputedColumn column = columns.get( i );
+				Integer position = Integer.valueOf( i );
+
+				String name = column.getName( );
+				if ( name != null && !names.containsKey( name ) )
+					names.put( name, position );
+
+				String expression = column.getExpression( );
+				List<Integer> positions = expressions.get( expression );
+				if ( positions == null )
+				{
+					positions = new ArrayList<Integer>( 1 );
+					expressions.put( expression, positions );
+				}
+				positions.add( position );
+			}
+		}
+
+		/**
+		 * Returns the position of the first binding with the given name.
+		 *
+		 * @param name
+		 *            the binding name
+		 * @return the position, or -1 if not found
+		 */
+
+		public int indexOf( String name )
+		{
+			Integer position = names.get( name );
+			return position == null ? -1 : position.intValue( );
+		}
+
+		/**
+		 * Returns the positions of the bindings with the given expression.
+		 *
+		 * @param expression
+		 *            the expression, can be <code>null</code>
+		 * @return the positions in the order of the list
+		 */
+
+		public List<Integer> positionsOf( String expression )
+		{
+			List<Integer> positions = expressions.get( expression );
+			if ( positions == null )
+				return Collections.emptyList( );
+
+			return positions;
+		}
+	}
+}
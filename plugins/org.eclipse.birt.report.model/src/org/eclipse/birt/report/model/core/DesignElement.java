@@ -43,6 +43,7 @@ import org.eclipse.birt.report.model.api.metadata.IObjectDefn;
 import org.eclipse.birt.report.model.api.metadata.IPropertyType;
 import org.eclipse.birt.report.model.api.metadata.ISlotDefn;
 import org.eclipse.birt.report.model.api.metadata.PropertyValueException;
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
 import org.eclipse.birt.report.model.api.util.StringUtil;
 import org.eclipse.birt.report.model.api.validators.SimpleListValidator;
 import org.eclipse.birt.report.model.api.validators.StructureListValidator;
@@ -799,6 +800,12 @@ public abstract class DesignElement
 			{
 				( iter.next( ) ).elementChanged( getHandle( module ), ev );
 			}
+
+			IModelMetricsListener metrics = module == null ? null : module
+					.getMetricsListener( );
+			if ( metrics != null )
+				metrics.notificationSent( ev.getEventType( ), tmpListeners
+						.size( ) );
 		}
 
 		// Forward to derived classes.
@@ -26,7 +26,6 @@ import org.eclipse.birt.report.model.api.IResourceLocator;
 import org.eclipse.birt.report.model.api.ModuleOption;
 import org.eclipse.birt.report.model.api.command.LibraryChangeEvent;
 import org.eclipse.birt.report.model.api.command.ResourceChangeEvent;
-import org.eclipse.birt.report.model.api.core.IAccessControl;
 import org.eclipse.birt.report.model.api.core.IModuleModel;
 import org.eclipse.birt.report.model.api.core.IResourceChangeListener;
 import org.eclipse.birt.report.model.api.elements.DesignChoiceConstants;
@@ -35,6 +34,8 @@ import org.eclipse.birt.report.model.api.metadata.IPropertyDefn;
 import org.eclipse.birt.report.model.api.metadata.IPropertyType;
 import org.eclipse.birt.report.model.api.metadata.PropertyValueException;
 import org.eclipse.birt.report.model.api.util.ColorUtil;
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
+import org.eclipse.birt.report.model.api.util.RetainedSizeEstimate;
 import org.eclipse.birt.report.model.api.util.StringUtil;
 import org.eclipse.birt.report.model.elements.Library;
 import org.eclipse.birt.report.model.elements.ReportDesign;
@@ -56,6 +57,7 @@ import org.eclipse.birt.report.model.util.LibraryUtil;
 import org.eclipse.birt.report.model.util.ModelUtil;
 import org.eclipse.birt.report.model.util.ResourceLocatorImpl;
 import org.eclipse.birt.report.model.util.URIUtilImpl;
+import org.eclipse.birt.report.model.util.ValuePool;
 
 import com.ibm.icu.util.ULocale;
 
@@ -101,6 +103,13 @@ public class DesignSessionImpl
 
 	protected IResourceLocator resourceLocator = new ResourceLocatorImpl( );
 
+	/**
+	 * The listener to receive the performance metrics. <code>null</code> if
+	 * no metrics are collected.
+	 */
+
+	protected IModelMetricsListener metricsListener = null;
+
 	/**
 	 * Static resource path to do the compatibility of some APIs.
 	 */
@@ -127,6 +136,25 @@ public class DesignSessionImpl
 
 	protected List<Library> libraries = new ArrayList<Library>( );
 
+	/**
+	 * The index of the open designs and libraries by location.
+	 */
+
+	private final OpenedModuleIndex openedModules = new OpenedModuleIndex( );
+
+	/**
+	 * The cache of the parsed message files shared by the modules.
+	 */
+
+	private final BundleCache bundleCache = new BundleCache( );
+
+	/**
+	 * The pool of strings and expressions shared by the modules parsed with
+	 * {@link org.eclipse.birt.report.model.api.IModuleOption#SHARE_PARSED_VALUES_KEY}.
+	 */
+
+	private final ValuePool valuePool = ValuePool.newWeakPool( );
+
 	/**
 	 * The user's locale.
 	 */
@@ -241,7 +269,7 @@ public class DesignSessionImpl
 		initializeOptions( options );
 		ReportDesign design = DesignReader.getInstance( ).read( this, fileName,
 				options );
-		designs.add( design );
+		addOpenedModule( design );
 		return design;
 	}
 
@@ -314,7 +342,7 @@ public class DesignSessionImpl
 		initializeOptions( options );
 		ReportDesign design = DesignReader.getInstance( ).read( this, fileName,
 				is, options );
-		designs.add( design );
+		addOpenedModule( design );
 		return design;
 	}
 
@@ -362,7 +390,7 @@ public class DesignSessionImpl
 
 		ReportDesign design = DesignReader.getInstance( ).read( this, systemId,
 				is, options );
-		designs.add( design );
+		addOpenedModule( design );
 		return design;
 	}
 
@@ -411,10 +439,7 @@ public class DesignSessionImpl
 		Module module = GenericModuleReader.getInstance( ).read( this,
 				fileName, is, options );
 
-		if ( module instanceof ReportDesign )
-			designs.add( (ReportDesign) module );
-		else if ( module instanceof Library )
-			libraries.add( (Library) module );
+		addOpenedModule( module );
 
 		return module;
 	}
@@ -459,10 +484,7 @@ public class DesignSessionImpl
 				fileName, options );
 		assert module instanceof Library || module instanceof ReportDesign;
 
-		if ( module instanceof ReportDesign )
-			designs.add( (ReportDesign) module );
-		else if ( module instanceof Library )
-			libraries.add( (Library) module );
+		addOpenedModule( module );
 
 		return module;
 	}
@@ -507,7 +529,7 @@ public class DesignSessionImpl
 		initializeOptions( options );
 		Library library = LibraryReader.getInstance( ).read( this, fileName,
 				options );
-		libraries.add( library );
+		addOpenedModule( library );
 		return library;
 	}
 
@@ -561,7 +583,7 @@ public class DesignSessionImpl
 		initializeOptions( options );
 		Library design = LibraryReader.getInstance( ).read( this, fileName, is,
 				options );
-		libraries.add( design );
+		addOpenedModule( design );
 		return design;
 	}
 
@@ -611,7 +633,7 @@ public class DesignSessionImpl
 		initializeOptions( options );
 		Library library = LibraryReader.getInstance( ).read( this, systemId,
 				is, options );
-		libraries.add( library );
+		addOpenedModule( library );
 		return library;
 	}
 
@@ -655,7 +677,7 @@ public class DesignSessionImpl
 					DesignSchemaConstants.REPORT_VERSION );
 		}
 		design.setValid( true );
-		designs.add( design );
+		addOpenedModule( design );
 		return design;
 	}
 
@@ -844,7 +866,7 @@ public class DesignSessionImpl
 		handleDefaultTheme( library );
 
 		library.setValid( true );
-		libraries.add( library );
+		addOpenedModule( library );
 		return library;
 	}
 
@@ -902,6 +924,19 @@ public class DesignSessionImpl
 		return libraries.iterator( );
 	}
 
+	/**
+	 * Estimates the heap size retained by all the open designs and libraries,
+	 * including the message files cached in the session. The time is linear
+	 * in the number of elements.
+	 * 
+	 * @return the estimate broken down by category
+	 */
+
+	public RetainedSizeEstimate estimateRetainedSize( )
+	{
+		return RetainedSizeEstimator.estimate( this );
+	}
+
 	/**
 	 * Returns an interator over the open libraries and designs.
 	 * 
@@ -910,7 +945,8 @@ public class DesignSessionImpl
 
 	public Iterator<Module> getModuleIterator( )
 	{
-		List<Module> roots = new ArrayList<Module>( );
+		List<Module> roots = new ArrayList<Module>( designs.size( )
+				+ libraries.size( ) );
 
 		roots.addAll( designs );
 		roots.addAll( libraries );
@@ -937,6 +973,88 @@ public class DesignSessionImpl
 			assert libraries.contains( module );
 			libraries.remove( module );
 		}
+
+		openedModules.remove( module );
+	}
+
+	/**
+	 * Adds a module to the list of open report designs or libraries.
+	 * 
+	 * @param module
+	 *            the opened module
+	 */
+
+	private void addOpenedModule( Module module )
+	{
+		if ( module instanceof ReportDesign )
+			designs.add( (ReportDesign) module );
+		else if ( module instanceof Library )
+			libraries.add( (Library) module );
+		else
+			return;
+
+		openedModules.add( module );
+	}
+
+	/**
+	 * Informs this session that the location of a module is changed.
+	 * 
+	 * @param module
+	 *            the module
+	 */
+
+	void updateModuleLocation( Module module )
+	{
+		openedModules.relocate( module );
+	}
+
+	/**
+	 * Informs this session that a module has added or dropped a library.
+	 * 
+	 * @param module
+	 *            the module
+	 */
+
+	void updateModuleLibraries( Module module )
+	{
+		openedModules.librariesChanged( module );
+	}
+
+	/**
+	 * Returns the cache of the parsed message files.
+	 * 
+	 * @return the bundle cache
+	 */
+
+	BundleCache getBundleCache( )
+	{
+		return bundleCache;
+	}
+
+	/**
+	 * Returns the pool of strings and expressions shared by the modules in
+	 * the session. The pool weakly references its values.
+	 * 
+	 * @return the value pool
+	 */
+
+	public ValuePool getValuePool( )
+	{
+		return valuePool;
+	}
+
+	/**
+	 * Drops the cached message file at the given path so that it is read
+	 * again when it is next used.
+	 * 
+	 * @param path
+	 *            the file path or URL of the changed message file
+	 */
+
+	public final void clearCachedBundle( String path )
+	{
+		if ( path != null )
+			bundleCache.invalidate( path );
 	}
 
 	/**
@@ -1150,6 +1268,31 @@ public class DesignSessionImpl
 		return resourceLocator;
 	}
 
+	/**
+	 * Sets the listener to receive the performance metrics of the modules in
+	 * this session.
+	 * 
+	 * @param listener
+	 *            the metrics listener, or <code>null</code> to collect no
+	 *            metrics
+	 */
+
+	public final void setMetricsListener( IModelMetricsListener listener )
+	{
+		metricsListener = listener;
+	}
+
+	/**
+	 * Returns the listener to receive the performance metrics.
+	 * 
+	 * @return the metrics listener, or <code>null</code> if not set
+	 */
+
+	public final IModelMetricsListener getMetricsListener( )
+	{
+		return metricsListener;
+	}
+
 	/**
 	 * Returns the provider instance which provides the absolute dimension value
 	 * of predefined font size choice.
@@ -1215,20 +1358,15 @@ public class DesignSessionImpl
 			return;
 
 		String path = url.toExternalForm( );
-		Iterator<Module> iter = getModuleIterator( );
-		while ( iter.hasNext( ) )
+		List<Module> modules = openedModules.getInterferedModules( path );
+		for ( int i = 0; i < modules.size( ); i++ )
 		{
-			Module module = iter.next( );
-			if ( module.getLocation( ).equalsIgnoreCase( path )
-					|| module.getLibraryByLocation( path,
-							IAccessControl.ARBITARY_LEVEL ) != null )
-			{
-				LibraryChangeEvent event = new LibraryChangeEvent(
-						ev.getChangedResourcePath( ) );
-				event.setTarget( module );
-				event.setDeliveryPath( ev.getDeliveryPath( ) );
-				module.broadcastResourceChangeEvent( event );
-			}
+			Module module = modules.get( i );
+			LibraryChangeEvent event = new LibraryChangeEvent( ev
+					.getChangedResourcePath( ) );
+			event.setTarget( module );
+			event.setDeliveryPath( ev.getDeliveryPath( ) );
+			module.broadcastResourceChangeEvent( event );
 		}
 
 		broadcastResourceChangeEvent( ev );
@@ -1409,17 +1547,7 @@ public class DesignSessionImpl
 		if ( location == null )
 			return null;
 
-		Iterator<Module> iter = getModuleIterator( );
-
-		while ( iter.hasNext( ) )
-		{
-			Module tmpModule = iter.next( );
-			if ( location.equalsIgnoreCase( tmpModule.getLocation( ) ) )
-				return tmpModule;
-		}
-
-		return null;
-
+		return openedModules.get( location );
 	}
 
 }
\ No newline at end of file
@@ -536,6 +536,9 @@ public abstract class LayoutModule extends Module
 		assert posn >= 0 && posn <= libraries.size( );
 
 		libraries.add( posn, library );
+
+		if ( session != null )
+			session.updateModuleLibraries( this );
 	}
 
 	/*
@@ -552,6 +555,9 @@ public abstract class LayoutModule extends Module
 			libraries = new ArrayList<Library>( );
 
 		libraries.add( library );
+
+		if ( session != null )
+			session.updateModuleLibraries( this );
 	}
 
 	/*
@@ -570,6 +576,9 @@ public abstract class LayoutModule extends Module
 		int posn = libraries.indexOf( library );
 		libraries.remove( library );
 
+		if ( session != null )
+			session.updateModuleLibraries( this );
+
 		return posn;
 	}
 
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
+
+/**
+ * Versioned index from the qualified level name, such as
+ * <code>dimension/level</code> or <code>lib.dimension/level</code>, to the
+ * level element of a module. A name is resolved once and the result is kept
+ * until the dimensions, levels or cubes of the module or its libraries may be
+ * changed, at which time the version is increased and all the results are
+ * dropped. Changes on other elements keep the index.
+ * <p>
+ * The index is thread-safe. A result resolved against an older version is
+ * never stored.
+ */
+
+public final class LevelIndex
+{
+
+	/**
+	 * The value returned by {@link #get(String)} if the name is not resolved
+	 * since the last change.
+	 */
+
+	public static final Object NOT_CACHED = new Object( );
+
+	/**
+	 * The maximal number of results to keep. The index is cleared when it is
+	 * full.
+	 */
+
+	private static final int MAX_SIZE = 4096;
+
+	/**
+	 * The value stored for the name that can not be resolved.
+	 */
+
+	private static final Object NULL_VALUE = new Object( );
+
+	/**
+	 * The current version of the index.
+	 */
+
+	private long version = 0;
+
+	/**
+	 * The resolved levels. The key is the qualified level name.
+	 */
+
+	private final Map<String, Object> levels = new HashMap<String, Object>( );
+
+	/**
+	 * The module that owns the index.
+	 */
+
+	private final ModuleImpl module;
+
+	/**
+	 * Constructs the index of the given module.
+	 *
+	 * @param module
+	 *            the module that owns the index
+	 */
+
+	public LevelIndex( ModuleImpl module )
+	{
+		this.module = module;
+	}
+
+	/**
+	 * Returns the current version. The version should be read before
+	 * resolving a level name, and be passed to {@link #put}.
+	 *
+	 * @return the current version
+	 */
+
+	public synchronized long getVersion( )
+	{
+		return version;
+	}
+
+	/**
+	 * Returns the level with the given qualified name.
+	 *
+	 * @param name
+	 *            the qualified level name
+	 * @return the level, which can be <code>null</code>, or
+	 *         {@link #NOT_CACHED} if the name is not resolved since the last
+	 *         change
+	 */
+
+	public Object get( String name )
+	{
+		Object value;
+		synchronized ( this )
+		{
+			value = levels.get( name );
+		}
+
+		// the listener is notified outside the monitor
+
+		module.cacheAccessed( IModelMetricsListener.LEVEL_CACHE, value != null );
+		if ( value == null )
+			return NOT_CACHED;
+
+		return value == NULL_VALUE ? null : value;
+	}
+
+	/**
+	 * Stores the level with the given qualified name. If the module has been
+	 * changed since the given version was read, the level is not stored.
+	 *
+	 * @param name
+	 *            the qualified level name
+	 * @param computedVersion
+	 *            the version read before the name was resolved
+	 * @param level
+	 *            the level, can be <code>null</code>
+	 */
+
+	public synchronized void put( String name, long computedVersion,
+			DesignElement level )
+	{
+		if ( computedVersion != version )
+			return;
+
+		if ( levels.size( ) >= MAX_SIZE )
+			levels.clear( );
+
+		levels.put( name, level == null ? NULL_VALUE : level );
+	}
+
+	/**
+	 * Increases the version and drops all the levels.
+	 */
+
+	public synchronized void invalidate( )
+	{
+		version++;
+		if ( !levels.isEmpty( ) )
+			levels.clear( );
+	}
+}
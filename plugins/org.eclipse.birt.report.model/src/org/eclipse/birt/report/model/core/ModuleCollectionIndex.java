@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
+
+/**
+ * Versioned index of the element and structure collections that a module
+ * exposes through its handle, such as all styles, visible data sets, all cubes
+ * and so on. Each collection is computed once and kept as an immutable
+ * snapshot until the module is changed by a content, name, library, theme or
+ * module property command, at which time the version is increased and all
+ * snapshots are dropped.
+ * <p>
+ * The snapshots are never handed out. The module handle returns a new list
+ * copied from the snapshot, so that callers can still change the returned
+ * list as before.
+ * <p>
+ * The index is thread-safe. A snapshot computed against an older version is
+ * never stored.
+ */
+
+public final class ModuleCollectionIndex
+{
+
+	/**
+	 * Key for all styles.
+	 */
+
+	public static final String ALL_STYLES = "allStyles"; //$NON-NLS-1$
+
+	/**
+	 * Key for the visible themes. The library level is appended.
+	 */
+
+	public static final String VISIBLE_THEMES = "visibleThemes."; //$NON-NLS-1$
+
+	/**
+	 * Key for all data sources.
+	 */
+
+	public static final String ALL_DATA_SOURCES = "allDataSources"; //$NON-NLS-1$
+
+	/**
+	 * Key for the visible data sources.
+	 */
+
+	public static final String VISIBLE_DATA_SOURCES = "visibleDataSources"; //$NON-NLS-1$
+
+	/**
+	 * Key for all data sets.
+	 */
+
+	public static final String ALL_DATA_SETS = "allDataSets"; //$NON-NLS-1$
+
+	/**
+	 * Key for the visible data sets.
+	 */
+
+	public static final String VISIBLE_DATA_SETS = "visibleDataSets"; //$NON-NLS-1$
+
+	/**
+	 * Key for all cubes.
+	 */
+
+	public static final String ALL_CUBES = "allCubes"; //$NON-NLS-1$
+
+	/**
+	 * Key for the visible cubes.
+	 */
+
+	public static final String VISIBLE_CUBES = "visibleCubes"; //$NON-NLS-1$
+
+	/**
+	 * Key for all embedded images.
+	 */
+
+	public static final String ALL_IMAGES = "allImages"; //$NON-NLS-1$
+
+	/**
+	 * Key for all libraries.
+	 */
+
+	public static final String ALL_LIBRARIES = "allLibraries"; //$NON-NLS-1$
+
+	/**
+	 * The current version of the index.
+	 */
+
+	private long version = 0;
+
+	/**
+	 * The cached snapshots. The key is the collection key, the value is the
+	 * immutable list.
+	 */
+
+	private final Map<String, List> snapshots = new HashMap<String, List>( );
+
+	/**
+	 * The module that owns the index.
+	 */
+
+	private final ModuleImpl module;
+
+	/**
+	 * Constructs the index of the given module.
+	 *
+	 * @param module
+	 *            the module that owns the index
+	 */
+
+	public ModuleCollectionIndex( ModuleImpl module )
+	{
+		this.module = module;
+	}
+
+	/**
+	 * Returns the current version. The version should be read before
+	 * computing a collection, and be passed to {@link #put}.
+	 *
+	 * @return the current version
+	 */
+
+	public synchronized long getVersion( )
+	{
+		return version;
+	}
+
+	/**
+	 * Returns the snapshot for the given key.
+	 *
+	 * @param key
+	 *            the collection key
+	 * @return the snapshot, or <code>null</code> if it is not computed since
+	 *         the last change
+	 */
+
+	public List get( String key )
+	{
+		List snapshot;
+		synchronized ( this )
+		{
+			snapshot = snapshots.get( key );
+		}
+
+		// the listener is notified outside the monitor
+
+		module.cacheAccessed( IModelMetricsListener.COLLECTION_CACHE,
+				snapshot != null );
+		return snapshot;
+	}
+
+	/**
+	 * Stores an immutable snapshot of the collection for the given key. The
+	 * collection is copied, so that the caller can hand it out. If the module
+	 * has been changed since the given version was read, the snapshot is not
+	 * stored.
+	 *
+	 * @param key
+	 *            the collection key
+	 * @param computedVersion
+	 *            the version read before the collection was computed
+	 * @param list
+	 *            the computed collection
+	 */
+
+	public synchronized void put( String key, long computedVersion, List list )
+	{
+		if ( computedVersion == version )
+			snapshots.put( key, Collections.unmodifiableList( new ArrayList(
+					list ) ) );
+	}
+
+	/**
+	 * Increases the version and drops all the snapshots.
+	 */
+
+	public synchronized void invalidate( )
+	{
+		version++;
+		if ( !snapshots.isEmpty( ) )
+			snapshots.clear( );
+	}
+}
@@ -14,7 +14,6 @@ package org.eclipse.birt.report.model.core;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -50,6 +49,8 @@ import org.eclipse.birt.report.model.api.metadata.IElementDefn;
 import org.eclipse.birt.report.model.api.metadata.IElementPropertyDefn;
 import org.eclipse.birt.report.model.api.metadata.ISlotDefn;
 import org.eclipse.birt.report.model.api.metadata.MetaDataConstants;
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
+import org.eclipse.birt.report.model.api.util.RetainedSizeEstimate;
 import org.eclipse.birt.report.model.api.util.StringUtil;
 import org.eclipse.birt.report.model.api.validators.IValidationListener;
 import org.eclipse.birt.report.model.api.validators.ValidationEvent;
@@ -83,6 +84,7 @@ import org.eclipse.birt.report.model.metadata.PropertyDefn;
 import org.eclipse.birt.report.model.metadata.StructureDefn;
 import org.eclipse.birt.report.model.util.LevelContentIterator;
 import org.eclipse.birt.report.model.util.LineNumberInfo;
+import org.eclipse.birt.report.model.util.LongHashMap;
 import org.eclipse.birt.report.model.util.StructureRefUtil;
 import org.eclipse.birt.report.model.util.VersionControlMgr;
 import org.eclipse.birt.report.model.validators.ValidationExecutor;
@@ -193,7 +195,7 @@ public abstract class ModuleImpl extends DesignElement
 	/**
 	 * The hash map for the id-to-element lookup.
 	 */
-	protected HashMap<Long, DesignElement> idMap = new HashMap<Long, DesignElement>( );
+	private LongHashMap<DesignElement> idMap = new LongHashMap<DesignElement>( );
 
 	/**
 	 * Information member for line numbers.
@@ -299,6 +301,28 @@ public abstract class ModuleImpl extends DesignElement
 	 */
 	protected List<IAttributeListener> attributeListeners = null;
 
+	/**
+	 * The index of the collections exposed by the module handle.
+	 */
+	protected ModuleCollectionIndex collectionIndex = new ModuleCollectionIndex(
+			this );
+
+	/**
+	 * The index of the resolved xpaths of this module.
+	 */
+	protected XPathIndex xpathIndex = new XPathIndex( this );
+
+	/**
+	 * The index of the column bindings of the report items in this module.
+	 */
+	protected ColumnBindingIndex bindingIndex = new ColumnBindingIndex(
+			this );
+
+	/**
+	 * The index of the resolved levels of this module.
+	 */
+	protected LevelIndex levelIndex = new LevelIndex( this );
+
 	/**
 	 * Default constructor.
 	 * 
@@ -324,6 +348,80 @@ public abstract class ModuleImpl extends DesignElement
 		return session;
 	}
 
+	/**
+	 * Returns the listener to receive the performance metrics of this module.
+	 * 
+	 * @return the metrics listener, or <code>null</code> if no metrics are
+	 *         collected
+	 */
+
+	public IModelMetricsListener getMetricsListener( )
+	{
+		return session == null ? null : session.getMetricsListener( );
+	}
+
+	/**
+	 * Reports a cache lookup to the metrics listener of this module, if any.
+	 * 
+	 * @param cacheName
+	 *            the name of the cache
+	 * @param hit
+	 *            <code>true</code> if the value is found in the cache
+	 */
+
+	public void cacheAccessed( String cacheName, boolean hit )
+	{
+		IModelMetricsListener metrics = getMetricsListener( );
+		if ( metrics != null )
+			metrics.cacheAccessed( cacheName, hit );
+	}
+
+	/**
+	 * Returns the index of the element and structure collections of this
+	 * module.
+	 * 
+	 * @return the collection index
+	 */
+
+	public ModuleCollectionIndex getCollectionIndex( )
+	{
+		return collectionIndex;
+	}
+
+	/**
+	 * Returns the index of the resolved xpaths of this module.
+	 * 
+	 * @return the xpath index
+	 */
+
+	public XPathIndex getXPathIndex( )
+	{
+		return xpathIndex;
+	}
+
+	/**
+	 * Returns the index of the column bindings of the report items in this
+	 * module.
+	 * 
+	 * @return the column binding index
+	 */
+
+	public ColumnBindingIndex getColumnBindingIndex( )
+	{
+		return bindingIndex;
+	}
+
+	/**
+	 * Returns the index of the resolved levels of this module.
+	 * 
+	 * @return the level index
+	 */
+
+	public LevelIndex getLevelIndex( )
+	{
+		return levelIndex;
+	}
+
 	abstract protected Module getModule( );
 
 	/**
@@ -393,9 +491,19 @@ public abstract class ModuleImpl extends DesignElement
 	 */
 	public final DesignElement findLevel( String name )
 	{
-		return resolveElement( null, name, null, MetaDataDictionary
-				.getInstance( )
-				.getElement( ReportDesignConstants.LEVEL_ELEMENT ) );
+		if ( name == null )
+			return null;
+
+		long version = levelIndex.getVersion( );
+		Object level = levelIndex.get( name );
+		if ( level != LevelIndex.NOT_CACHED )
+			return (DesignElement) level;
+
+		DesignElement retValue = resolveElement( null, name, null,
+				MetaDataDictionary.getInstance( ).getElement(
+						ReportDesignConstants.LEVEL_ELEMENT ) );
+		levelIndex.put( name, version, retValue );
+		return retValue;
 	}
 
 	/**
@@ -424,14 +532,13 @@ public abstract class ModuleImpl extends DesignElement
 	{
 		assert idMap != null;
 
-		assert element.getID( ) > 0;
-		Long idObj = Long.valueOf( element.getID( ) );
-		assert !idMap.containsKey( idObj );
-		idMap.put( idObj, element );
+		long id = element.getID( );
+		assert id > 0;
+		assert !idMap.containsKey( id );
+		idMap.put( id, element );
 
 		// let elementIDCounter is the current max id
 
-		long id = element.getID( );
 		if ( this.elementIDCounter <= id )
 		{
 			this.elementIDCounter = id + 1;
@@ -468,9 +575,8 @@ public abstract class ModuleImpl extends DesignElement
 		if ( idMap == null )
 			return;
 		assert element.getID( ) > 0;
-		Long idObj = Long.valueOf( element.getID( ) );
-		assert idMap.containsKey( idObj ) && idMap.get( idObj ) == element;
-		idMap.remove( idObj );
+		assert idMap.get( element.getID( ) ) == element;
+		idMap.remove( element.getID( ) );
 	}
 
 	/**
@@ -500,7 +606,18 @@ public abstract class ModuleImpl extends DesignElement
 	{
 		if ( idMap == null )
 			return null;
-		return idMap.get( Long.valueOf( id ) );
+		return idMap.get( id );
+	}
+
+	/**
+	 * Returns the number of the elements in the id-map.
+	 * 
+	 * @return the number of the elements that have a unique id
+	 */
+
+	final int getElementIDCount( )
+	{
+		return idMap == null ? 0 : idMap.size( );
 	}
 
 	/**
@@ -662,10 +779,14 @@ public abstract class ModuleImpl extends DesignElement
 		module.activityStack = new ActivityStack( module );
 		module.allExceptions = null;
 		module.attributeListeners = null;
+		module.collectionIndex = new ModuleCollectionIndex( module );
+		module.xpathIndex = new XPathIndex( module );
+		module.bindingIndex = new ColumnBindingIndex( module );
+		module.levelIndex = new LevelIndex( module );
 		module.disposeListeners = null;
 		module.resourceChangeListeners = null;
 		module.elementIDCounter = 1;
-		module.idMap = new HashMap<Long, DesignElement>( );
+		( (ModuleImpl) module ).idMap = new LongHashMap<DesignElement>( );
 		module.lineNoInfo = null;
 		module.nameHelper = new ModuleNameHelper( module );
 		module.saveState = 0;
@@ -1590,16 +1711,20 @@ public abstract class ModuleImpl extends DesignElement
 			return;
 		if ( isAdd )
 		{
-			// the element has no id or a duplicate id, re-allocate another one
+			// the element has no id or a duplicate id, re-allocate another one.
+			// The next id is always greater than any id in the map.
 
+			DesignElement existing = element.getID( ) <= NO_ID
+					? null
+					: getElementByID( element.getID( ) );
 			if ( element.getID( ) <= NO_ID
-					|| ( getElementByID( element.getID( ) ) != null && getElementByID( element
-							.getID( ) ) != element ) )
+					|| ( existing != null && existing != element ) )
 			{
 				element.setID( getNextID( ) );
+				existing = null;
 			}
 
-			if ( getElementByID( element.getID( ) ) == null )
+			if ( existing == null )
 				addElementID( element );
 		}
 		else
@@ -1640,6 +1765,9 @@ public abstract class ModuleImpl extends DesignElement
 	public final void setLocation( URL location )
 	{
 		this.location = location;
+
+		if ( session != null )
+			session.updateModuleLocation( getModule( ) );
 	}
 
 	/**
@@ -1676,6 +1804,38 @@ public abstract class ModuleImpl extends DesignElement
 	 */
 
 	public final void rename( DesignElement container, DesignElement element )
+	{
+		if ( !( nameHelper instanceof ModuleNameHelper ) )
+		{
+			doRename( container, element );
+			return;
+		}
+
+		// all names of the element tree are assigned in one batch, so that
+		// numeric suffixes are not probed from the start for each element
+
+		ModuleNameHelper moduleNameHelper = (ModuleNameHelper) nameHelper;
+		moduleNameHelper.startBatch( );
+		try
+		{
+			doRename( container, element );
+		}
+		finally
+		{
+			moduleNameHelper.endBatch( );
+		}
+	}
+
+	/**
+	 * Recursively changes the element name in the context of the container.
+	 * 
+	 * @param container
+	 *            the container of the element
+	 * @param element
+	 *            the element handle whose name is need to check.
+	 */
+
+	private void doRename( DesignElement container, DesignElement element )
 	{
 		NameExecutor executor = new NameExecutor( element );
 		INameHelper nameHelper = executor.getNameHelper( getModule( ),
@@ -1690,7 +1850,7 @@ public abstract class ModuleImpl extends DesignElement
 		while ( iter.hasNext( ) )
 		{
 			DesignElement innerElement = iter.next( );
-			rename( element, innerElement );
+			doRename( element, innerElement );
 		}
 	}
 
@@ -1819,9 +1979,7 @@ public abstract class ModuleImpl extends DesignElement
 	 */
 	public final List<DesignElement> getAllElements( )
 	{
-		List<DesignElement> elements = new ArrayList<DesignElement>( );
-		elements.addAll( idMap.values( ) );
-		return elements;
+		return idMap.values( );
 	}
 
 	/**
@@ -1847,6 +2005,31 @@ public abstract class ModuleImpl extends DesignElement
 		return cachedBundles;
 	}
 
+	/**
+	 * Returns the cached URLs of the message files without creating them.
+	 * 
+	 * @return the cached URLs, or <code>null</code> if no message file is
+	 *         looked up
+	 */
+
+	final CachedBundles getCachedBundles( )
+	{
+		return cachedBundles;
+	}
+
+	/**
+	 * Estimates the heap size retained by this module, including the included
+	 * libraries, the message files and the command stack. The time is linear
+	 * in the number of elements.
+	 * 
+	 * @return the estimate broken down by category
+	 */
+
+	public final RetainedSizeEstimate estimateRetainedSize( )
+	{
+		return RetainedSizeEstimator.estimate( getModule( ) );
+	}
+
 	/**
 	 * Returns the version manager for the API compatibility.
 	 * 
@@ -0,0 +1,446 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.birt.report.model.elements.Library;
+import org.eclipse.birt.report.model.elements.ReportDesign;
+
+/**
+ * Session level index of the opened modules. The modules are indexed by the
+ * normalized location so that the module at a given location is found without
+ * iterating all opened modules. The index also keeps, by the normalized
+ * location of each library, the opened modules that include that library at
+ * any level, so that library change events are only delivered to the
+ * interfered modules.
+ * <p>
+ * The session keeps the opened modules in its own lists until they are
+ * dropped, so the index holds them by strong references and removes them when
+ * they are dropped. The included libraries of an opened module are recomputed
+ * only after the module, or one of the libraries it includes, has added or
+ * dropped a library or changed its location.
+ * <p>
+ * Location lookups are lock-free. The other operations are synchronized and
+ * only do hash lookups, except for recomputing the included libraries of the
+ * changed modules.
+ */
+
+final class OpenedModuleIndex
+{
+
+	/**
+	 * The entries by the normalized location. Each array is replaced rather
+	 * than modified, so that it can be read without locking.
+	 */
+
+	private final Map<String, Entry[]> locations = new ConcurrentHashMap<String, Entry[]>( );
+
+	/**
+	 * The entries by the normalized location of the libraries they include.
+	 */
+
+	private final Map<String, Set<Entry>> includers = new HashMap<String, Set<Entry>>( );
+
+	/**
+	 * All the registered entries by the module.
+	 */
+
+	private final Map<Module, Entry> entries = new IdentityHashMap<Module, Entry>( );
+
+	/**
+	 * The entries whose included libraries need to be recomputed.
+	 */
+
+	private final Set<Entry> changedEntries = new HashSet<Entry>( );
+
+	/**
+	 * The counter to keep the registration order.
+	 */
+
+	private long serial = 0;
+
+	/**
+	 * Orders the entries as the session does: designs first, then libraries,
+	 * each in the order they are opened.
+	 */
+
+	private static final Comparator<Entry> ORDER = new Comparator<Entry>( ) {
+
+		public int compare( Entry entry1, Entry entry2 )
+		{
+			if ( entry1.rank != entry2.rank )
+				return entry1.rank - entry2.rank;
+			if ( entry1.serial == entry2.serial )
+				return 0;
+			return entry1.serial < entry2.serial ? -1 : 1;
+		}
+	};
+
+	/**
+	 * Registers an opened module.
+	 *
+	 * @param module
+	 *            the module to register
+	 */
+
+	synchronized void add( Module module )
+	{
+		if ( entries.containsKey( module ) )
+			return;
+
+		Entry entry = new Entry( module, normalize( module.getLocation( ) ),
+				module instanceof ReportDesign ? 0 : 1, serial++ );
+		entries.put( module, entry );
+		addLocation( entry );
+		addLibraries( entry );
+	}
+
+	/**
+	 * Removes an opened module.
+	 *
+	 * @param module
+	 *            the module to remove
+	 */
+
+	synchronized void remove( Module module )
+	{
+		Entry entry = entries.remove( module );
+		if ( entry == null )
+			return;
+
+		changedEntries.remove( entry );
+		removeLocation( entry );
+		removeLibraries( entry );
+	}
+
+	/**
+	 * Updates the index after the location of a module is changed. If the
+	 * module is a library included by an opened module, the included libraries
+	 * of that opened module are recomputed on the next query.
+	 *
+	 * @param module
+	 *            the module
+	 */
+
+	synchronized void relocate( Module module )
+	{
+		Entry entry = entries.get( module );
+		if ( entry == null )
+		{
+			if ( module instanceof Library )
+				librariesChanged( module );
+			return;
+		}
+
+		removeLocation( entry );
+		entry.key = normalize( module.getLocation( ) );
+		addLocation( entry );
+	}
+
+	/**
+	 * Informs the index that the given module, which is either an opened
+	 * module or a library included by one, has added or dropped a library.
+	 * The included libraries of the opened module are recomputed on the next
+	 * query.
+	 *
+	 * @param module
+	 *            the module
+	 */
+
+	synchronized void librariesChanged( Module module )
+	{
+		Entry entry = entries.get( module.findOutermostModule( ) );
+		if ( entry != null )
+			changedEntries.add( entry );
+	}
+
+	/**
+	 * Returns the opened module at the given location. The location is
+	 * compared in case-insensitive way.
+	 *
+	 * @param location
+	 *            the location
+	 * @return the opened module, or <code>null</code> if not found
+	 */
+
+	Module get( String location )
+	{
+		Entry[] found = locations.get( normalize( location ) );
+		if ( found == null )
+			return null;
+
+		return found[0].module;
+	}
+
+	/**
+	 * Returns the opened modules that are at the given location, or that
+	 * include the library at the given location at any level. The modules are
+	 * returned in the order that the session iterates them.
+	 *
+	 * @param location
+	 *            the location of the changed library
+	 * @return the interfered modules
+	 */
+
+	synchronized List<Module> getInterferedModules( String location )
+	{
+		if ( !changedEntries.isEmpty( ) )
+		{
+			for ( Entry entry : changedEntries )
+			{
+				removeLibraries( entry );
+				addLibraries( entry );
+			}
+			changedEntries.clear( );
+		}
+
+		String key = normalize( location );
+		if ( key == null )
+			return Collections.emptyList( );
+
+		List<Entry> found = new ArrayList<Entry>( );
+
+		Entry[] located = locations.get( key );
+		if ( located != null )
+		{
+			for ( int i = 0; i < located.length; i++ )
+				found.add( located[i] );
+		}
+
+		Set<Entry> including = includers.get( key );
+		if ( including != null )
+		{
+			for ( Entry entry : including )
+			{
+				if ( !key.equals( entry.key ) )
+					found.add( entry );
+			}
+		}
+
+		Collections.sort( found, ORDER );
+
+		List<Module> retList = new ArrayList<Module>( found.size( ) );
+		for ( int i = 0; i < found.size( ); i++ )
+			retList.add( found.get( i ).module );
+		return retList;
+	}
+
+	/**
+	 * Adds the entry to the included library map by the locations of the
+	 * libraries the module includes at any level.
+	 *
+	 * @param entry
+	 *            the entry
+	 */
+
+	private void addLibraries( Entry entry )
+	{
+		List<Library> libraries = entry.module.getAllLibraries( );
+		if ( libraries.isEmpty( ) )
+			return;
+
+		String[] keys = new String[libraries.size( )];
+		for ( int i = 0; i < libraries.size( ); i++ )
+		{
+			keys[i] = normalize( libraries.get( i ).getLocation( ) );
+			if ( keys[i] == null )
+				continue;
+
+			Set<Entry> found = includers.get( keys[i] );
+			if ( found == null )
+			{
+				found = new HashSet<Entry>( );
+				includers.put( keys[i], found );
+			}
+			found.add( entry );
+		}
+
+		entry.libraryKeys = keys;
+	}
+
+	/**
+	 * Removes the entry from the included library map.
+	 *
+	 * @param entry
+	 *            the entry
+	 */
+
+	private void removeLibraries( Entry entry )
+	{
+		if ( entry.libraryKeys == null )
+			return;
+
+		for ( int i = 0; i < entry.libraryKeys.length; i++ )
+		{
+			String key = entry.libraryKeys[i];
+			if ( key == null )
+				continue;
+
+			Set<Entry> found = includers.get( key );
+			if ( found != null )
+			{
+				found.remove( entry );
+				if ( found.isEmpty( ) )
+					includers.remove( key );
+			}
+		}
+
+		entry.libraryKeys = null;
+	}
+
+	/**
+	 * Adds the entry to the location map.
+	 *
+	 * @param entry
+	 *            the entry
+	 */
+
+	private void addLocation( Entry entry )
+	{
+		if ( entry.key == null )
+			return;
+
+		Entry[] found = locations.get( entry.key );
+		if ( found == null )
+		{
+			locations.put( entry.key, new Entry[]{entry} );
+			return;
+		}
+
+		Entry[] newEntries = new Entry[found.length + 1];
+		System.arraycopy( found, 0, newEntries, 0, found.length );
+		newEntries[found.length] = entry;
+		locations.put( entry.key, newEntries );
+	}
+
+	/**
+	 * Removes the entry from the location map.
+	 *
+	 * @param entry
+	 *            the entry
+	 */
+
+	private void removeLocation( Entry entry )
+	{
+		if ( entry.key == null )
+			return;
+
+		Entry[] found = locations.get( entry.key );
+		if ( found == null )
+			return;
+
+		List<Entry> newEntries = new ArrayList<Entry>( found.length );
+		for ( int i = 0; i < found.length; i++ )
+		{
+			if ( found[i] != entry )
+				newEntries.add( found[i] );
+		}
+
+		if ( newEntries.isEmpty( ) )
+			locations.remove( entry.key );
+		else if ( newEntries.size( ) != found.length )
+			locations.put( entry.key, newEntries
+					.toArray( new Entry[newEntries.size( )] ) );
+	}
+
+	/**
+	 * Normalizes the location so that two locations are equal if and only if
+	 * they are equal ignoring case, as <code>String.equalsIgnoreCase</code>
+	 * does.
+	 *
+	 * @param location
+	 *            the location
+	 * @return the normalized location, or <code>null</code> if the location
+	 *         is <code>null</code>
+	 */
+
+	static String normalize( String location )
+	{
+		if ( location == null )
+			return null;
+
+		char[] chars = location.toCharArray( );
+		for ( int i = 0; i < chars.length; i++ )
+			chars[i] = Character.toLowerCase( Character
+					.toUpperCase( chars[i] ) );
+		return new String( chars );
+	}
+
+	/**
+	 * An opened module with its index information.
+	 */
+
+	private static class Entry
+	{
+
+		/**
+		 * The opened module.
+		 */
+
+		final Module module;
+
+		/**
+		 * The normalized location the module is registered with.
+		 */
+
+		String key;
+
+		/**
+		 * 0 for designs and 1 for libraries.
+		 */
+
+		final int rank;
+
+		/**
+		 * The registration order.
+		 */
+
+		final long serial;
+
+		/**
+		 * The normalized locations of the included libraries.
+		 */
+
+		String[] libraryKeys = null;
+
+		/**
+		 * Constructs the entry.
+		 *
+		 * @param module
+		 *            the module
+		 * @param key
+		 *            the normalized location
+		 * @param rank
+		 *            0 for designs and 1 for libraries
+		 * @param serial
+		 *            the registration order
+		 */
+
+		Entry( Module module, String key, int rank, long serial )
+		{
+			this.module = module;
+			this.key = key;
+			this.rank = rank;
+			this.serial = serial;
+		}
+	}
+}
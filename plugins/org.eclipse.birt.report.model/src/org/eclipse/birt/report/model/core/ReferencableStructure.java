@@ -261,6 +261,30 @@ public abstract class ReferencableStructure extends Structure
 			assert false;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.birt.report.model.core.Structure#setProperty(org.eclipse
+	 * .birt.report.model.metadata.PropertyDefn, java.lang.Object)
+	 */
+
+	public void setProperty( PropertyDefn prop, Object value )
+	{
+		super.setProperty( prop, value );
+
+		// the structure list that keeps this structure by name must drop its
+		// index
+
+		StructureContext context = getContext( );
+		if ( context != null && isReferencableProperty( prop.getName( ) ) )
+		{
+			Object list = context.getLocalValue( null );
+			if ( list instanceof ReferencableStructureList )
+				( (ReferencableStructureList) list ).nameChanged( );
+		}
+	}
+
 	/**
 	 * Implements to cache a back-pointer from a referenced structure.
 	 * 
@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.birt.report.model.api.elements.structures.ConfigVariable;
+import org.eclipse.birt.report.model.api.elements.structures.CustomColor;
+import org.eclipse.birt.report.model.api.elements.structures.EmbeddedImage;
+import org.eclipse.birt.report.model.api.metadata.IPropertyDefn;
+import org.eclipse.birt.report.model.api.metadata.IPropertyType;
+import org.eclipse.birt.report.model.api.metadata.IStructureDefn;
+
+/**
+ * Structure list of a property whose values are referencable structures, such
+ * as config variables, embedded images and custom colors. Besides the list
+ * order, the list keeps the structures by the referencable name, so that the
+ * structures are found by name in constant time.
+ * <p>
+ * The index is built on the first lookup. Appending a structure updates the
+ * index, and other changes of the list drop it. The index is also dropped when
+ * the name of a structure in the list is changed. Like the linear search, the
+ * first structure with the name is found.
+ */
+
+public class ReferencableStructureList extends ArrayList<Object>
+{
+
+	/**
+	 * Comment for <code>serialVersionUID</code>
+	 */
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The structures by the referencable name. <code>null</code> if the index
+	 * is not built.
+	 */
+
+	private transient Map<String, Structure> names = null;
+
+	/**
+	 * Constructs an empty list.
+	 */
+
+	public ReferencableStructureList( )
+	{
+		super( );
+	}
+
+	/**
+	 * Creates the structure list for the given property. The list is indexed
+	 * by name if the property is a list of referencable structures.
+	 *
+	 * @param propDefn
+	 *            the structure list property
+	 * @return the new list
+	 */
+
+	public static ArrayList<Object> createList( IPropertyDefn propDefn )
+	{
+		if ( isReferencableList( propDefn ) )
+			return new ReferencableStructureList( );
+		return new ArrayList<Object>( );
+	}
+
+	/**
+	 * Tells whether the given property is a list of referencable structures.
+	 *
+	 * @param propDefn
+	 *            the property definition
+	 * @return <code>true</code> if the values of the property are kept in a
+	 *         <code>ReferencableStructureList</code>
+	 */
+
+	public static boolean isReferencableList( IPropertyDefn propDefn )
+	{
+		if ( propDefn == null
+				|| propDefn.getTypeCode( ) != IPropertyType.STRUCT_TYPE
+				|| !propDefn.isList( ) )
+			return false;
+
+		IStructureDefn structDefn = propDefn.getStructDefn( );
+		if ( structDefn == null )
+			return false;
+
+		String structName = structDefn.getName( );
+		return ConfigVariable.CONFIG_VAR_STRUCT.equals( structName )
+				|| EmbeddedImage.EMBEDDED_IMAGE_STRUCT.equals( structName )
+				|| CustomColor.CUSTOM_COLOR_STRUCT.equals( structName );
+	}
+
+	/**
+	 * Returns the first structure with the given referencable name.
+	 *
+	 * @param name
+	 *            the name of the structure
+	 * @return the structure, or <code>null</code> if not found
+	 */
+
+	public Structure findStructure( String name )
+	{
+		if ( name == null )
+			return null;
+
+		if ( names == null )
+			buildIndex( );
+
+		Structure struct = names.get( name );
+		if ( struct == null || name.equals( struct.getReferencableProperty( ) ) )
+			return struct;
+
+		// the structure is renamed since the index was built, build it again
+
+		buildIndex( );
+		return names.get( name );
+	}
+
+	/**
+	 * Drops the index. Called when the name of a structure in the list is
+	 * changed.
+	 */
+
+	void nameChanged( )
+	{
+		names = null;
+	}
+
+	/**
+	 * Builds the index by the referencable names.
+	 */
+
+	private void buildIndex( )
+	{
+		Map<String, Structure> newNames = new HashMap<String, Structure>(
+				size( ) * 2 );
+		for ( int i = 0; i < size( ); i++ )
+			index( newNames, get( i ) );
+		names = newNames;
+	}
+
+	/**
+	 * Adds the given item to the index if no structure of the same name is
+	 * indexed.
+	 *
+	 * @param index
+	 *            the index
+	 * @param item
+	 *            the item of the list
+	 */
+
+	private static void index( Map<String, Structure> index, Object item )
+	{
+		if ( !( item instanceof Structure ) )
+			return;
+
+		Structure struct = (Structure) item;
+		String name = struct.getReferencableProperty( );
+		if ( name != null && !index.containsKey( name ) )
+			index.put( name, struct );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.ArrayList#add(java.lang.Object)
+	 */
+
+	public boolean add( Object o )
+	{
+		super.add( o );
+		if ( names != null )
+			index( names, o );
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.ArrayList#add(int, java.lang.Object)
+	 */
+
+	public void add( int index, Object element )
+	{
+		super.add( index, element );
+		names = null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.ArrayList#set(int, java.lang.Object)
+	 */
+
+	public Object set( int index, Object element )
+	{
+		names = null;
+		return super.set( index, element );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.ArrayList#remove(int)
+	 */
+
+	public Object remove( int index )
+	{
+		names = null;
+		return super.remove( index );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.ArrayList#remove(java.lang.Object)
+	 */
+
+	public boolean remove( Object o )
+	{
+		names = null;
+		return super.remove( o );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.ArrayList#clear()
+	 */
+
+	public void clear( )
+	{
+		names = null;
+		super.clear( );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.ArrayList#addAll(java.util.Collection)
+	 */
+
+	public boolean addAll( Collection<? extends Object> c )
+	{
+		names = null;
+		return super.addAll( c );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.ArrayList#addAll(int, java.util.Collection)
+	 */
+
+	public boolean addAll( int index, Collection<? extends Object> c )
+	{
+		names = null;
+		return super.addAll( index, c );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractCollection#removeAll(java.util.Collection)
+	 */
+
+	public boolean removeAll( Collection<?> c )
+	{
+		names = null;
+		return super.removeAll( c );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractCollection#retainAll(java.util.Collection)
+	 */
+
+	public boolean retainAll( Collection<?> c )
+	{
+		names = null;
+		return super.retainAll( c );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.ArrayList#removeRange(int, int)
+	 */
+
+	protected void removeRange( int fromIndex, int toIndex )
+	{
+		names = null;
+		super.removeRange( fromIndex, toIndex );
+	}
+}
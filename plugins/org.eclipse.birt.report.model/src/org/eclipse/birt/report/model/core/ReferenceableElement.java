@@ -11,6 +11,7 @@
 
 package org.eclipse.birt.report.model.core;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.eclipse.birt.report.model.api.activity.NotificationEvent;
@@ -182,6 +183,22 @@ public abstract class ReferenceableElement extends DesignElement
 		adapter.updateClientReferences( );
 	}
 
+	/**
+	 * Unresolves the references of the clients to this element and drops the
+	 * clients. The clients that refer to this element by the style property
+	 * are added to the given collection instead of being notified.
+	 * 
+	 * @param styleClients
+	 *            the collection to add the style clients to
+	 */
+
+	public void unresolveClientReferences(
+			Collection<DesignElement> styleClients )
+	{
+		( (ReferenceableElementAdapter) adapter )
+				.unresolveClientReferences( styleClients );
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
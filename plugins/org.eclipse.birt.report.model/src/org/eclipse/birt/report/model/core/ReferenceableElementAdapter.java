@@ -12,8 +12,10 @@
 package org.eclipse.birt.report.model.core;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.birt.report.model.api.activity.NotificationEvent;
 import org.eclipse.birt.report.model.api.command.StyleEvent;
@@ -197,14 +199,44 @@ public class ReferenceableElementAdapter
 
 	public void updateClientReferences( )
 	{
-		// creates another list for the iterator
+		List<DesignElement> styleClients = new ArrayList<DesignElement>( );
+		unresolveClientReferences( styleClients );
 
-		Iterator<BackRef> backRefIter = new ArrayList<BackRef>( clients )
-				.iterator( );
+		// for the style, send out a event to let UI repaint the element.
 
-		while ( backRefIter.hasNext( ) )
+		for ( int i = 0; i < styleClients.size( ); i++ )
 		{
-			BackRef ref = backRefIter.next( );
+			DesignElement client = styleClients.get( i );
+			client.broadcast( new StyleEvent( client ) );
+		}
+	}
+
+	/**
+	 * Unresolves the references of the clients to the element and drops the
+	 * clients. The clients that refer to the element by the style property are
+	 * added to the given collection, so that the caller can send out the style
+	 * events at one time. Other clients try to resolve the references again.
+	 * 
+	 * @param styleClients
+	 *            the collection to add the style clients to
+	 */
+
+	public void unresolveClientReferences(
+			Collection<DesignElement> styleClients )
+	{
+		// creates another list for the iteration
+
+		List<BackRef> refs = new ArrayList<BackRef>( clients );
+
+		// the number of the back references to drop for each client. Drops
+		// them at one time instead of one by one, which is quadratic for
+		// elements with many clients.
+
+		Map<DesignElement, Integer> drops = new IdentityHashMap<DesignElement, Integer>( );
+
+		for ( int i = 0; i < refs.size( ); i++ )
+		{
+			BackRef ref = refs.get( i );
 			DesignElement client = ref.getElement( );
 
 			Module root = client.getRoot( );
@@ -224,33 +256,87 @@ public class ReferenceableElementAdapter
 			{
 				ElementRefValue refValue = (ElementRefValue) value;
 				refValue.unresolved( refValue.getName( ) );
-				dropClient( client );
+				addDrop( drops, client );
 			}
 			else if ( value instanceof List )
 			{
 				List<Object> valueList = (List<Object>) value;
-				for ( int i = 0; i < valueList.size( ); i++ )
+				for ( int j = 0; j < valueList.size( ); j++ )
 				{
-					ElementRefValue item = (ElementRefValue) valueList.get( i );
+					ElementRefValue item = (ElementRefValue) valueList.get( j );
 					if ( item.getElement( ) == element )
 					{
 						item.unresolved( item.getName( ) );
-						dropClient( client );
+						addDrop( drops, client );
 					}
 				}
 			}
+		}
+
+		dropClients( drops );
 
-			// for the style, send out a event to let UI repaint the element.
-			// otherwise, try to resolve it.
+		// for the style, the caller sends out the event to let UI repaint the
+		// element. otherwise, try to resolve it.
+
+		for ( int i = 0; i < refs.size( ); i++ )
+		{
+			BackRef ref = refs.get( i );
+			DesignElement client = ref.getElement( );
 			if ( IStyledElementModel.STYLE_PROP.equalsIgnoreCase( ref
 					.getPropertyName( ) ) )
-				client.broadcast( new StyleEvent( client ) );
+				styleClients.add( client );
 			else
-				client.resolveElementReference( root, client
+				client.resolveElementReference( client.getRoot( ), client
 						.getPropertyDefn( ref.getPropertyName( ) ) );
 		}
 	}
 
+	/**
+	 * Increases the number of the back references to drop for the client.
+	 * 
+	 * @param drops
+	 *            the numbers of the back references to drop
+	 * @param client
+	 *            the client
+	 */
+
+	private static void addDrop( Map<DesignElement, Integer> drops,
+			DesignElement client )
+	{
+		Integer count = drops.get( client );
+		drops.put( client, Integer.valueOf( count == null
+				? 1
+				: count.intValue( ) + 1 ) );
+	}
+
+	/**
+	 * Drops the first back references of the clients. It is the same as
+	 * calling {@link #dropClient(DesignElement)} for each drop, but the list
+	 * of clients is built only once.
+	 * 
+	 * @param drops
+	 *            the numbers of the back references to drop
+	 */
+
+	private void dropClients( Map<DesignElement, Integer> drops )
+	{
+		if ( drops.isEmpty( ) )
+			return;
+
+		ArrayList<BackRef> remains = new ArrayList<BackRef>( clients.size( ) );
+		for ( int i = 0; i < clients.size( ); i++ )
+		{
+			BackRef ref = clients.get( i );
+			Integer count = drops.get( ref.getElement( ) );
+			if ( count != null && count.intValue( ) > 0 )
+				drops.put( ref.getElement( ), Integer.valueOf( count
+						.intValue( ) - 1 ) );
+			else
+				remains.add( ref );
+		}
+		clients = remains;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
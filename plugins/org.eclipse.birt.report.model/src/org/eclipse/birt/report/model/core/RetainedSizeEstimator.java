@@ -0,0 +1,705 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.core;
+
+import java.math.BigDecimal;
+import java.net.URL;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.birt.report.model.activity.ActivityRecord;
+import org.eclipse.birt.report.model.activity.CompoundRecord;
+import org.eclipse.birt.report.model.api.Expression;
+import org.eclipse.birt.report.model.api.elements.structures.EmbeddedImage;
+import org.eclipse.birt.report.model.api.metadata.DimensionValue;
+import org.eclipse.birt.report.model.api.metadata.IPropertyDefn;
+import org.eclipse.birt.report.model.api.util.RetainedSizeEstimate;
+import org.eclipse.birt.report.model.elements.ExtendedItem;
+import org.eclipse.birt.report.model.elements.Library;
+import org.eclipse.birt.report.model.extension.PeerExtensibilityProvider;
+import org.eclipse.birt.report.model.metadata.ObjectDefn;
+import org.eclipse.birt.report.model.metadata.PropertyDefn;
+import org.eclipse.birt.report.model.metadata.ReferenceValue;
+import org.eclipse.birt.report.model.util.ElementTreeWalker;
+import org.eclipse.birt.report.model.util.IElementTreeVisitor;
+
+/**
+ * Estimates the heap size retained by modules. The estimator walks the
+ * elements once and sizes each element, property value, structure and command
+ * record with a fixed layout model of a 64-bit JVM with compressed
+ * references, so the time is linear in the size of the model.
+ * <p>
+ * The estimator reads the model without locking. Like other reads, it should
+ * not run while the module is changed by another thread.
+ */
+
+final class RetainedSizeEstimator implements IElementTreeVisitor
+{
+
+	/**
+	 * The size of an object header.
+	 */
+
+	private static final int OBJECT_HEADER = 12;
+
+	/**
+	 * The size of an array header.
+	 */
+
+	private static final int ARRAY_HEADER = 16;
+
+	/**
+	 * The size of a reference.
+	 */
+
+	private static final int REFERENCE = 4;
+
+	/**
+	 * The size of a <code>String</code> without its characters.
+	 */
+
+	private static final int STRING = 24;
+
+	/**
+	 * The size of a hash map without its table and entries.
+	 */
+
+	private static final int HASH_MAP = 48;
+
+	/**
+	 * The size of a hash map entry.
+	 */
+
+	private static final int HASH_MAP_ENTRY = 32;
+
+	/**
+	 * The size of an entry of a linked hash map or set.
+	 */
+
+	private static final int LINKED_HASH_MAP_ENTRY = 40;
+
+	/**
+	 * The size of an array list without its array.
+	 */
+
+	private static final int ARRAY_LIST = 24;
+
+	/**
+	 * The size of an element without its slots and values. It covers the
+	 * fields of <code>DesignElement</code> and a few fields of the subclass.
+	 */
+
+	private static final int ELEMENT = 112;
+
+	/**
+	 * The size of a container slot without its contents.
+	 */
+
+	private static final int SLOT = 24;
+
+	/**
+	 * The size of the container context of an element.
+	 */
+
+	private static final int CONTAINER_CONTEXT = 24;
+
+	/**
+	 * The size of a user-defined property definition.
+	 */
+
+	private static final int USER_PROPERTY = 96;
+
+	/**
+	 * The size of a structure without its member values.
+	 */
+
+	private static final int STRUCTURE = 24;
+
+	/**
+	 * The size of a reference value without its names.
+	 */
+
+	private static final int REFERENCE_VALUE = 24;
+
+	/**
+	 * The size of an expression or dimension value without its value.
+	 */
+
+	private static final int VALUE_OBJECT = 24;
+
+	/**
+	 * The size of a boxed number, boolean or other small value.
+	 */
+
+	private static final int SMALL_VALUE = 16;
+
+	/**
+	 * The size of a <code>BigDecimal</code>.
+	 */
+
+	private static final int BIG_DECIMAL = 40;
+
+	/**
+	 * The size of an extension element without its model.
+	 */
+
+	private static final int EXTENSION_ELEMENT = 64;
+
+	/**
+	 * The size of an activity record without its label.
+	 */
+
+	private static final int ACTIVITY_RECORD = 48;
+
+	/**
+	 * The size of a URL without its external form.
+	 */
+
+	private static final int URL_OBJECT = 80;
+
+	/**
+	 * The size of an entry of the element ID map.
+	 */
+
+	private static final int ID_ENTRY = 32;
+
+	/**
+	 * The size of an entry of a name space.
+	 */
+
+	private static final int NAME_ENTRY = LINKED_HASH_MAP_ENTRY + REFERENCE;
+
+	/**
+	 * The index of each category in the sizes.
+	 */
+
+	private static final int ELEMENTS = 0;
+	private static final int PROPERTIES = 1;
+	private static final int STRUCTURES = 2;
+	private static final int EMBEDDED_IMAGES = 3;
+	private static final int RESOURCE_BUNDLES = 4;
+	private static final int EXTENSIONS = 5;
+	private static final int COMMAND_STACK = 6;
+	private static final int INDEXES = 7;
+
+	/**
+	 * The sizes by category.
+	 */
+
+	private final long[] sizes = new long[RetainedSizeEstimate
+			.getCategories( ).size( )];
+
+	/**
+	 * The bundle cache of the session, or <code>null</code> if the bundles
+	 * shared in the session are not counted per module.
+	 */
+
+	private final BundleCache bundleCache;
+
+	/**
+	 * The keys of the bundles counted so far.
+	 */
+
+	private final Set<String> countedBundles = new HashSet<String>( );
+
+	/**
+	 * The number of elements.
+	 */
+
+	private int elementCount = 0;
+
+	/**
+	 * The number of modules.
+	 */
+
+	private int moduleCount = 0;
+
+	/**
+	 * The number of named elements.
+	 */
+
+	private int namedCount = 0;
+
+	/**
+	 * Constructs the estimator.
+	 *
+	 * @param bundleCache
+	 *            the session bundle cache whose bundles used by the modules
+	 *            are counted, or <code>null</code> to count only the bundle
+	 *            URLs cached by the modules
+	 */
+
+	private RetainedSizeEstimator( BundleCache bundleCache )
+	{
+		this.bundleCache = bundleCache;
+	}
+
+	/**
+	 * Estimates the heap size retained by the given module. The included
+	 * libraries and the message files used by the module are counted, since
+	 * they are kept alive by the module.
+	 *
+	 * @param module
+	 *            the module
+	 * @return the estimate
+	 */
+
+	static RetainedSizeEstimate estimate( Module module )
+	{
+		DesignSessionImpl session = module.getSession( );
+		RetainedSizeEstimator estimator = new RetainedSizeEstimator(
+				session == null ? null : session.getBundleCache( ) );
+		estimator.addModuleTree( module );
+		return estimator.toEstimate( );
+	}
+
+	/**
+	 * Estimates the heap size retained by all the open modules of the given
+	 * session. The bundle cache of the session is counted once, instead of
+	 * once per module.
+	 *
+	 * @param session
+	 *            the session
+	 * @return the estimate
+	 */
+
+	static RetainedSizeEstimate estimate( DesignSessionImpl session )
+	{
+		RetainedSizeEstimator estimator = new RetainedSizeEstimator( null );
+		Iterator<Module> iter = session.getModuleIterator( );
+		while ( iter.hasNext( ) )
+			estimator.addModuleTree( iter.next( ) );
+
+		estimator.sizes[RESOURCE_BUNDLES] += session.getBundleCache( )
+				.estimateSize( );
+		return estimator.toEstimate( );
+	}
+
+	/**
+	 * Returns the estimated size of a string.
+	 *
+	 * @param value
+	 *            the string, can be <code>null</code>
+	 * @return the size in bytes
+	 */
+
+	static long sizeOfString( String value )
+	{
+		if ( value == null )
+			return 0;
+
+		return STRING + align( ARRAY_HEADER + 2L * value.length( ) );
+	}
+
+	/**
+	 * Returns the estimated size of a hash map without its keys and values.
+	 *
+	 * @param size
+	 *            the number of entries
+	 * @return the size in bytes
+	 */
+
+	static long sizeOfHashMap( int size )
+	{
+		return HASH_MAP + sizeOfTable( size ) + (long) size * HASH_MAP_ENTRY;
+	}
+
+	/**
+	 * Returns the estimated size of a linked hash set without its values.
+	 *
+	 * @param size
+	 *            the number of values
+	 * @return the size in bytes
+	 */
+
+	static long sizeOfLinkedHashSet( int size )
+	{
+		return OBJECT_HEADER + REFERENCE + HASH_MAP + sizeOfTable( size )
+				+ (long) size * LINKED_HASH_MAP_ENTRY;
+	}
+
+	/**
+	 * Returns the estimated size of an array list without its values.
+	 *
+	 * @param size
+	 *            the number of values
+	 * @return the size in bytes
+	 */
+
+	static long sizeOfArrayList( int size )
+	{
+		return ARRAY_LIST + align( ARRAY_HEADER + (long) size * REFERENCE );
+	}
+
+	/**
+	 * Returns the estimated size of the table of a hash map with the default
+	 * load factor.
+	 *
+	 * @param size
+	 *            the number of entries
+	 * @return the size in bytes
+	 */
+
+	private static long sizeOfTable( int size )
+	{
+		if ( size == 0 )
+			return 0;
+
+		int capacity = Integer.highestOneBit( Math.max( 1, size * 4 / 3 ) ) << 1;
+		return align( ARRAY_HEADER + (long) capacity * REFERENCE );
+	}
+
+	/**
+	 * Aligns the size to 8 bytes.
+	 *
+	 * @param size
+	 *            the size
+	 * @return the aligned size
+	 */
+
+	private static long align( long size )
+	{
+		return ( size + 7 ) & ~7L;
+	}
+
+	/**
+	 * Adds the given module and all its included libraries.
+	 *
+	 * @param module
+	 *            the module
+	 */
+
+	private void addModuleTree( Module module )
+	{
+		addModule( module );
+
+		List<Library> libraries = module.getAllLibraries( );
+		for ( int i = 0; i < libraries.size( ); i++ )
+			addModule( libraries.get( i ) );
+	}
+
+	/**
+	 * Adds the elements, indexes, command stack and bundles of the given
+	 * module.
+	 *
+	 * @param module
+	 *            the module
+	 */
+
+	private void addModule( Module module )
+	{
+		moduleCount++;
+		int oldNamedCount = namedCount;
+
+		visit( module );
+		new ElementTreeWalker( module ).walk( module, this );
+
+		// the ID map and the name spaces
+
+		long idCount = module.getElementIDCount( );
+		sizes[INDEXES] += HASH_MAP + sizeOfTable( (int) idCount ) + idCount
+				* ID_ENTRY;
+		sizes[INDEXES] += (long) ( namedCount - oldNamedCount ) * NAME_ENTRY;
+
+		addCommandStack( module );
+		addBundles( module );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.birt.report.model.util.IElementTreeVisitor#visit(org.eclipse
+	 * .birt.report.model.core.DesignElement)
+	 */
+
+	public boolean visit( DesignElement element )
+	{
+		elementCount++;
+
+		long size = ELEMENT + sizeOfString( element.name );
+		if ( element.name != null )
+			namedCount++;
+
+		if ( element.slots != null )
+		{
+			size += align( ARRAY_HEADER + (long) element.slots.length
+					* REFERENCE );
+			for ( int i = 0; i < element.slots.length; i++ )
+			{
+				ContainerSlot slot = element.slots[i];
+				if ( slot instanceof MultiElementSlot )
+					size += SLOT + sizeOfArrayList( slot.getCount( ) );
+				else if ( slot != null )
+					size += SLOT;
+			}
+		}
+
+		if ( element.containerInfo != null )
+			size += CONTAINER_CONTEXT;
+		if ( element.listeners != null )
+			size += sizeOfArrayList( element.listeners.size( ) );
+		if ( element.derived != null )
+			size += sizeOfArrayList( element.derived.size( ) );
+		if ( element.extendsRef != null )
+			addValue( element.extendsRef, ELEMENTS );
+
+		sizes[ELEMENTS] += size;
+
+		// property values
+
+		sizes[PROPERTIES] += sizeOfHashMap( element.propValues.size( ) );
+		Iterator<Object> values = element.propValues.values( ).iterator( );
+		while ( values.hasNext( ) )
+			addValue( values.next( ), PROPERTIES );
+
+		if ( element.userProperties != null )
+			sizes[PROPERTIES] += sizeOfHashMap( element.userProperties.size( ) )
+					+ (long) element.userProperties.size( ) * USER_PROPERTY;
+
+		if ( element instanceof ExtendedItem )
+			addExtension( ( (ExtendedItem) element )
+					.getExtensibilityProvider( ) );
+
+		return true;
+	}
+
+	/**
+	 * Adds the cached values and the extension element of an extended item.
+	 *
+	 * @param provider
+	 *            the extensibility provider of the extended item
+	 */
+
+	private void addExtension( PeerExtensibilityProvider provider )
+	{
+		if ( provider == null )
+			return;
+
+		Collection<Object> values = provider.getExtensionPropertyValues( );
+		sizes[EXTENSIONS] += sizeOfHashMap( values.size( ) );
+		Iterator<Object> iter = values.iterator( );
+		while ( iter.hasNext( ) )
+			addValue( iter.next( ), EXTENSIONS );
+
+		if ( provider.getExtensionElement( ) != null )
+		{
+			// the extension element is estimated as the size of the XML it is
+			// read from, held as characters
+
+			sizes[EXTENSIONS] += EXTENSION_ELEMENT
+					+ align( ARRAY_HEADER + 2
+							* provider.getExtensionElementXmlSize( ) );
+		}
+	}
+
+	/**
+	 * Adds the size of a property or member value to the given category.
+	 * Structures are added to the structure category, and contents are not
+	 * added since they are visited as elements.
+	 *
+	 * @param value
+	 *            the value
+	 * @param category
+	 *            the category of the simple values
+	 */
+
+	private void addValue( Object value, int category )
+	{
+		if ( value == null || value instanceof DesignElement )
+			return;
+
+		if ( value instanceof String )
+			sizes[category] += sizeOfString( (String) value );
+		else if ( value instanceof Structure )
+			addStructure( (Structure) value );
+		else if ( value instanceof List )
+		{
+			List<?> list = (List<?>) value;
+			int listCategory = category;
+			if ( !list.isEmpty( ) && list.get( 0 ) instanceof Structure )
+				listCategory = STRUCTURES;
+
+			sizes[listCategory] += sizeOfArrayList( list.size( ) );
+			for ( int i = 0; i < list.size( ); i++ )
+				addValue( list.get( i ), category );
+		}
+		else if ( value instanceof ReferenceValue )
+		{
+			ReferenceValue refValue = (ReferenceValue) value;
+
+			// a resolved reference shares the name of the target
+
+			long size = REFERENCE_VALUE
+					+ sizeOfString( refValue.getLibraryNamespace( ) );
+			if ( !refValue.isResolved( ) )
+				size += sizeOfString( refValue.getName( ) );
+			sizes[category] += size;
+		}
+		else if ( value instanceof Expression )
+		{
+			sizes[category] += VALUE_OBJECT;
+			addValue( ( (Expression) value ).getExpression( ), category );
+		}
+		else if ( value instanceof DimensionValue )
+			sizes[category] += VALUE_OBJECT;
+		else if ( value instanceof BigDecimal )
+			sizes[category] += BIG_DECIMAL;
+		else if ( value instanceof Map )
+		{
+			Map<?, ?> map = (Map<?, ?>) value;
+			sizes[category] += sizeOfHashMap( map.size( ) );
+			Iterator<?> iter = map.entrySet( ).iterator( );
+			while ( iter.hasNext( ) )
+			{
+				Map.Entry<?, ?> entry = (Map.Entry<?, ?>) iter.next( );
+				addValue( entry.getKey( ), category );
+				addValue( entry.getValue( ), category );
+			}
+		}
+		else
+			sizes[category] += SMALL_VALUE;
+	}
+
+	/**
+	 * Adds the size of a structure and its member values. The data of an
+	 * embedded image is added to the embedded image category.
+	 *
+	 * @param struct
+	 *            the structure
+	 */
+
+	private void addStructure( Structure struct )
+	{
+		sizes[STRUCTURES] += STRUCTURE;
+
+		ObjectDefn defn = (ObjectDefn) struct.getDefn( );
+		if ( defn != null )
+		{
+			boolean isImage = struct instanceof EmbeddedImage;
+			Iterator<IPropertyDefn> iter = defn.propertiesIterator( );
+			while ( iter.hasNext( ) )
+			{
+				PropertyDefn member = (PropertyDefn) iter.next( );
+				if ( !member.isIntrinsic( ) )
+					continue;
+
+				String memberName = member.getName( );
+				Object value = struct.getIntrinsicProperty( memberName );
+				if ( isImage && EmbeddedImage.DATA_MEMBER.equals( memberName ) )
+					addValue( value, EMBEDDED_IMAGES );
+				else
+					addValue( value, STRUCTURES );
+			}
+		}
+
+		if ( struct instanceof PropertyStructure )
+		{
+			Map<String, Object> values = ( (PropertyStructure) struct ).propValues;
+			sizes[STRUCTURES] += sizeOfHashMap( values.size( ) );
+			Iterator<Object> iter = values.values( ).iterator( );
+			while ( iter.hasNext( ) )
+				addValue( iter.next( ), STRUCTURES );
+		}
+	}
+
+	/**
+	 * Adds the records on the command stack of the given module.
+	 *
+	 * @param module
+	 *            the module
+	 */
+
+	private void addCommandStack( Module module )
+	{
+		Object[] records = module.getActivityStack( ).getRecords( );
+
+		// the undo and redo stacks
+
+		sizes[COMMAND_STACK] += 2 * sizeOfArrayList( 0 )
+				+ align( ARRAY_HEADER + (long) records.length * REFERENCE );
+		for ( int i = 0; i < records.length; i++ )
+			addRecord( (ActivityRecord) records[i] );
+	}
+
+	/**
+	 * Adds the size of a record and, for a transaction, its child records.
+	 *
+	 * @param record
+	 *            the record
+	 */
+
+	private void addRecord( ActivityRecord record )
+	{
+		sizes[COMMAND_STACK] += ACTIVITY_RECORD
+				+ sizeOfString( record.getLabel( ) );
+		if ( !( record instanceof CompoundRecord ) )
+			return;
+
+		List<ActivityRecord> children = ( (CompoundRecord) record )
+				.getRecords( );
+		sizes[COMMAND_STACK] += sizeOfArrayList( children.size( ) );
+		for ( int i = 0; i < children.size( ); i++ )
+			addRecord( children.get( i ) );
+	}
+
+	/**
+	 * Adds the cached URLs of the message files of the given module and, if
+	 * the bundle cache is given, the parsed message files. A message file used
+	 * by several modules is counted once.
+	 *
+	 * @param module
+	 *            the module
+	 */
+
+	private void addBundles( Module module )
+	{
+		CachedBundles cachedBundles = module.getCachedBundles( );
+		if ( cachedBundles == null )
+			return;
+
+		Map<String, URL> urls = cachedBundles.getBundleURLs( );
+		sizes[RESOURCE_BUNDLES] += OBJECT_HEADER + REFERENCE
+				+ sizeOfHashMap( urls.size( ) );
+
+		Iterator<Map.Entry<String, URL>> iter = urls.entrySet( ).iterator( );
+		while ( iter.hasNext( ) )
+		{
+			Map.Entry<String, URL> entry = iter.next( );
+			sizes[RESOURCE_BUNDLES] += sizeOfString( entry.getKey( ) );
+
+			URL url = entry.getValue( );
+			if ( url == null )
+				continue;
+
+			String location = url.toExternalForm( );
+			sizes[RESOURCE_BUNDLES] += URL_OBJECT + sizeOfString( location );
+			if ( bundleCache != null && countedBundles.add( location ) )
+				sizes[RESOURCE_BUNDLES] += bundleCache.estimateSize( url );
+		}
+	}
+
+	/**
+	 * Returns the estimate of all the added modules.
+	 *
+	 * @return the estimate
+	 */
+
+	private RetainedSizeEstimate toEstimate( )
+	{
+		return new RetainedSizeEstimate( sizes, elementCount, moduleCount );
+	}
+}
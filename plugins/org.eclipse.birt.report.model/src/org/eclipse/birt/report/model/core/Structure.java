@@ -44,6 +44,18 @@ public abstract class Structure implements IStructure
 
 	private StructureContext context;
 
+	/**
+	 * The cached contexts of the members of this structure, in the order they
+	 * are first asked for. The contexts are immutable and are shared by all
+	 * the member handles of this structure.
+	 * <p>
+	 * The array is never changed once it is published. A new array is built in
+	 * full and then assigned, and the field is volatile, so that another thread
+	 * never sees a partly filled array.
+	 */
+
+	private transient volatile StructureContext[] memberContexts;
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -92,6 +104,7 @@ public abstract class Structure implements IStructure
 			Structure retValue = (Structure) clone( );
 			StructureContextUtil.setupStructureContext( retValue );
 			retValue.context = null;
+			retValue.memberContexts = null;
 			return retValue;
 		}
 		catch ( CloneNotSupportedException e )
@@ -436,10 +449,11 @@ public abstract class Structure implements IStructure
 
 	public StructureHandle getHandle( SimpleValueHandle valueHandle, int index )
 	{
-		if ( valueHandle == null || valueHandle.getListValue( ) == null )
+		if ( valueHandle == null )
 			return null;
 
-		if ( index < 0 || index >= valueHandle.getListValue( ).size( ) )
+		List list = valueHandle.getListValue( );
+		if ( list == null || index < 0 || index >= list.size( ) )
 			return null;
 
 		return handle( valueHandle, index );
@@ -475,10 +489,27 @@ public abstract class Structure implements IStructure
 
 	public StructureHandle getHandle( SimpleValueHandle valueHandle )
 	{
-		if ( valueHandle == null || valueHandle.getListValue( ) == null )
+		if ( valueHandle == null )
+			return null;
+
+		List list = valueHandle.getListValue( );
+		if ( list == null )
 			return null;
 
-		int posn = valueHandle.getListValue( ).indexOf( this );
+		// structures equal in content may be in the list, look for this
+		// structure itself first
+
+		int posn = -1;
+		for ( int i = 0; i < list.size( ); i++ )
+		{
+			if ( list.get( i ) == this )
+			{
+				posn = i;
+				break;
+			}
+		}
+		if ( posn == -1 )
+			posn = list.indexOf( this );
 		if ( posn == -1 )
 			return null;
 
@@ -518,6 +549,49 @@ public abstract class Structure implements IStructure
 		return context;
 	}
 
+	/**
+	 * Returns the context of the given member of this structure. The context
+	 * is created once and is cached, so that the member handles and the
+	 * member values of this structure do not look up the member definition
+	 * again.
+	 * 
+	 * @param member
+	 *            the member definition
+	 * @return the context of the member
+	 */
+
+	public StructureContext getMemberContext( PropertyDefn member )
+	{
+		StructureContext[] contexts = memberContexts;
+		if ( contexts != null )
+		{
+			for ( int i = 0; i < contexts.length; i++ )
+			{
+				StructureContext memberContext = contexts[i];
+				if ( memberContext.getPropDefn( ) == member
+						&& memberContext.getValueContainer( ) == this )
+					return memberContext;
+			}
+		}
+
+		StructureContext memberContext = new StructureContext( this, member,
+				null );
+
+		int size = contexts == null ? 0 : contexts.length;
+		StructureContext[] newContexts = new StructureContext[size + 1];
+		if ( size > 0 )
+			System.arraycopy( contexts, 0, newContexts, 0, size );
+		newContexts[size] = memberContext;
+
+		// publishes the array only after it is filled. If two threads add a
+		// member at the same time, one of the new contexts is not cached and
+		// is created again on the next call.
+
+		memberContexts = newContexts;
+
+		return memberContext;
+	}
+
 	/**
 	 * Caches the context to the structure.
 	 * 
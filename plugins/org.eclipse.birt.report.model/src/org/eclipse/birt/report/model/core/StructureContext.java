@@ -11,7 +11,6 @@
 
 package org.eclipse.birt.report.model.core;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -119,7 +118,8 @@ public class StructureContext
 		{
 			if ( values == null )
 			{
-				values = new ArrayList<Object>( );
+				values = ReferencableStructureList.createList( containerInfo
+						.getPropDefn( ) );
 				containerInfo.setValue( values );
 			}
 
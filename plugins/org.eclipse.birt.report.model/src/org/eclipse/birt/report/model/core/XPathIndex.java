@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
+
+/**
+ * Versioned index from the xpath, such as a script UID, to the resolved
+ * element, slot, property or structure handle of a module. An xpath is
+ * resolved once and the result is kept until the module is changed by a
+ * command that may change the result, such as a content, extends or list
+ * change, at which time the version is increased and all the results are
+ * dropped.
+ * <p>
+ * The index is thread-safe. A result resolved against an older version is
+ * never stored.
+ */
+
+public final class XPathIndex
+{
+
+	/**
+	 * The value returned by {@link #get(String)} if the xpath is not resolved
+	 * since the last change.
+	 */
+
+	public static final Object NOT_CACHED = new Object( );
+
+	/**
+	 * The maximal number of results to keep. The least recently used result is
+	 * dropped when the index is full.
+	 */
+
+	private static final int MAX_SIZE = 4096;
+
+	/**
+	 * The value stored for the xpath that can not be resolved.
+	 */
+
+	private static final Object NULL_VALUE = new Object( );
+
+	/**
+	 * The current version of the index.
+	 */
+
+	private long version = 0;
+
+	/**
+	 * The resolved results in access order. The key is the xpath.
+	 */
+
+	private final LinkedHashMap<String, Object> results = new LinkedHashMap<String, Object>(
+			16, 0.75f, true );
+
+	/**
+	 * The module that owns the index.
+	 */
+
+	private final ModuleImpl module;
+
+	/**
+	 * Constructs the index of the given module.
+	 *
+	 * @param module
+	 *            the module that owns the index
+	 */
+
+	public XPathIndex( ModuleImpl module )
+	{
+		this.module = module;
+	}
+
+	/**
+	 * Returns the current version. The version should be read before
+	 * resolving an xpath, and be passed to {@link #put}.
+	 *
+	 * @return the current version
+	 */
+
+	public synchronized long getVersion( )
+	{
+		return version;
+	}
+
+	/**
+	 * Returns the result for the given xpath.
+	 *
+	 * @param xpath
+	 *            the xpath
+	 * @return the resolved result, which can be <code>null</code>, or
+	 *         {@link #NOT_CACHED} if the xpath is not resolved since the last
+	 *         change
+	 */
+
+	public Object get( String xpath )
+	{
+		Object value;
+		synchronized ( this )
+		{
+			value = results.get( xpath );
+		}
+
+		// the listener is notified outside the monitor
+
+		module.cacheAccessed( IModelMetricsListener.XPATH_CACHE, value != null );
+		if ( value == null )
+			return NOT_CACHED;
+
+		return value == NULL_VALUE ? null : value;
+	}
+
+	/**
+	 * Stores the result for the given xpath. If the module has been changed
+	 * since the given version was read, the result is not stored.
+	 *
+	 * @param xpath
+	 *            the xpath
+	 * @param computedVersion
+	 *            the version read before the xpath was resolved
+	 * @param value
+	 *            the resolved result, can be <code>null</code>
+	 */
+
+	public synchronized void put( String xpath, long computedVersion,
+			Object value )
+	{
+		if ( computedVersion != version )
+			return;
+
+		results.put( xpath, value == null ? NULL_VALUE : value );
+
+		if ( results.size( ) > MAX_SIZE )
+		{
+			Iterator<String> iter = results.keySet( ).iterator( );
+			iter.next( );
+			iter.remove( );
+		}
+	}
+
+	/**
+	 * Increases the version and drops all the results.
+	 */
+
+	public synchronized void invalidate( )
+	{
+		version++;
+		if ( !results.isEmpty( ) )
+			results.clear( );
+	}
+}
@@ -64,6 +64,14 @@ public class ModuleNameHelper extends AbstractNameHelper
 	 */
 	private Map<String, DesignElement> cachedLevelNames = new HashMap<String, DesignElement>( );
 
+	/**
+	 * The last numeric suffixes used for the base names during a batch of
+	 * renaming, or <code>null</code> if no batch is in progress. Names are
+	 * only added in a batch, so the suffixes tried for the previous elements
+	 * are not tried again.
+	 */
+	private Map<String, Integer> suffixIndexes = null;
+
 	/**
 	 * 
 	 * @param module
@@ -249,6 +257,16 @@ public class ModuleNameHelper extends AbstractNameHelper
 		validName = name;
 		if ( element instanceof StyleElement )
 			validName = validName == null ? null : validName.toLowerCase( );
+
+		String suffixKey = null;
+		if ( suffixIndexes != null )
+		{
+			suffixKey = nameSpaceID + " " + validName; //$NON-NLS-1$
+			Integer lastIndex = suffixIndexes.get( suffixKey );
+			if ( lastIndex != null )
+				index = lastIndex.intValue( );
+		}
+
 		while ( nameSpace.contains( validName )
 				|| moduleNameSpace.contains( validName )
 				|| cachedContentNames.contains( validName ) )
@@ -259,9 +277,32 @@ public class ModuleNameHelper extends AbstractNameHelper
 				validName = validName == null ? null : validName.toLowerCase( );
 		}
 
+		if ( suffixKey != null )
+			suffixIndexes.put( suffixKey, Integer.valueOf( index ) );
+
 		return name;
 	}
 
+	/**
+	 * Starts a batch of renaming, such as renaming all the elements in a
+	 * pasted element tree. Until the batch ends, names must only be added to
+	 * the name spaces.
+	 */
+
+	public void startBatch( )
+	{
+		suffixIndexes = new HashMap<String, Integer>( );
+	}
+
+	/**
+	 * Ends the batch of renaming.
+	 */
+
+	public void endBatch( )
+	{
+		suffixIndexes = null;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -438,7 +479,9 @@ public class ModuleNameHelper extends AbstractNameHelper
 	}
 
 	/**
-	 * Finds a level by the given qualified name.
+	 * Finds a level by the given qualified name. Once the levels cached during
+	 * parsing are cleared, the level is found by the full name in the level
+	 * index of the module.
 	 * 
 	 * @param elementName
 	 * @return the level if found, otherwise null
@@ -448,6 +491,12 @@ public class ModuleNameHelper extends AbstractNameHelper
 		if ( elementName == null )
 			return null;
 
+		if ( cachedLevelNames == null )
+		{
+			DesignElement level = module.findLevel( elementName );
+			return level instanceof Level ? (Level) level : null;
+		}
+
 		String namespace = StringUtil.extractNamespace( elementName );
 		String name = StringUtil.extractName( elementName );
 		if ( namespace == null )
@@ -13,15 +13,19 @@ package org.eclipse.birt.report.model.css;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.birt.report.model.api.ModuleHandle;
 import org.eclipse.birt.report.model.api.css.CssStyleSheetHandle;
 import org.eclipse.birt.report.model.api.css.StyleSheetParserException;
+import org.eclipse.birt.report.model.api.metadata.IElementPropertyDefn;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.core.StyleElement;
+import org.eclipse.birt.report.model.metadata.ElementPropertyDefn;
 
 /**
  * This class represents one include style sheet of the module.
@@ -296,4 +300,54 @@ public final class CssStyleSheet
 		}
 	}
 
+	/**
+	 * Returns a copy of the style sheet as it is loaded. Styles are copied
+	 * while property values, which are immutable, are shared. The file name
+	 * and container are not copied.
+	 * 
+	 * @return the copy of the style sheet
+	 */
+
+	CssStyleSheet copy( )
+	{
+		CssStyleSheet retSheet = new CssStyleSheet( );
+		Iterator<CssStyle> iter = styles.values( ).iterator( );
+		while ( iter.hasNext( ) )
+		{
+			CssStyle style = iter.next( );
+			CssStyle newStyle = new CssStyle( style.getName( ) );
+
+			List<IElementPropertyDefn> propDefns = style.getPropertyDefns( );
+			for ( int i = 0; i < propDefns.size( ); i++ )
+			{
+				ElementPropertyDefn propDefn = (ElementPropertyDefn) propDefns
+						.get( i );
+				if ( propDefn.isIntrinsic( ) )
+					continue;
+
+				Object value = style.getLocalProperty( null, propDefn );
+				if ( value != null )
+					newStyle.setProperty( propDefn, value );
+			}
+			retSheet.styles.put( newStyle.getName( ), newStyle );
+		}
+
+		retSheet.warnings.addAll( warnings );
+		retSheet.unsupportedStyles.putAll( unsupportedStyles );
+
+		Iterator<Map.Entry<String, List<StyleSheetParserException>>> warningIter = warningsForStyles
+				.entrySet( ).iterator( );
+		while ( warningIter.hasNext( ) )
+		{
+			Map.Entry<String, List<StyleSheetParserException>> entry = warningIter
+					.next( );
+			retSheet.warningsForStyles.put( entry.getKey( ),
+					new ArrayList<StyleSheetParserException>( entry
+							.getValue( ) ) );
+		}
+
+		retSheet.errorHandler = errorHandler;
+		return retSheet;
+	}
+
 }
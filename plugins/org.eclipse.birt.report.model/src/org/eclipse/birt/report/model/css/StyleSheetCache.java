@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.css;
+
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.birt.report.model.util.ModelUtil;
+
+/**
+ * Cache of the parsed style sheets shared by all the modules and sessions.
+ * Style sheets are keyed by the URL and the settings of the module that the
+ * values are validated with, such as the default units and the custom colors,
+ * and are checked against the digest of the file content, so that a modified
+ * file is always parsed again.
+ * <p>
+ * The cached style sheets are never handed out. Each load gets a copy of its
+ * own, since the container of the style sheet and its styles is set by the
+ * module that includes it. When the number of style sheets exceeds the
+ * capacity, the least recently used ones are evicted.
+ */
+
+public final class StyleSheetCache
+{
+
+	/**
+	 * The default number of style sheets to keep.
+	 */
+
+	static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * The shared instance.
+	 */
+
+	private static final StyleSheetCache instance = new StyleSheetCache(
+			DEFAULT_CAPACITY );
+
+	/**
+	 * The maximal number of style sheets to keep.
+	 */
+
+	private final int capacity;
+
+	/**
+	 * The cached style sheets in access order.
+	 */
+
+	private final LinkedHashMap<String, Entry> sheets = new LinkedHashMap<String, Entry>(
+			16, 0.75f, true );
+
+	/**
+	 * Constructs the cache with the given capacity.
+	 *
+	 * @param capacity
+	 *            the maximal number of style sheets to keep
+	 */
+
+	StyleSheetCache( int capacity )
+	{
+		assert capacity > 0;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Returns the shared instance of the cache.
+	 *
+	 * @return the style sheet cache
+	 */
+
+	public static StyleSheetCache getInstance( )
+	{
+		return instance;
+	}
+
+	/**
+	 * Returns a copy of the cached style sheet with the given content.
+	 *
+	 * @param url
+	 *            the URL of the style sheet
+	 * @param settings
+	 *            the module settings that the values are validated with
+	 * @param digest
+	 *            the digest of the file content
+	 * @return the copy of the style sheet, or <code>null</code> if the style
+	 *         sheet is not cached or its content is changed
+	 */
+
+	CssStyleSheet get( URL url, String settings, byte[] digest )
+	{
+		if ( digest == null )
+			return null;
+
+		Entry entry;
+		synchronized ( this )
+		{
+			entry = sheets.get( getKey( url, settings ) );
+		}
+
+		if ( entry == null || !Arrays.equals( entry.digest, digest ) )
+			return null;
+
+		return entry.sheet.copy( );
+	}
+
+	/**
+	 * Caches the given style sheet. The style sheet must not be changed or be
+	 * handed out after that.
+	 *
+	 * @param url
+	 *            the URL of the style sheet
+	 * @param settings
+	 *            the module settings that the values are validated with
+	 * @param digest
+	 *            the digest of the file content
+	 * @param sheet
+	 *            the parsed style sheet
+	 */
+
+	synchronized void put( URL url, String settings, byte[] digest,
+			CssStyleSheet sheet )
+	{
+		if ( digest == null )
+			return;
+
+		sheets.put( getKey( url, settings ), new Entry( url.toExternalForm( ),
+				digest, sheet ) );
+
+		if ( sheets.size( ) > capacity )
+		{
+			Iterator<String> iter = sheets.keySet( ).iterator( );
+			iter.next( );
+			iter.remove( );
+		}
+	}
+
+	/**
+	 * Drops the style sheets at the given path. The path is compared in
+	 * case-insensitive way.
+	 *
+	 * @param path
+	 *            the file path or URL of the changed resource
+	 */
+
+	public synchronized void invalidate( String path )
+	{
+		if ( path == null )
+			return;
+
+		URL url = ModelUtil.getURLPresentation( path );
+		if ( url == null )
+			return;
+
+		String location = url.toExternalForm( );
+		Iterator<Map.Entry<String, Entry>> iter = sheets.entrySet( )
+				.iterator( );
+		while ( iter.hasNext( ) )
+		{
+			if ( location.equalsIgnoreCase( iter.next( ).getValue( ).location ) )
+				iter.remove( );
+		}
+	}
+
+	/**
+	 * Drops all the cached style sheets.
+	 */
+
+	public synchronized void clear( )
+	{
+		sheets.clear( );
+	}
+
+	/**
+	 * Returns the number of the cached style sheets.
+	 *
+	 * @return the number of the cached style sheets
+	 */
+
+	synchronized int size( )
+	{
+		return sheets.size( );
+	}
+
+	/**
+	 * Computes the digest of the given file content.
+	 *
+	 * @param content
+	 *            the file content
+	 * @return the digest, or <code>null</code> if it cannot be computed
+	 */
+
+	static byte[] digest( byte[] content )
+	{
+		try
+		{
+			return MessageDigest.getInstance( "SHA-1" ).digest( content ); //$NON-NLS-1$
+		}
+		catch ( NoSuchAlgorithmException e )
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the key of the style sheet.
+	 *
+	 * @param url
+	 *            the URL of the style sheet
+	 * @param settings
+	 *            the module settings that the values are validated with
+	 * @return the key
+	 */
+
+	private static String getKey( URL url, String settings )
+	{
+		return settings + ' ' + url.toExternalForm( );
+	}
+
+	/**
+	 * The parsed style sheet with the digest of its content.
+	 */
+
+	private static class Entry
+	{
+
+		/**
+		 * The external form of the URL.
+		 */
+
+		final String location;
+
+		/**
+		 * The digest of the file content.
+		 */
+
+		final byte[] digest;
+
+		/**
+		 * The parsed style sheet.
+		 */
+
+		final CssStyleSheet sheet;
+
+		/**
+		 * Constructs the entry.
+		 *
+		 * @param location
+		 *            the external form of the URL
+		 * @param digest
+		 *            the digest of the file content
+		 * @param sheet
+		 *            the parsed style sheet
+		 */
+
+		Entry( String location, byte[] digest, CssStyleSheet sheet )
+		{
+			this.location = location;
+			this.digest = digest;
+			this.sheet = sheet;
+		}
+	}
+}
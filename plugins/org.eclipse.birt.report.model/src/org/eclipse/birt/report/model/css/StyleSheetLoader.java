@@ -11,6 +11,8 @@
 
 package org.eclipse.birt.report.model.css;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -21,21 +23,28 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.birt.report.model.api.IResourceLocator;
+import org.eclipse.birt.report.model.api.core.IAccessControl;
+import org.eclipse.birt.report.model.api.core.IModuleModel;
 import org.eclipse.birt.report.model.api.css.StyleSheetException;
 import org.eclipse.birt.report.model.api.css.StyleSheetParserException;
 import org.eclipse.birt.report.model.api.elements.DesignChoiceConstants;
+import org.eclipse.birt.report.model.api.elements.structures.CustomColor;
 import org.eclipse.birt.report.model.api.metadata.IElementDefn;
 import org.eclipse.birt.report.model.api.metadata.PropertyValueException;
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
 import org.eclipse.birt.report.model.api.util.StringUtil;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.css.property.ParseException;
 import org.eclipse.birt.report.model.css.property.PropertyParser;
+import org.eclipse.birt.report.model.elements.Library;
 import org.eclipse.birt.report.model.elements.interfaces.IStyleModel;
 import org.eclipse.birt.report.model.metadata.ElementPropertyDefn;
 import org.eclipse.birt.report.model.metadata.MetaDataDictionary;
@@ -160,10 +169,10 @@ public final class StyleSheetLoader
 					StyleSheetException.DESIGN_EXCEPTION_STYLE_SHEET_NOT_FOUND );
 		}
 
-		InputStream is = null;
+		byte[] content = null;
 		try
 		{
-			is = url.openStream( );
+			content = readContent( url.openStream( ) );
 		}
 		catch ( IOException e )
 		{
@@ -171,7 +180,32 @@ public final class StyleSheetLoader
 					StyleSheetException.DESIGN_EXCEPTION_STYLE_SHEET_NOT_FOUND,
 					e );
 		}
-		CssStyleSheet sheet = load( module, is );
+
+		// the parsed style sheet is shared among modules with the same default
+		// units and custom colors, as long as the content of the file is not
+		// changed.
+
+		StyleSheetCache cache = StyleSheetCache.getInstance( );
+		String settings = getUnits( module ) + ' ' + getColorNames( module );
+		byte[] digest = StyleSheetCache.digest( content );
+
+		CssStyleSheet sheet = cache.get( url, settings, digest );
+		if ( module != null )
+			module.cacheAccessed( IModelMetricsListener.STYLE_SHEET_CACHE,
+					sheet != null );
+		if ( sheet == null )
+		{
+			CssStyleSheet parsedSheet = load( module, new ByteArrayInputStream(
+					content ) );
+
+			// the failed parse is not cached, so that it is tried again.
+
+			if ( parsedSheet == null )
+				return null;
+
+			cache.put( url, settings, digest, parsedSheet );
+			sheet = parsedSheet.copy( );
+		}
 
 		// set the path to css style sheet.
 
@@ -179,6 +213,118 @@ public final class StyleSheetLoader
 		return sheet;
 	}
 
+	/**
+	 * Reads all the content of the given stream. The stream is closed.
+	 * 
+	 * @param is
+	 *            the input stream
+	 * @return the content
+	 * @throws IOException
+	 *             if the stream cannot be read
+	 */
+
+	private static byte[] readContent( InputStream is ) throws IOException
+	{
+		try
+		{
+			ByteArrayOutputStream out = new ByteArrayOutputStream( );
+			byte[] buffer = new byte[4096];
+			int count;
+			while ( ( count = is.read( buffer ) ) != -1 )
+				out.write( buffer, 0, count );
+			return out.toByteArray( );
+		}
+		finally
+		{
+			is.close( );
+		}
+	}
+
+	/**
+	 * Returns the units to read dimension values without units for the given
+	 * module.
+	 * 
+	 * @param module
+	 *            the module, or <code>null</code>
+	 * @return the default units
+	 */
+
+	private static String getUnits( Module module )
+	{
+		if ( module == null )
+			return DesignChoiceConstants.UNITS_IN;
+
+		String units = module.getUnits( );
+		if ( !StringUtil.isBlank( units ) )
+			return units;
+		if ( module.getSession( ) != null )
+			return module.getSession( ).getUnits( );
+		return DesignChoiceConstants.UNITS_IN;
+	}
+
+	/**
+	 * Returns the names of the custom colors that color values can refer to in
+	 * the given module. The names of the colors in the included libraries are
+	 * qualified with the namespace.
+	 * 
+	 * @param module
+	 *            the module, or <code>null</code>
+	 * @return the sorted color names separated by commas
+	 */
+
+	private static String getColorNames( Module module )
+	{
+		if ( module == null )
+			return ""; //$NON-NLS-1$
+
+		Set<String> names = new TreeSet<String>( );
+		addColorNames( module, null, names );
+
+		List<Library> libraries = module
+				.getLibraries( IAccessControl.ARBITARY_LEVEL );
+		for ( int i = 0; i < libraries.size( ); i++ )
+		{
+			Library library = libraries.get( i );
+			addColorNames( library, library.getNamespace( ), names );
+		}
+
+		StringBuffer sb = new StringBuffer( );
+		for ( Iterator<String> iter = names.iterator( ); iter.hasNext( ); )
+		{
+			if ( sb.length( ) > 0 )
+				sb.append( ',' );
+			sb.append( iter.next( ) );
+		}
+		return sb.toString( );
+	}
+
+	/**
+	 * Adds the names of the custom colors defined in the given module.
+	 * 
+	 * @param module
+	 *            the module
+	 * @param namespace
+	 *            the namespace to qualify the names, or <code>null</code>
+	 * @param names
+	 *            the set to add the names to
+	 */
+
+	private static void addColorNames( Module module, String namespace,
+			Set<String> names )
+	{
+		List<?> colors = (List<?>) module.getLocalProperty( module,
+				IModuleModel.COLOR_PALETTE_PROP );
+		if ( colors == null )
+			return;
+
+		for ( int i = 0; i < colors.size( ); i++ )
+		{
+			String name = ( (CustomColor) colors.get( i ) ).getName( );
+			names.add( namespace == null ? name : StringUtil
+					.buildQualifiedReference( namespace, name ) );
+		}
+	}
+
 	/**
 	 * Loads styles from an external style sheet resource. A resource can be
 	 * something as simple as a file or a directory, or it can be a reference to
@@ -756,7 +902,7 @@ public final class StyleSheetLoader
 		assert cssValue != null;
 		List<StyleSheetParserException> errors = new ArrayList<StyleSheetParserException>( );
 
-		String[] values = cssValue.split( "[\\s]" ); //$NON-NLS-1$
+		String[] values = splitValue( cssValue );
 		String positionX = null;
 		String positionY = null;
 		switch ( values.length )
@@ -817,7 +963,7 @@ public final class StyleSheetLoader
 		assert cssValue != null;
 		List<StyleSheetParserException> errors = new ArrayList<StyleSheetParserException>( );
 
-		String[] values = cssValue.split( "[\\s]" ); //$NON-NLS-1$
+		String[] values = splitValue( cssValue );
 		String sizeWidth = null;
 		String sizeHeight = null;
 		switch ( values.length )
@@ -907,7 +1053,7 @@ public final class StyleSheetLoader
 	{
 		assert cssValue != null;
 		cssValue = cssValue.toLowerCase( );
-		String[] values = cssValue.split( "[\\s]" ); //$NON-NLS-1$
+		String[] values = splitValue( cssValue );
 		for ( int i = 0; i < values.length; i++ )
 		{
 			String value = values[i].trim( );
@@ -926,6 +1072,51 @@ public final class StyleSheetLoader
 		}
 	}
 
+	/**
+	 * Splits the given value at each white space character. The result is the
+	 * same as <code>value.split( "[\\s]" )</code>, without compiling the
+	 * regular expression each time.
+	 * 
+	 * @param value
+	 *            the value to split
+	 * @return the split values
+	 */
+
+	static String[] splitValue( String value )
+	{
+		List<String> values = null;
+		int start = 0;
+		for ( int i = 0; i < value.length( ); i++ )
+		{
+			switch ( value.charAt( i ) )
+			{
+				case ' ' :
+				case '\t' :
+				case '\n' :
+				case '\u000B' :
+				case '\f' :
+				case '\r' :
+					if ( values == null )
+						values = new ArrayList<String>( );
+					values.add( value.substring( start, i ) );
+					start = i + 1;
+			}
+		}
+
+		if ( values == null )
+			return new String[]{value};
+
+		values.add( value.substring( start ) );
+
+		// trailing empty strings are not included.
+
+		int size = values.size( );
+		while ( size > 0 && values.get( size - 1 ).length( ) == 0 )
+			size--;
+
+		return values.subList( 0, size ).toArray( new String[size] );
+	}
+
 	/**
 	 * Adds all the valid property values to the style.
 	 * 
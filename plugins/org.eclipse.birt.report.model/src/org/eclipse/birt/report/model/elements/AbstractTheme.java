@@ -14,15 +14,20 @@ package org.eclipse.birt.report.model.elements;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
 import org.eclipse.birt.report.model.api.util.StringUtil;
 import org.eclipse.birt.report.model.core.ContainerSlot;
 import org.eclipse.birt.report.model.core.DesignElement;
+import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.core.ReferenceableElement;
 import org.eclipse.birt.report.model.core.StyleElement;
 import org.eclipse.birt.report.model.css.CssNameManager;
 import org.eclipse.birt.report.model.css.CssStyleSheet;
 import org.eclipse.birt.report.model.css.CssStyleSheetAdapter;
+import org.eclipse.birt.report.model.elements.strategy.CopyPolicy;
 import org.eclipse.birt.report.model.elements.interfaces.IAbstractThemeModel;
 import org.eclipse.birt.report.model.i18n.ModelMessages;
 import org.eclipse.birt.report.model.metadata.NamePropertyType;
@@ -43,6 +48,13 @@ public abstract class AbstractTheme extends ReferenceableElement
 
 	protected ICssStyleSheetOperation operation = null;
 
+	/**
+	 * The styles of the theme by name, including the styles in css files.
+	 * <code>null</code> if the styles are not indexed.
+	 */
+
+	private transient StyleIndex styleIndex = null;
+
 	/**
 	 * Constructor.
 	 */
@@ -119,17 +131,70 @@ public abstract class AbstractTheme extends ReferenceableElement
 	{
 		if ( styleName == null )
 			return null;
-		List<StyleElement> styles = getAllStyles( );
-		for ( int i = 0; i < styles.size( ); ++i )
+
+		return getStyleIndex( ).get( styleName );
+	}
+
+	/**
+	 * Returns the styles of the theme by name. The styles are indexed once and
+	 * the index is kept until the collections of the root module are changed,
+	 * such as the content, name and css changes. If the theme is not in a
+	 * module, the index is built for each call.
+	 * 
+	 * @return the read-only styles by the case-insensitive name
+	 */
+
+	private Map<String, StyleElement> getStyleIndex( )
+	{
+		Module root = getRoot( );
+		StyleIndex index = styleIndex;
+		if ( root != null && index != null && index.root == root
+				&& index.version == root.getCollectionIndex( ).getVersion( ) )
 		{
-			StyleElement style = styles.get( i );
-			// style name is case-insensitive
-			if ( styleName.equalsIgnoreCase( style.getFullName( ) ) )
-			{
-				return style;
-			}
+			root.cacheAccessed( IModelMetricsListener.THEME_STYLE_CACHE, true );
+			return index.styles;
 		}
-		return null;
+
+		if ( root != null )
+			root.cacheAccessed( IModelMetricsListener.THEME_STYLE_CACHE, false );
+
+		long version = root == null ? 0 : root.getCollectionIndex( )
+				.getVersion( );
+
+		// style name is case-insensitive. Like the linear search, the first
+		// style with the name is found.
+
+		Map<String, StyleElement> styles = new TreeMap<String, StyleElement>(
+				String.CASE_INSENSITIVE_ORDER );
+		List<StyleElement> allStyles = getAllStyles( );
+		for ( int i = 0; i < allStyles.size( ); ++i )
+		{
+			StyleElement style = allStyles.get( i );
+			String name = style.getFullName( );
+			if ( name != null && !styles.containsKey( name ) )
+				styles.put( name, style );
+		}
+
+		styles = Collections.unmodifiableMap( styles );
+		if ( root != null )
+			styleIndex = new StyleIndex( root, version, styles );
+		return styles;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.birt.report.model.core.ReferenceableElement#doClone(org.eclipse
+	 * .birt.report.model.elements.strategy.CopyPolicy)
+	 */
+
+	public Object doClone( CopyPolicy policy )
+			throws CloneNotSupportedException
+	{
+		AbstractTheme element = (AbstractTheme) super.doClone( policy );
+		element.styleIndex = null;
+		return element;
 	}
 
 	/**
@@ -209,6 +274,7 @@ public abstract class AbstractTheme extends ReferenceableElement
 	{
 		if ( operation == null )
 			return -1;
+		styleIndex = null;
 		return operation.dropCss( css );
 	}
 
@@ -223,6 +289,7 @@ public abstract class AbstractTheme extends ReferenceableElement
 	{
 		if ( operation == null )
 			operation = new CssStyleSheetAdapter( );
+		styleIndex = null;
 		operation.addCss( css );
 	}
 
@@ -237,6 +304,7 @@ public abstract class AbstractTheme extends ReferenceableElement
 	{
 		if ( operation == null )
 			operation = new CssStyleSheetAdapter( );
+		styleIndex = null;
 		operation.insertCss( css, index );
 	}
 
@@ -253,4 +321,47 @@ public abstract class AbstractTheme extends ReferenceableElement
 		return operation.getCsses( );
 	}
 
+	/**
+	 * The styles of the theme indexed against one version of the root module.
+	 */
+
+	private static class StyleIndex
+	{
+
+		/**
+		 * The root module the styles are indexed in.
+		 */
+
+		final Module root;
+
+		/**
+		 * The version of the module collection index.
+		 */
+
+		final long version;
+
+		/**
+		 * The styles by the case-insensitive name.
+		 */
+
+		final Map<String, StyleElement> styles;
+
+		/**
+		 * Constructs the index.
+		 * 
+		 * @param root
+		 *            the root module
+		 * @param version
+		 *            the version of the module collection index
+		 * @param styles
+		 *            the styles by the case-insensitive name
+		 */
+
+		StyleIndex( Module root, long version, Map<String, StyleElement> styles )
+		{
+			this.root = root;
+			this.version = version;
+			this.styles = styles;
+		}
+	}
 }
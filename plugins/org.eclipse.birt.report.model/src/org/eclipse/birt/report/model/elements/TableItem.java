@@ -11,6 +11,7 @@
 
 package org.eclipse.birt.report.model.elements;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -375,6 +376,26 @@ public class TableItem extends ListingElement implements ITableItemModel
 		table = LayoutHelper.applyLayout( module, this );
 	}
 
+	/**
+	 * Updates the table model of <code>TableItem</code> after rows or cells
+	 * in it are changed. Only the changed rows are laid out again. If the
+	 * model cannot be updated, it is refreshed.
+	 * 
+	 * @param module
+	 *            the module
+	 * @param changedElements
+	 *            the cell or row elements of which properties are changed
+	 */
+
+	public void updateRenderModel( Module module,
+			Collection<DesignElement> changedElements )
+	{
+		if ( table == null
+				|| !LayoutHelper.updateLayout( module, this, table,
+						changedElements ) )
+			refreshRenderModel( module );
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
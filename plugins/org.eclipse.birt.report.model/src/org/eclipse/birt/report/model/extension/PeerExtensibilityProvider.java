@@ -15,6 +15,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -99,6 +100,12 @@ public abstract class PeerExtensibilityProvider
 	 */
 	Map<String, String> encryptionMap = null;
 
+	/**
+	 * The number of bytes of the XML the extension element is read from.
+	 */
+
+	private long modelXmlSize = 0;
+
 	/**
 	 * Constructs the peer extensibility provider with the extensible element
 	 * and the extension name.
@@ -577,8 +584,11 @@ public abstract class PeerExtensibilityProvider
 				}
 
 				if ( reportItem != null )
+				{
 					reportItem.deserialize( propName, new ByteArrayInputStream(
 							raw ) );
+					modelXmlSize += raw.length;
+				}
 			}
 		}
 	}
@@ -701,9 +711,11 @@ public abstract class PeerExtensibilityProvider
 		// if the extended element is not null, just copy it
 
 		reportItem = null;
+		modelXmlSize = 0;
 		if ( source.reportItem != null )
 		{
 			reportItem = source.reportItem.copy( );
+			modelXmlSize = source.modelXmlSize;
 		}
 
 		// copy encryption map
@@ -759,6 +771,33 @@ public abstract class PeerExtensibilityProvider
 		return reportItem;
 	}
 
+	/**
+	 * Returns the number of bytes of the XML the extension element is read
+	 * from. The model does not know the size of the extension element itself,
+	 * so the XML size is used to estimate it.
+	 * 
+	 * @return the number of bytes, or 0 if the extension element is not
+	 *         created or not read from XML
+	 */
+
+	public long getExtensionElementXmlSize( )
+	{
+		return reportItem == null ? 0 : modelXmlSize;
+	}
+
+	/**
+	 * Returns the cached values of the extension properties, which are not
+	 * kept by the extension element.
+	 * 
+	 * @return the read-only collection of the values
+	 */
+
+	public Collection<Object> getExtensionPropertyValues( )
+	{
+		return Collections.unmodifiableCollection( extensionPropValues
+				.values( ) );
+	}
+
 	/**
 	 * Gets the script definition of this extended element.
 	 * 
@@ -808,6 +847,7 @@ public abstract class PeerExtensibilityProvider
 	{
 		if ( reportItem != null )
 			reportItem = null;
+		modelXmlSize = 0;
 	}
 
 	/**
@@ -11,11 +11,9 @@
 
 package org.eclipse.birt.report.model.i18n;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.MissingResourceException;
-
-import org.eclipse.birt.report.model.util.ModelUtil;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.ibm.icu.util.ULocale;
 
@@ -39,8 +37,7 @@ public class ThreadResources
 	 * whole application.
 	 */
 
-	private Map<ULocale, ModelResourceHandle> resourceMap = new HashMap<ULocale, ModelResourceHandle>(
-			ModelUtil.MAP_CAPACITY_LOW );
+	private ConcurrentMap<ULocale, ModelResourceHandle> resourceMap = new ConcurrentHashMap<ULocale, ModelResourceHandle>( );
 
 	/**
 	 * Thread-local variable for the current thread.
@@ -164,20 +161,15 @@ public class ThreadResources
 
 	private ModelResourceHandle getResourceHandle( ULocale locale )
 	{
-		ModelResourceHandle resourceHandle = (ModelResourceHandle) resourceMap
-				.get( locale );
+		ModelResourceHandle resourceHandle = resourceMap.get( locale );
 		if ( resourceHandle != null )
 			return resourceHandle;
 
-		synchronized ( resourceMap )
-		{
-			resourceHandle = (ModelResourceHandle) resourceMap.get( locale );
-			if ( resourceHandle != null )
-				return resourceHandle;
-
-			resourceHandle = new ModelResourceHandle( locale );
-			resourceMap.put( locale, resourceHandle );
-		}
+		resourceHandle = new ModelResourceHandle( locale );
+		ModelResourceHandle existing = resourceMap.putIfAbsent( locale,
+				resourceHandle );
+		if ( existing != null )
+			resourceHandle = existing;
 
 		return resourceHandle;
 	}
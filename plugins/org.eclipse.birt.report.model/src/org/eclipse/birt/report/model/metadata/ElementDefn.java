@@ -417,6 +417,13 @@ public class ElementDefn extends ObjectDefn implements IElementDefn
 
 	private boolean isSlotIDSpecifiedByROM = false;
 
+	/**
+	 * The slot IDs in the order the slots are defined. Cached so that tree
+	 * traversals need not to create slot iterators.
+	 */
+
+	private int[] slotIDs = null;
+
 	/**
 	 * Sets the Java class which implements this element.
 	 * 
@@ -1436,7 +1443,11 @@ public class ElementDefn extends ObjectDefn implements IElementDefn
 		if ( slots != null && slots.size( ) == 0 )
 			slots = null;
 		if ( slots == null )
+		{
+			slotIDs = new int[0];
 			return;
+		}
+		int[] ids = new int[slots.size( )];
 		for ( int i = 0; i < slots.size( ); i++ )
 		{
 			SlotDefn slot = (SlotDefn) slots.get( i );
@@ -1445,7 +1456,29 @@ public class ElementDefn extends ObjectDefn implements IElementDefn
 			else
 				isSlotIDSpecifiedByROM = true;
 			slot.build( );
+			ids[i] = slot.getSlotID( );
 		}
+		slotIDs = ids;
+	}
+
+	/**
+	 * Returns the IDs of the slots defined on the element, in the order the
+	 * slots are defined. The returned array must not be modified.
+	 * 
+	 * @return the slot IDs. Returns an empty array if the element is not a
+	 *         slot container.
+	 */
+
+	public int[] getSlotIDs( )
+	{
+		if ( slotIDs != null )
+			return slotIDs;
+
+		int count = getSlotCount( );
+		int[] ids = new int[count];
+		for ( int i = 0; i < count; i++ )
+			ids[i] = slots.get( i ).getSlotID( );
+		return ids;
 	}
 
 	/**
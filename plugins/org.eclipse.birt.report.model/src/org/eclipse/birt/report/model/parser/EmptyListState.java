@@ -11,11 +11,10 @@
 
 package org.eclipse.birt.report.model.parser;
 
-import java.util.ArrayList;
-
 import org.eclipse.birt.report.model.api.core.IStructure;
 import org.eclipse.birt.report.model.api.elements.SemanticError;
 import org.eclipse.birt.report.model.core.DesignElement;
+import org.eclipse.birt.report.model.core.ReferencableStructureList;
 import org.eclipse.birt.report.model.metadata.ElementPropertyDefn;
 import org.eclipse.birt.report.model.util.AbstractParseState;
 import org.eclipse.birt.report.model.util.AnyElementState;
@@ -83,7 +82,7 @@ public class EmptyListState extends AbstractPropertyState
 		assert defn != null;
 		assert ModelUtil.canInherit( defn );
 
-		element.setProperty( defn, new ArrayList( ) );
+		element.setProperty( defn, ReferencableStructureList.createList( defn ) );
 
 	}
 
@@ -225,7 +225,7 @@ class ExpressionState extends PropertyState
 
 	public void end( ) throws SAXException
 	{
-		String value = text.toString( );
+		String value = handler.valuePool.getString( text.toString( ) );
 
 		doEnd( value );
 	}
@@ -255,7 +255,13 @@ class ExpressionState extends PropertyState
 			tmpPropDefn = element.getPropertyDefn( name );
 
 		if ( tmpPropDefn != null && tmpPropDefn.allowExpression( ) )
-			toSet = new Expression( value, exprType );
+		{
+			if ( value instanceof String )
+				toSet = handler.valuePool.getExpression( (String) value,
+						exprType );
+			else
+				toSet = new Expression( value, exprType );
+		}
 
 		super.doEnd( toSet );
 	}
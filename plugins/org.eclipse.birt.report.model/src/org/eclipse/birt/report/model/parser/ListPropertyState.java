@@ -31,6 +31,7 @@ import org.eclipse.birt.report.model.api.simpleapi.IExpressionType;
 import org.eclipse.birt.report.model.api.util.StringUtil;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.Module;
+import org.eclipse.birt.report.model.core.ReferencableStructureList;
 import org.eclipse.birt.report.model.core.Structure;
 import org.eclipse.birt.report.model.elements.GroupElement;
 import org.eclipse.birt.report.model.elements.ICssStyleSheetOperation;
@@ -258,13 +259,15 @@ public class ListPropertyState extends AbstractPropertyState
 			if ( struct != null )
 			{
 
-				struct.setProperty( propDefn, new ArrayList( ) );
+				struct.setProperty( propDefn, ReferencableStructureList
+						.createList( propDefn ) );
 			}
 			else
 			{
 				if ( !IDesignElementModel.USER_PROPERTIES_PROP.equals( propDefn
 						.getName( ) ) )
-					element.setProperty( propDefn, new ArrayList( ) );
+					element.setProperty( propDefn, ReferencableStructureList
+							.createList( propDefn ) );
 			}
 		}
 	}
@@ -47,6 +47,7 @@ import org.eclipse.birt.report.model.metadata.ElementDefn;
 import org.eclipse.birt.report.model.metadata.NamePropertyType;
 import org.eclipse.birt.report.model.util.AbstractParseState;
 import org.eclipse.birt.report.model.util.ModelUtil;
+import org.eclipse.birt.report.model.util.ValuePool;
 import org.eclipse.birt.report.model.util.VersionUtil;
 import org.eclipse.birt.report.model.util.XMLParserException;
 import org.eclipse.birt.report.model.util.XMLParserHandler;
@@ -112,6 +113,12 @@ public abstract class ModuleParserHandler extends XMLParserHandler
 
 	protected HashMap<Object, Object> tempValue = new HashMap<Object, Object>( );
 
+	/**
+	 * The pool of strings and expressions read in this parse.
+	 */
+
+	protected ValuePool valuePool = new ValuePool( null );
+
 	/**
 	 * Cached element list whose id is not handle and added to the id map.
 	 */
@@ -283,6 +290,14 @@ public abstract class ModuleParserHandler extends XMLParserHandler
 	{
 		this.tempValue = null;
 
+		// collections and xpaths may have been read while the module was
+		// built
+
+		module.getCollectionIndex( ).invalidate( );
+		module.getXPathIndex( ).invalidate( );
+		module.getColumnBindingIndex( ).invalidate( );
+		module.getLevelIndex( ).invalidate( );
+
 		// rename invalid names that contains "." , "/".
 
 		if ( versionNumber < VersionUtil.VERSION_3_2_13 )
@@ -636,6 +651,11 @@ public abstract class ModuleParserHandler extends XMLParserHandler
 			else
 				isReadOnlyModuleProperties = false;
 
+			Boolean isShared = (Boolean) options
+					.getProperty( ModuleOption.SHARE_PARSED_VALUES_KEY );
+			if ( isShared != null && isShared.booleanValue( )
+					&& session != null )
+				valuePool = new ValuePool( session.getValuePool( ) );
 		}
 
 		if ( markLineNumber )
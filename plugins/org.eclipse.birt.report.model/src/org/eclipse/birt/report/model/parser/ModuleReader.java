@@ -26,8 +26,10 @@ import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 
 import org.eclipse.birt.report.model.api.DesignFileException;
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
 import org.eclipse.birt.report.model.api.util.UnicodeUtil;
 import org.eclipse.birt.report.model.core.Module;
+import org.eclipse.birt.report.model.elements.Library;
 import org.eclipse.birt.report.model.util.ModelUtil;
 import org.eclipse.birt.report.model.util.ParserFactory;
 import org.xml.sax.InputSource;
@@ -79,6 +81,11 @@ public abstract class ModuleReader
 
 		assert internalStream.markSupported( );
 
+		IModelMetricsListener metrics = handler.session == null
+				? null
+				: handler.session.getMetricsListener( );
+		long start = metrics == null ? 0 : System.nanoTime( );
+
 		String signature = null;
 		SAXParser parser = null;
 		Map<String, Object> properties = null;
@@ -156,6 +163,15 @@ public abstract class ModuleReader
 		module.setUTFSignature( signature );
 		module.setValid( true );
 
+		if ( metrics != null )
+		{
+			long nanos = System.nanoTime( ) - start;
+			String location = module.getLocation( );
+			if ( location == null )
+				location = handler.getFileName( );
+			metrics.moduleParsed( location, module instanceof Library, nanos );
+		}
+
 		return module;
 	}
 
@@ -225,14 +225,14 @@ class PropertyState extends AbstractPropertyState
 
 	public void end( ) throws SAXException
 	{
-		String value = text.toString( );
+		String value = handler.valuePool.getString( text.toString( ) );
 
 		Object toSet = value;
 		if ( propDefn == null )
 			propDefn = element.getPropertyDefn( name );
 		if ( propDefn != null && propDefn.allowExpression( )
 				&& exprType != null )
-			toSet = new Expression( value, exprType );
+			toSet = handler.valuePool.getExpression( value, exprType );
 
 		doEnd( toSet );
 	}
@@ -348,7 +348,7 @@ public class SimplePropertyListState extends AbstractPropertyState
 						handler.versionNumber );
 			}
 
-			String value = text.toString( );
+			String value = handler.valuePool.getString( text.toString( ) );
 			if ( propDefn.allowExpression( ) )
 			{
 				if ( isNull )
@@ -359,7 +359,8 @@ public class SimplePropertyListState extends AbstractPropertyState
 						values.add( new Expression( null, exprType ) );
 				}
 				else
-					values.add( new Expression( value, exprType ) );
+					values.add( handler.valuePool.getExpression( value,
+							exprType ) );
 
 			}
 			else
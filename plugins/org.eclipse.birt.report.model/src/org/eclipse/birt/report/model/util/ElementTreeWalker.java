@@ -0,0 +1,595 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.eclipse.birt.report.model.api.metadata.IElementDefn;
+import org.eclipse.birt.report.model.api.metadata.IElementPropertyDefn;
+import org.eclipse.birt.report.model.core.ContainerSlot;
+import org.eclipse.birt.report.model.core.DesignElement;
+import org.eclipse.birt.report.model.core.Module;
+import org.eclipse.birt.report.model.elements.olap.Dimension;
+import org.eclipse.birt.report.model.metadata.ElementDefn;
+import org.eclipse.birt.report.model.metadata.ElementPropertyDefn;
+
+/**
+ * Walks the contents of an element directly on the core design tree. Unlike
+ * {@link ContentIterator}, the walker neither builds a list of the contents
+ * nor creates handles or container contexts: the traversal keeps its state in
+ * arrays that are reused from one walk to the next.
+ * <p>
+ * The contents are visited in the same <strong>depth-first</strong> order as
+ * the <code>ContentIterator</code>: slots in the order they are defined,
+ * followed by the content properties. The element where the walk starts is
+ * not visited.
+ * <p>
+ * When a {@link ElementTypeFilter} is given, only the accepted elements are
+ * passed to the visitor, and the subtrees that can not contain any accepted
+ * element are skipped.
+ * <p>
+ * A walker instance is neither thread-safe nor reentrant. The parallel
+ * collecting creates one walker per task.
+ */
+
+public final class ElementTreeWalker
+{
+
+	/**
+	 * The initial depth of the traversal stack.
+	 */
+
+	private static final int INITIAL_DEPTH = 16;
+
+	/**
+	 * The number of tasks from which the parallel collecting stops splitting
+	 * the tree.
+	 */
+
+	private static final int MIN_PARALLEL_UNITS = 64;
+
+	/**
+	 * The maximal number of times the tree is split for parallel collecting.
+	 */
+
+	private static final int MAX_SPLIT_LEVEL = 3;
+
+	/**
+	 * The module where the elements reside.
+	 */
+
+	private final Module module;
+
+	/**
+	 * The type filter. <code>null</code> means all elements are accepted.
+	 */
+
+	private final ElementTypeFilter filter;
+
+	/**
+	 * The containers on the traversal stack.
+	 */
+
+	private DesignElement[] stackElements = new DesignElement[INITIAL_DEPTH];
+
+	/**
+	 * The index of the current container, slots first and then content
+	 * properties, for each container on the stack.
+	 */
+
+	private int[] stackContainers = new int[INITIAL_DEPTH];
+
+	/**
+	 * The next position in the current container for each container on the
+	 * stack.
+	 */
+
+	private int[] stackPositions = new int[INITIAL_DEPTH];
+
+	/**
+	 * The current depth of the stack.
+	 */
+
+	private int depth = 0;
+
+	/**
+	 * Whether a walk is in progress.
+	 */
+
+	private boolean walking = false;
+
+	/**
+	 * Constructs a walker that visits all elements.
+	 *
+	 * @param module
+	 *            the module where the elements reside
+	 */
+
+	public ElementTreeWalker( Module module )
+	{
+		this( module, null );
+	}
+
+	/**
+	 * Constructs a walker that visits the elements accepted by the filter.
+	 *
+	 * @param module
+	 *            the module where the elements reside
+	 * @param filter
+	 *            the type filter, or <code>null</code> to visit all elements
+	 */
+
+	public ElementTreeWalker( Module module, ElementTypeFilter filter )
+	{
+		this.module = module;
+		this.filter = filter;
+	}
+
+	/**
+	 * Walks the contents of the given element.
+	 *
+	 * @param element
+	 *            the element whose contents are walked
+	 * @param visitor
+	 *            the visitor called for every accepted content
+	 */
+
+	public void walk( DesignElement element, IElementTreeVisitor visitor )
+	{
+		assert element != null;
+		assert visitor != null;
+
+		if ( walking )
+			throw new IllegalStateException(
+					"The walker is not reentrant." ); //$NON-NLS-1$
+
+		walking = true;
+		try
+		{
+			doWalk( element, visitor );
+		}
+		finally
+		{
+			while ( depth > 0 )
+				stackElements[--depth] = null;
+			walking = false;
+		}
+	}
+
+	/**
+	 * Collects the results of the contents of the given element in document
+	 * order.
+	 *
+	 * @param element
+	 *            the element whose contents are walked
+	 * @param collector
+	 *            the collector called for every accepted content
+	 * @return the non-null results
+	 */
+
+	public <T> List<T> collect( DesignElement element,
+			IElementTreeCollector<T> collector )
+	{
+		List<T> results = new ArrayList<T>( );
+		walk( element, new CollectingVisitor<T>( collector, results ) );
+		return results;
+	}
+
+	/**
+	 * Collects the results of the contents of the given element in parallel.
+	 * The tree is split into subtrees that are walked as separate tasks on the
+	 * given executor. The results are merged so that they are returned in the
+	 * same document order as {@link #collect(DesignElement, IElementTreeCollector)}
+	 * does.
+	 * <p>
+	 * The model must not be changed while the tasks are running.
+	 *
+	 * @param element
+	 *            the element whose contents are walked
+	 * @param collector
+	 *            the read-only collector called for every accepted content
+	 * @param executor
+	 *            the executor to run the tasks. If it is <code>null</code>,
+	 *            the results are collected in the calling thread.
+	 * @return the non-null results
+	 */
+
+	public <T> List<T> collect( DesignElement element,
+			final IElementTreeCollector<T> collector, ExecutorService executor )
+	{
+		if ( executor == null )
+			return collect( element, collector );
+
+		List<DesignElement> units = new ArrayList<DesignElement>( );
+		List<Boolean> subtrees = new ArrayList<Boolean>( );
+		splitUnits( element, units, subtrees );
+
+		List<Future<List<T>>> futures = new ArrayList<Future<List<T>>>( units
+				.size( ) );
+		for ( int i = 0; i < units.size( ); i++ )
+		{
+			final DesignElement unit = units.get( i );
+			final boolean subtree = subtrees.get( i ).booleanValue( );
+			futures.add( executor.submit( new Callable<List<T>>( ) {
+
+				public List<T> call( ) throws Exception
+				{
+					ElementTreeWalker walker = new ElementTreeWalker( module,
+							filter );
+					List<T> results = new ArrayList<T>( );
+					walker.collectUnit( unit, subtree, collector, results );
+					return results;
+				}
+			} ) );
+		}
+
+		List<T> results = new ArrayList<T>( );
+		try
+		{
+			for ( int i = 0; i < futures.size( ); i++ )
+				results.addAll( futures.get( i ).get( ) );
+		}
+		catch ( InterruptedException e )
+		{
+			cancel( futures );
+			Thread.currentThread( ).interrupt( );
+			throw new IllegalStateException( e.getMessage( ) );
+		}
+		catch ( ExecutionException e )
+		{
+			cancel( futures );
+			Throwable cause = e.getCause( );
+			if ( cause instanceof RuntimeException )
+				throw (RuntimeException) cause;
+			if ( cause instanceof Error )
+				throw (Error) cause;
+			throw new RuntimeException( cause );
+		}
+
+		return results;
+	}
+
+	/**
+	 * Cancels the tasks that are not done.
+	 *
+	 * @param futures
+	 *            the tasks
+	 */
+
+	private static <T> void cancel( List<Future<List<T>>> futures )
+	{
+		for ( int i = 0; i < futures.size( ); i++ )
+			futures.get( i ).cancel( true );
+	}
+
+	/**
+	 * Splits the contents of the given element into units of work. A unit is
+	 * either a single element or an element with its whole subtree. The units
+	 * are kept in document order.
+	 *
+	 * @param element
+	 *            the element to split
+	 * @param units
+	 *            the elements of the units
+	 * @param subtrees
+	 *            whether each unit includes the subtree of its element
+	 */
+
+	private void splitUnits( DesignElement element, List<DesignElement> units,
+			List<Boolean> subtrees )
+	{
+		List<DesignElement> contents = getContents( element );
+		for ( int i = 0; i < contents.size( ); i++ )
+		{
+			units.add( contents.get( i ) );
+			subtrees.add( Boolean.TRUE );
+		}
+
+		for ( int level = 0; level < MAX_SPLIT_LEVEL
+				&& units.size( ) < MIN_PARALLEL_UNITS; level++ )
+		{
+			List<DesignElement> newUnits = new ArrayList<DesignElement>( );
+			List<Boolean> newSubtrees = new ArrayList<Boolean>( );
+			boolean split = false;
+
+			for ( int i = 0; i < units.size( ); i++ )
+			{
+				DesignElement unit = units.get( i );
+				if ( !subtrees.get( i ).booleanValue( ) || !canDescend( unit ) )
+				{
+					newUnits.add( unit );
+					newSubtrees.add( subtrees.get( i ) );
+					continue;
+				}
+
+				newUnits.add( unit );
+				newSubtrees.add( Boolean.FALSE );
+
+				contents = getContents( unit );
+				for ( int j = 0; j < contents.size( ); j++ )
+				{
+					newUnits.add( contents.get( j ) );
+					newSubtrees.add( Boolean.TRUE );
+				}
+				split = true;
+			}
+
+			units.clear( );
+			units.addAll( newUnits );
+			subtrees.clear( );
+			subtrees.addAll( newSubtrees );
+
+			if ( !split )
+				break;
+		}
+	}
+
+	/**
+	 * Returns the direct contents of the given element, without applying the
+	 * filter.
+	 *
+	 * @param element
+	 *            the container element
+	 * @return the direct contents in document order
+	 */
+
+	private List<DesignElement> getContents( DesignElement element )
+	{
+		List<DesignElement> contents = new ArrayList<DesignElement>( );
+		push( element );
+		try
+		{
+			DesignElement content = nextContent( );
+			while ( content != null )
+			{
+				contents.add( content );
+				content = nextContent( );
+			}
+		}
+		finally
+		{
+			stackElements[--depth] = null;
+		}
+		return contents;
+	}
+
+	/**
+	 * Collects the results of one unit of work.
+	 *
+	 * @param element
+	 *            the element of the unit
+	 * @param subtree
+	 *            whether the subtree of the element is included
+	 * @param collector
+	 *            the collector
+	 * @param results
+	 *            the list to add results to
+	 */
+
+	private <T> void collectUnit( DesignElement element, boolean subtree,
+			IElementTreeCollector<T> collector, List<T> results )
+	{
+		if ( filter == null || filter.accept( element.getDefn( ) ) )
+		{
+			T result = collector.collect( element );
+			if ( result != null )
+				results.add( result );
+		}
+
+		if ( subtree && canDescend( element ) )
+			walk( element, new CollectingVisitor<T>( collector, results ) );
+	}
+
+	/**
+	 * Walks the contents of the given element.
+	 *
+	 * @param element
+	 *            the element whose contents are walked
+	 * @param visitor
+	 *            the visitor
+	 */
+
+	private void doWalk( DesignElement element, IElementTreeVisitor visitor )
+	{
+		if ( !canDescend( element ) )
+			return;
+
+		push( element );
+		while ( depth > 0 )
+		{
+			DesignElement content = nextContent( );
+			if ( content == null )
+			{
+				stackElements[--depth] = null;
+				continue;
+			}
+
+			boolean descend = true;
+			if ( filter == null || filter.accept( content.getDefn( ) ) )
+				descend = visitor.visit( content );
+
+			if ( descend && canDescend( content ) )
+				push( content );
+		}
+	}
+
+	/**
+	 * Checks whether the contents of the element need to be walked.
+	 *
+	 * @param element
+	 *            the element
+	 * @return <code>true</code> if the element may have accepted contents
+	 */
+
+	private boolean canDescend( DesignElement element )
+	{
+		if ( !element.isContainer( ) )
+			return false;
+		return filter == null || filter.mayContain( element.getDefn( ) );
+	}
+
+	/**
+	 * Pushes the element to the traversal stack.
+	 *
+	 * @param element
+	 *            the container element
+	 */
+
+	private void push( DesignElement element )
+	{
+		if ( depth == stackElements.length )
+		{
+			int newLength = depth * 2;
+
+			DesignElement[] elements = new DesignElement[newLength];
+			System.arraycopy( stackElements, 0, elements, 0, depth );
+			stackElements = elements;
+
+			int[] containers = new int[newLength];
+			System.arraycopy( stackContainers, 0, containers, 0, depth );
+			stackContainers = containers;
+
+			int[] positions = new int[newLength];
+			System.arraycopy( stackPositions, 0, positions, 0, depth );
+			stackPositions = positions;
+		}
+
+		stackElements[depth] = element;
+		stackContainers[depth] = 0;
+		stackPositions[depth] = 0;
+		depth++;
+	}
+
+	/**
+	 * Returns the next content of the container on the top of the stack, and
+	 * moves the position forward.
+	 *
+	 * @return the next content, or <code>null</code> if all the contents of
+	 *         the container have been returned
+	 */
+
+	private DesignElement nextContent( )
+	{
+		int top = depth - 1;
+		DesignElement container = stackElements[top];
+
+		IElementDefn defn = container.getDefn( );
+		int[] slotIDs = defn instanceof ElementDefn ? ( (ElementDefn) defn )
+				.getSlotIDs( ) : null;
+		int slotCount = slotIDs == null ? 0 : slotIDs.length;
+		List<IElementPropertyDefn> props = container.getContents( );
+		int containerCount = slotCount + props.size( );
+
+		int containerIndex = stackContainers[top];
+		int posn = stackPositions[top];
+		while ( containerIndex < containerCount )
+		{
+			DesignElement content = null;
+			if ( containerIndex < slotCount )
+			{
+				ContainerSlot slot = container
+						.getSlot( slotIDs[containerIndex] );
+				if ( slot != null && posn < slot.getCount( ) )
+					content = slot.getContent( posn );
+			}
+			else
+			{
+				content = getPropertyContent( container,
+						(ElementPropertyDefn) props.get( containerIndex
+								- slotCount ), posn );
+			}
+
+			if ( content != null )
+			{
+				stackContainers[top] = containerIndex;
+				stackPositions[top] = posn + 1;
+				return content;
+			}
+
+			containerIndex++;
+			posn = 0;
+		}
+
+		stackContainers[top] = containerIndex;
+		stackPositions[top] = 0;
+		return null;
+	}
+
+	/**
+	 * Returns the content at the given position of the content property. This
+	 * follows the same rule as <code>ContainerContext.getContents</code>.
+	 *
+	 * @param container
+	 *            the container element
+	 * @param propDefn
+	 *            the content property
+	 * @param posn
+	 *            the position
+	 * @return the content, or <code>null</code> if the position is out of
+	 *         range
+	 */
+
+	private DesignElement getPropertyContent( DesignElement container,
+			ElementPropertyDefn propDefn, int posn )
+	{
+		Object value = null;
+		if ( container instanceof Dimension )
+			value = container.getProperty( module, propDefn );
+		else
+			value = container.getLocalProperty( module, propDefn );
+
+		if ( value == null )
+			return null;
+
+		if ( propDefn.isList( ) )
+		{
+			List<?> list = (List<?>) value;
+			return posn < list.size( ) ? (DesignElement) list.get( posn ) : null;
+		}
+
+		return posn == 0 ? (DesignElement) value : null;
+	}
+
+	/**
+	 * Visitor that adds the results of a collector to a list.
+	 *
+	 * @param <T>
+	 *            the type of the result
+	 */
+
+	private static class CollectingVisitor<T> implements IElementTreeVisitor
+	{
+
+		private final IElementTreeCollector<T> collector;
+
+		private final List<T> results;
+
+		CollectingVisitor( IElementTreeCollector<T> collector, List<T> results )
+		{
+			this.collector = collector;
+			this.results = results;
+		}
+
+		public boolean visit( DesignElement element )
+		{
+			T result = collector.collect( element );
+			if ( result != null )
+				results.add( result );
+			return true;
+		}
+	}
+}
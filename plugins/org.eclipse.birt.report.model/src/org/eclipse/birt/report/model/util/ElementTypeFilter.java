@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.birt.report.model.api.metadata.IElementDefn;
+import org.eclipse.birt.report.model.api.metadata.IElementPropertyDefn;
+import org.eclipse.birt.report.model.metadata.ElementDefn;
+import org.eclipse.birt.report.model.metadata.IContainerDefn;
+import org.eclipse.birt.report.model.metadata.MetaDataDictionary;
+
+/**
+ * Element type filter used by the {@link ElementTreeWalker}. The filter
+ * accepts the elements whose definition is a kind of one of the given types.
+ * <p>
+ * The decisions are computed once per element definition when the filter is
+ * created: whether the definition is accepted, and whether an element of that
+ * definition may hold, directly or indirectly, any accepted content according
+ * to the slot and content property definitions. The walker uses the latter to
+ * skip whole subtrees that can never contain a matching element. After
+ * creation, the filter is immutable and can be shared among threads.
+ */
+
+public final class ElementTypeFilter
+{
+
+	/**
+	 * The element types to accept.
+	 */
+
+	private final IElementDefn[] types;
+
+	/**
+	 * Whether an element definition is accepted by this filter.
+	 */
+
+	private final Map<IElementDefn, Boolean> accepted = new IdentityHashMap<IElementDefn, Boolean>( );
+
+	/**
+	 * Whether an element of the definition may contain accepted elements.
+	 */
+
+	private final Map<IElementDefn, Boolean> mayContain = new IdentityHashMap<IElementDefn, Boolean>( );
+
+	/**
+	 * Constructs the filter with the names of the element types.
+	 *
+	 * @param typeNames
+	 *            the names of the element types to accept
+	 */
+
+	public ElementTypeFilter( String... typeNames )
+	{
+		this( getDefns( typeNames ) );
+	}
+
+	/**
+	 * Constructs the filter with the element types.
+	 *
+	 * @param types
+	 *            the element types to accept
+	 */
+
+	public ElementTypeFilter( IElementDefn... types )
+	{
+		if ( types == null || types.length == 0 )
+			throw new IllegalArgumentException(
+					"At least one element type is required." ); //$NON-NLS-1$
+
+		this.types = types;
+
+		MetaDataDictionary dd = MetaDataDictionary.getInstance( );
+		List<IElementDefn> allDefns = new ArrayList<IElementDefn>( dd
+				.getElements( ) );
+		allDefns.addAll( dd.getExtensions( ) );
+
+		for ( int i = 0; i < allDefns.size( ); i++ )
+		{
+			IElementDefn defn = allDefns.get( i );
+			accepted.put( defn, Boolean.valueOf( computeAccept( defn ) ) );
+		}
+
+		for ( int i = 0; i < allDefns.size( ); i++ )
+		{
+			IElementDefn defn = allDefns.get( i );
+			mayContain.put( defn, Boolean.valueOf( computeMayContain( defn,
+					allDefns ) ) );
+		}
+	}
+
+	/**
+	 * Returns the element definitions with the given names.
+	 *
+	 * @param typeNames
+	 *            the element names
+	 * @return the element definitions
+	 */
+
+	private static IElementDefn[] getDefns( String[] typeNames )
+	{
+		if ( typeNames == null )
+			return null;
+
+		MetaDataDictionary dd = MetaDataDictionary.getInstance( );
+		IElementDefn[] defns = new IElementDefn[typeNames.length];
+		for ( int i = 0; i < typeNames.length; i++ )
+		{
+			IElementDefn defn = dd.getElement( typeNames[i] );
+			if ( defn == null )
+				defn = dd.getExtension( typeNames[i] );
+			if ( defn == null )
+				throw new IllegalArgumentException(
+						"The element type \"" + typeNames[i] + "\" is not defined." ); //$NON-NLS-1$ //$NON-NLS-2$
+			defns[i] = defn;
+		}
+		return defns;
+	}
+
+	/**
+	 * Determines whether the element of the given definition is accepted.
+	 *
+	 * @param defn
+	 *            the element definition
+	 * @return <code>true</code> if accepted, otherwise <code>false</code>
+	 */
+
+	public boolean accept( IElementDefn defn )
+	{
+		Boolean value = accepted.get( defn );
+		if ( value != null )
+			return value.booleanValue( );
+
+		// the definition is not registered in the dictionary.
+
+		return computeAccept( defn );
+	}
+
+	/**
+	 * Determines whether the element of the given definition may contain an
+	 * accepted element in any of its slots or content properties, including
+	 * the nested ones.
+	 *
+	 * @param defn
+	 *            the element definition
+	 * @return <code>false</code> if it is sure that no accepted element can
+	 *         be reached, otherwise <code>true</code>
+	 */
+
+	public boolean mayContain( IElementDefn defn )
+	{
+		Boolean value = mayContain.get( defn );
+		if ( value != null )
+			return value.booleanValue( );
+
+		// the definition is not registered in the dictionary, be
+		// conservative.
+
+		return true;
+	}
+
+	/**
+	 * Checks whether the definition is a kind of any of the filter types.
+	 *
+	 * @param defn
+	 *            the element definition
+	 * @return <code>true</code> if accepted, otherwise <code>false</code>
+	 */
+
+	private boolean computeAccept( IElementDefn defn )
+	{
+		if ( defn == null )
+			return false;
+
+		for ( int i = 0; i < types.length; i++ )
+		{
+			if ( defn.isKindOf( types[i] ) )
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Collects all element definitions that can be reached from the given
+	 * definition through the containers, and checks whether any of them is
+	 * accepted.
+	 *
+	 * @param defn
+	 *            the element definition
+	 * @param allDefns
+	 *            all the known element definitions
+	 * @return <code>true</code> if an accepted definition can be reached
+	 */
+
+	private boolean computeMayContain( IElementDefn defn,
+			List<IElementDefn> allDefns )
+	{
+		Map<IElementDefn, Boolean> visited = new IdentityHashMap<IElementDefn, Boolean>( );
+		List<IElementDefn> pending = new ArrayList<IElementDefn>( );
+		pending.add( defn );
+		visited.put( defn, Boolean.TRUE );
+
+		while ( !pending.isEmpty( ) )
+		{
+			IElementDefn current = pending.remove( pending.size( ) - 1 );
+
+			List<IContainerDefn> containers = getContainers( current );
+			for ( int i = 0; i < containers.size( ); i++ )
+			{
+				List<IElementDefn> allowed = containers.get( i )
+						.getAllowedElements( true );
+				if ( allowed == null || allowed.isEmpty( ) )
+					return true;
+
+				for ( int j = 0; j < allowed.size( ); j++ )
+				{
+					IElementDefn allowedDefn = allowed.get( j );
+
+					// any concrete type deriving from the allowed one can be
+					// the content.
+
+					for ( int k = 0; k < allDefns.size( ); k++ )
+					{
+						IElementDefn candidate = allDefns.get( k );
+						if ( visited.containsKey( candidate )
+								|| !candidate.isKindOf( allowedDefn ) )
+							continue;
+
+						if ( accepted.get( candidate ).booleanValue( ) )
+							return true;
+
+						visited.put( candidate, Boolean.TRUE );
+						pending.add( candidate );
+					}
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the slot and content property definitions of the given element
+	 * definition.
+	 *
+	 * @param defn
+	 *            the element definition
+	 * @return the container definitions
+	 */
+
+	private static List<IContainerDefn> getContainers( IElementDefn defn )
+	{
+		List<IContainerDefn> containers = new ArrayList<IContainerDefn>( );
+		if ( defn instanceof ElementDefn )
+		{
+			ElementDefn elementDefn = (ElementDefn) defn;
+			int[] slotIDs = elementDefn.getSlotIDs( );
+			for ( int i = 0; i < slotIDs.length; i++ )
+				containers.add( elementDefn.getSlot( slotIDs[i] ) );
+
+			List<IElementPropertyDefn> props = elementDefn.getContents( );
+			for ( int i = 0; i < props.size( ); i++ )
+				containers.add( props.get( i ) );
+		}
+		return containers;
+	}
+}
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.util;
+
+import org.eclipse.birt.report.model.core.DesignElement;
+
+/**
+ * Read-only collector used by the {@link ElementTreeWalker} to compute one
+ * result per element. When the walker runs in parallel mode, the collector is
+ * called from several threads at the same time, so it must neither change the
+ * model nor keep unsynchronized state.
+ * 
+ * @param <T>
+ *            the type of the result
+ */
+
+public interface IElementTreeCollector<T>
+{
+
+	/**
+	 * Computes the result for the given element.
+	 * 
+	 * @param element
+	 *            the element accepted by the walker's filter
+	 * @return the result, or <code>null</code> if the element contributes
+	 *         nothing
+	 */
+
+	public T collect( DesignElement element );
+}
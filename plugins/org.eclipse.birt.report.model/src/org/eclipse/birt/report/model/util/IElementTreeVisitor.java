@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.util;
+
+import org.eclipse.birt.report.model.core.DesignElement;
+
+/**
+ * Visitor called by the {@link ElementTreeWalker} for each element accepted
+ * by the walker's filter. The visitor must not change the structure of the
+ * tree being walked.
+ */
+
+public interface IElementTreeVisitor
+{
+
+	/**
+	 * Visits the element.
+	 * 
+	 * @param element
+	 *            the element to visit
+	 * @return <code>true</code> if the contents of the element should be
+	 *         visited, otherwise <code>false</code>
+	 */
+
+	public boolean visit( DesignElement element );
+}
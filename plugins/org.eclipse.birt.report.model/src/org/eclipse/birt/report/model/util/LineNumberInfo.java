@@ -68,7 +68,7 @@ public class LineNumberInfo
 	 * design element. Value is the line number.
 	 */
 
-	private Map<Long, Integer> elementMap = null;
+	private LongIntHashMap elementMap = null;
 
 	/**
 	 * The hash map for the xpath string-to-lineNumber lookup. Key is the xPath
@@ -113,7 +113,7 @@ public class LineNumberInfo
 	public LineNumberInfo( Module module )
 	{
 		this.module = module;
-		elementMap = Collections.synchronizedMap( new HashMap<Long, Integer>( ) );
+		elementMap = new LongIntHashMap( );
 		includeLibStructMap = Collections.synchronizedMap( new HashMap<String, Integer>( ) );
 		embeddedImageStructMap = Collections.synchronizedMap( new HashMap<String, Integer>( ) );
 		includedCssStyleSheetStructMap = Collections.synchronizedMap( new HashMap<String, Integer>( ) );
@@ -140,8 +140,11 @@ public class LineNumberInfo
 		}
 		else if ( obj instanceof DesignElement )
 		{
-			elementMap.put( Long.valueOf( ( (DesignElement) obj ).getID( ) ),
-					lineNo );
+			synchronized ( elementMap )
+			{
+				elementMap.put( ( (DesignElement) obj ).getID( ),
+						lineNo == null ? 1 : lineNo.intValue( ) );
+			}
 		}
 		else if ( obj instanceof IStructure )
 		{
@@ -304,7 +307,10 @@ public class LineNumberInfo
 
 	public int getElementLineNo( long id )
 	{
-		return intValue( elementMap.get( Long.valueOf( id ) ) );
+		synchronized ( elementMap )
+		{
+			return elementMap.get( id, 1 );
+		}
 	}
 
 	/**
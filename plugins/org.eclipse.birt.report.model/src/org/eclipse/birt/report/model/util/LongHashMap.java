@@ -0,0 +1,349 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hash map from primitive <code>long</code> keys to objects. The map uses
+ * open addressing with linear probing, so that no key is boxed and no entry
+ * object is allocated. It is used for the element id index of modules.
+ * <p>
+ * The map is not thread-safe. <code>null</code> values are not supported.
+ *
+ * @param <V>
+ *            the type of values
+ */
+
+public final class LongHashMap<V>
+{
+
+	/**
+	 * The default number of entries the map can hold without growing.
+	 */
+
+	private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+	/**
+	 * The key of free slots. An entry with this key is kept outside the
+	 * table.
+	 */
+
+	private static final long FREE_KEY = 0;
+
+	/**
+	 * Keys of the entries. <code>FREE_KEY</code> marks a free slot.
+	 */
+
+	private long[] keys;
+
+	/**
+	 * Values of the entries.
+	 */
+
+	private Object[] values;
+
+	/**
+	 * The value for <code>FREE_KEY</code>, or <code>null</code> if the key is
+	 * not in the map.
+	 */
+
+	private Object freeKeyValue = null;
+
+	/**
+	 * The number of entries in the table, not including the entry for
+	 * <code>FREE_KEY</code>.
+	 */
+
+	private int tableSize = 0;
+
+	/**
+	 * The number of entries when the table grows.
+	 */
+
+	private int threshold;
+
+	/**
+	 * Constructs an empty map.
+	 */
+
+	public LongHashMap( )
+	{
+		this( DEFAULT_EXPECTED_SIZE );
+	}
+
+	/**
+	 * Constructs an empty map that can hold the given number of entries
+	 * without growing.
+	 *
+	 * @param expectedSize
+	 *            the expected number of entries
+	 */
+
+	public LongHashMap( int expectedSize )
+	{
+		int capacity = 4;
+		while ( capacity * 3 / 4 < expectedSize )
+			capacity <<= 1;
+
+		allocate( capacity );
+	}
+
+	/**
+	 * Returns the value to which the given key is mapped.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the value, or <code>null</code> if the key is not in the map
+	 */
+
+	public V get( long key )
+	{
+		if ( key == FREE_KEY )
+			return (V) freeKeyValue;
+
+		int mask = keys.length - 1;
+		for ( int i = index( key, mask );; i = ( i + 1 ) & mask )
+		{
+			long tmpKey = keys[i];
+			if ( tmpKey == key )
+				return (V) values[i];
+			if ( tmpKey == FREE_KEY )
+				return null;
+		}
+	}
+
+	/**
+	 * Checks whether the given key is in the map.
+	 *
+	 * @param key
+	 *            the key
+	 * @return <code>true</code> if the key is in the map
+	 */
+
+	public boolean containsKey( long key )
+	{
+		return get( key ) != null;
+	}
+
+	/**
+	 * Maps the given key to the given value.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value, must not be <code>null</code>
+	 * @return the previous value of the key, or <code>null</code> if the key
+	 *         was not in the map
+	 */
+
+	public V put( long key, V value )
+	{
+		assert value != null;
+
+		if ( key == FREE_KEY )
+		{
+			Object oldValue = freeKeyValue;
+			freeKeyValue = value;
+			return (V) oldValue;
+		}
+
+		int mask = keys.length - 1;
+		int i = index( key, mask );
+		for ( ; keys[i] != FREE_KEY; i = ( i + 1 ) & mask )
+		{
+			if ( keys[i] == key )
+			{
+				Object oldValue = values[i];
+				values[i] = value;
+				return (V) oldValue;
+			}
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		if ( ++tableSize > threshold )
+			rehash( keys.length << 1 );
+
+		return null;
+	}
+
+	/**
+	 * Removes the mapping of the given key.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the removed value, or <code>null</code> if the key was not in
+	 *         the map
+	 */
+
+	public V remove( long key )
+	{
+		if ( key == FREE_KEY )
+		{
+			Object oldValue = freeKeyValue;
+			freeKeyValue = null;
+			return (V) oldValue;
+		}
+
+		int mask = keys.length - 1;
+		int i = index( key, mask );
+		for ( ; keys[i] != key; i = ( i + 1 ) & mask )
+		{
+			if ( keys[i] == FREE_KEY )
+				return null;
+		}
+
+		Object oldValue = values[i];
+
+		// shifts back the following entries of the same cluster, so that no
+		// tombstone is left.
+
+		int gap = i;
+		for ( int j = ( i + 1 ) & mask; keys[j] != FREE_KEY; j = ( j + 1 )
+				& mask )
+		{
+			int home = index( keys[j], mask );
+			if ( ( ( j - home ) & mask ) >= ( ( j - gap ) & mask ) )
+			{
+				keys[gap] = keys[j];
+				values[gap] = values[j];
+				gap = j;
+			}
+		}
+
+		keys[gap] = FREE_KEY;
+		values[gap] = null;
+		tableSize--;
+
+		return (V) oldValue;
+	}
+
+	/**
+	 * Returns the number of entries in the map.
+	 *
+	 * @return the number of entries
+	 */
+
+	public int size( )
+	{
+		return freeKeyValue == null ? tableSize : tableSize + 1;
+	}
+
+	/**
+	 * Checks whether the map is empty.
+	 *
+	 * @return <code>true</code> if the map has no entry
+	 */
+
+	public boolean isEmpty( )
+	{
+		return size( ) == 0;
+	}
+
+	/**
+	 * Removes all entries. The capacity is kept.
+	 */
+
+	public void clear( )
+	{
+		if ( tableSize > 0 )
+		{
+			Arrays.fill( keys, FREE_KEY );
+			Arrays.fill( values, null );
+			tableSize = 0;
+		}
+		freeKeyValue = null;
+	}
+
+	/**
+	 * Returns values in the map. The order of values is not defined.
+	 *
+	 * @return a new list containing the values
+	 */
+
+	public List<V> values( )
+	{
+		List<V> retList = new ArrayList<V>( size( ) );
+		if ( freeKeyValue != null )
+			retList.add( (V) freeKeyValue );
+
+		for ( int i = 0; i < keys.length; i++ )
+		{
+			if ( keys[i] != FREE_KEY )
+				retList.add( (V) values[i] );
+		}
+
+		return retList;
+	}
+
+	/**
+	 * Returns the slot of the given key in a table with the given mask.
+	 *
+	 * @param key
+	 *            the key
+	 * @param mask
+	 *            the table length minus 1
+	 * @return the home slot of the key
+	 */
+
+	static int index( long key, int mask )
+	{
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) ( hash ^ ( hash >>> 32 ) ) & mask;
+	}
+
+	/**
+	 * Allocates an empty table with the given capacity.
+	 *
+	 * @param capacity
+	 *            the capacity, a power of 2
+	 */
+
+	private void allocate( int capacity )
+	{
+		keys = new long[capacity];
+		values = new Object[capacity];
+		threshold = capacity * 3 / 4;
+	}
+
+	/**
+	 * Moves all entries to a table with the given capacity.
+	 *
+	 * @param capacity
+	 *            the new capacity, a power of 2
+	 */
+
+	private void rehash( int capacity )
+	{
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate( capacity );
+
+		int mask = capacity - 1;
+		for ( int i = 0; i < oldKeys.length; i++ )
+		{
+			long key = oldKeys[i];
+			if ( key == FREE_KEY )
+				continue;
+
+			int j = index( key, mask );
+			while ( keys[j] != FREE_KEY )
+				j = ( j + 1 ) & mask;
+
+			keys[j] = key;
+			values[j] = oldValues[i];
+		}
+	}
+}
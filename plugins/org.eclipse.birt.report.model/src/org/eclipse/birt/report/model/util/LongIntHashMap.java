@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.util;
+
+/**
+ * Hash map from primitive <code>long</code> keys to primitive
+ * <code>int</code> values. Like {@link LongHashMap}, the map uses open
+ * addressing with linear probing and boxes neither keys nor values. It is
+ * used for the line numbers of elements.
+ * <p>
+ * The map is not thread-safe.
+ */
+
+public final class LongIntHashMap
+{
+
+	/**
+	 * The key of free slots. An entry with this key is kept outside the
+	 * table.
+	 */
+
+	private static final long FREE_KEY = 0;
+
+	/**
+	 * Keys of the entries. <code>FREE_KEY</code> marks a free slot.
+	 */
+
+	private long[] keys;
+
+	/**
+	 * Values of the entries.
+	 */
+
+	private int[] values;
+
+	/**
+	 * Indicates whether <code>FREE_KEY</code> is in the map.
+	 */
+
+	private boolean hasFreeKey = false;
+
+	/**
+	 * The value for <code>FREE_KEY</code>.
+	 */
+
+	private int freeKeyValue;
+
+	/**
+	 * The number of entries in the table, not including the entry for
+	 * <code>FREE_KEY</code>.
+	 */
+
+	private int tableSize = 0;
+
+	/**
+	 * The number of entries when the table grows.
+	 */
+
+	private int threshold;
+
+	/**
+	 * Constructs an empty map.
+	 */
+
+	public LongIntHashMap( )
+	{
+		allocate( 16 );
+	}
+
+	/**
+	 * Returns the value to which the given key is mapped.
+	 *
+	 * @param key
+	 *            the key
+	 * @param defaultValue
+	 *            the value to return if the key is not in the map
+	 * @return the value, or <code>defaultValue</code> if the key is not in
+	 *         the map
+	 */
+
+	public int get( long key, int defaultValue )
+	{
+		if ( key == FREE_KEY )
+			return hasFreeKey ? freeKeyValue : defaultValue;
+
+		int mask = keys.length - 1;
+		for ( int i = LongHashMap.index( key, mask );; i = ( i + 1 ) & mask )
+		{
+			long tmpKey = keys[i];
+			if ( tmpKey == key )
+				return values[i];
+			if ( tmpKey == FREE_KEY )
+				return defaultValue;
+		}
+	}
+
+	/**
+	 * Maps the given key to the given value.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 */
+
+	public void put( long key, int value )
+	{
+		if ( key == FREE_KEY )
+		{
+			hasFreeKey = true;
+			freeKeyValue = value;
+			return;
+		}
+
+		int mask = keys.length - 1;
+		int i = LongHashMap.index( key, mask );
+		for ( ; keys[i] != FREE_KEY; i = ( i + 1 ) & mask )
+		{
+			if ( keys[i] == key )
+			{
+				values[i] = value;
+				return;
+			}
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		if ( ++tableSize > threshold )
+			rehash( keys.length << 1 );
+	}
+
+	/**
+	 * Returns the number of entries in the map.
+	 *
+	 * @return the number of entries
+	 */
+
+	public int size( )
+	{
+		return hasFreeKey ? tableSize + 1 : tableSize;
+	}
+
+	/**
+	 * Allocates an empty table with the given capacity.
+	 *
+	 * @param capacity
+	 *            the capacity, a power of 2
+	 */
+
+	private void allocate( int capacity )
+	{
+		keys = new long[capacity];
+		values = new int[capacity];
+		threshold = capacity * 3 / 4;
+	}
+
+	/**
+	 * Moves all entries to a table with the given capacity.
+	 *
+	 * @param capacity
+	 *            the new capacity, a power of 2
+	 */
+
+	private void rehash( int capacity )
+	{
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate( capacity );
+
+		int mask = capacity - 1;
+		for ( int i = 0; i < oldKeys.length; i++ )
+		{
+			long key = oldKeys[i];
+			if ( key == FREE_KEY )
+				continue;
+
+			int j = LongHashMap.index( key, mask );
+			while ( keys[j] != FREE_KEY )
+				j = ( j + 1 ) & mask;
+
+			keys[j] = key;
+			values[j] = oldValues[i];
+		}
+	}
+}
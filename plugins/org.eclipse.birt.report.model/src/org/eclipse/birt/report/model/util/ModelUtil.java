@@ -19,10 +19,9 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.eclipse.birt.report.model.activity.LayoutRecordTask;
 import org.eclipse.birt.report.model.activity.RecordTask;
@@ -62,6 +61,7 @@ import org.eclipse.birt.report.model.core.ContainerContext;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.IReferencableElement;
 import org.eclipse.birt.report.model.core.Module;
+import org.eclipse.birt.report.model.core.ReferencableStructureList;
 import org.eclipse.birt.report.model.core.ReferenceableElement;
 import org.eclipse.birt.report.model.core.Structure;
 import org.eclipse.birt.report.model.core.namespace.NameExecutor;
@@ -426,7 +426,9 @@ public class ModelUtil extends ModelUtilBase
 		if ( list == null )
 			return null;
 
-		ArrayList returnList = new ArrayList( );
+		ArrayList returnList = list instanceof ReferencableStructureList
+				? new ReferencableStructureList( )
+				: new ArrayList( );
 		for ( int i = 0; i < list.size( ); i++ )
 		{
 			Object item = list.get( i );
@@ -494,11 +496,10 @@ public class ModelUtil extends ModelUtilBase
 		if ( value == null || propDefn == null )
 			return null;
 
+		// expressions are immutable and are shared by the copies
+
 		if ( propDefn.allowExpression( ) && value instanceof Expression )
-		{
-			return new Expression( ( (Expression) value ).getExpression( ),
-					( (Expression) value ).getUserDefinedType( ) );
-		}
+			return copyExpression( (Expression) value );
 
 		switch ( propDefn.getTypeCode( ) )
 		{
@@ -527,6 +528,24 @@ public class ModelUtil extends ModelUtilBase
 		return value;
 	}
 
+	/**
+	 * Copies an expression value. Expressions with a string or empty text are
+	 * immutable and the same instance is returned.
+	 * 
+	 * @param value
+	 *            the expression to copy
+	 * @return the expression to use in the copy
+	 */
+
+	private static Expression copyExpression( Expression value )
+	{
+		Object expr = value.getExpression( );
+		if ( expr == null || expr instanceof String )
+			return value;
+
+		return new Expression( expr, value.getUserDefinedType( ) );
+	}
+
 	/**
 	 * Copies a list of simple property values.
 	 * 
@@ -550,9 +569,7 @@ public class ModelUtil extends ModelUtilBase
 			}
 			else if ( item instanceof Expression )
 			{
-				returnList.add( new Expression( ( (Expression) item )
-						.getExpression( ), ( (Expression) item )
-						.getUserDefinedType( ) ) );
+				returnList.add( copyExpression( (Expression) item ) );
 			}
 			else
 			{
@@ -586,7 +603,8 @@ public class ModelUtil extends ModelUtilBase
 	}
 
 	/**
-	 * Filtrates the table layout tasks.
+	 * Filtrates the table layout tasks. The tasks on the same table/grid are
+	 * merged into the first one.
 	 * 
 	 * @param tasks
 	 *            the table layout tasks
@@ -596,7 +614,7 @@ public class ModelUtil extends ModelUtilBase
 	public static List<RecordTask> filterLayoutTasks( List<RecordTask> tasks )
 	{
 		List<RecordTask> retList = new ArrayList<RecordTask>( );
-		Set<DesignElement> elements = new LinkedHashSet<DesignElement>( );
+		Map<DesignElement, LayoutRecordTask> elements = new LinkedHashMap<DesignElement, LayoutRecordTask>( );
 
 		for ( int i = 0; i < tasks.size( ); i++ )
 		{
@@ -604,13 +622,17 @@ public class ModelUtil extends ModelUtilBase
 
 			if ( task instanceof LayoutRecordTask )
 			{
-				DesignElement compoundElement = (DesignElement) ( (LayoutRecordTask) task )
+				LayoutRecordTask layoutTask = (LayoutRecordTask) task;
+				DesignElement compoundElement = (DesignElement) layoutTask
 						.getTarget( );
-				if ( !elements.contains( compoundElement ) )
+				LayoutRecordTask mergedTask = elements.get( compoundElement );
+				if ( mergedTask == null )
 				{
 					retList.add( task );
-					elements.add( compoundElement );
+					elements.put( compoundElement, layoutTask );
 				}
+				else
+					mergedTask.merge( layoutTask );
 			}
 		}
 
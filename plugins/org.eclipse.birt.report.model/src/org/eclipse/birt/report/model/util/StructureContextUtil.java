@@ -246,7 +246,7 @@ public class StructureContextUtil
 		{
 			Structure struct = (Structure) structHandle.getStructure( );
 			assert struct != null;
-			return new StructureContext( struct, member, null );
+			return struct.getMemberContext( member );
 		}
 		else
 		{
@@ -255,7 +255,7 @@ public class StructureContextUtil
 			assert targetContext != null;
 			Structure struct = targetContext.getStructure( );
 			assert struct != null;
-			return new StructureContext( struct, member, null );
+			return struct.getMemberContext( member );
 
 		}
 	}
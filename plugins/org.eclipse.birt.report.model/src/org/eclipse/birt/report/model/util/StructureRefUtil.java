@@ -20,6 +20,7 @@ import org.eclipse.birt.report.model.api.metadata.PropertyValueException;
 import org.eclipse.birt.report.model.api.util.StringUtil;
 import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.core.ReferencableStructure;
+import org.eclipse.birt.report.model.core.ReferencableStructureList;
 import org.eclipse.birt.report.model.core.Structure;
 import org.eclipse.birt.report.model.elements.Library;
 import org.eclipse.birt.report.model.metadata.PropertyDefn;
@@ -65,6 +66,9 @@ public class StructureRefUtil
 					.getListProperty( module, defn.getName( ) );
 			if ( list == null )
 				return null;
+			if ( list instanceof ReferencableStructureList )
+				return ( (ReferencableStructureList) list )
+						.findStructure( name );
 			for ( int i = 0; i < list.size( ); i++ )
 			{
 				Structure struct = (Structure) list.get( i );
@@ -12,8 +12,12 @@
 package org.eclipse.birt.report.model.util;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.birt.core.data.ExpressionUtil;
@@ -22,6 +26,7 @@ import org.eclipse.birt.core.exception.BirtException;
 import org.eclipse.birt.report.model.activity.ActivityStack;
 import org.eclipse.birt.report.model.api.DesignElementHandle;
 import org.eclipse.birt.report.model.api.ListingHandle;
+import org.eclipse.birt.report.model.api.ModuleHandle;
 import org.eclipse.birt.report.model.api.PropertyHandle;
 import org.eclipse.birt.report.model.api.ReportItemHandle;
 import org.eclipse.birt.report.model.api.ScalarParameterHandle;
@@ -53,6 +58,27 @@ abstract class UnusedBoundColumnsMgrImpl extends BoundColumnsMgr
 
 	protected Module module;
 
+	/**
+	 * The bound column names referred by each expression text. Each
+	 * expression is tokenized only once.
+	 */
+
+	private final Map<String, List<String>> parsedExpressions = new HashMap<String, List<String>>( );
+
+	/**
+	 * The bound column names referred by each element, or <code>null</code>
+	 * if only the names referred in the subtree of <code>element</code> are
+	 * collected.
+	 */
+
+	private Map<DesignElement, Set<String>> references = null;
+
+	/**
+	 * The report items and scalar parameters that have been visited.
+	 */
+
+	private Set<DesignElement> visited = null;
+
 	/**
 	 * @param element
 	 */
@@ -76,29 +102,7 @@ abstract class UnusedBoundColumnsMgrImpl extends BoundColumnsMgr
 	protected void handleBoundsForParamBinding( DesignElement element,
 			Module module, String propValue )
 	{
-		if ( propValue == null )
-			return;
-
-		List<IColumnBinding> newExprs = null;
-
-		try
-		{
-			newExprs = ExpressionUtil.extractColumnExpressions( propValue );
-		}
-		catch ( BirtException e )
-		{
-			newExprs = null;
-		}
-
-		if ( newExprs != null && newExprs.size( ) > 0 )
-		{
-			for ( int i = 0; i < newExprs.size( ); i++ )
-			{
-				IColumnBinding column = newExprs.get( i );
-				boundColumnNames.add( column.getResultSetColumnName( ) );
-			}
-		}
-
+		handleBoundsForValue( element, module, propValue );
 	}
 
 	/*
@@ -116,7 +120,28 @@ abstract class UnusedBoundColumnsMgrImpl extends BoundColumnsMgr
 		if ( propValue == null )
 			return;
 
-		List newExprs = null;
+		List<String> names = parsedExpressions.get( propValue );
+		if ( names == null )
+		{
+			names = parseExpression( propValue );
+			parsedExpressions.put( propValue, names );
+		}
+
+		for ( int i = 0; i < names.size( ); i++ )
+			addBoundColumnName( element, names.get( i ) );
+	}
+
+	/**
+	 * Returns the bound column names referred by the given expression.
+	 * 
+	 * @param propValue
+	 *            the expression text
+	 * @return the bound column names
+	 */
+
+	private static List<String> parseExpression( String propValue )
+	{
+		List<IColumnBinding> newExprs = null;
 
 		try
 		{
@@ -127,12 +152,40 @@ abstract class UnusedBoundColumnsMgrImpl extends BoundColumnsMgr
 			newExprs = null;
 		}
 
-		if ( newExprs != null )
-			for ( int i = 0; i < newExprs.size( ); i++ )
-			{
-				IColumnBinding column = (IColumnBinding) newExprs.get( i );
-				boundColumnNames.add( column.getResultSetColumnName( ) );
-			}
+		if ( newExprs == null || newExprs.isEmpty( ) )
+			return Collections.emptyList( );
+
+		List<String> names = new ArrayList<String>( newExprs.size( ) );
+		for ( int i = 0; i < newExprs.size( ); i++ )
+		{
+			IColumnBinding column = newExprs.get( i );
+			names.add( column.getResultSetColumnName( ) );
+		}
+		return names;
+	}
+
+	/**
+	 * Records that the given element refers to the bound column.
+	 * 
+	 * @param element
+	 *            the element that has the expression
+	 * @param name
+	 *            the bound column name
+	 */
+
+	private void addBoundColumnName( DesignElement element, String name )
+	{
+		boundColumnNames.add( name );
+		if ( references == null )
+			return;
+
+		Set<String> names = references.get( element );
+		if ( names == null )
+		{
+			names = new HashSet<String>( );
+			references.put( element, names );
+		}
+		names.add( name );
 	}
 
 	/**
@@ -174,46 +227,201 @@ abstract class UnusedBoundColumnsMgrImpl extends BoundColumnsMgr
 	}
 
 	/**
-	 * Removed unused bound columns from the element.
+	 * Removes unused bound columns from all the report items and scalar
+	 * parameters in the given module. A bound column is unused if no
+	 * expression of the element and its contents refers to it, the same as
+	 * {@link #removedUnusedBoundColumns(DesignElementHandle)}.
+	 * <p>
+	 * The module is visited once, and the unused bound columns of all the
+	 * elements are removed in one transaction.
 	 * 
+	 * @param moduleHandle
+	 *            the module
 	 * @throws SemanticException
+	 *             if bound column property is locked.
 	 */
 
-	void removeUnusedColumns( ) throws SemanticException
+	public static void removedAllUnusedBoundColumns( ModuleHandle moduleHandle )
+			throws SemanticException
 	{
-		String propName = null;
+		if ( moduleHandle == null )
+			return;
 
-		if ( element instanceof ReportItem )
-			propName = IReportItemModel.BOUND_DATA_COLUMNS_PROP;
-		else if ( element instanceof ScalarParameter )
-			propName = IScalarParameterModel.BOUND_DATA_COLUMNS_PROP;
-		else
+		UnusedBoundColumnsMgrImpl mgr = new UnusedBoundColumnsMgr(
+				moduleHandle );
+		Module module = mgr.module;
+
+		mgr.references = new HashMap<DesignElement, Set<String>>( );
+		mgr.visited = new HashSet<DesignElement>( );
+
+		// contents are iterated after their containers, so that the elements
+		// visited from the container are not visited again.
+
+		List<DesignElement> owners = new ArrayList<DesignElement>( );
+		ContentIterator iter = new ContentIterator( module, module );
+		while ( iter.hasNext( ) )
+		{
+			DesignElement content = iter.next( );
+			if ( getBoundColumns( module, content ) != null )
+				owners.add( content );
+
+			if ( mgr.visited.contains( content ) )
+				continue;
+
+			if ( content instanceof ListingElement )
+				mgr.dealDataContainerReportItem( (ListingElement) content,
+						module );
+			else if ( content instanceof ReportItem )
+				mgr.dealNonDataContainerReportItem( (ReportItem) content,
+						module );
+			else if ( content instanceof ScalarParameter )
+				mgr.dealScalarParameter( (ScalarParameter) content, module );
+		}
+
+		if ( owners.isEmpty( ) )
 			return;
 
+		// a bound column is used if the element with it or any of its
+		// contents refers to it.
+
+		Set<DesignElement> ownerSet = new HashSet<DesignElement>( owners );
+		Map<DesignElement, Set<String>> usedNames = new HashMap<DesignElement, Set<String>>( );
+
+		Iterator<Map.Entry<DesignElement, Set<String>>> refIter = mgr.references
+				.entrySet( ).iterator( );
+		while ( refIter.hasNext( ) )
+		{
+			Map.Entry<DesignElement, Set<String>> entry = refIter.next( );
+			for ( DesignElement tmp = entry.getKey( ); tmp != null; tmp = tmp
+					.getContainer( ) )
+			{
+				if ( !ownerSet.contains( tmp ) )
+					continue;
+
+				Set<String> names = usedNames.get( tmp );
+				if ( names == null )
+				{
+					names = new HashSet<String>( );
+					usedNames.put( tmp, names );
+				}
+				names.addAll( entry.getValue( ) );
+			}
+		}
+
+		ActivityStack cmdStack = module.getActivityStack( );
+		cmdStack.startTrans( ModelMessages
+				.getMessage( MessageConstants.REMOVE_ITEM_MESSAGE ) );
+		try
+		{
+			for ( int i = 0; i < owners.size( ); i++ )
+			{
+				DesignElement owner = owners.get( i );
+				Set<String> names = usedNames.get( owner );
+				removeColumns( module, owner, names == null ? Collections
+						.<String> emptySet( ) : names );
+			}
+		}
+		catch ( SemanticException e )
+		{
+			cmdStack.rollback( );
+			throw e;
+		}
+		cmdStack.commit( );
+	}
+
+	/**
+	 * Returns the name of the bound columns property of the given element.
+	 * 
+	 * @param element
+	 *            the element
+	 * @return the property name, or <code>null</code> if the element has no
+	 *         bound columns
+	 */
+
+	private static String getBoundColumnsPropName( DesignElement element )
+	{
+		if ( element instanceof ReportItem )
+			return IReportItemModel.BOUND_DATA_COLUMNS_PROP;
+		if ( element instanceof ScalarParameter )
+			return IScalarParameterModel.BOUND_DATA_COLUMNS_PROP;
+		return null;
+	}
+
+	/**
+	 * Returns the local bound columns of the given element.
+	 * 
+	 * @param module
+	 *            the root of the element
+	 * @param element
+	 *            the element
+	 * @return the non-empty list of bound columns, or <code>null</code>
+	 */
+
+	private static List getBoundColumns( Module module, DesignElement element )
+	{
+		String propName = getBoundColumnsPropName( element );
+		if ( propName == null )
+			return null;
+
 		List currentList = (List) element.getLocalProperty( module, propName );
 		if ( currentList == null || currentList.isEmpty( ) )
+			return null;
+
+		return currentList;
+	}
+
+	/**
+	 * Removes the bound columns that are not in the given names from the
+	 * element. The columns are removed by position from the end of the list.
+	 * 
+	 * @param module
+	 *            the root of the element
+	 * @param element
+	 *            the element
+	 * @param usedNames
+	 *            the names of the used bound columns
+	 * @throws SemanticException
+	 *             if bound column property is locked.
+	 */
+
+	private static void removeColumns( Module module, DesignElement element,
+			Set<String> usedNames ) throws SemanticException
+	{
+		List currentList = getBoundColumns( module, element );
+		if ( currentList == null )
 			return;
 
-		List<ComputedColumn> unusedList = new ArrayList<ComputedColumn>( );
-		for ( int i = 0; i < currentList.size( ); i++ )
+		PropertyHandle propHandle = null;
+		for ( int i = currentList.size( ) - 1; i >= 0; i-- )
 		{
 			ComputedColumn column = (ComputedColumn) currentList.get( i );
-			if ( !boundColumnNames.contains( column.getName( ) ) )
-				unusedList.add( column );
+			if ( usedNames.contains( column.getName( ) ) )
+				continue;
+
+			if ( propHandle == null )
+				propHandle = element.getHandle( module ).getPropertyHandle(
+						getBoundColumnsPropName( element ) );
+			propHandle.removeItem( i );
 		}
+	}
 
-		PropertyHandle propHandle = element.getHandle( module )
-				.getPropertyHandle( propName );
+	/**
+	 * Removed unused bound columns from the element.
+	 * 
+	 * @throws SemanticException
+	 */
+
+	void removeUnusedColumns( ) throws SemanticException
+	{
+		if ( getBoundColumns( module, element ) == null )
+			return;
 
 		ActivityStack cmdStack = module.getActivityStack( );
 		cmdStack.startTrans( ModelMessages
 				.getMessage( MessageConstants.REMOVE_ITEM_MESSAGE ) );
 		try
 		{
-			for ( int i = 0; i < unusedList.size( ); i++ )
-			{
-				propHandle.removeItem( unusedList.get( i ) );
-			}
+			removeColumns( module, element, boundColumnNames );
 		}
 		catch ( SemanticException e )
 		{
@@ -244,7 +452,7 @@ abstract class UnusedBoundColumnsMgrImpl extends BoundColumnsMgr
 		if ( value == null )
 			return;
 
-		boundColumnNames.add( value );
+		addBoundColumnName( element, value );
 	}
 
 	/*
@@ -258,6 +466,9 @@ abstract class UnusedBoundColumnsMgrImpl extends BoundColumnsMgr
 
 	protected void dealReportItem( ReportItem element, Module module )
 	{
+		if ( visited != null )
+			visited.add( element );
+
 		super.dealReportItem( element, module );
 
 		List<ComputedColumn> columnBindings = (List<ComputedColumn>) element
@@ -298,6 +509,9 @@ abstract class UnusedBoundColumnsMgrImpl extends BoundColumnsMgr
 
 	protected void dealScalarParameter( ScalarParameter element, Module module )
 	{
+		if ( visited != null )
+			visited.add( element );
+
 		super.dealScalarParameter( element, module );
 
 		List columnBindings = (List) element.getLocalProperty( module,
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.util;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.birt.report.model.api.Expression;
+
+/**
+ * Pool of canonical property strings and expressions read from design files.
+ * Equal values that appear many times in a design, such as data types, style
+ * names and expressions like <code>row["CUSTOMERNAME"]</code>, share one
+ * instance.
+ * <p>
+ * A parser uses a strong pool that lives as long as the parse. The pool can
+ * fall back to a weak pool of the design session, so that values are also
+ * shared among modules of the session. Values in a weak pool are kept only
+ * while they are referenced by any module.
+ */
+
+public final class ValuePool
+{
+
+	/**
+	 * Values longer than this, such as scripts, are seldom repeated and are not
+	 * pooled.
+	 */
+
+	private static final int MAX_LENGTH = 256;
+
+	/**
+	 * The key of expressions without user defined type.
+	 */
+
+	private static final String NO_TYPE = "\u0000"; //$NON-NLS-1$
+
+	/**
+	 * Whether values are weakly referenced.
+	 */
+
+	private final boolean weak;
+
+	/**
+	 * The pool to share values with, can be <code>null</code>.
+	 */
+
+	private final ValuePool parent;
+
+	/**
+	 * The canonical strings. Values are strings or weak references to them.
+	 */
+
+	private final Map<String, Object> strings;
+
+	/**
+	 * The canonical expressions by the expression type. Values of each map are
+	 * expressions or weak references to them.
+	 */
+
+	private final Map<String, Map<String, Object>> expressions = new HashMap<String, Map<String, Object>>( );
+
+	/**
+	 * Constructs a strong pool that shares values with the given pool.
+	 *
+	 * @param parent
+	 *            the pool to share values with, can be <code>null</code>
+	 */
+
+	public ValuePool( ValuePool parent )
+	{
+		this( false, parent );
+	}
+
+	/**
+	 * Constructs a pool.
+	 *
+	 * @param weak
+	 *            whether values are weakly referenced
+	 * @param parent
+	 *            the pool to share values with, can be <code>null</code>
+	 */
+
+	private ValuePool( boolean weak, ValuePool parent )
+	{
+		this.weak = weak;
+		this.parent = parent;
+		this.strings = newMap( );
+	}
+
+	/**
+	 * Creates a pool that weakly references its values.
+	 *
+	 * @return the weak pool
+	 */
+
+	public static ValuePool newWeakPool( )
+	{
+		return new ValuePool( true, null );
+	}
+
+	/**
+	 * Returns the canonical instance of the given string.
+	 *
+	 * @param value
+	 *            the string
+	 * @return the canonical string equal to <code>value</code>
+	 */
+
+	public synchronized String getString( String value )
+	{
+		if ( value == null || value.length( ) > MAX_LENGTH )
+			return value;
+
+		String retValue = (String) deref( strings.get( value ) );
+		if ( retValue != null )
+			return retValue;
+
+		retValue = parent == null ? value : parent.getString( value );
+		strings.put( retValue, ref( retValue ) );
+		return retValue;
+	}
+
+	/**
+	 * Returns the canonical expression with the given expression text and
+	 * type.
+	 *
+	 * @param value
+	 *            the expression text
+	 * @param type
+	 *            the user defined expression type, can be <code>null</code>
+	 * @return the canonical expression
+	 */
+
+	public synchronized Expression getExpression( String value, String type )
+	{
+		if ( value == null || value.length( ) > MAX_LENGTH )
+			return new Expression( value, type );
+
+		String typeKey = type == null ? NO_TYPE : type;
+		Map<String, Object> values = expressions.get( typeKey );
+		if ( values == null )
+		{
+			values = newMap( );
+			expressions.put( typeKey, values );
+		}
+
+		Expression retValue = (Expression) deref( values.get( value ) );
+		if ( retValue != null )
+			return retValue;
+
+		if ( parent == null )
+			retValue = new Expression( getString( value ), type );
+		else
+			retValue = parent.getExpression( value, type );
+
+		// the expression text is the key, so that the entry of a weak pool is
+		// kept as long as the expression is.
+
+		values.put( (String) retValue.getExpression( ), ref( retValue ) );
+		return retValue;
+	}
+
+	/**
+	 * Creates a map for values of the pool.
+	 *
+	 * @return the map
+	 */
+
+	private Map<String, Object> newMap( )
+	{
+		if ( weak )
+			return new WeakHashMap<String, Object>( );
+		return new HashMap<String, Object>( );
+	}
+
+	/**
+	 * Returns the value to keep in the pool.
+	 *
+	 * @param value
+	 *            the value
+	 * @return the value itself or a weak reference to it
+	 */
+
+	private Object ref( Object value )
+	{
+		return weak ? new WeakReference<Object>( value ) : value;
+	}
+
+	/**
+	 * Returns the value kept in the pool.
+	 *
+	 * @param value
+	 *            the value itself or a weak reference to it
+	 * @return the value, or <code>null</code> if not found
+	 */
+
+	private Object deref( Object value )
+	{
+		if ( value instanceof WeakReference )
+			return ( (WeakReference<?>) value ).get( );
+		return value;
+	}
+}
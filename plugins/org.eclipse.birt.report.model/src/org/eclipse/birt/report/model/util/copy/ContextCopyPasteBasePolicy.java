@@ -190,29 +190,20 @@ class ContextCopyPasteBasePolicy
 			IElementCopy content, Module module )
 	{
 
-		ContextCopiedElement copy = null;
+		// only the element to paste is cloned, the other one is left untouched
 
-		try
-		{
-			copy = (ContextCopiedElement) ( (ContextCopiedElement) content )
-					.clone( );
-		}
-		catch ( CloneNotSupportedException e )
-		{
-			assert false;
-			return null;
-		}
+		ContextCopiedElement copy = (ContextCopiedElement) content;
 
 		String location = copy.getRootLocation( );
 		if ( location == null )
-			return copy.getLocalizedCopy( );
+			return cloneElement( copy.getLocalizedCopy( ) );
 
 		DesignElement copiedElement = copy.getCopy( );
 
 		DesignSessionImpl session = module.getSession( );
 		Module copiedRoot = session.getOpenedModule( location );
 		if ( copiedRoot == null )
-			return copy.getLocalizedCopy( );
+			return cloneElement( copy.getLocalizedCopy( ) );
 
 		String nameSpace = StringUtil.extractNamespace( copiedElement
 				.getExtendsName( ) );
@@ -223,45 +214,68 @@ class ContextCopyPasteBasePolicy
 		{
 			Library lib = module.getLibraryWithNamespace( nameSpace );
 			if ( lib == null )
-				return copy.getLocalizedCopy( );
+				return cloneElement( copy.getLocalizedCopy( ) );
 
 			long extendsElementID = copy.getExtendsElementID( );
 			if ( extendsElementID == DesignElement.NO_ID )
-				return copy.getLocalizedCopy( );
+				return cloneElement( copy.getLocalizedCopy( ) );
 
 			// gets the location of the library which contains the copied
 			// extends.
 			String libLocation = copy.getLibLocation( );
 			if ( libLocation == null )
-				return copy.getLocalizedCopy( );
+				return cloneElement( copy.getLocalizedCopy( ) );
 
 			// validates the location of the library which contains the copied
 			// extends is the same as the location of the library of the target
 			// container
 			if ( !libLocation.equals( lib.getLocation( ) ) )
-				return copy.getLocalizedCopy( );
+				return cloneElement( copy.getLocalizedCopy( ) );
 
 			Library copiedLib = copiedRoot.getLibraryWithNamespace( nameSpace );
 			if ( copiedLib == null )
-				return copy.getLocalizedCopy( );
+				return cloneElement( copy.getLocalizedCopy( ) );
 
 			// validates the location of the newly open library is the same as
 			// the location of the library which contains the extends element.
 
 			if ( !libLocation.equals( copiedLib.getLocation( ) ) )
-				return copy.getLocalizedCopy( );
+				return cloneElement( copy.getLocalizedCopy( ) );
 
 			DesignElement libElement = lib.getElementByID( extendsElementID );
 			if ( libElement == null )
-				return copy.getLocalizedCopy( );
+				return cloneElement( copy.getLocalizedCopy( ) );
 
 			DesignElement copyLibElement = copiedLib
 					.getElementByID( extendsElementID );
 			if ( libElement.getDefn( ) != copyLibElement.getDefn( ) )
-				return copy.getLocalizedCopy( );
+				return cloneElement( copy.getLocalizedCopy( ) );
 		}
 
-		return copy.getCopy( );
+		return cloneElement( copy.getCopy( ) );
+	}
+
+	/**
+	 * Returns a clone of the given copied element, so that the copy can be
+	 * pasted again.
+	 * 
+	 * @param element
+	 *            the copied element
+	 * @return the clone of the element
+	 */
+
+	private static DesignElement cloneElement( DesignElement element )
+	{
+		try
+		{
+			return (DesignElement) element.doClone( DummyCopyPolicy
+					.getInstance( ) );
+		}
+		catch ( CloneNotSupportedException e )
+		{
+			assert false;
+			return null;
+		}
 	}
 
 	public void copyPropertyBindings( IElementCopy copy,
@@ -4,7 +4,11 @@
 
 package org.eclipse.birt.report.model.util.xpathparser;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.birt.report.model.api.DesignElementHandle;
 import org.eclipse.birt.report.model.api.MemberHandle;
@@ -41,6 +45,25 @@ public class XPathParser
 	private static final int VALUE = 16;
 	private static final int STRUCTURE = 32;
 
+	/**
+	 * The maximal number of parsed xpaths to keep.
+	 */
+
+	private static final int MAX_COMPILED_XPATHS = 1024;
+
+	/**
+	 * The value cached for the xpath that can not be parsed.
+	 */
+
+	private static final List INVALID_XPATH = new ArrayList( 0 );
+
+	/**
+	 * The parsed xpaths shared by all parsers. The key is the xpath, the value
+	 * is the list of <code>DepthInfo</code>.
+	 */
+
+	private static final Map<String, List> compiledXPaths = new ConcurrentHashMap<String, List>( );
+
 	// ******** keep the property *****
 
 	// private CachedMemberRef ref = null;
@@ -103,23 +126,9 @@ public class XPathParser
 
 	public Object getObject( String input )
 	{
-
-		XDepthParser parser_1 = new XDepthParser( input );
-
-		try
-		{
-			parser_1.parse( );
-		}
-		catch ( ParseException e )
-		{
-			return null;
-		}
-		catch ( TokenMgrError e )
-		{
+		List depthInfo = compile( input );
+		if ( depthInfo == null )
 			return null;
-		}
-
-		List depthInfo = parser_1.getDepthInfo( );
 
 		// ******** the index in the XPath tags *****
 
@@ -268,6 +277,46 @@ public class XPathParser
 		}
 	}
 
+	/**
+	 * Returns the parsed steps of the xpath. The parsed steps are immutable
+	 * and cached, so that the same xpath is parsed only once.
+	 * 
+	 * @param input
+	 *            the xpath in string
+	 * @return the list of <code>DepthInfo</code>, or <code>null</code> if
+	 *         the xpath is invalid
+	 */
+
+	private static List compile( String input )
+	{
+		List depthInfo = compiledXPaths.get( input );
+		if ( depthInfo != null )
+			return depthInfo == INVALID_XPATH ? null : depthInfo;
+
+		XDepthParser parser_1 = new XDepthParser( input );
+
+		try
+		{
+			parser_1.parse( );
+			depthInfo = Collections.unmodifiableList( parser_1
+					.getDepthInfo( ) );
+		}
+		catch ( ParseException e )
+		{
+			depthInfo = INVALID_XPATH;
+		}
+		catch ( TokenMgrError e )
+		{
+			depthInfo = INVALID_XPATH;
+		}
+
+		if ( compiledXPaths.size( ) >= MAX_COMPILED_XPATHS )
+			compiledXPaths.clear( );
+		compiledXPaths.put( input, depthInfo );
+
+		return depthInfo == INVALID_XPATH ? null : depthInfo;
+	}
+
 	/**
 	 * Returns the index of the slot that can contain elements of which the
 	 * report tag is <code>tagName</code>.
@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.eclipse.birt.report.model.api.activity.SemanticException;
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
 import org.eclipse.birt.report.model.api.util.StringUtil;
 import org.eclipse.birt.report.model.core.DesignElement;
 import org.eclipse.birt.report.model.core.Module;
@@ -71,12 +72,13 @@ public class ValidationExecutor
 	{
 		List<SemanticException> exceptionList = new ArrayList<SemanticException>( );
 
+		IModelMetricsListener metrics = module.getMetricsListener( );
 		Iterator<ValidationNode> iter = reorganize( nodes ).iterator( );
 		while ( iter.hasNext( ) )
 		{
 			ValidationNode node = iter.next( );
 
-			List<SemanticException> errors = node.perform( module, false );
+			List<SemanticException> errors = perform( node, false, metrics );
 			if ( targetElement == node.getElement( ) )
 				exceptionList.addAll( errors );
 
@@ -110,12 +112,13 @@ public class ValidationExecutor
 	{
 		List<SemanticException> allErrors = new ArrayList<SemanticException>( );
 
+		IModelMetricsListener metrics = module.getMetricsListener( );
 		Iterator<ValidationNode> iter = reorganize( nodes ).iterator( );
 		while ( iter.hasNext( ) )
 		{
 			ValidationNode node = iter.next( );
 
-			List<SemanticException> errors = node.perform( module, sendEvent );
+			List<SemanticException> errors = perform( node, sendEvent, metrics );
 
 			allErrors.addAll( errors );
 
@@ -132,6 +135,33 @@ public class ValidationExecutor
 		return allErrors;
 	}
 
+	/**
+	 * Performs the validation of one node, and reports the validation time to
+	 * the metrics listener if any.
+	 * 
+	 * @param node
+	 *            the validation node
+	 * @param sendEvent
+	 *            indicates whether it is needed to send event
+	 * @param metrics
+	 *            the metrics listener, can be <code>null</code>
+	 * @return error list. Each one is the instance of
+	 *         <code>SemanticException</code>.
+	 */
+
+	private List<SemanticException> perform( ValidationNode node,
+			boolean sendEvent, IModelMetricsListener metrics )
+	{
+		if ( metrics == null )
+			return node.perform( module, sendEvent );
+
+		long start = System.nanoTime( );
+		List<SemanticException> errors = node.perform( module, sendEvent );
+		metrics.validationPerformed( node.getTriggerDefn( ).getValidationID( ),
+				System.nanoTime( ) - start );
+		return errors;
+	}
+
 	/**
 	 * Reorganizes the nodes in the following aspects in order to improve the
 	 * efficiency:
@@ -11,14 +11,17 @@
 
 package org.eclipse.birt.report.model.adapter.oda.api;
 
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.birt.report.model.adapter.oda.IModelOdaAdapter;
 import org.eclipse.birt.report.model.adapter.oda.ModelOdaAdapter;
+import org.eclipse.birt.report.model.adapter.oda.impl.DesignObjectSerializer;
 import org.eclipse.birt.report.model.adapter.oda.model.DesignValues;
 import org.eclipse.birt.report.model.adapter.oda.model.ModelFactory;
 import org.eclipse.birt.report.model.adapter.oda.model.util.SchemaConversionUtil;
+import org.eclipse.birt.report.model.adapter.oda.model.util.SerializerImpl;
 import org.eclipse.birt.report.model.adapter.oda.util.BaseTestCase;
 import org.eclipse.birt.report.model.api.OdaDataSetHandle;
 import org.eclipse.birt.report.model.api.PropertyHandle;
@@ -205,6 +208,66 @@ public class DataSetParameterAdapterTest extends BaseTestCase
 		elementAttrs.setOptional( true );
 	}
 
+	/**
+	 * Tests that designer values are written and read again many times with
+	 * the resources reused by the serializer, also in another thread.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testDesignValuesSerialization( ) throws Exception
+	{
+		openDesign( "DataSetParamConvertTest_1.xml" ); //$NON-NLS-1$
+		OdaDataSetHandle setHandle = (OdaDataSetHandle) designHandle
+				.findDataSet( "myDataSet1" ); //$NON-NLS-1$
+
+		DataSetDesign setDesign = new ModelOdaAdapter( )
+				.createDataSetDesign( setHandle );
+
+		DesignValues values = ModelFactory.eINSTANCE.createDesignValues( );
+		values.setDataSetParameters( SchemaConversionUtil
+				.convertToAdapterParameters( EcoreUtil.copy( setDesign
+						.getParameters( ) ) ) );
+
+		final String expected = SerializerImpl.instance( ).write( values );
+		assertNotNull( expected );
+
+		DesignValues previous = null;
+		for ( int i = 0; i < 500; i++ )
+		{
+			DesignValues read = SerializerImpl.instance( ).read( expected );
+			assertNotSame( previous, read );
+			assertNull( read.eResource( ) );
+			assertEquals( expected, SerializerImpl.instance( ).write( read ) );
+			previous = read;
+		}
+
+		String choices = DesignObjectSerializer.toExternalForm( setDesign );
+		assertEquals( choices, DesignObjectSerializer
+				.toExternalForm( setDesign ) );
+		assertNull( setDesign.eResource( ) );
+
+		final String[] result = new String[1];
+		Thread thread = new Thread( ) {
+
+			public void run( )
+			{
+				try
+				{
+					result[0] = SerializerImpl.instance( ).write(
+							SerializerImpl.instance( ).read( expected ) );
+				}
+				catch ( IOException e )
+				{
+					result[0] = null;
+				}
+			}
+		};
+		thread.start( );
+		thread.join( );
+		assertEquals( expected, result[0] );
+	}
+
 	/**
 	 * Tests the algorithm to create unique data set parameter names.
 	 * 
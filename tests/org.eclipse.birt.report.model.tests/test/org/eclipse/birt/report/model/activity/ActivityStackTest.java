@@ -1871,6 +1871,88 @@ public class ActivityStackTest extends BaseTestCase
 		assertNull( ActivityTestUtil.getActivityListener( as ) );
 	}
 
+	/**
+	 * Tests the runtime mode. Changes are validated, and names, references
+	 * and table layouts are maintained, but no record is kept for undo and no
+	 * notification is sent.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testRuntimeMode( ) throws Exception
+	{
+		createDesign( );
+		ElementFactory factory = designHandle.getElementFactory( );
+
+		TableHandle table = factory.newTableItem( "testTable", 3, 1, 1, 1 ); //$NON-NLS-1$
+		designHandle.getBody( ).add( table );
+		StyleHandle style = factory.newStyle( "style1" ); //$NON-NLS-1$
+		designHandle.getStyles( ).add( style );
+		assertTrue( designHandle.getCommandStack( ).canUndo( ) );
+
+		ElementListener elementListener = new ElementListener( );
+		table.addListener( elementListener );
+		MyActivityStackListener stackListener = new MyActivityStackListener( );
+		designHandle.getCommandStack( ).addListener( stackListener );
+
+		designHandle.setRuntimeMode( true );
+		assertTrue( designHandle.isRuntimeMode( ) );
+		assertFalse( designHandle.getCommandStack( ).canUndo( ) );
+
+		// the table layout is still updated
+
+		table.getColumns( ).get( 0 ).setProperty( IStyleModel.COLOR_PROP,
+				ColorPropertyType.BLUE );
+		RowHandle row = factory.newTableRow( 3 );
+		table.getDetail( ).add( row );
+		CellHandle cell = (CellHandle) row.getCells( ).get( 0 );
+		assertEquals( ColorPropertyType.BLUE, cell
+				.getProperty( IStyleModel.COLOR_PROP ) );
+
+		// but the layout change event is not sent
+
+		assertEquals( 0, elementListener.notifications.size( ) );
+
+		// names and references are maintained
+
+		table.setStyle( style );
+		style.setName( "style2" ); //$NON-NLS-1$
+		assertEquals( "style2", table.getStyle( ).getName( ) ); //$NON-NLS-1$
+		table.setName( "newTable" ); //$NON-NLS-1$
+		assertSame( table.getElement( ), designHandle
+				.findElement( "newTable" ).getElement( ) ); //$NON-NLS-1$
+
+		// values are still validated
+
+		try
+		{
+			table.setProperty( IStyleModel.COLOR_PROP, "noColor" ); //$NON-NLS-1$
+			fail( );
+		}
+		catch ( SemanticException e )
+		{
+		}
+
+		// a transaction can be rolled back
+
+		ActivityStack stack = (ActivityStack) designHandle.getCommandStack( );
+		stack.startTrans( null );
+		table.setProperty( IStyleModel.COLOR_PROP, ColorPropertyType.RED );
+		stack.rollback( );
+		assertNull( table.getElement( ).getLocalProperty( design,
+				IStyleModel.COLOR_PROP ) );
+
+		assertEquals( 0, elementListener.notifications.size( ) );
+		assertNull( stackListener.event );
+		assertFalse( stack.canUndo( ) );
+		assertTrue( design.getActivityStack( ).isRuntimeMode( ) );
+
+		designHandle.setRuntimeMode( false );
+		table.setProperty( IStyleModel.COLOR_PROP, ColorPropertyType.RED );
+		assertTrue( stack.canUndo( ) );
+		assertEquals( 1, elementListener.notifications.size( ) );
+	}
+
 	/**
 	 * 
 	 */
@@ -33,6 +33,7 @@ public class AllApiTests
 		test.addTestSuite( ActionHandleTest.class );
 		test.addTestSuite( APICompatibleTest.class );
 		test.addTestSuite( AutoTextHandleTest.class );
+		test.addTestSuite( BatchModuleValidatorTest.class );
 		test.addTestSuite( BoundDataColumnsUtilTest.class );
 		test.addTestSuite( CascadingParameterGroupTest.class );
 		test.addTestSuite( CellHandleTest.class );
@@ -44,6 +45,7 @@ public class AllApiTests
 		test.addTestSuite( ComponentsInGridHandleTest.class );
 		test.addTestSuite( CustomColorHandleTest.class );
 		test.addTestSuite( DefaultSearchFileAlgorithmTest.class );
+		test.addTestSuite( DependencyIndexTest.class );
 		test.addTestSuite( DesignElementHandleTest.class );
 		test.addTestSuite( DesignEngineTest.class );
 		test.addTestSuite( DimensionHandleTest.class );
@@ -63,6 +65,7 @@ public class AllApiTests
 		test.addTestSuite( LabelHandleTest.class );
 		test.addTestSuite( LayoutTableTest.class );
 		test.addTestSuite( MasterPageHandleTest.class );
+		test.addTestSuite( ModuleCollectionIndexTest.class );
 		test.addTestSuite( ModuleUtilTest.class );
 		test.addTestSuite( ParameterValidationUtilTest.class );
 		test.addTestSuite( PropertyHandleTest.class );
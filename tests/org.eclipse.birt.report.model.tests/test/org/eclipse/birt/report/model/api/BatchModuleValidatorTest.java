@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.api;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.birt.report.model.api.util.BatchModuleValidator;
+import org.eclipse.birt.report.model.api.util.IBatchValidationListener;
+import org.eclipse.birt.report.model.util.BaseTestCase;
+
+/**
+ * Tests validating a batch of designs in parallel.
+ */
+
+public class BatchModuleValidatorTest extends BaseTestCase
+{
+
+	/**
+	 * Tests that a generated corpus of designs is validated on several
+	 * threads, and that the errors are reported for each file.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testValidate( ) throws Exception
+	{
+		String outputPath = getTempFolder( ) + OUTPUT_FOLDER;
+		File outputFolder = new File( outputPath );
+		if ( !outputFolder.exists( ) && !outputFolder.mkdirs( ) )
+		{
+			throw new IOException( "Can not create the output folder" ); //$NON-NLS-1$
+		}
+
+		List<String> fileNames = new ArrayList<String>( );
+		for ( int i = 0; i < 20; i++ )
+		{
+			createDesign( );
+			for ( int j = 0; j < 50; j++ )
+			{
+				LabelHandle label = designHandle.getElementFactory( )
+						.newLabel( "label" ); //$NON-NLS-1$
+				label.setText( "text" + j ); //$NON-NLS-1$
+				designHandle.getBody( ).add( label );
+			}
+
+			String fileName = outputPath + "BatchValidation_" + i + ".xml"; //$NON-NLS-1$//$NON-NLS-2$
+			designHandle.saveAs( fileName );
+			designHandle.close( );
+			fileNames.add( fileName );
+		}
+
+		String invalidFileName = outputPath + "BatchValidation_invalid.xml"; //$NON-NLS-1$
+		FileWriter writer = new FileWriter( invalidFileName );
+		writer.write( "<report><label>" ); //$NON-NLS-1$
+		writer.close( );
+		fileNames.add( invalidFileName );
+
+		final Map<String, List<ErrorDetail>> results = new ConcurrentHashMap<String, List<ErrorDetail>>( );
+		IBatchValidationListener listener = new IBatchValidationListener( ) {
+
+			public void moduleValidated( String fileName,
+					List<ErrorDetail> errors, List<ErrorDetail> warnings )
+			{
+				results.put( fileName, errors );
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool( 4 );
+		try
+		{
+			new BatchModuleValidator( engine, null ).validate( fileNames,
+					executor, listener );
+		}
+		finally
+		{
+			executor.shutdown( );
+		}
+
+		assertEquals( 21, results.size( ) );
+		for ( int i = 0; i < 20; i++ )
+			assertTrue( results.get( fileNames.get( i ) ).isEmpty( ) );
+		assertFalse( results.get( invalidFileName ).isEmpty( ) );
+	}
+}
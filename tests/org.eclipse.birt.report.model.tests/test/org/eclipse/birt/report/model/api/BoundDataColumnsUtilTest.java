@@ -11,12 +11,20 @@
 
 package org.eclipse.birt.report.model.api;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 import org.eclipse.birt.report.model.api.activity.SemanticException;
 import org.eclipse.birt.report.model.api.elements.structures.ComputedColumn;
 import org.eclipse.birt.report.model.api.metadata.PropertyValueException;
+import org.eclipse.birt.report.model.core.DesignElement;
+import org.eclipse.birt.report.model.core.Module;
+import org.eclipse.birt.report.model.elements.interfaces.IReportItemModel;
 import org.eclipse.birt.report.model.util.BaseTestCase;
+import org.eclipse.birt.report.model.util.ContentIterator;
 
 /**
  * Tests functions about the column binding.
@@ -236,4 +244,70 @@ public class BoundDataColumnsUtilTest extends BaseTestCase
 		save( );
 		assertTrue( compareFile( "BoundDataColumnsUtilTest_golden_2.xml" ) ); //$NON-NLS-1$
 	}
+
+	/**
+	 * Tests removing unused bound columns from the whole design. The result
+	 * should be the same as removing them from each element in turn, and
+	 * should be undone in one step.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testRemoveAllUnusedColumns( ) throws Exception
+	{
+		openDesign( "BoundDataColumnsUtilTest_2.xml" ); //$NON-NLS-1$
+
+		ContentIterator iter = new ContentIterator( design, design );
+		while ( iter.hasNext( ) )
+		{
+			DesignElementHandle content = iter.next( ).getHandle( design );
+			if ( content instanceof ReportItemHandle )
+				( (ReportItemHandle) content ).removedUnusedColumnBindings( );
+			else if ( content instanceof ScalarParameterHandle )
+				( (ScalarParameterHandle) content )
+						.removedUnusedColumnBindings( );
+		}
+		Map<Long, List<String>> expected = getColumnNames( design );
+
+		openDesign( "BoundDataColumnsUtilTest_2.xml" ); //$NON-NLS-1$
+		Map<Long, List<String>> original = getColumnNames( design );
+
+		designHandle.removedUnusedColumnBindings( );
+		assertEquals( expected, getColumnNames( design ) );
+
+		designHandle.getCommandStack( ).undo( );
+		assertEquals( original, getColumnNames( design ) );
+		assertFalse( designHandle.getCommandStack( ).canUndo( ) );
+	}
+
+	/**
+	 * Returns the names of the local bound columns of each element in the
+	 * module.
+	 * 
+	 * @param module
+	 *            the module
+	 * @return the names of bound columns by the element id
+	 */
+
+	private static Map<Long, List<String>> getColumnNames( Module module )
+	{
+		Map<Long, List<String>> names = new HashMap<Long, List<String>>( );
+
+		ContentIterator iter = new ContentIterator( module, module );
+		while ( iter.hasNext( ) )
+		{
+			DesignElement content = iter.next( );
+			List columns = (List) content.getLocalProperty( module,
+					IReportItemModel.BOUND_DATA_COLUMNS_PROP );
+			if ( columns == null )
+				continue;
+
+			List<String> columnNames = new ArrayList<String>( );
+			for ( int i = 0; i < columns.size( ); i++ )
+				columnNames.add( ( (ComputedColumn) columns.get( i ) )
+						.getName( ) );
+			names.put( Long.valueOf( content.getID( ) ), columnNames );
+		}
+		return names;
+	}
 }
@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+import org.eclipse.birt.report.model.api.util.DependencyIndex;
+import org.eclipse.birt.report.model.util.BaseTestCase;
+
+/**
+ * Tests the dependency index of designs and libraries.
+ */
+
+public class DependencyIndexTest extends BaseTestCase
+{
+
+	private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"; //$NON-NLS-1$
+
+	private static final String LIB1 = HEADER
+			+ "<library xmlns=\"http://www.eclipse.org/birt/2005/design\" version=\"3.2.20\">" //$NON-NLS-1$
+			+ "<components><label name=\"label1\"/></components></library>"; //$NON-NLS-1$
+
+	private static final String LIB2 = HEADER
+			+ "<library xmlns=\"http://www.eclipse.org/birt/2005/design\" version=\"3.2.20\">" //$NON-NLS-1$
+			+ "<list-property name=\"libraries\"><structure>" //$NON-NLS-1$
+			+ "<property name=\"fileName\">lib1.rptlibrary</property>" //$NON-NLS-1$
+			+ "<property name=\"namespace\">lib1</property>" //$NON-NLS-1$
+			+ "</structure></list-property></library>"; //$NON-NLS-1$
+
+	private static final String DESIGN1 = HEADER
+			+ "<report xmlns=\"http://www.eclipse.org/birt/2005/design\" version=\"3.2.20\">" //$NON-NLS-1$
+			+ "<simple-property-list name=\"includeResource\"><value>messages</value></simple-property-list>" //$NON-NLS-1$
+			+ "<list-property name=\"libraries\"><structure>" //$NON-NLS-1$
+			+ "<property name=\"fileName\">lib1.rptlibrary</property>" //$NON-NLS-1$
+			+ "<property name=\"namespace\">lib1</property>" //$NON-NLS-1$
+			+ "</structure></list-property>" //$NON-NLS-1$
+			+ "<list-property name=\"cssStyleSheets\"><structure>" //$NON-NLS-1$
+			+ "<property name=\"fileName\">base.css</property>" //$NON-NLS-1$
+			+ "</structure></list-property>" //$NON-NLS-1$
+			+ "<body><label name=\"label1\" extends=\"lib1.label1\"/>" //$NON-NLS-1$
+			+ "<text name=\"text1\"><property name=\"style\">lib1.style1</property></text>" //$NON-NLS-1$
+			+ "</body></report>"; //$NON-NLS-1$
+
+	private static final String DESIGN2 = HEADER
+			+ "<report xmlns=\"http://www.eclipse.org/birt/2005/design\" version=\"3.2.20\">" //$NON-NLS-1$
+			+ "<list-property name=\"libraries\"><structure>" //$NON-NLS-1$
+			+ "<property name=\"fileName\">lib2.rptlibrary</property>" //$NON-NLS-1$
+			+ "<property name=\"namespace\">lib2</property>" //$NON-NLS-1$
+			+ "</structure></list-property>" //$NON-NLS-1$
+			+ "<body><label name=\"label1\"/></body></report>"; //$NON-NLS-1$
+
+	/**
+	 * Tests the impact queries, the incremental update and saving and
+	 * loading the index.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testDependencies( ) throws Exception
+	{
+		String outputPath = getTempFolder( ) + OUTPUT_FOLDER;
+		File outputFolder = new File( outputPath );
+		if ( !outputFolder.exists( ) && !outputFolder.mkdirs( ) )
+		{
+			throw new IOException( "Can not create the output folder" ); //$NON-NLS-1$
+		}
+
+		File lib1 = write( outputFolder, "lib1.rptlibrary", LIB1 ); //$NON-NLS-1$
+		File lib2 = write( outputFolder, "lib2.rptlibrary", LIB2 ); //$NON-NLS-1$
+		File design1 = write( outputFolder, "design1.xml", DESIGN1 ); //$NON-NLS-1$
+		File design2 = write( outputFolder, "design2.xml", DESIGN2 ); //$NON-NLS-1$
+		File css = new File( outputFolder, "base.css" ); //$NON-NLS-1$
+
+		DependencyIndex index = new DependencyIndex( );
+		assertTrue( index.update( lib1 ) );
+		assertTrue( index.update( lib2 ) );
+		assertTrue( index.update( design1 ) );
+		assertTrue( index.update( design2 ) );
+		assertFalse( index.update( design1 ) );
+		assertEquals( 4, index.getFiles( ).size( ) );
+
+		String lib1Path = lib1.getAbsolutePath( );
+		Set<String> dependents = index.getDependents(
+				DependencyIndex.LIBRARY, lib1Path );
+		assertEquals( 2, dependents.size( ) );
+		assertTrue( dependents.contains( location( design1 ) ) );
+		assertTrue( dependents.contains( location( lib2 ) ) );
+
+		assertEquals( 1, index.getElementDependents( lib1Path, "label1" ) //$NON-NLS-1$
+				.size( ) );
+		assertEquals( 1, index.getElementDependents( lib1Path, "style1" ) //$NON-NLS-1$
+				.size( ) );
+		assertEquals( 0, index.getElementDependents( lib1Path, "label2" ) //$NON-NLS-1$
+				.size( ) );
+		assertEquals( 1, index.getDependents( DependencyIndex.STYLE_SHEET,
+				css.getAbsolutePath( ) ).size( ) );
+		assertEquals( 1, index.getDependents( DependencyIndex.RESOURCE,
+				"messages" ).size( ) ); //$NON-NLS-1$
+
+		// design2 depends on lib1 through lib2.
+
+		Set<String> impacted = index.getImpactedFiles( lib1Path );
+		assertEquals( 3, impacted.size( ) );
+		assertTrue( impacted.contains( location( design2 ) ) );
+
+		// saves and loads the index.
+
+		ByteArrayOutputStream os = new ByteArrayOutputStream( );
+		index.save( os );
+		DependencyIndex loaded = DependencyIndex.load( new ByteArrayInputStream(
+				os.toByteArray( ) ) );
+		assertEquals( 4, loaded.getFiles( ).size( ) );
+		assertEquals( impacted, loaded.getImpactedFiles( lib1Path ) );
+		assertFalse( loaded.update( design1 ) );
+
+		// design1 no longer includes lib1.
+
+		write( outputFolder, "design1.xml", DESIGN2 ); //$NON-NLS-1$
+		design1.setLastModified( design1.lastModified( ) + 2000 );
+		assertTrue( loaded.update( design1 ) );
+		assertEquals( 0, loaded.getElementDependents( lib1Path, "label1" ) //$NON-NLS-1$
+				.size( ) );
+		assertEquals( 3, loaded.getImpactedFiles( lib1Path ).size( ) );
+
+		loaded.remove( lib2.getAbsolutePath( ) );
+		assertEquals( 0, loaded.getImpactedFiles( lib1Path ).size( ) );
+
+		// an older content parsed later does not replace a newer entry.
+
+		assertTrue( loaded.update( "design3.xml", 2, new ByteArrayInputStream( //$NON-NLS-1$
+				DESIGN1.getBytes( "UTF-8" ) ) ) ); //$NON-NLS-1$
+		assertFalse( loaded.update( "design3.xml", 1, new ByteArrayInputStream( //$NON-NLS-1$
+				DESIGN2.getBytes( "UTF-8" ) ) ) ); //$NON-NLS-1$
+		assertFalse( loaded.isChanged( "design3.xml", 2 ) ); //$NON-NLS-1$
+		assertEquals( 1, loaded.getDependents( DependencyIndex.RESOURCE,
+				"messages" ).size( ) ); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that included libraries are looked up in the resource folder
+	 * before the folder of the including file, and that long strings are
+	 * saved and loaded.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testResourceFolder( ) throws Exception
+	{
+		String outputPath = getTempFolder( ) + OUTPUT_FOLDER;
+		File designFolder = new File( outputPath, "designs" ); //$NON-NLS-1$
+		File resourceFolder = new File( outputPath, "resources" ); //$NON-NLS-1$
+		if ( !designFolder.exists( ) && !designFolder.mkdirs( ) )
+			throw new IOException( "Can not create the design folder" ); //$NON-NLS-1$
+		if ( !resourceFolder.exists( ) && !resourceFolder.mkdirs( ) )
+			throw new IOException( "Can not create the resource folder" ); //$NON-NLS-1$
+
+		File lib1 = write( resourceFolder, "lib1.rptlibrary", LIB1 ); //$NON-NLS-1$
+		File design1 = write( designFolder, "design1.xml", DESIGN1 ); //$NON-NLS-1$
+
+		// without the resource folder, the library is expected next to the
+		// design.
+
+		DependencyIndex index = new DependencyIndex( );
+		assertTrue( index.update( design1 ) );
+		assertEquals( 0, index.getDependents( DependencyIndex.LIBRARY,
+				lib1.getAbsolutePath( ) ).size( ) );
+
+		index = new DependencyIndex( resourceFolder.getAbsolutePath( ) );
+		assertTrue( index.update( lib1 ) );
+		assertTrue( index.update( design1 ) );
+
+		Set<String> dependents = index.getDependents( DependencyIndex.LIBRARY,
+				lib1.getAbsolutePath( ) );
+		assertEquals( 1, dependents.size( ) );
+		assertTrue( dependents.contains( location( design1 ) ) );
+		assertEquals( 1, index.getElementDependents( lib1.getAbsolutePath( ),
+				"label1" ).size( ) ); //$NON-NLS-1$
+		assertTrue( index.getImpactedFiles( lib1.getAbsolutePath( ) ).contains(
+				location( design1 ) ) );
+
+		// the style sheet is not in the resource folder, so it is still
+		// resolved against the design.
+
+		assertEquals( 1, index.getDependents( DependencyIndex.STYLE_SHEET,
+				new File( designFolder, "base.css" ).getAbsolutePath( ) ) //$NON-NLS-1$
+				.size( ) );
+
+		// a resource name longer than 64K is saved and loaded.
+
+		StringBuffer longName = new StringBuffer( );
+		for ( int i = 0; i < 70000; i++ )
+			longName.append( (char) ( 'a' + i % 26 ) );
+		String design2 = DESIGN1.replaceFirst( "<value>messages</value>", //$NON-NLS-1$
+				"<value>" + longName + "</value>" ); //$NON-NLS-1$ //$NON-NLS-2$
+		index.update( "design2.xml", 1, new ByteArrayInputStream( design2 //$NON-NLS-1$
+				.getBytes( "UTF-8" ) ) ); //$NON-NLS-1$
+
+		ByteArrayOutputStream os = new ByteArrayOutputStream( );
+		index.save( os );
+		DependencyIndex loaded = DependencyIndex.load(
+				new ByteArrayInputStream( os.toByteArray( ) ), resourceFolder
+						.getAbsolutePath( ) );
+		assertEquals( resourceFolder.getAbsolutePath( ), loaded
+				.getResourceFolder( ) );
+		assertEquals( 1, loaded.getDependents( DependencyIndex.RESOURCE,
+				longName.toString( ) ).size( ) );
+		assertEquals( dependents, loaded.getDependents(
+				DependencyIndex.LIBRARY, lib1.getAbsolutePath( ) ) );
+	}
+
+	/**
+	 * Writes the content to the file.
+	 * 
+	 * @param folder
+	 *            the folder
+	 * @param fileName
+	 *            the file name
+	 * @param content
+	 *            the content
+	 * @return the file
+	 * @throws IOException
+	 */
+
+	private static File write( File folder, String fileName, String content )
+			throws IOException
+	{
+		File file = new File( folder, fileName );
+		OutputStream os = new FileOutputStream( file );
+		os.write( content.getBytes( "UTF-8" ) ); //$NON-NLS-1$
+		os.close( );
+		return file;
+	}
+
+	/**
+	 * Returns the location of the file in the index.
+	 * 
+	 * @param file
+	 *            the file
+	 * @return the location
+	 * @throws IOException
+	 */
+
+	private static String location( File file ) throws IOException
+	{
+		return file.getCanonicalFile( ).toURI( ).toURL( ).toExternalForm( );
+	}
+}
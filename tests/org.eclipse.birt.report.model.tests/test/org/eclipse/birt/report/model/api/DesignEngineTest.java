@@ -11,7 +11,16 @@
 
 package org.eclipse.birt.report.model.api;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
 import org.eclipse.birt.core.framework.Platform;
+import org.eclipse.birt.report.model.api.activity.NotificationEvent;
+import org.eclipse.birt.report.model.api.core.Listener;
+import org.eclipse.birt.report.model.api.util.IModelMetricsListener;
+import org.eclipse.birt.report.model.api.util.ModelMetricsRecorder;
+import org.eclipse.birt.report.model.command.LibraryCommand;
 import org.eclipse.birt.report.model.util.BaseTestCase;
 
 import com.ibm.icu.util.ULocale;
@@ -73,4 +82,153 @@ public class DesignEngineTest extends BaseTestCase
 		assertNotNull( DesignEngine.newSession( ULocale.ENGLISH ) );
 		assertNotNull( DesignEngine.getMetaDataDictionary( ) );
 	}
+
+	/**
+	 * Test cases:
+	 * <p>
+	 * The metrics listener set on the design config receives the parse,
+	 * library, command, validation, notification and cache metrics of the
+	 * sessions created by the engine. No metrics are received after the
+	 * listener is removed.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testMetricsListener( ) throws Exception
+	{
+		ModelMetricsRecorder recorder = new ModelMetricsRecorder( );
+		DesignConfig config = new DesignConfig( );
+		config.setMetricsListener( recorder );
+		assertSame( recorder, config.getMetricsListener( ) );
+
+		SessionHandle session = new DesignEngine( config )
+				.newSessionHandle( ULocale.ENGLISH );
+		assertSame( recorder, session.getMetricsListener( ) );
+
+		// commands and notifications
+
+		ReportDesignHandle design = session.createDesign( );
+		LabelHandle label = design.getElementFactory( ).newLabel( "label" ); //$NON-NLS-1$
+		design.getBody( ).add( label );
+
+		Listener listener = new Listener( ) {
+
+			public void elementChanged( DesignElementHandle focus,
+					NotificationEvent ev )
+			{
+			}
+		};
+		label.addListener( listener );
+		label.setText( "text" ); //$NON-NLS-1$
+		design.getCommandStack( ).undo( );
+		design.getCommandStack( ).redo( );
+
+		assertNotNull( recorder.getHistogram( ModelMetricsRecorder.COMMAND
+				+ "execute.ContentRecord" ) ); //$NON-NLS-1$
+		assertNotNull( recorder.getHistogram( ModelMetricsRecorder.COMMAND
+				+ "execute.PropertyRecord" ) ); //$NON-NLS-1$
+		assertTrue( hasHistogram( recorder, ModelMetricsRecorder.COMMAND
+				+ "undo." ) ); //$NON-NLS-1$
+		assertTrue( hasHistogram( recorder, ModelMetricsRecorder.COMMAND
+				+ "redo." ) ); //$NON-NLS-1$
+
+		ModelMetricsRecorder.Histogram fanOut = recorder
+				.getHistogram( ModelMetricsRecorder.NOTIFICATION
+						+ NotificationEvent.PROPERTY_EVENT );
+		assertTrue( fanOut.getCount( ) >= 3 );
+		assertEquals( 1, fanOut.getMax( ) );
+
+		// validation
+
+		design.checkReport( );
+		assertTrue( hasHistogram( recorder, ModelMetricsRecorder.VALIDATION ) );
+
+		// caches
+
+		design.getAllStyles( );
+		design.getAllStyles( );
+		assertTrue( recorder
+				.getHitCount( IModelMetricsListener.COLLECTION_CACHE ) > 0 );
+		assertTrue( recorder
+				.getMissCount( IModelMetricsListener.COLLECTION_CACHE ) > 0 );
+		double hitRate = recorder
+				.getHitRate( IModelMetricsListener.COLLECTION_CACHE );
+		assertTrue( hitRate > 0 && hitRate < 1 );
+
+		// parse, include and reload the library
+
+		File file = File.createTempFile( "DesignEngineTest", ".rptlibrary" ); //$NON-NLS-1$ //$NON-NLS-2$
+		try
+		{
+			LibraryHandle library = session.createLibrary( );
+			library.saveAs( file.getAbsolutePath( ) );
+			library.close( );
+
+			design.includeLibrary( file.getAbsolutePath( ), "lib" ); //$NON-NLS-1$
+			assertEquals( 1, recorder.getHistogram(
+					ModelMetricsRecorder.LIBRARY + "include" ).getCount( ) ); //$NON-NLS-1$
+			assertNotNull( recorder
+					.getHistogram( ModelMetricsRecorder.PARSE + "library" ) ); //$NON-NLS-1$
+
+			design.reloadLibrary( design.getLibrary( "lib" ) ); //$NON-NLS-1$
+			assertEquals( 1, recorder.getHistogram(
+					ModelMetricsRecorder.LIBRARY + "reload" ).getCount( ) ); //$NON-NLS-1$
+			design.dropLibrary( design.getLibrary( "lib" ) ); //$NON-NLS-1$
+
+			// the library reloaded by the file name is not counted as included
+
+			recorder.reset( );
+			new LibraryCommand( design.getModule( ) ).reloadLibrary( file
+					.getAbsolutePath( ), "lib" ); //$NON-NLS-1$
+			assertNull( recorder.getHistogram( ModelMetricsRecorder.LIBRARY
+					+ "include" ) ); //$NON-NLS-1$
+			assertEquals( 1, recorder.getHistogram(
+					ModelMetricsRecorder.LIBRARY + "reload" ).getCount( ) ); //$NON-NLS-1$
+			design.dropLibrary( design.getLibrary( "lib" ) ); //$NON-NLS-1$
+		}
+		finally
+		{
+			file.delete( );
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream( );
+		design.serialize( out );
+		ReportDesignHandle opened = session.openDesign( "design.xml", //$NON-NLS-1$
+				new ByteArrayInputStream( out.toByteArray( ) ) );
+		assertNotNull( opened );
+		assertEquals( 1, recorder.getHistogram(
+				ModelMetricsRecorder.PARSE + "design" ).getCount( ) ); //$NON-NLS-1$
+
+		// no metrics without the listener
+
+		session.setMetricsListener( null );
+		recorder.reset( );
+		label.setText( "new text" ); //$NON-NLS-1$
+		opened.getAllStyles( );
+		assertTrue( recorder.getHistogramNames( ).isEmpty( ) );
+		assertEquals( 0, recorder
+				.getHitCount( IModelMetricsListener.COLLECTION_CACHE )
+				+ recorder.getMissCount( IModelMetricsListener.COLLECTION_CACHE ) );
+	}
+
+	/**
+	 * Checks whether the recorder has a histogram with the given prefix.
+	 * 
+	 * @param recorder
+	 *            the metrics recorder
+	 * @param prefix
+	 *            the prefix of the histogram name
+	 * @return <code>true</code> if the histogram is found
+	 */
+
+	private static boolean hasHistogram( ModelMetricsRecorder recorder,
+			String prefix )
+	{
+		for ( String name : recorder.getHistogramNames( ) )
+		{
+			if ( name.startsWith( prefix ) )
+				return true;
+		}
+		return false;
+	}
 }
@@ -12,6 +12,7 @@
 package org.eclipse.birt.report.model.api;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.birt.report.model.api.activity.SemanticException;
@@ -152,6 +153,92 @@ public class ElementExporterTest extends BaseTestCase
 		}
 	}
 
+	/**
+	 * Tests exporting elements in batch with different conflict policies.
+	 * 
+	 * @throws Exception
+	 *             if any exception.
+	 */
+
+	public void testExportingElementsInBatch( ) throws Exception
+	{
+		openDesign( "ElementExporterTest.xml" ); //$NON-NLS-1$
+		openLibrary( "ElementExporterTestLibrary.xml" ); //$NON-NLS-1$
+
+		ElementFactory factory = designHandle.getElementFactory( );
+		List<DesignElementHandle> elements = new ArrayList<DesignElementHandle>( );
+		for ( int i = 0; i < 2000; i++ )
+		{
+			LabelHandle label = factory.newLabel( "batchLabel" + i ); //$NON-NLS-1$
+			designHandle.getBody( ).add( label );
+			elements.add( label );
+		}
+
+		// The label named "libLabel" and the style named "style1" already
+		// exist.
+
+		LabelHandle duplicateLabel = factory.newLabel( "libLabel" ); //$NON-NLS-1$
+		designHandle.getBody( ).add( duplicateLabel );
+		elements.add( duplicateLabel );
+
+		elements.add( designHandle.findStyle( "style1" ) ); //$NON-NLS-1$
+
+		int count = libraryHandle.getComponents( ).getCount( );
+
+		List<DesignElementHandle> exported = ElementExportUtil.exportElements(
+				elements, libraryHandle, ElementExportUtil.CONFLICT_SKIP );
+		assertEquals( 2000, exported.size( ) );
+		assertEquals( count + 2000, libraryHandle.getComponents( ).getCount( ) );
+		assertEquals( "batchLabel1999", exported.get( 1999 ).getName( ) ); //$NON-NLS-1$
+
+		// All the elements are exported in one transaction.
+
+		libraryHandle.getCommandStack( ).undo( );
+		assertEquals( count, libraryHandle.getComponents( ).getCount( ) );
+
+		exported = ElementExportUtil.exportElements( elements.subList( 1999,
+				2002 ), libraryHandle, ElementExportUtil.CONFLICT_RENAME );
+		assertEquals( 3, exported.size( ) );
+		assertEquals( "batchLabel1999", exported.get( 0 ).getName( ) ); //$NON-NLS-1$
+		assertEquals( "libLabel1", exported.get( 1 ).getName( ) ); //$NON-NLS-1$
+		assertEquals( "style11", exported.get( 2 ).getName( ) ); //$NON-NLS-1$
+		assertNotNull( libraryHandle.findElement( "libLabel" ) ); //$NON-NLS-1$
+
+		try
+		{
+			ElementExportUtil.exportElements( elements.subList( 1998, 2001 ),
+					libraryHandle, ElementExportUtil.CONFLICT_FAIL );
+			fail( );
+		}
+		catch ( NameException e )
+		{
+		}
+
+		// The failed export is rolled back.
+
+		assertNull( libraryHandle.findElement( "batchLabel1998" ) ); //$NON-NLS-1$
+
+		// The references to a renamed element follow its new name.
+
+		ElementExportUtil.exportElement( designHandle
+				.findDataSource( "dataSource1" ), libraryHandle, false ); //$NON-NLS-1$
+
+		List<DesignElementHandle> dataElements = new ArrayList<DesignElementHandle>( );
+		dataElements.add( designHandle.findDataSet( "dataSet1" ) ); //$NON-NLS-1$
+		dataElements.add( designHandle.findDataSource( "dataSource1" ) ); //$NON-NLS-1$
+
+		exported = ElementExportUtil.exportElements( dataElements,
+				libraryHandle, ElementExportUtil.CONFLICT_RENAME );
+		assertEquals( 2, exported.size( ) );
+		DataSetHandle dataSet = (DataSetHandle) exported.get( 0 );
+		DataSourceHandle dataSource = (DataSourceHandle) exported.get( 1 );
+		assertEquals( "dataSet1", dataSet.getName( ) ); //$NON-NLS-1$
+		assertFalse( "dataSource1".equals( dataSource.getName( ) ) ); //$NON-NLS-1$
+		assertEquals( dataSource.getName( ), dataSet.getDataSourceName( ) );
+		assertEquals( dataSource.getElement( ), dataSet.getDataSource( )
+				.getElement( ) );
+	}
+
 	/**
 	 * Tests exporting style to library file.
 	 * 
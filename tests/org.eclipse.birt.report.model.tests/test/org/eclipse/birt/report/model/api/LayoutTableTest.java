@@ -12,7 +12,11 @@
 package org.eclipse.birt.report.model.api;
 
 import java.io.ByteArrayOutputStream;
+import java.util.Random;
 
+import org.eclipse.birt.report.model.api.activity.SemanticException;
+import org.eclipse.birt.report.model.api.elements.table.BasicLayoutStrategies;
+import org.eclipse.birt.report.model.api.elements.table.LayoutHelper;
 import org.eclipse.birt.report.model.api.elements.table.LayoutTable;
 import org.eclipse.birt.report.model.api.elements.table.LayoutUtil;
 import org.eclipse.birt.report.model.elements.TableItem;
@@ -274,4 +278,218 @@ public class LayoutTableTest extends BaseTestCase
 		assertFalse( LayoutUtil.isValidLayout( (TableItem) table.getElement( ),
 				design ) );
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests that the layout updated after changes on rows and cells is the
+	 * same as the layout applied from scratch. Rows and cells are inserted and
+	 * dropped randomly, spans and columns of cells are changed randomly, and
+	 * changes are undone randomly.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testIncrementalLayout( ) throws Exception
+	{
+		createDesign( );
+		ElementFactory factory = designHandle.getElementFactory( );
+
+		TableHandle table = factory.newTableItem( "table", 4, 2, 3, 1 ); //$NON-NLS-1$
+		designHandle.getBody( ).add( table );
+
+		TableGroupHandle group = factory.newTableGroup( );
+		table.getGroups( ).add( group );
+		group.getHeader( ).add( factory.newTableRow( 4 ) );
+		group.getFooter( ).add( factory.newTableRow( 2 ) );
+
+		TableItem tableItem = (TableItem) table.getElement( );
+		SlotHandle[] slots = new SlotHandle[]{table.getHeader( ),
+				group.getHeader( ), table.getDetail( ), group.getFooter( ),
+				table.getFooter( )};
+
+		Random random = new Random( 2008 );
+		for ( int i = 0; i < 500; i++ )
+		{
+			SlotHandle slot = slots[random.nextInt( slots.length )];
+			int rowCount = slot.getCount( );
+
+			switch ( random.nextInt( 6 ) )
+			{
+				case 0 :
+					slot.add( factory.newTableRow( 1 + random.nextInt( 4 ) ),
+							random.nextInt( rowCount + 1 ) );
+					break;
+				case 1 :
+					if ( rowCount > 0 )
+						slot.dropAndClear( random.nextInt( rowCount ) );
+					break;
+				case 2 :
+					if ( rowCount > 0 )
+					{
+						SlotHandle cells = ( (RowHandle) slot.get( random
+								.nextInt( rowCount ) ) ).getCells( );
+						cells.add( factory.newCell( ), random.nextInt( cells
+								.getCount( ) + 1 ) );
+					}
+					break;
+				case 3 :
+					if ( rowCount > 0 )
+					{
+						SlotHandle cells = ( (RowHandle) slot.get( random
+								.nextInt( rowCount ) ) ).getCells( );
+						if ( cells.getCount( ) > 0 )
+							cells.dropAndClear( random.nextInt( cells
+									.getCount( ) ) );
+					}
+					break;
+				case 4 :
+					if ( rowCount > 0 )
+					{
+						SlotHandle cells = ( (RowHandle) slot.get( random
+								.nextInt( rowCount ) ) ).getCells( );
+						if ( cells.getCount( ) == 0 )
+							break;
+
+						CellHandle cell = (CellHandle) cells.get( random
+								.nextInt( cells.getCount( ) ) );
+						int value = random.nextInt( 3 );
+						switch ( random.nextInt( 3 ) )
+						{
+							case 0 :
+								cell.setColumnSpan( value + 1 );
+								break;
+							case 1 :
+								cell.setRowSpan( value + 1 );
+								break;
+							default :
+								cell.setColumn( value == 0 ? 0 : value
+										+ random.nextInt( 4 ) );
+						}
+					}
+					break;
+				default :
+					if ( designHandle.getCommandStack( ).canUndo( ) )
+						designHandle.getCommandStack( ).undo( );
+			}
+
+			LayoutTable expected = LayoutHelper.applyLayout( design,
+					tableItem );
+			BasicLayoutStrategies.appliesStrategies( expected, false );
+
+			LayoutTable layout = tableItem.getLayoutModel( design );
+			assertEquals( expected.getLayoutString( ), layout
+					.getLayoutString( ) );
+			assertEquals( expected.getColumnCount( ), layout.getColumnCount( ) );
+		}
+	}
+
+	/**
+	 * Tests that the layout of a table updated by the column and row band
+	 * operations, which run in a transaction, is the same as the one built
+	 * from scratch.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testBandOperationLayout( ) throws Exception
+	{
+		createDesign( );
+		ElementFactory factory = designHandle.getElementFactory( );
+
+		TableHandle table = factory.newTableItem( "table", 4, 2, 3, 1 ); //$NON-NLS-1$
+		designHandle.getBody( ).add( table );
+
+		TableItem tableItem = (TableItem) table.getElement( );
+		int[] slotIds = new int[]{IListingElementModel.HEADER_SLOT,
+				IListingElementModel.DETAIL_SLOT,
+				IListingElementModel.FOOTER_SLOT};
+
+		Random random = new Random( 2009 );
+		for ( int i = 0; i < 300; i++ )
+		{
+			int columnCount = table.getColumnCount( );
+			int slotId = slotIds[random.nextInt( slotIds.length )];
+			int rowCount = table.getSlot( slotId ).getCount( );
+			RowOperationParameters parameters = new RowOperationParameters(
+					slotId, -1, random.nextInt( Math.max( rowCount, 1 ) ) );
+			parameters.setSourceIndex( random
+					.nextInt( Math.max( rowCount, 1 ) ) );
+
+			try
+			{
+				switch ( random.nextInt( 9 ) )
+				{
+					case 0 :
+						table.insertColumn( 1 + random.nextInt( columnCount ),
+								random.nextBoolean( ) ? 1 : -1 );
+						break;
+					case 1 :
+						ColumnBandData data = table.copyColumn( 1 + random
+								.nextInt( columnCount ) );
+						table.insertAndPasteColumn( data, random
+								.nextInt( columnCount + 1 ) );
+						break;
+					case 2 :
+						data = table.copyColumn( 1 + random
+								.nextInt( columnCount ) );
+						table.pasteColumn( data, 1 + random
+								.nextInt( columnCount ), true );
+						break;
+					case 3 :
+						table.shiftColumn( 1 + random.nextInt( columnCount ),
+								random.nextInt( columnCount + 1 ) );
+						break;
+					case 4 :
+						table.insertRow( parameters );
+						break;
+					case 5 :
+						if ( rowCount > 0 )
+							table.insertAndPasteRow( table
+									.copyRow( parameters ), parameters );
+						break;
+					case 6 :
+						if ( rowCount > 1 )
+							table.shiftRow( parameters );
+						break;
+					case 7 :
+						if ( rowCount == 0 )
+							break;
+
+						designHandle.getCommandStack( ).startTrans( null );
+						for ( int j = 0; j < 2; j++ )
+						{
+							SlotHandle cells = ( (RowHandle) table.getSlot(
+									slotId ).get( random.nextInt( rowCount ) ) )
+									.getCells( );
+							if ( cells.getCount( ) == 0 )
+								continue;
+
+							CellHandle cell = (CellHandle) cells.get( random
+									.nextInt( cells.getCount( ) ) );
+							if ( random.nextBoolean( ) )
+								cell.setColumnSpan( 1 + random.nextInt( 3 ) );
+							else
+								cell.setRowSpan( 1 + random.nextInt( 2 ) );
+						}
+						designHandle.getCommandStack( ).commit( );
+						break;
+					default :
+						if ( designHandle.getCommandStack( ).canUndo( ) )
+							designHandle.getCommandStack( ).undo( );
+				}
+			}
+			catch ( SemanticException e )
+			{
+				// the operation is forbidden on the current layout.
+			}
+
+			LayoutTable expected = LayoutHelper.applyLayout( design,
+					tableItem );
+			BasicLayoutStrategies.appliesStrategies( expected, false );
+
+			LayoutTable layout = tableItem.getLayoutModel( design );
+			assertEquals( expected.getLayoutString( ), layout
+					.getLayoutString( ) );
+			assertEquals( expected.getColumnCount( ), layout.getColumnCount( ) );
+		}
+	}
+}
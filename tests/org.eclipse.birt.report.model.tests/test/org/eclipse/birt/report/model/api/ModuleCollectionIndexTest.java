@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.api;
+
+import java.util.List;
+
+import org.eclipse.birt.report.model.core.ModuleCollectionIndex;
+import org.eclipse.birt.report.model.util.BaseTestCase;
+
+/**
+ * Tests the cached collections returned by the module handle.
+ */
+
+public class ModuleCollectionIndexTest extends BaseTestCase
+{
+
+	/**
+	 * The collections are kept until the content changes. The handle returns
+	 * copies that the caller can change.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testDataSets( ) throws Exception
+	{
+		createDesign( );
+
+		ElementFactory factory = designHandle.getElementFactory( );
+		designHandle.getDataSets( ).add( factory.newScriptDataSet( "ds1" ) ); //$NON-NLS-1$
+
+		ModuleCollectionIndex index = designHandle.getModule( )
+				.getCollectionIndex( );
+		List dataSets = designHandle.getAllDataSets( );
+		assertEquals( 1, dataSets.size( ) );
+		List snapshot = index.get( ModuleCollectionIndex.ALL_DATA_SETS );
+		assertEquals( dataSets, snapshot );
+		assertNotSame( dataSets, designHandle.getAllDataSets( ) );
+		assertSame( snapshot, index
+				.get( ModuleCollectionIndex.ALL_DATA_SETS ) );
+
+		designHandle.getVisibleDataSets( );
+		assertNotNull( index.get( ModuleCollectionIndex.VISIBLE_DATA_SETS ) );
+
+		// changing the returned list does not change the snapshot.
+
+		dataSets.clear( );
+		assertEquals( 1, designHandle.getAllDataSets( ).size( ) );
+
+		// adds a data set, the collections are rebuilt.
+
+		designHandle.getDataSets( ).add( factory.newScriptDataSet( "ds2" ) ); //$NON-NLS-1$
+		assertNull( index.get( ModuleCollectionIndex.ALL_DATA_SETS ) );
+		assertEquals( 2, designHandle.getAllDataSets( ).size( ) );
+		assertEquals( 2, designHandle.getVisibleDataSets( ).size( ) );
+
+		// undo/redo also rebuilds them.
+
+		designHandle.getCommandStack( ).undo( );
+		assertEquals( 1, designHandle.getAllDataSets( ).size( ) );
+
+		designHandle.getCommandStack( ).redo( );
+		assertEquals( 2, designHandle.getAllDataSets( ).size( ) );
+
+		// property changes on elements keep the collections.
+
+		dataSets = designHandle.getAllDataSets( );
+		snapshot = index.get( ModuleCollectionIndex.ALL_DATA_SETS );
+		( (DataSetHandle) dataSets.get( 0 ) ).setDisplayName( "display" ); //$NON-NLS-1$
+		assertSame( snapshot, index
+				.get( ModuleCollectionIndex.ALL_DATA_SETS ) );
+
+		// name changes drop them.
+
+		( (DataSetHandle) dataSets.get( 0 ) ).setName( "newDs1" ); //$NON-NLS-1$
+		assertNull( index.get( ModuleCollectionIndex.ALL_DATA_SETS ) );
+	}
+
+	/**
+	 * Styles are rebuilt when a style is added or dropped, and on a rollback.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testStyles( ) throws Exception
+	{
+		createDesign( );
+
+		List styles = designHandle.getAllStyles( );
+		assertEquals( 0, styles.size( ) );
+		assertNotNull( designHandle.getModule( ).getCollectionIndex( ).get(
+				ModuleCollectionIndex.ALL_STYLES ) );
+
+		CommandStack stack = designHandle.getCommandStack( );
+		stack.startTrans( null );
+		designHandle.getStyles( ).add(
+				designHandle.getElementFactory( ).newStyle( "style1" ) ); //$NON-NLS-1$
+		assertEquals( 1, designHandle.getAllStyles( ).size( ) );
+		stack.rollback( );
+
+		assertEquals( 0, designHandle.getAllStyles( ).size( ) );
+	}
+}
@@ -11,6 +11,7 @@
 
 package org.eclipse.birt.report.model.api;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -475,4 +476,94 @@ public class ModuleUtilTest extends BaseTestCase
 		assertEquals( 2, ModuleUtil.getElementsByType( designHandle, ReportDesignConstants.TABLE_ITEM ).size( ) );
 		assertEquals( 3, ModuleUtil.getElementsByType( designHandle, ReportDesignConstants.LISTING_ITEM ).size( ) );
 	}
+
+	/**
+	 * Tests reading the header of designs and libraries. The parse stops
+	 * before the body, so the broken body is not reached.
+	 * 
+	 * @throws Exception
+	 */
+	public void testProbeModule( ) throws Exception
+	{
+		String design = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" //$NON-NLS-1$
+				+ "<report xmlns=\"http://www.eclipse.org/birt/2005/design\" version=\"3.2.20\">" //$NON-NLS-1$
+				+ "<property name=\"author\">me</property>" //$NON-NLS-1$
+				+ "<simple-property-list name=\"includeResource\"><value>messages</value><value>labels</value></simple-property-list>" //$NON-NLS-1$
+				+ "<list-property name=\"libraries\"><structure>" //$NON-NLS-1$
+				+ "<property name=\"fileName\">lib1.rptlibrary</property>" //$NON-NLS-1$
+				+ "<property name=\"namespace\">lib1</property>" //$NON-NLS-1$
+				+ "</structure></list-property>" //$NON-NLS-1$
+				+ "<list-property name=\"cssStyleSheets\"><structure>" //$NON-NLS-1$
+				+ "<property name=\"fileName\">base.css</property>" //$NON-NLS-1$
+				+ "</structure></list-property>" //$NON-NLS-1$
+				+ "<body><label></body>"; //$NON-NLS-1$
+
+		ModuleHeader header = ModuleUtil.probeModule( "design.xml", //$NON-NLS-1$
+				new ByteArrayInputStream( design.getBytes( "UTF-8" ) ) ); //$NON-NLS-1$
+		assertFalse( header.isLibrary( ) );
+		assertEquals( "3.2.20", header.getVersion( ) ); //$NON-NLS-1$
+		assertEquals( 2, header.getIncludedResources( ).size( ) );
+		assertEquals( "labels", header.getIncludedResources( ).get( 1 ) ); //$NON-NLS-1$
+		assertEquals( 1, header.getLibraryFileNames( ).size( ) );
+		assertEquals( "lib1.rptlibrary", header.getLibraryFileNames( ).get( 0 ) ); //$NON-NLS-1$
+		assertEquals( "lib1", header.getLibraryNamespaces( ).get( 0 ) ); //$NON-NLS-1$
+		assertEquals( 1, header.getCssFileNames( ).size( ) );
+		assertEquals( "base.css", header.getCssFileNames( ).get( 0 ) ); //$NON-NLS-1$
+
+		String library = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" //$NON-NLS-1$
+				+ "<library xmlns=\"http://www.eclipse.org/birt/2005/design\" version=\"3.2.20\">" //$NON-NLS-1$
+				+ "<property name=\"includeResource\">messages</property>" //$NON-NLS-1$
+				+ "<data-sources/>" //$NON-NLS-1$
+				+ "<themes><theme name=\"theme1\">" //$NON-NLS-1$
+				+ "<list-property name=\"cssStyleSheets\"><structure>" //$NON-NLS-1$
+				+ "<property name=\"fileName\">theme.css</property>" //$NON-NLS-1$
+				+ "</structure></list-property>" //$NON-NLS-1$
+				+ "<styles><style name=\"style1\"/></styles>" //$NON-NLS-1$
+				+ "</theme></themes>" //$NON-NLS-1$
+				+ "<components><label></components>"; //$NON-NLS-1$
+
+		header = ModuleUtil.probeModule( "library.xml", //$NON-NLS-1$
+				new ByteArrayInputStream( library.getBytes( "UTF-8" ) ) ); //$NON-NLS-1$
+		assertTrue( header.isLibrary( ) );
+		assertEquals( "messages", header.getIncludedResources( ).get( 0 ) ); //$NON-NLS-1$
+		assertTrue( header.getLibraryFileNames( ).isEmpty( ) );
+		assertEquals( 1, header.getCssFileNames( ).size( ) );
+		assertEquals( "theme.css", header.getCssFileNames( ).get( 0 ) ); //$NON-NLS-1$
+
+		// the themes of a design follow its styles and may include style
+		// sheets too.
+
+		design = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" //$NON-NLS-1$
+				+ "<report xmlns=\"http://www.eclipse.org/birt/2005/design\" version=\"3.2.20\">" //$NON-NLS-1$
+				+ "<list-property name=\"cssStyleSheets\"><structure>" //$NON-NLS-1$
+				+ "<property name=\"fileName\">base.css</property>" //$NON-NLS-1$
+				+ "</structure></list-property>" //$NON-NLS-1$
+				+ "<data-sets/>" //$NON-NLS-1$
+				+ "<styles><style name=\"style1\"/></styles>" //$NON-NLS-1$
+				+ "<themes><theme name=\"theme1\">" //$NON-NLS-1$
+				+ "<list-property name=\"cssStyleSheets\"><structure>" //$NON-NLS-1$
+				+ "<property name=\"fileName\">theme.css</property>" //$NON-NLS-1$
+				+ "</structure></list-property>" //$NON-NLS-1$
+				+ "</theme></themes>" //$NON-NLS-1$
+				+ "<page-setup><simple-master-page></page-setup>"; //$NON-NLS-1$
+
+		header = ModuleUtil.probeModule( "design.xml", //$NON-NLS-1$
+				new ByteArrayInputStream( design.getBytes( "UTF-8" ) ) ); //$NON-NLS-1$
+		assertFalse( header.isLibrary( ) );
+		assertEquals( 2, header.getCssFileNames( ).size( ) );
+		assertEquals( "base.css", header.getCssFileNames( ).get( 0 ) ); //$NON-NLS-1$
+		assertEquals( "theme.css", header.getCssFileNames( ).get( 1 ) ); //$NON-NLS-1$
+
+		// the header itself is broken.
+
+		try
+		{
+			ModuleUtil.probeModule( "broken.xml", new ByteArrayInputStream( //$NON-NLS-1$
+					"<report><property></report>".getBytes( "UTF-8" ) ) ); //$NON-NLS-1$ //$NON-NLS-2$
+			fail( );
+		}
+		catch ( DesignFileException e )
+		{
+		}
+	}
 }
@@ -783,6 +783,17 @@ public class ReportItemHandleTest extends BaseTestCase
 
 		assertTrue( tableOneBindings.size( ) == 2 );
 
+		// removing from the iterator does not change the available bindings
+
+		Iterator removed = tableone.getAvailableBindings( );
+		removed.next( );
+		removed.remove( );
+		int count = 0;
+		for ( Iterator itr = tableone.getAvailableBindings( ); itr.hasNext( ); itr
+				.next( ) )
+			count++;
+		assertEquals( 2, count );
+
 		// test if the returned bindings are the expected ones.
 		for ( int i = 0; i < tableOneBindings.size( ); i++ )
 		{
@@ -881,4 +892,101 @@ public class ReportItemHandleTest extends BaseTestCase
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Tests that the indexed bindings and the available bindings of nested
+	 * report items follow the changes on the bindings, the data set and the
+	 * containment, and the undo of these changes.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testBindingIndex( ) throws Exception
+	{
+		createDesign( );
+		ElementFactory factory = designHandle.getElementFactory( );
+
+		DataSetHandle dataSet = factory.newScriptDataSet( "dataSet1" ); //$NON-NLS-1$
+		designHandle.getDataSets( ).add( dataSet );
+
+		// five levels of nested tables, each has one binding
+
+		TableHandle[] tables = new TableHandle[5];
+		SlotHandle slot = designHandle.getBody( );
+		for ( int i = 0; i < tables.length; i++ )
+		{
+			tables[i] = factory.newTableItem( "table" + i, 1 ); //$NON-NLS-1$
+			slot.add( tables[i] );
+
+			ComputedColumn column = StructureFactory.createComputedColumn( );
+			column.setName( "col" + i ); //$NON-NLS-1$
+			column.setExpression( "row[\"col" + i + "\"]" ); //$NON-NLS-1$ //$NON-NLS-2$
+			tables[i].addColumnBinding( column, false );
+
+			RowHandle row = (RowHandle) tables[i].getDetail( ).get( 0 );
+			CellHandle cell = (CellHandle) row.getCells( ).get( 0 );
+			slot = cell.getContent( );
+		}
+
+		TableHandle inner = tables[4];
+		assertEquals( 5, getBindingCount( inner ) );
+		assertEquals( 5, getBindingCount( inner ) );
+		assertNotNull( inner.findColumnBinding( "col4" ) ); //$NON-NLS-1$
+		assertNull( inner.findColumnBinding( "col0" ) ); //$NON-NLS-1$
+
+		// the binding with the same expression is returned if not in force
+
+		ComputedColumn column = StructureFactory.createComputedColumn( );
+		column.setName( "other" ); //$NON-NLS-1$
+		column.setExpression( "row[\"col4\"]" ); //$NON-NLS-1$
+		ComputedColumnHandle found = inner.addColumnBinding( column, false );
+		assertEquals( "col4", found.getName( ) ); //$NON-NLS-1$
+		assertEquals( 1, inner.getColumnBindings( ).getListValue( ).size( ) );
+
+		// adds a binding on the outer table
+
+		column = StructureFactory.createComputedColumn( );
+		column.setName( "outer" ); //$NON-NLS-1$
+		column.setExpression( "row[\"outer\"]" ); //$NON-NLS-1$
+		tables[0].addColumnBinding( column, false );
+		assertEquals( 6, getBindingCount( inner ) );
+
+		// renames a binding by the member handle
+
+		tables[0].findColumnBinding( "outer" ).setName( "renamed" ); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull( tables[0].findColumnBinding( "outer" ) ); //$NON-NLS-1$
+		assertNotNull( tables[0].findColumnBinding( "renamed" ) ); //$NON-NLS-1$
+
+		// the data set stops the bindings from the containers
+
+		tables[2].setDataSet( dataSet );
+		assertEquals( 3, getBindingCount( inner ) );
+
+		designHandle.getCommandStack( ).undo( );
+		assertEquals( 6, getBindingCount( inner ) );
+
+		// moves the inner table to the body
+
+		inner.moveTo( designHandle, ReportDesign.BODY_SLOT );
+		assertEquals( 1, getBindingCount( inner ) );
+
+		designHandle.getCommandStack( ).undo( );
+		assertEquals( 6, getBindingCount( inner ) );
+	}
+
+	/**
+	 * Returns the number of the bindings available for the given item.
+	 * 
+	 * @param item
+	 *            the report item
+	 * @return the number of the available bindings
+	 */
+
+	private static int getBindingCount( ReportItemHandle item )
+	{
+		int count = 0;
+		for ( Iterator iter = item.getAvailableBindings( ); iter.hasNext( ); iter
+				.next( ) )
+			count++;
+		return count;
+	}
+}
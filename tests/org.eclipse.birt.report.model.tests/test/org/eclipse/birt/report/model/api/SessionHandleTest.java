@@ -26,8 +26,10 @@ import org.eclipse.birt.report.model.api.command.ResourceChangeEvent;
 import org.eclipse.birt.report.model.api.core.IResourceChangeListener;
 import org.eclipse.birt.report.model.api.elements.DesignChoiceConstants;
 import org.eclipse.birt.report.model.api.elements.SemanticError;
+import org.eclipse.birt.report.model.api.elements.structures.EmbeddedImage;
 import org.eclipse.birt.report.model.api.metadata.IMetaDataDictionary;
 import org.eclipse.birt.report.model.api.util.ColorUtil;
+import org.eclipse.birt.report.model.api.util.RetainedSizeEstimate;
 import org.eclipse.birt.report.model.core.Module;
 import org.eclipse.birt.report.model.elements.Library;
 import org.eclipse.birt.report.model.elements.ReportDesign;
@@ -1022,4 +1024,81 @@ public class SessionHandleTest extends BaseTestCase
 		assertEquals( 0, designHandle.getModule( ).getErrorList( ).size( ) );
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests the estimate of the retained heap size of modules and sessions.
+	 * 
+	 * <ul>
+	 * <li>the estimate grows with the elements, images and command records
+	 * <li>the total size is the sum of the categories
+	 * <li>flushing the command stack drops the size of the records
+	 * <li>the session estimate covers all the open modules
+	 * </ul>
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testEstimateRetainedSize( ) throws Exception
+	{
+		designHandle = session.createDesign( );
+		RetainedSizeEstimate empty = designHandle.estimateRetainedSize( );
+		assertEquals( 1, empty.getModuleCount( ) );
+		assertTrue( empty.getElementCount( ) >= 1 );
+		assertTrue( empty.getSize( RetainedSizeEstimate.ELEMENTS ) > 0 );
+		assertEquals( 0, empty.getSize( RetainedSizeEstimate.EMBEDDED_IMAGES ) );
+		assertEquals( 0, empty.getSize( "unknown" ) ); //$NON-NLS-1$
+
+		ElementFactory factory = designHandle.getElementFactory( );
+		for ( int i = 0; i < 100; i++ )
+		{
+			LabelHandle label = factory.newLabel( "label" + i ); //$NON-NLS-1$
+			designHandle.getBody( ).add( label );
+			label.setText( "text of the label " + i ); //$NON-NLS-1$
+		}
+
+		EmbeddedImage image = StructureFactory.createEmbeddedImage( );
+		image.setName( "image" ); //$NON-NLS-1$
+		image.setData( new byte[10000] );
+		designHandle.addImage( image );
+
+		RetainedSizeEstimate filled = designHandle.estimateRetainedSize( );
+		assertEquals( empty.getElementCount( ) + 100, filled
+				.getElementCount( ) );
+		assertTrue( filled.getSize( RetainedSizeEstimate.ELEMENTS ) > empty
+				.getSize( RetainedSizeEstimate.ELEMENTS ) );
+		assertTrue( filled.getSize( RetainedSizeEstimate.PROPERTIES ) > empty
+				.getSize( RetainedSizeEstimate.PROPERTIES ) );
+		assertTrue( filled.getSize( RetainedSizeEstimate.STRUCTURES ) > empty
+				.getSize( RetainedSizeEstimate.STRUCTURES ) );
+		assertTrue( filled.getSize( RetainedSizeEstimate.EMBEDDED_IMAGES ) >= 10000 );
+		assertTrue( filled.getSize( RetainedSizeEstimate.COMMAND_STACK ) > empty
+				.getSize( RetainedSizeEstimate.COMMAND_STACK ) );
+		assertTrue( filled.getSize( RetainedSizeEstimate.INDEXES ) > empty
+				.getSize( RetainedSizeEstimate.INDEXES ) );
+
+		long total = 0;
+		List<String> categories = RetainedSizeEstimate.getCategories( );
+		for ( int i = 0; i < categories.size( ); i++ )
+			total += filled.getSize( categories.get( i ) );
+		assertEquals( total, filled.getTotalSize( ) );
+
+		designHandle.getCommandStack( ).flush( );
+		RetainedSizeEstimate flushed = designHandle.estimateRetainedSize( );
+		assertTrue( flushed.getSize( RetainedSizeEstimate.COMMAND_STACK ) < filled
+				.getSize( RetainedSizeEstimate.COMMAND_STACK ) );
+		assertEquals( filled.getSize( RetainedSizeEstimate.ELEMENTS ), flushed
+				.getSize( RetainedSizeEstimate.ELEMENTS ) );
+
+		// the session covers the design and the library
+
+		LibraryHandle libHandle = session.createLibrary( );
+		RetainedSizeEstimate library = libHandle.estimateRetainedSize( );
+		RetainedSizeEstimate all = session.estimateRetainedSize( );
+		assertEquals( 2, all.getModuleCount( ) );
+		assertEquals( flushed.getElementCount( ) + library.getElementCount( ),
+				all.getElementCount( ) );
+		assertEquals( flushed.getSize( RetainedSizeEstimate.ELEMENTS )
+				+ library.getSize( RetainedSizeEstimate.ELEMENTS ), all
+				.getSize( RetainedSizeEstimate.ELEMENTS ) );
+	}
+}
@@ -31,6 +31,7 @@ import org.eclipse.birt.report.model.api.elements.structures.SelectionChoice;
 import org.eclipse.birt.report.model.api.elements.structures.SortKey;
 import org.eclipse.birt.report.model.api.olap.TabularCubeHandle;
 import org.eclipse.birt.report.model.core.DesignElement;
+import org.eclipse.birt.report.model.core.StructureContext;
 import org.eclipse.birt.report.model.elements.ListingElement;
 import org.eclipse.birt.report.model.elements.ReportDesign;
 import org.eclipse.birt.report.model.elements.ReportItem;
@@ -38,6 +39,7 @@ import org.eclipse.birt.report.model.elements.ScalarParameter;
 import org.eclipse.birt.report.model.elements.SimpleDataSet;
 import org.eclipse.birt.report.model.elements.interfaces.IStyleModel;
 import org.eclipse.birt.report.model.i18n.ThreadResources;
+import org.eclipse.birt.report.model.metadata.PropertyDefn;
 import org.eclipse.birt.report.model.util.BaseTestCase;
 
 import com.ibm.icu.util.ULocale;
@@ -443,6 +445,64 @@ public class StructureHandleTest extends BaseTestCase
 		assertEquals( "user_defined_format", structureHandle.getFormat( ) ); //$NON-NLS-1$
 	}
 
+	/**
+	 * Tests that the member contexts of a structure are cached and are not
+	 * shared with the copies of the structure, and that structures equal in
+	 * content get the handles of their own positions.
+	 * 
+	 * @throws SemanticException
+	 */
+
+	public void testCachedMemberContexts( ) throws SemanticException
+	{
+		createDesign( );
+
+		ElementFactory factory = new ElementFactory( design );
+		LabelHandle handle = factory.newLabel( "label 1" ); //$NON-NLS-1$
+		PropertyHandle propHandle = handle
+				.getPropertyHandle( ReportItem.VISIBILITY_PROP );
+
+		HideRule rule1 = StructureFactory.createHideRule( );
+		rule1.setFormat( DesignChoiceConstants.FORMAT_TYPE_PDF );
+		HideRule rule2 = (HideRule) rule1.copy( );
+		propHandle.addItem( rule1 );
+		propHandle.addItem( rule2 );
+
+		HideRule rule = (HideRule) propHandle.getListValue( ).get( 0 );
+		PropertyDefn member = (PropertyDefn) rule
+				.getMemberDefn( HideRule.FORMAT_MEMBER );
+		StructureContext context = rule.getMemberContext( member );
+		assertSame( context, rule.getMemberContext( member ) );
+		assertSame( rule, context.getValueContainer( ) );
+
+		HideRule copy = (HideRule) rule.copy( );
+		StructureContext copyContext = copy.getMemberContext( member );
+		assertNotSame( context, copyContext );
+		assertSame( copy, copyContext.getValueContainer( ) );
+
+		// member values are read with and without member handles
+
+		HideRuleHandle ruleHandle = (HideRuleHandle) propHandle.getAt( 0 );
+		assertEquals( DesignChoiceConstants.FORMAT_TYPE_PDF, ruleHandle
+				.getProperty( HideRule.FORMAT_MEMBER ) );
+		assertEquals( DesignChoiceConstants.FORMAT_TYPE_PDF, ruleHandle
+				.getMember( HideRule.FORMAT_MEMBER ).getValue( ) );
+
+		ruleHandle.setFormat( DesignChoiceConstants.FORMAT_TYPE_HTML );
+		assertEquals( DesignChoiceConstants.FORMAT_TYPE_HTML, ruleHandle
+				.getProperty( HideRule.FORMAT_MEMBER ) );
+		assertSame( context, rule.getMemberContext( member ) );
+
+		// the second structure equals to the first one in content
+
+		ruleHandle.setFormat( DesignChoiceConstants.FORMAT_TYPE_PDF );
+		HideRule second = (HideRule) propHandle.getListValue( ).get( 1 );
+		assertEquals( rule, second );
+		assertSame( second, second.getHandle( propHandle ).getStructure( ) );
+		assertSame( rule, rule.getHandle( propHandle ).getStructure( ) );
+		assertNull( second.getHandle( propHandle, 2 ) );
+	}
+
 	/**
 	 * Tests drop().
 	 * 
@@ -30,6 +30,7 @@ public class AllCoreTests
 		TestSuite test = new TestSuite( );
 
 		// add all test classes here
+		test.addTestSuite( BundleCacheTest.class );
 		test.addTestSuite( DesignElementCloneForTemplateTest.class );
 		test.addTestSuite( DesignElementCloneTest.class );
 		test.addTestSuite( DesignElementCopyPropertyToTest.class );
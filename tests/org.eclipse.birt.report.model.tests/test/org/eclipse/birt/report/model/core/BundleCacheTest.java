@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the session level cache of the message files.
+ */
+
+public class BundleCacheTest extends TestCase
+{
+
+	/**
+	 * The temporary message file.
+	 */
+
+	private File file = null;
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+
+	protected void tearDown( ) throws Exception
+	{
+		if ( file != null )
+			file.delete( );
+		super.tearDown( );
+	}
+
+	/**
+	 * Tests that the bundle is shared until the file is modified or the cache
+	 * is invalidated.
+	 *
+	 * @throws Exception
+	 */
+
+	public void testSharedBundle( ) throws Exception
+	{
+		file = File.createTempFile( "BundleCacheTest", ".properties" ); //$NON-NLS-1$//$NON-NLS-2$
+		writeFile( file, "key1=value1\n" ); //$NON-NLS-1$
+		URL url = file.toURI( ).toURL( );
+
+		BundleCache cache = new BundleCache( BundleCache.DEFAULT_CAPACITY, 0 );
+		BundleCache.Bundle bundle = cache.getBundle( url );
+		assertEquals( "value1", bundle.getMessage( "key1" ) ); //$NON-NLS-1$//$NON-NLS-2$
+		assertEquals( 1, bundle.getMessageKeys( ).size( ) );
+		assertSame( bundle, cache.getBundle( url ) );
+
+		// the modified file is read again.
+
+		writeFile( file, "key1=value2\nkey2=value3\n" ); //$NON-NLS-1$
+		file.setLastModified( file.lastModified( ) + 2000 );
+		BundleCache.Bundle newBundle = cache.getBundle( url );
+		assertNotSame( bundle, newBundle );
+		assertEquals( "value2", newBundle.getMessage( "key1" ) ); //$NON-NLS-1$//$NON-NLS-2$
+		assertEquals( 2, newBundle.getMessageKeys( ).size( ) );
+
+		cache.invalidate( url.toExternalForm( ) );
+		assertEquals( 0, cache.size( ) );
+		assertNotSame( newBundle, cache.getBundle( url ) );
+	}
+
+	/**
+	 * Tests that the modification time of the file is not checked again within
+	 * the check interval, and that invalidating the cache reloads the file at
+	 * once.
+	 *
+	 * @throws Exception
+	 */
+
+	public void testCheckInterval( ) throws Exception
+	{
+		file = File.createTempFile( "BundleCacheTest", ".properties" ); //$NON-NLS-1$//$NON-NLS-2$
+		writeFile( file, "key1=value1\n" ); //$NON-NLS-1$
+		URL url = file.toURI( ).toURL( );
+
+		BundleCache cache = new BundleCache( BundleCache.DEFAULT_CAPACITY,
+				Long.MAX_VALUE );
+		BundleCache.Bundle bundle = cache.getBundle( url );
+
+		writeFile( file, "key1=value2\n" ); //$NON-NLS-1$
+		file.setLastModified( file.lastModified( ) + 2000 );
+		assertSame( bundle, cache.getBundle( url ) );
+		assertEquals( "value1", cache.getBundle( url ).getMessage( "key1" ) ); //$NON-NLS-1$//$NON-NLS-2$
+
+		cache.invalidate( url.toExternalForm( ) );
+		assertEquals( "value2", cache.getBundle( url ).getMessage( "key1" ) ); //$NON-NLS-1$//$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that the least recently used bundles are evicted when the capacity
+	 * is exceeded.
+	 *
+	 * @throws Exception
+	 */
+
+	public void testEviction( ) throws Exception
+	{
+		file = File.createTempFile( "BundleCacheTest", ".properties" ); //$NON-NLS-1$//$NON-NLS-2$
+		writeFile( file, "key1=value1\n" ); //$NON-NLS-1$
+		URL url = file.toURI( ).toURL( );
+
+		BundleCache cache = new BundleCache( 4, 0 );
+		BundleCache.Bundle bundle = cache.getBundle( url );
+
+		for ( int i = 0; i < 4; i++ )
+		{
+			cache.getBundle( new URL( url, "missing" + i + ".properties" ) ); //$NON-NLS-1$//$NON-NLS-2$
+			assertSame( bundle, cache.getBundle( url ) );
+		}
+
+		// the most recently used bundle is kept.
+
+		assertEquals( 3, cache.size( ) );
+		assertSame( bundle, cache.getBundle( url ) );
+		assertNull( cache.getBundle( new URL( url, "missing0.properties" ) ) //$NON-NLS-1$
+				.getMessage( "key1" ) ); //$NON-NLS-1$
+	}
+
+	/**
+	 * Writes the content to the file.
+	 *
+	 * @param target
+	 *            the file
+	 * @param content
+	 *            the content
+	 * @throws IOException
+	 */
+
+	private static void writeFile( File target, String content )
+			throws IOException
+	{
+		OutputStream os = new FileOutputStream( target );
+		try
+		{
+			os.write( content.getBytes( "ISO-8859-1" ) ); //$NON-NLS-1$
+		}
+		finally
+		{
+			os.close( );
+		}
+	}
+}
@@ -12,9 +12,14 @@
 package org.eclipse.birt.report.model.core;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.birt.report.model.api.DesignFileException;
+import org.eclipse.birt.report.model.api.ModuleHandle;
+import org.eclipse.birt.report.model.api.command.LibraryChangeEvent;
+import org.eclipse.birt.report.model.api.command.ResourceChangeEvent;
+import org.eclipse.birt.report.model.api.core.IResourceChangeListener;
 import org.eclipse.birt.report.model.api.metadata.DimensionValue;
 import org.eclipse.birt.report.model.api.metadata.PropertyValueException;
 import org.eclipse.birt.report.model.elements.Label;
@@ -170,7 +175,89 @@ public class DesignSessionTest extends BaseTestCase
 	}
 
 	/**
-	 * Tests createDesignFromTemplate()
+	 * Tests the lookup of the opened modules by location and the delivery of
+	 * library change events.
+	 * 
+	 * <ul>
+	 * <li>The opened module is found by the location ignoring case.
+	 * <li>The library change event is sent to the library and the design that
+	 * includes it.
+	 * <li>The library change event is sent to the design that includes the
+	 * library after it is included, and not after it is dropped.
+	 * <li>The dropped module is not found any more.
+	 * <li>The module is found by the new location after the location is set.
+	 * </ul>
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testOpenedModuleLookup( ) throws Exception
+	{
+		DesignSession session = new DesignSession( null );
+
+		URL url = getResource( "input/CreateDesignFromTemplateTest.xml" ); //$NON-NLS-1$
+		ReportDesign design = session.openDesign( url.toString( ) );
+		url = getResource( "input/LibraryForCreateDesignFromTemplateTest.xml" ); //$NON-NLS-1$
+		Library library = session.openLibrary( url.toString( ) );
+
+		assertSame( design, session.getOpenedModule( design.getLocation( ) ) );
+		assertSame( design, session.getOpenedModule( design.getLocation( )
+				.toUpperCase( ) ) );
+		assertSame( library, session.getOpenedModule( library.getLocation( ) ) );
+		assertNull( session.getOpenedModule( "file:/not/opened.xml" ) ); //$NON-NLS-1$
+
+		final List<ModuleHandle> notified = new ArrayList<ModuleHandle>( );
+		IResourceChangeListener listener = new IResourceChangeListener( ) {
+
+			public void resourceChanged( ModuleHandle module,
+					ResourceChangeEvent event )
+			{
+				notified.add( module );
+			}
+		};
+		design.addResourceChangeListener( listener );
+		library.addResourceChangeListener( listener );
+
+		session.fireLibChange( new LibraryChangeEvent( library.getLocation( ) ) );
+		assertEquals( 2, notified.size( ) );
+		assertSame( design.handle( ), notified.get( 0 ) );
+		assertSame( library.handle( ), notified.get( 1 ) );
+
+		notified.clear( );
+		session.fireLibChange( new LibraryChangeEvent( design.getLocation( ) ) );
+		assertEquals( 1, notified.size( ) );
+		assertSame( design.handle( ), notified.get( 0 ) );
+
+		// the index follows the libraries included and dropped later.
+
+		String libLocation = getResource( "input/Library_1.xml" ).toString( ); //$NON-NLS-1$
+		design.handle( ).includeLibrary( "Library_1.xml", "Lib1" ); //$NON-NLS-1$//$NON-NLS-2$
+
+		notified.clear( );
+		session.fireLibChange( new LibraryChangeEvent( libLocation ) );
+		assertEquals( 1, notified.size( ) );
+		assertSame( design.handle( ), notified.get( 0 ) );
+
+		design.handle( ).dropLibrary( design.handle( ).getLibrary( "Lib1" ) ); //$NON-NLS-1$
+
+		notified.clear( );
+		session.fireLibChange( new LibraryChangeEvent( libLocation ) );
+		assertEquals( 0, notified.size( ) );
+
+		String location = design.getLocation( );
+		session.drop( design );
+		assertNull( session.getOpenedModule( location ) );
+
+		notified.clear( );
+		session.fireLibChange( new LibraryChangeEvent( library.getLocation( ) ) );
+		assertEquals( 1, notified.size( ) );
+
+		ReportDesign newDesign = session.createDesign( null, null );
+		newDesign.setLocation( new URL( location ) );
+		assertSame( newDesign, session.getOpenedModule( location ) );
+	}
+
+
 	 * 
 	 * @throws DesignFileException
 	 */
@@ -26,8 +26,10 @@ import org.eclipse.birt.report.model.api.StructureHandle;
 import org.eclipse.birt.report.model.api.activity.NotificationEvent;
 import org.eclipse.birt.report.model.api.core.Listener;
 import org.eclipse.birt.report.model.api.elements.DesignChoiceConstants;
+import org.eclipse.birt.report.model.api.elements.structures.CustomColor;
 import org.eclipse.birt.report.model.api.elements.structures.EmbeddedImage;
 import org.eclipse.birt.report.model.api.elements.structures.MapRule;
+import org.eclipse.birt.report.model.elements.ReportDesign;
 import org.eclipse.birt.report.model.elements.interfaces.IImageItemModel;
 import org.eclipse.birt.report.model.elements.interfaces.IStyleModel;
 import org.eclipse.birt.report.model.metadata.StructRefValue;
@@ -225,6 +227,79 @@ public class StructRefTest extends BaseTestCase
 		assertEquals( "image new", imageHandle.getImageName( ) ); //$NON-NLS-1$
 	}
 
+	/**
+	 * Tests that embedded images are found by name after the image list and
+	 * the image names are changed.
+	 * 
+	 * @throws Exception
+	 */
+	public void testFindByName( ) throws Exception
+	{
+		openDesign( fileName );
+		PropertyHandle images = designHandle
+				.getPropertyHandle( ReportDesignHandle.IMAGES_PROP );
+		assertTrue( images.getListValue( ) instanceof ReferencableStructureList );
+
+		EmbeddedImage emImageTwo = design.findImage( "image two" ); //$NON-NLS-1$
+		assertNotNull( emImageTwo );
+		assertNull( design.findImage( "image new" ) ); //$NON-NLS-1$
+
+		// rename
+
+		images.getAt( 1 ).getMember( EmbeddedImage.NAME_MEMBER ).setValue(
+				"image new" ); //$NON-NLS-1$
+		assertNull( design.findImage( "image two" ) ); //$NON-NLS-1$
+		assertSame( emImageTwo, design.findImage( "image new" ) ); //$NON-NLS-1$
+
+		ActivityStack stack = design.getActivityStack( );
+		stack.undo( );
+		assertSame( emImageTwo, design.findImage( "image two" ) ); //$NON-NLS-1$
+		assertNull( design.findImage( "image new" ) ); //$NON-NLS-1$
+
+		// remove, add and move
+
+		images.removeItem( emImageTwo );
+		assertNull( design.findImage( "image two" ) ); //$NON-NLS-1$
+		stack.undo( );
+		assertSame( emImageTwo, design.findImage( "image two" ) ); //$NON-NLS-1$
+
+		EmbeddedImage newImage = StructureFactory.createEmbeddedImage( );
+		newImage.setName( "image three" ); //$NON-NLS-1$
+		newImage.setData( new byte[]{1} );
+		images.addItem( newImage );
+		assertSame( newImage, design.findImage( "image three" ) ); //$NON-NLS-1$
+
+		images.moveItem( 2, 0 );
+		assertSame( newImage, images.getListValue( ).get( 0 ) );
+		assertSame( newImage, design.findImage( "image three" ) ); //$NON-NLS-1$
+		assertSame( emImageTwo, design.findImage( "image two" ) ); //$NON-NLS-1$
+
+		// the copy of the design keeps its own images by name
+
+		ReportDesign copy = (ReportDesign) designHandle.copy( );
+		List copiedImages = (List) copy.getLocalProperty( copy,
+				ReportDesignHandle.IMAGES_PROP );
+		assertTrue( copiedImages instanceof ReferencableStructureList );
+		EmbeddedImage copiedImage = copy.findImage( "image three" ); //$NON-NLS-1$
+		assertNotNull( copiedImage );
+		assertNotSame( newImage, copiedImage );
+
+		// the custom color renamed directly is found by the new name
+
+		PropertyHandle colors = designHandle
+				.getPropertyHandle( ReportDesignHandle.COLOR_PALETTE_PROP );
+		CustomColor color = StructureFactory.createCustomColor( );
+		color.setName( "color1" ); //$NON-NLS-1$
+		color.setColor( "red" ); //$NON-NLS-1$
+		colors.addItem( color );
+		assertTrue( colors.getListValue( ) instanceof ReferencableStructureList );
+		assertSame( color, design.findColor( "color1" ) ); //$NON-NLS-1$
+
+		color.setName( "color2" ); //$NON-NLS-1$
+		assertNull( design.findColor( "color1" ) ); //$NON-NLS-1$
+		assertSame( color, design.findColor( "color2" ) ); //$NON-NLS-1$
+	}
+
 	/**
 	 * 
 	 * @throws Exception
@@ -12,6 +12,7 @@
 package org.eclipse.birt.report.model.css;
 
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -19,10 +20,13 @@ import org.eclipse.birt.report.model.api.DesignConfig;
 import org.eclipse.birt.report.model.api.DesignEngine;
 import org.eclipse.birt.report.model.api.SessionHandle;
 import org.eclipse.birt.report.model.api.SharedStyleHandle;
+import org.eclipse.birt.report.model.api.StructureFactory;
 import org.eclipse.birt.report.model.api.StyleHandle;
+import org.eclipse.birt.report.model.api.core.IModuleModel;
 import org.eclipse.birt.report.model.api.css.CssStyleSheetHandle;
 import org.eclipse.birt.report.model.api.css.StyleSheetParserException;
 import org.eclipse.birt.report.model.api.elements.DesignChoiceConstants;
+import org.eclipse.birt.report.model.api.elements.structures.CustomColor;
 import org.eclipse.birt.report.model.api.metadata.IColorConstants;
 import org.eclipse.birt.report.model.elements.interfaces.IStyleModel;
 import org.eclipse.birt.report.model.util.BaseTestCase;
@@ -454,6 +458,87 @@ public class StyleSheetLoaderTest extends BaseTestCase
 
 	}
 
+	/**
+	 * Tests that the style sheet loaded again is read from the shared cache,
+	 * and each load gets styles of its own.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testSharedStyleSheet( ) throws Exception
+	{
+		openDesign( "BlankStyleSheetLoaderTest.xml" ); //$NON-NLS-1$
+
+		fileName = "base.css"; //$NON-NLS-1$
+		CssStyleSheetHandle sheetHandle1 = designHandle
+				.openCssStyleSheet( fileName );
+		CssStyleSheetHandle sheetHandle2 = designHandle
+				.openCssStyleSheet( fileName );
+
+		Iterator<StyleHandle> styles1 = sheetHandle1.getStyleIterator( );
+		Iterator<StyleHandle> styles2 = sheetHandle2.getStyleIterator( );
+		while ( styles1.hasNext( ) )
+		{
+			StyleHandle style1 = styles1.next( );
+			StyleHandle style2 = styles2.next( );
+			assertNotSame( style1.getElement( ), style2.getElement( ) );
+			assertEquals( style1.getName( ), style2.getName( ) );
+			assertEquals( style1.getFontSize( ).getStringValue( ), style2
+					.getFontSize( ).getStringValue( ) );
+			assertEquals( style1.getTextUnderline( ), style2
+					.getTextUnderline( ) );
+		}
+		assertFalse( styles2.hasNext( ) );
+
+		assertEquals( sheetHandle1.getWarnings( "table" ), sheetHandle2 //$NON-NLS-1$
+				.getWarnings( "table" ) ); //$NON-NLS-1$
+		assertEquals( "base.css", sheetHandle2.getFileName( ) ); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a style sheet cached for a module is not shared with a module
+	 * that has different custom colors, since color names are validated
+	 * against the custom colors of the module.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testSharedStyleSheetWithCustomColors( ) throws Exception
+	{
+		openDesign( "BlankStyleSheetLoaderTest.xml" ); //$NON-NLS-1$
+
+		fileName = "custom_color.css"; //$NON-NLS-1$
+		CssStyleSheetHandle sheetHandle = designHandle
+				.openCssStyleSheet( fileName );
+		assertNull( sheetHandle.findStyle( "table" ).getColor( ) //$NON-NLS-1$
+				.getStringValue( ) );
+
+		CustomColor color = StructureFactory.createCustomColor( );
+		color.setName( "myColor" ); //$NON-NLS-1$
+		color.setColor( "0xFF0000" ); //$NON-NLS-1$
+		designHandle.getPropertyHandle( IModuleModel.COLOR_PALETTE_PROP )
+				.addItem( color );
+
+		sheetHandle = designHandle.openCssStyleSheet( fileName );
+		assertEquals( "myColor", sheetHandle.findStyle( "table" ) //$NON-NLS-1$ //$NON-NLS-2$
+				.getColor( ).getStringValue( ) );
+	}
+
+	/**
+	 * Tests splitting values of short-hand properties.
+	 */
+
+	public void testSplitValue( )
+	{
+		String[] values = {"left top", " left  top ", "left\ttop\n", "left", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				"   ", ""}; //$NON-NLS-1$ //$NON-NLS-2$
+		for ( int i = 0; i < values.length; i++ )
+		{
+			assertTrue( Arrays.equals( values[i].split( "[\\s]" ), //$NON-NLS-1$
+					StyleSheetLoader.splitValue( values[i] ) ) );
+		}
+	}
+
 	/**
 	 * Tests a group styles has a same property with a given property name. Each
 	 * one in the list is instance of <code>StyleHandle</code>.
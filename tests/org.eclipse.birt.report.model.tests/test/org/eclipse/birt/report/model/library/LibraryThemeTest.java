@@ -468,6 +468,83 @@ public class LibraryThemeTest extends BaseTestCase
 
 	}
 
+	/**
+	 * Test cases:
+	 * <ul>
+	 * <li>styles in the theme are found by the case-insensitive name, and the
+	 * found styles follow the content and name changes.
+	 * <li>when the theme with many clients is unset, the references of all the
+	 * clients are unresolved, and each client receives one style event.
+	 * </ul>
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testSwitchThemeWithManyClients( ) throws Exception
+	{
+		openLibrary( "LibraryTheme.xml" ); //$NON-NLS-1$
+
+		ThemeHandle theme1 = libraryHandle.findTheme( "theme1" ); //$NON-NLS-1$
+		StyleHandle libStyle1 = theme1.findStyle( "libStyle1" ); //$NON-NLS-1$
+		assertNotNull( libStyle1 );
+		assertSame( libStyle1.getElement( ), theme1.findStyle( "LIBSTYLE1" ) //$NON-NLS-1$
+				.getElement( ) );
+		assertNull( theme1.findStyle( "newStyle" ) ); //$NON-NLS-1$
+
+		StyleHandle newStyle = libraryHandle.getElementFactory( ).newStyle(
+				"newStyle" ); //$NON-NLS-1$
+		theme1.getStyles( ).add( newStyle );
+		assertSame( newStyle.getElement( ), theme1.findStyle( "newStyle" ) //$NON-NLS-1$
+				.getElement( ) );
+
+		newStyle.setName( "renamedStyle" ); //$NON-NLS-1$
+		assertNull( theme1.findStyle( "newStyle" ) ); //$NON-NLS-1$
+		assertSame( newStyle.getElement( ), theme1.findStyle( "renamedStyle" ) //$NON-NLS-1$
+				.getElement( ) );
+
+		libraryHandle.getCommandStack( ).undo( );
+		libraryHandle.getCommandStack( ).undo( );
+		assertNull( theme1.findStyle( "newStyle" ) ); //$NON-NLS-1$
+		assertNull( theme1.findStyle( "renamedStyle" ) ); //$NON-NLS-1$
+
+		// many labels refer to the style in the theme
+
+		ElementFactory factory = libraryHandle.getElementFactory( );
+		LabelHandle first = null;
+		LabelHandle last = null;
+		for ( int i = 0; i < 2000; i++ )
+		{
+			LabelHandle label = factory.newLabel( "manyLabel" + i ); //$NON-NLS-1$
+			libraryHandle.getComponents( ).add( label );
+			label.setStyleName( "libStyle1" ); //$NON-NLS-1$
+			if ( first == null )
+				first = label;
+			last = label;
+		}
+
+		int clientCount = ( (StyleElement) libStyle1.getElement( ) )
+				.getClientList( ).size( );
+		assertTrue( clientCount >= 2000 );
+
+		MyListener firstListener = new MyListener( );
+		first.addListener( firstListener );
+		MyListener lastListener = new MyListener( );
+		last.addListener( lastListener );
+
+		libraryHandle.setThemeName( null );
+
+		assertEquals( 0, ( (StyleElement) libStyle1.getElement( ) )
+				.getClientList( ).size( ) );
+		assertNull( first.getStyle( ) );
+		assertNull( last.getStyle( ) );
+		assertEquals( 1, firstListener.getCounter( ) );
+		assertEquals( 1, lastListener.getCounter( ) );
+
+		libraryHandle.getCommandStack( ).undo( );
+		assertEquals( "libStyle1", first.getStyle( ).getName( ) ); //$NON-NLS-1$
+		assertEquals( "libStyle1", last.getStyle( ).getName( ) ); //$NON-NLS-1$
+	}
+
 	/**
 	 * @throws Exception
 	 */
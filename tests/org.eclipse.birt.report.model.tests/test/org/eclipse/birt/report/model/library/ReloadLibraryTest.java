@@ -20,6 +20,7 @@ import java.util.List;
 
 import org.eclipse.birt.report.model.activity.ActivityStack;
 import org.eclipse.birt.report.model.api.CellHandle;
+import org.eclipse.birt.report.model.api.CommandStack;
 import org.eclipse.birt.report.model.api.DesignConfig;
 import org.eclipse.birt.report.model.api.DesignElementHandle;
 import org.eclipse.birt.report.model.api.DesignEngine;
@@ -422,6 +423,133 @@ public class ReloadLibraryTest extends BaseTestCase
 		assertTrue( compareFile( "DesignWithCube_golden.xml" ) ); //$NON-NLS-1$
 	}
 
+	/**
+	 * Tests reloading a library in which the structure of the extends parents
+	 * is not changed.
+	 * <p>
+	 * The virtual elements of the extends children are kept, their local
+	 * values are not changed, and the values from the new library are used.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testReloadLibraryWithUnchangedStructure( ) throws Exception
+	{
+		List fileNames = new ArrayList( );
+		fileNames.add( INPUT_FOLDER + "DesignToReloadLibrary.xml" ); //$NON-NLS-1$
+		fileNames.add( INPUT_FOLDER + "LibraryToReload.xml" ); //$NON-NLS-1$
+
+		List filePaths = dumpDesignAndLibrariesToFile( fileNames );
+		String designFilePath = (String) filePaths.get( 0 );
+		openDesign( designFilePath, false );
+
+		NameSpace ns = designHandle.getModule( ).getNameHelper( ).getNameSpace(
+				ReportDesign.ELEMENT_NAME_SPACE );
+		assertEquals( 7, ns.getCount( ) );
+
+		TableHandle table1 = (TableHandle) designHandle.findElement( "table1" ); //$NON-NLS-1$
+		RowHandle rowHandle = (RowHandle) table1.getHeader( ).get( 0 );
+		assertEquals( "20pt", rowHandle.getHeight( ).getStringValue( ) ); //$NON-NLS-1$
+
+		// only change the property values in the library.
+
+		String libFilePath = (String) filePaths.get( 1 );
+		openLibrary( libFilePath, false );
+
+		TableHandle libTable1 = (TableHandle) libraryHandle
+				.findElement( "libTable1" ); //$NON-NLS-1$
+		( (RowHandle) libTable1.getHeader( ).get( 0 ) ).setProperty(
+				RowHandle.HEIGHT_PROP, "30pt" ); //$NON-NLS-1$
+		libraryHandle.save( );
+
+		designHandle.reloadLibrary( libraryHandle );
+
+		// the virtual elements are kept and the new values are used.
+
+		RowHandle newRowHandle = (RowHandle) table1.getHeader( ).get( 0 );
+		assertSame( rowHandle.getElement( ), newRowHandle.getElement( ) );
+		assertEquals( "30pt", newRowHandle.getHeight( ).getStringValue( ) ); //$NON-NLS-1$
+		assertEquals( ColorPropertyType.BLUE, newRowHandle
+				.getStringProperty( StyleHandle.COLOR_PROP ) );
+		assertEquals( 7, ns.getCount( ) );
+
+		DesignElementHandle newLibTable1 = designHandle.getLibrary( "Lib1" ) //$NON-NLS-1$
+				.findElement( "libTable1" ); //$NON-NLS-1$
+		assertSame( newLibTable1.getElement( ), table1.getExtends( )
+				.getElement( ) );
+		assertSame( designHandle.getModule( ), newRowHandle.getElement( )
+				.getRoot( ) );
+		assertSame( newRowHandle.getElement( ), designHandle.getModule( )
+				.getElementByID( newRowHandle.getID( ) ) );
+	}
+
+	/**
+	 * Tests undo and redo across reloading a library in which the structure of
+	 * the extends parents is not changed.
+	 * <p>
+	 * The local value set before reloading is kept on the reused virtual
+	 * element, the command stack is flushed by reloading, and the changes on
+	 * the reused virtual element after reloading can be undone and redone.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testUndoRedoWithReloadedLibrary( ) throws Exception
+	{
+		List fileNames = new ArrayList( );
+		fileNames.add( INPUT_FOLDER + "DesignToReloadLibrary.xml" ); //$NON-NLS-1$
+		fileNames.add( INPUT_FOLDER + "LibraryToReload.xml" ); //$NON-NLS-1$
+
+		List filePaths = dumpDesignAndLibrariesToFile( fileNames );
+		String designFilePath = (String) filePaths.get( 0 );
+		openDesign( designFilePath, false );
+
+		CommandStack stack = designHandle.getCommandStack( );
+		TableHandle table1 = (TableHandle) designHandle.findElement( "table1" ); //$NON-NLS-1$
+		RowHandle rowHandle = (RowHandle) table1.getHeader( ).get( 0 );
+		String oldColor = rowHandle
+				.getStringProperty( StyleHandle.BACKGROUND_COLOR_PROP );
+
+		rowHandle.setProperty( StyleHandle.BACKGROUND_COLOR_PROP,
+				ColorPropertyType.RED );
+		stack.undo( );
+		assertEquals( oldColor, rowHandle
+				.getStringProperty( StyleHandle.BACKGROUND_COLOR_PROP ) );
+		stack.redo( );
+		assertEquals( ColorPropertyType.RED, rowHandle
+				.getStringProperty( StyleHandle.BACKGROUND_COLOR_PROP ) );
+
+		String libFilePath = (String) filePaths.get( 1 );
+		openLibrary( libFilePath, false );
+
+		TableHandle libTable1 = (TableHandle) libraryHandle
+				.findElement( "libTable1" ); //$NON-NLS-1$
+		( (RowHandle) libTable1.getHeader( ).get( 0 ) ).setProperty(
+				RowHandle.HEIGHT_PROP, "30pt" ); //$NON-NLS-1$
+		libraryHandle.save( );
+
+		designHandle.reloadLibrary( libraryHandle );
+
+		RowHandle newRowHandle = (RowHandle) table1.getHeader( ).get( 0 );
+		assertSame( rowHandle.getElement( ), newRowHandle.getElement( ) );
+		assertFalse( stack.canUndo( ) );
+		assertFalse( stack.canRedo( ) );
+		assertEquals( ColorPropertyType.RED, newRowHandle
+				.getStringProperty( StyleHandle.BACKGROUND_COLOR_PROP ) );
+
+		newRowHandle.setProperty( RowHandle.HEIGHT_PROP, "40pt" ); //$NON-NLS-1$
+		assertEquals( "40pt", newRowHandle.getHeight( ).getStringValue( ) ); //$NON-NLS-1$
+
+		stack.undo( );
+		assertEquals( "30pt", newRowHandle.getHeight( ).getStringValue( ) ); //$NON-NLS-1$
+		assertFalse( stack.canUndo( ) );
+
+		stack.redo( );
+		assertEquals( "40pt", newRowHandle.getHeight( ).getStringValue( ) ); //$NON-NLS-1$
+		assertSame( newRowHandle.getElement( ), designHandle.getModule( )
+				.getElementByID( newRowHandle.getID( ) ) );
+	}
+
 	private static class MyLibraryListener implements Listener
 	{
 
@@ -532,6 +532,71 @@ public class TabularCubeParserTest extends BaseTestCase
 		assertTrue( compareFile( "CubeParserTest_golden_4.xml" ) ); //$NON-NLS-1$
 	}
 
+	/**
+	 * Tests that levels are found by the qualified name in a cube with many
+	 * dimensions, and that the found levels follow renames, drops and undo.
+	 * 
+	 * @throws Exception
+	 */
+	public void testFindLevelInLargeCube( ) throws Exception
+	{
+		createDesign( );
+		ElementFactory factory = designHandle.getElementFactory( );
+
+		TabularCubeHandle cube = factory.newTabularCube( "cube" ); //$NON-NLS-1$
+		designHandle.getCubes( ).add( cube );
+		for ( int i = 0; i < 50; i++ )
+		{
+			DimensionHandle dimension = factory
+					.newTabularDimension( "dim" + i ); //$NON-NLS-1$
+			cube.add( TabularCubeHandle.DIMENSIONS_PROP, dimension );
+			TabularHierarchyHandle hierarchy = factory
+					.newTabularHierarchy( null );
+			dimension.add( DimensionHandle.HIERARCHIES_PROP, hierarchy );
+			for ( int j = 0; j < 10; j++ )
+				hierarchy.add( TabularHierarchyHandle.LEVELS_PROP, factory
+						.newTabularLevel( dimension, "level" + j ) ); //$NON-NLS-1$
+		}
+
+		LevelHandle level = designHandle.findLevel( "dim7/level3" ); //$NON-NLS-1$
+		assertNotNull( level );
+		assertEquals( "level3", level.getName( ) ); //$NON-NLS-1$
+		assertEquals( "dim7", level.getContainer( ).getContainer( ).getName( ) ); //$NON-NLS-1$
+		assertSame( level, designHandle.findLevel( "dim7/level3" ) ); //$NON-NLS-1$
+		assertNull( designHandle.findLevel( "dim7/level10" ) ); //$NON-NLS-1$
+		assertNull( designHandle.findLevel( null ) );
+
+		// changes on other elements keep the found level
+
+		designHandle.setDescription( "description" ); //$NON-NLS-1$
+		assertSame( level, designHandle.findLevel( "dim7/level3" ) ); //$NON-NLS-1$
+
+		// rename the level and undo
+
+		level.setName( "renamed" ); //$NON-NLS-1$
+		assertNull( designHandle.findLevel( "dim7/level3" ) ); //$NON-NLS-1$
+		assertSame( level, designHandle.findLevel( "dim7/renamed" ) ); //$NON-NLS-1$
+
+		designHandle.getCommandStack( ).undo( );
+		assertNull( designHandle.findLevel( "dim7/renamed" ) ); //$NON-NLS-1$
+		assertSame( level, designHandle.findLevel( "dim7/level3" ) ); //$NON-NLS-1$
+
+		// rename the dimension
+
+		level.getContainer( ).getContainer( ).setName( "newDim" ); //$NON-NLS-1$
+		assertNull( designHandle.findLevel( "dim7/level3" ) ); //$NON-NLS-1$
+		assertSame( level, designHandle.findLevel( "newDim/level3" ) ); //$NON-NLS-1$
+
+		// drop the level and undo
+
+		level.drop( );
+		assertNull( designHandle.findLevel( "newDim/level3" ) ); //$NON-NLS-1$
+
+		designHandle.getCommandStack( ).undo( );
+		assertEquals( level.getElement( ), designHandle.findLevel(
+				"newDim/level3" ).getElement( ) ); //$NON-NLS-1$
+	}
+
 	private static void checkNotificationStatus( MyListener listener )
 	{
 		assertEquals( NotificationEvent.PROPERTY_EVENT, listener.getEventType( ) );
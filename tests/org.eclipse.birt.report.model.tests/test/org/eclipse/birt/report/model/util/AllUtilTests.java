@@ -30,6 +30,7 @@ public class AllUtilTests
 		TestSuite test = new TestSuite( );
 
 		test.addTestSuite( ContentIteratorTest.class );
+		test.addTestSuite( ElementTreeWalkerTest.class );
 		test.addTestSuite( CssPropertyUtilTest.class );
 		test.addTestSuite( CubeUtilTest.class );
 		test.addTestSuite( DimensionUtilTest.class );
@@ -42,6 +43,8 @@ public class AllUtilTests
 		test.addTestSuite( XPathUtilTest.class );
 		test.addTestSuite( CopyUtilTest.class );
 		test.addTestSuite( ColumnBindingUtilTest.class );
+		test.addTestSuite( LongHashMapTest.class );
+		test.addTestSuite( ValuePoolTest.class );
 
 		// add all test classes here
 
@@ -11,12 +11,15 @@
 
 package org.eclipse.birt.report.model.util;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.birt.report.model.api.DataSourceHandle;
 import org.eclipse.birt.report.model.api.DesignElementHandle;
 import org.eclipse.birt.report.model.api.Expression;
 import org.eclipse.birt.report.model.api.ExtendedItemHandle;
+import org.eclipse.birt.report.model.api.FreeFormHandle;
 import org.eclipse.birt.report.model.api.LabelHandle;
 import org.eclipse.birt.report.model.api.PropertyHandle;
 import org.eclipse.birt.report.model.api.ReportDesignHandle;
@@ -29,6 +32,7 @@ import org.eclipse.birt.report.model.api.simpleapi.IExpressionType;
 import org.eclipse.birt.report.model.api.util.CopyUtil;
 import org.eclipse.birt.report.model.api.util.IElementCopy;
 import org.eclipse.birt.report.model.elements.interfaces.IReportDesignModel;
+import org.eclipse.birt.report.model.elements.interfaces.IReportItemModel;
 
 /**
  * Test cases for CopyUtil class.
@@ -333,4 +337,58 @@ public class CopyUtilTest extends BaseTestCase
 		save( );
 		assertTrue( compareFile( "CopyUtilTest_4_golden.xml" ) ); //$NON-NLS-1$
 	}
+
+	/**
+	 * Tests copy and paste a large element tree. Names of the pasted elements
+	 * are unique and the expressions are shared with the copied elements.
+	 * 
+	 * @throws Exception
+	 */
+	public void testCopyPasteLargeTree( ) throws Exception
+	{
+		createDesign( );
+
+		FreeFormHandle freeForm = designHandle.getElementFactory( )
+				.newFreeForm( "freeForm" ); //$NON-NLS-1$
+		designHandle.getBody( ).add( freeForm );
+		for ( int i = 0; i < 2000; i++ )
+		{
+			LabelHandle label = designHandle.getElementFactory( ).newLabel(
+					"label" ); //$NON-NLS-1$
+			label.setBookmark( "row[\"bookmark\"]" ); //$NON-NLS-1$
+			freeForm.getReportItems( ).add( label );
+		}
+
+		IElementCopy copy = CopyUtil.copy( freeForm );
+		CopyUtil.paste( copy, designHandle, IReportDesignModel.BODY_SLOT );
+		CopyUtil.paste( copy, designHandle, IReportDesignModel.BODY_SLOT );
+
+		assertEquals( 3, designHandle.getBody( ).getCount( ) );
+
+		Set<String> names = new HashSet<String>( );
+		for ( int i = 0; i < 3; i++ )
+		{
+			FreeFormHandle pasted = (FreeFormHandle) designHandle.getBody( )
+					.get( i );
+			assertTrue( names.add( pasted.getName( ) ) );
+			assertEquals( 2000, pasted.getReportItems( ).getCount( ) );
+
+			for ( int j = 0; j < 2000; j++ )
+			{
+				LabelHandle label = (LabelHandle) pasted.getReportItems( )
+						.get( j );
+				assertTrue( names.add( label.getName( ) ) );
+				assertEquals( "row[\"bookmark\"]", label.getBookmark( ) ); //$NON-NLS-1$
+			}
+		}
+
+		assertEquals( "freeForm2", designHandle.getBody( ).get( 2 ).getName( ) ); //$NON-NLS-1$
+
+		LabelHandle label = (LabelHandle) freeForm.getReportItems( ).get( 0 );
+		LabelHandle pastedLabel = (LabelHandle) ( (FreeFormHandle) designHandle
+				.getBody( ).get( 1 ) ).getReportItems( ).get( 0 );
+		assertSame( label.getElement( ).getLocalProperty( design,
+				IReportItemModel.BOOKMARK_PROP ), pastedLabel.getElement( )
+				.getLocalProperty( design, IReportItemModel.BOOKMARK_PROP ) );
+	}
 }
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.birt.report.model.api.elements.ReportDesignConstants;
+import org.eclipse.birt.report.model.core.DesignElement;
+import org.eclipse.birt.report.model.metadata.MetaDataDictionary;
+
+/**
+ * Tests the ElementTreeWalker.
+ */
+
+public class ElementTreeWalkerTest extends BaseTestCase
+{
+
+	private final static String INPUT = "ContentIteratorTest.xml"; //$NON-NLS-1$
+
+	/**
+	 * Collector that returns the element itself.
+	 */
+
+	private static final IElementTreeCollector<DesignElement> SELF = new IElementTreeCollector<DesignElement>( ) {
+
+		public DesignElement collect( DesignElement element )
+		{
+			return element;
+		}
+	};
+
+	protected void setUp( ) throws Exception
+	{
+		super.setUp( );
+		openDesign( INPUT );
+	}
+
+	/**
+	 * The walker visits the elements in the same order as the
+	 * ContentIterator.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testWalkOrder( ) throws Exception
+	{
+		DesignElement grid = designHandle.findElement( "My grid" ).getElement( ); //$NON-NLS-1$
+		assertEquals( iterate( grid ), new ElementTreeWalker( design ).collect(
+				grid, SELF ) );
+
+		ElementTreeWalker walker = new ElementTreeWalker( design );
+		assertEquals( iterate( design ), walker.collect( design, SELF ) );
+
+		// the walker can be reused.
+
+		assertEquals( iterate( design ), walker.collect( design, SELF ) );
+	}
+
+	/**
+	 * Only the elements accepted by the filter are visited, and the visitor
+	 * can skip the contents of an element.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testFilter( ) throws Exception
+	{
+		ElementTypeFilter filter = new ElementTypeFilter(
+				ReportDesignConstants.CELL_ELEMENT );
+		List<DesignElement> cells = new ElementTreeWalker( design, filter )
+				.collect( design, SELF );
+
+		List<DesignElement> expected = new ArrayList<DesignElement>( );
+		Iterator<DesignElement> iter = new ContentIterator( design, design );
+		while ( iter.hasNext( ) )
+		{
+			DesignElement element = iter.next( );
+			if ( ReportDesignConstants.CELL_ELEMENT.equals( element
+					.getDefn( ).getName( ) ) )
+				expected.add( element );
+		}
+		assertEquals( expected, cells );
+		assertFalse( cells.isEmpty( ) );
+
+		assertFalse( filter.mayContain( MetaDataDictionary.getInstance( )
+				.getElement( ReportDesignConstants.STYLE_ELEMENT ) ) );
+		assertTrue( filter.mayContain( design.getDefn( ) ) );
+
+		// the visitor stops at the first level of cells.
+
+		final List<DesignElement> outerCells = new ArrayList<DesignElement>( );
+		new ElementTreeWalker( design, filter ).walk( design,
+				new IElementTreeVisitor( ) {
+
+					public boolean visit( DesignElement element )
+					{
+						outerCells.add( element );
+						return false;
+					}
+				} );
+		assertTrue( outerCells.size( ) < cells.size( ) );
+	}
+
+	/**
+	 * The parallel collecting returns the same results as the sequential one.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testParallelCollect( ) throws Exception
+	{
+		ExecutorService executor = Executors.newFixedThreadPool( 4 );
+		try
+		{
+			ElementTreeWalker walker = new ElementTreeWalker( design );
+			assertEquals( walker.collect( design, SELF ), walker.collect(
+					design, SELF, executor ) );
+
+			walker = new ElementTreeWalker( design, new ElementTypeFilter(
+					ReportDesignConstants.LABEL_ITEM ) );
+			assertEquals( walker.collect( design, SELF ), walker.collect(
+					design, SELF, executor ) );
+		}
+		finally
+		{
+			executor.shutdown( );
+		}
+	}
+
+	/**
+	 * Returns the contents of the element with the ContentIterator.
+	 * 
+	 * @param element
+	 *            the element
+	 * @return the contents
+	 */
+
+	private List<DesignElement> iterate( DesignElement element )
+	{
+		List<DesignElement> list = new ArrayList<DesignElement>( );
+		Iterator<DesignElement> iter = new ContentIterator( design, element );
+		while ( iter.hasNext( ) )
+			list.add( iter.next( ) );
+		return list;
+	}
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the primitive long-keyed maps used for element ids and line numbers.
+ */
+
+public class LongHashMapTest extends TestCase
+{
+
+	/**
+	 * Tests put, get and remove against <code>HashMap</code> with random
+	 * keys, including the zero key and clustered keys.
+	 */
+
+	public void testRandomOperations( )
+	{
+		LongHashMap<String> map = new LongHashMap<String>( );
+		Map<Long, String> expected = new HashMap<Long, String>( );
+
+		Random random = new Random( 2004 );
+		for ( int i = 0; i < 20000; i++ )
+		{
+			long key = random.nextInt( 3 ) == 0
+					? random.nextLong( )
+					: random.nextInt( 512 );
+			Long keyObj = Long.valueOf( key );
+
+			if ( random.nextInt( 3 ) == 0 )
+			{
+				assertEquals( expected.remove( keyObj ), map.remove( key ) );
+			}
+			else
+			{
+				String value = String.valueOf( i );
+				assertEquals( expected.put( keyObj, value ), map.put( key,
+						value ) );
+			}
+
+			assertEquals( expected.size( ), map.size( ) );
+		}
+
+		for ( Long key : expected.keySet( ) )
+			assertEquals( expected.get( key ), map.get( key.longValue( ) ) );
+
+		for ( int i = 0; i < 512; i++ )
+			assertEquals( expected.containsKey( Long.valueOf( i ) ), map
+					.containsKey( i ) );
+
+		List<String> values = map.values( );
+		assertEquals( expected.size( ), values.size( ) );
+		assertTrue( values.containsAll( expected.values( ) ) );
+
+		map.clear( );
+		assertTrue( map.isEmpty( ) );
+		assertNull( map.get( 0 ) );
+		assertEquals( 0, map.values( ).size( ) );
+	}
+
+	/**
+	 * Tests that the sequential ids of elements are removed and added again
+	 * without losing entries.
+	 */
+
+	public void testSequentialIds( )
+	{
+		LongHashMap<Long> map = new LongHashMap<Long>( 4 );
+		for ( long id = 1; id <= 10000; id++ )
+			map.put( id, Long.valueOf( id ) );
+
+		for ( long id = 1; id <= 10000; id += 2 )
+			assertEquals( Long.valueOf( id ), map.remove( id ) );
+
+		assertEquals( 5000, map.size( ) );
+		for ( long id = 1; id <= 10000; id++ )
+		{
+			if ( id % 2 == 0 )
+				assertEquals( Long.valueOf( id ), map.get( id ) );
+			else
+				assertNull( map.get( id ) );
+		}
+
+		List<Long> values = new ArrayList<Long>( map.values( ) );
+		assertEquals( 5000, values.size( ) );
+	}
+
+	/**
+	 * Tests the long-to-int map.
+	 */
+
+	public void testLongIntMap( )
+	{
+		LongIntHashMap map = new LongIntHashMap( );
+		assertEquals( 1, map.get( 10, 1 ) );
+
+		for ( int i = 0; i < 1000; i++ )
+			map.put( i, i * 2 );
+		map.put( 10, 7 );
+
+		assertEquals( 1000, map.size( ) );
+		assertEquals( 0, map.get( 0, 1 ) );
+		assertEquals( 7, map.get( 10, 1 ) );
+		assertEquals( 1998, map.get( 999, 1 ) );
+		assertEquals( 1, map.get( 1000, 1 ) );
+	}
+}
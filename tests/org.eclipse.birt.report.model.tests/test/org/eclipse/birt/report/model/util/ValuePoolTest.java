@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2004 Actuate Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Actuate Corporation  - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.birt.report.model.util;
+
+import junit.framework.TestCase;
+
+import org.eclipse.birt.report.model.api.Expression;
+
+/**
+ * Tests the pool of canonical strings and expressions read by the parser.
+ */
+
+public class ValuePoolTest extends TestCase
+{
+
+	/**
+	 * Tests that equal strings and expressions share one instance, and that
+	 * expressions of different types are not shared.
+	 */
+
+	public void testCanonicalValues( )
+	{
+		ValuePool pool = new ValuePool( null );
+
+		String value = pool.getString( new String( "row[\"NAME\"]" ) ); //$NON-NLS-1$
+		assertTrue( value == pool.getString( new String( "row[\"NAME\"]" ) ) ); //$NON-NLS-1$
+		assertNull( pool.getString( null ) );
+
+		Expression expr = pool.getExpression( new String( "row[\"NAME\"]" ), //$NON-NLS-1$
+				null );
+		assertTrue( expr == pool.getExpression( new String( "row[\"NAME\"]" ), //$NON-NLS-1$
+				null ) );
+		assertTrue( value == expr.getExpression( ) );
+
+		Expression constant = pool.getExpression( "row[\"NAME\"]", //$NON-NLS-1$
+				"constant" ); //$NON-NLS-1$
+		assertTrue( expr != constant );
+		assertEquals( "constant", constant.getUserDefinedType( ) ); //$NON-NLS-1$
+
+		StringBuffer buffer = new StringBuffer( );
+		for ( int i = 0; i < 300; i++ )
+			buffer.append( 'a' );
+		String longValue = buffer.toString( );
+		assertTrue( longValue == pool.getString( longValue ) );
+		assertTrue( pool.getExpression( longValue, null ) != pool
+				.getExpression( longValue, null ) );
+	}
+
+	/**
+	 * Tests that pools of different parses share values through the weak pool
+	 * of the session.
+	 */
+
+	public void testSharedPool( )
+	{
+		ValuePool sessionPool = ValuePool.newWeakPool( );
+		ValuePool pool1 = new ValuePool( sessionPool );
+		ValuePool pool2 = new ValuePool( sessionPool );
+
+		String value = pool1.getString( new String( "dataSet1" ) ); //$NON-NLS-1$
+		assertTrue( value == pool2.getString( new String( "dataSet1" ) ) ); //$NON-NLS-1$
+
+		Expression expr = pool1.getExpression( new String( "1 + 1" ), null ); //$NON-NLS-1$
+		assertTrue( expr == pool2.getExpression( new String( "1 + 1" ), null ) ); //$NON-NLS-1$
+
+		assertTrue( new ValuePool( null ).getString( new String( "dataSet1" ) ) != value ); //$NON-NLS-1$
+	}
+}
@@ -12,7 +12,9 @@
 package org.eclipse.birt.report.model.util;
 
 import java.util.Iterator;
+import java.util.List;
 
+import org.eclipse.birt.report.model.api.ComputedColumnHandle;
 import org.eclipse.birt.report.model.api.EmbeddedImageHandle;
 import org.eclipse.birt.report.model.api.Expression;
 import org.eclipse.birt.report.model.api.ExtendedItemHandle;
@@ -27,10 +29,14 @@ import org.eclipse.birt.report.model.api.ResultSetColumnHandle;
 import org.eclipse.birt.report.model.api.RowHandle;
 import org.eclipse.birt.report.model.api.ScalarParameterHandle;
 import org.eclipse.birt.report.model.api.SlotHandle;
+import org.eclipse.birt.report.model.api.StructureFactory;
 import org.eclipse.birt.report.model.api.core.IModuleModel;
+import org.eclipse.birt.report.model.api.elements.structures.ComputedColumn;
 import org.eclipse.birt.report.model.api.elements.structures.StyleRule;
 import org.eclipse.birt.report.model.api.util.XPathUtil;
 import org.eclipse.birt.report.model.core.DesignElement;
+import org.eclipse.birt.report.model.core.XPathIndex;
+import org.eclipse.birt.report.model.elements.interfaces.IReportItemModel;
 import org.eclipse.birt.report.model.elements.interfaces.ITextItemModel;
 
 /**
@@ -303,4 +309,109 @@ public class XPathUtilTest extends BaseTestCase
 		assertTrue( retValue instanceof Expression );
 		assertEquals( "value1 expression", retValue.toString( ) ); //$NON-NLS-1$
 	}
+
+	/**
+	 * Tests that the resolved xpath is kept until the module is changed.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testGetInstanceAfterChange( ) throws Exception
+	{
+		openDesign( INPUT_FILE );
+
+		String xpath = "/report/body/image[@id=\"9\"]"; //$NON-NLS-1$
+		ImageHandle image = (ImageHandle) XPathUtil.getInstance( designHandle,
+				xpath );
+		assertNotNull( image );
+		assertSame( image, XPathUtil.getInstance( designHandle, xpath ) );
+
+		image.drop( );
+		assertNull( XPathUtil.getInstance( designHandle, xpath ) );
+
+		designHandle.getCommandStack( ).undo( );
+		assertSame( image, XPathUtil.getInstance( designHandle, xpath ) );
+
+		xpath = "/report/list-property[@name=\"images\"]/structure[1]"; //$NON-NLS-1$
+		assertTrue( XPathUtil.getInstance( designHandle, xpath ) instanceof
+				EmbeddedImageHandle );
+
+		PropertyHandle images = designHandle
+				.getPropertyHandle( IModuleModel.IMAGES_PROP );
+		while ( images.getListValue( ) != null
+				&& !images.getListValue( ).isEmpty( ) )
+			images.removeItem( 0 );
+		assertNull( XPathUtil.getInstance( designHandle, xpath ) );
+	}
+
+	/**
+	 * Tests that the resolved xpaths are only dropped by the changes that may
+	 * change them, such as the name and list changes, and not by the simple
+	 * property changes.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testXPathIndexInvalidation( ) throws Exception
+	{
+		openDesign( INPUT_FILE );
+
+		XPathIndex index = designHandle.getModule( ).getXPathIndex( );
+		ImageHandle image = (ImageHandle) XPathUtil.getInstance( designHandle,
+				"/report/body/image[@id=\"9\"]" ); //$NON-NLS-1$
+
+		long version = index.getVersion( );
+		image.setWidth( "2in" ); //$NON-NLS-1$
+		designHandle.getCommandStack( ).undo( );
+		designHandle.getCommandStack( ).redo( );
+		assertEquals( version, index.getVersion( ) );
+
+		List columns = image
+				.getListProperty( IReportItemModel.BOUND_DATA_COLUMNS_PROP );
+		int count = columns == null ? 0 : columns.size( );
+		String xpath = "/report/body/image[@id=\"9\"]/list-property[@name=\"boundDataColumns\"]/structure[" //$NON-NLS-1$
+				+ ( count + 1 ) + "]"; //$NON-NLS-1$
+		assertNull( XPathUtil.getInstance( designHandle, xpath ) );
+
+		ComputedColumn column = StructureFactory.newComputedColumn( image,
+				"newColumn" ); //$NON-NLS-1$
+		column.setExpression( "row[\"a\"]" ); //$NON-NLS-1$
+		image.addColumnBinding( column, false );
+		assertTrue( index.getVersion( ) > version );
+		assertTrue( XPathUtil.getInstance( designHandle, xpath ) instanceof
+				ComputedColumnHandle );
+
+		version = index.getVersion( );
+		image.setName( "newImageName" ); //$NON-NLS-1$
+		assertTrue( index.getVersion( ) > version );
+	}
+
+	/**
+	 * Tests that a full xpath index drops the least recently used result
+	 * instead of all the results.
+	 * 
+	 * @throws Exception
+	 */
+
+	public void testXPathIndexEviction( ) throws Exception
+	{
+		openDesign( INPUT_FILE );
+
+		XPathIndex index = designHandle.getModule( ).getXPathIndex( );
+		index.invalidate( );
+		long version = index.getVersion( );
+
+		for ( int i = 0; i < 4096; i++ )
+			index.put( "/xpath" + i, version, null ); //$NON-NLS-1$
+
+		// touches the first result so that the second one is the eldest.
+
+		assertNull( index.get( "/xpath0" ) ); //$NON-NLS-1$
+		index.put( "/xpath4096", version, null ); //$NON-NLS-1$
+
+		assertNull( index.get( "/xpath0" ) ); //$NON-NLS-1$
+		assertSame( XPathIndex.NOT_CACHED, index.get( "/xpath1" ) ); //$NON-NLS-1$
+		assertNull( index.get( "/xpath2" ) ); //$NON-NLS-1$
+		assertNull( index.get( "/xpath4096" ) ); //$NON-NLS-1$
+	}
 }